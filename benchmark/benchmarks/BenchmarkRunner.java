@@ -0,0 +1,40 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suite in throughput mode with the GC profiler, so that each benchmark reports both its
+ * throughput (ops/s) and its allocation rate ({@code gc.alloc.rate.norm} - bytes per operation).
+ * The results are written to {@code benchmark-results.json} as well.
+ * <p>
+ * The arguments are the usual JMH command line options, e.g. a regular expression of the benchmarks to run:
+ * {@code BenchmarkRunner RayTracerBenchmark} or {@code BenchmarkRunner -p scene=phong RayTracerBenchmark}.
+ * Without arguments the whole suite is run.
+ */
+public final class BenchmarkRunner {
+    /** Don't let anyone instantiate this class */
+    private BenchmarkRunner() {}
+
+    /**
+     * Run the benchmarks
+     * @param  args                       JMH command line options
+     * @throws RunnerException            if a benchmark fails
+     * @throws CommandLineOptionException if the options are wrong
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .mode(Mode.Throughput)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("benchmark-results.json")
+                .build()).run();
+    }
+}
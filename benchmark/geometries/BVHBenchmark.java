@@ -0,0 +1,77 @@
+package geometries;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of closest intersection search in a BVH against the flat list of geometries.
+ * The scene is a cloud of random small triangles, the rays are shot from the origin into the cloud.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BVHBenchmark {
+    /** amount of rays traced in each benchmark invocation */
+    private static final int RAYS = 256;
+
+    /** amount of triangles in the scene */
+    @Param({ "100", "1000", "10000" })
+    public int triangles;
+
+    /** the flat list of the triangles */
+    private Geometries flat;
+    /** the hierarchy over the same triangles */
+    private BVH bvh;
+    /** the traced rays */
+    private Ray[] rays;
+
+    /** Build the scene and the rays */
+    @Setup
+    public void setup() {
+        Random random = new Random(5785);
+        flat = new Geometries();
+        for (int k = 0; k < triangles; ++k) {
+            Point p = new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100),
+                    random.nextDouble(-300, -100));
+            flat.add(new Triangle(p, p.add(new Vector(random.nextDouble(1, 5), 0, 1)),
+                    p.add(new Vector(0, random.nextDouble(1, 5), 1))));
+        }
+        bvh = new BVH(flat);
+        rays = new Ray[RAYS];
+        for (int k = 0; k < RAYS; ++k)
+            rays[k] = new Ray(Point.ZERO, new Vector(random.nextDouble(-0.5, 0.5), random.nextDouble(-0.5, 0.5), -1));
+        // build the tree outside of the measurement
+        bvh.findClosestIntersection(rays[0]);
+    }
+
+    /**
+     * Closest intersections by testing every triangle
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public void flatList(Blackhole blackhole) {
+        for (Ray ray : rays)
+            blackhole.consume(flat.findClosestIntersection(ray));
+    }
+
+    /**
+     * Closest intersections by front-to-back traversal of the hierarchy
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public void hierarchy(Blackhole blackhole) {
+        for (Ray ray : rays)
+            blackhole.consume(bvh.findClosestIntersection(ray));
+    }
+}
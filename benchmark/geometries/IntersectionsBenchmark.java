@@ -0,0 +1,115 @@
+package geometries;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the ray intersections of the basic geometries - both the list of all the intersections and the
+ * closest intersection query used by the ray tracer.
+ * The rays are shot from the origin in a cone around the geometry so that about half of them hit it.
+ * The analytic cylinder is compared with a mesh of the same cylinder tessellated into {@value #SEGMENTS} sides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntersectionsBenchmark {
+    /** amount of rays traced in each benchmark invocation */
+    private static final int RAYS = 1024;
+    /** amount of the sides of the tessellated cylinder */
+    private static final int SEGMENTS = 64;
+
+    /** the intersected geometry */
+    @Param({ "sphere", "triangle", "polygon", "plane", "cylinder", "cylinderMesh" })
+    public String geometry;
+
+    /** the geometry instance */
+    private Intersectable intersectable;
+    /** the traced rays */
+    private Ray[] rays;
+
+    /** Build the geometry and the rays */
+    @Setup
+    public void setup() {
+        intersectable = switch (geometry) {
+            case "sphere" -> new Sphere(50, new Point(0, 0, -100));
+            case "triangle" -> new Triangle(new Point(-70, -70, -100), new Point(70, -70, -100),
+                    new Point(0, 70, -100));
+            case "polygon" -> new Polygon(new Point(-50, -50, -100), new Point(50, -50, -100),
+                    new Point(70, 20, -100), new Point(0, 70, -100), new Point(-70, 20, -100));
+            case "plane" -> new Plane(new Point(0, 0, -100), new Vector(0.1, 0.2, 1));
+            case "cylinder" -> new Cylinder(40, new Ray(new Point(0, -50, -100), new Vector(0, 1, 0)), 100);
+            case "cylinderMesh" -> tessellatedCylinder(40, new Point(0, -50, -100), 100);
+            default -> throw new IllegalArgumentException("Unknown geometry: " + geometry);
+        };
+        Random random = new Random(9172);
+        rays = new Ray[RAYS];
+        for (int k = 0; k < RAYS; ++k)
+            rays[k] = new Ray(Point.ZERO, new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), -1));
+    }
+
+    /**
+     * Tessellate a cylinder along the y axis - {@value #SEGMENTS} side quads (two triangles each) and two
+     * triangle fans for the bases
+     * @param  radius the radius of the cylinder
+     * @param  bottom the center of the bottom base
+     * @param  height the height of the cylinder
+     * @return        the mesh of the cylinder
+     */
+    private static TriangleMesh tessellatedCylinder(double radius, Point bottom, double height) {
+        // the rims vertices (bottom, top) around the axis, then the bases centers
+        double[] vertices = new double[3 * (2 * SEGMENTS + 2)];
+        for (int k = 0; k < SEGMENTS; ++k) {
+            double angle = 2 * Math.PI * k / SEGMENTS;
+            double x = bottom.getX() + radius * Math.cos(angle), z = bottom.getZ() + radius * Math.sin(angle);
+            vertices[6 * k] = vertices[6 * k + 3] = x;
+            vertices[6 * k + 1] = bottom.getY();
+            vertices[6 * k + 4] = bottom.getY() + height;
+            vertices[6 * k + 2] = vertices[6 * k + 5] = z;
+        }
+        int bottomCenter = 2 * SEGMENTS, topCenter = bottomCenter + 1;
+        vertices[3 * bottomCenter] = vertices[3 * topCenter] = bottom.getX();
+        vertices[3 * bottomCenter + 1] = bottom.getY();
+        vertices[3 * topCenter + 1] = bottom.getY() + height;
+        vertices[3 * bottomCenter + 2] = vertices[3 * topCenter + 2] = bottom.getZ();
+
+        int[] indices = new int[3 * 4 * SEGMENTS];
+        int i = 0;
+        for (int k = 0; k < SEGMENTS; ++k) {
+            int b0 = 2 * k, t0 = b0 + 1, b1 = 2 * ((k + 1) % SEGMENTS), t1 = b1 + 1;
+            for (int index : new int[] { b0, b1, t1, b0, t1, t0, bottomCenter, b1, b0, topCenter, t0, t1 })
+                indices[i++] = index;
+        }
+        return new TriangleMesh(vertices, indices);
+    }
+
+    /**
+     * All the intersections of the rays
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public void calculateIntersections(Blackhole blackhole) {
+        for (Ray ray : rays)
+            blackhole.consume(intersectable.calculateIntersections(ray));
+    }
+
+    /**
+     * The closest intersections of the rays
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public void findClosestIntersection(Blackhole blackhole) {
+        for (Ray ray : rays)
+            blackhole.consume(intersectable.findClosestIntersection(ray));
+    }
+}
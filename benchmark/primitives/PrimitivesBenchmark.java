@@ -0,0 +1,134 @@
+package primitives;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the allocation-free math path against the immutable Point and Vector operations.
+ * Each pair of benchmarks does the same calculation - a camera ray through each pixel of a small view plane
+ * and the sphere intersection kernel. Run with the GC profiler ({@code -prof gc}) to compare the allocation
+ * rates ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimitivesBenchmark {
+    /** amount of pixels along each axis of the view plane */
+    private static final int PIXELS = 32;
+    /** amount of rays in each benchmark invocation */
+    private static final int RAYS = PIXELS * PIXELS;
+
+    /** the camera location */
+    private final Point p0 = new Point(0, 0, 100);
+    /** the camera direction */
+    private final Vector vTo = new Vector(0, 0, -1);
+    /** the camera up direction */
+    private final Vector vUp = new Vector(0, 1, 0);
+    /** the camera right direction */
+    private final Vector vRight = vTo.crossProduct(vUp);
+    /** the sphere center */
+    private final Point center = new Point(1, 2, -50);
+    /** the sphere radius */
+    private final double radius = 30;
+    /** rays through the pixels for the intersection kernels */
+    private Ray[] rays;
+
+    /** Prepare the rays */
+    @Setup
+    public void setup() {
+        rays = new Ray[RAYS];
+        for (int i = 0; i < PIXELS; ++i)
+            for (int j = 0; j < PIXELS; ++j)
+                rays[i * PIXELS + j] = immutableRay(j, i);
+    }
+
+    /**
+     * Ray through a pixel with the immutable operations (the former Camera.constructRay)
+     * @param  j pixel column
+     * @param  i pixel row
+     * @return   the ray
+     */
+    private Ray immutableRay(int j, int i) {
+        double yI = -(i - (PIXELS - 1) / 2d) * 100 / PIXELS;
+        double xJ = (j - (PIXELS - 1) / 2d) * 100 / PIXELS;
+        Point pIJ = p0;
+        if (!Util.isZero(xJ)) pIJ = pIJ.add(vRight.scale(xJ));
+        if (!Util.isZero(yI)) pIJ = pIJ.add(vUp.scale(yI));
+        pIJ = pIJ.add(vTo.scale(100));
+        return new Ray(p0, pIJ.subtract(p0).normalize());
+    }
+
+    /**
+     * Ray through a pixel calculated in a scratch vector
+     * @param  j pixel column
+     * @param  i pixel row
+     * @return   the ray
+     */
+    private Ray scratchRay(int j, int i) {
+        double yI = -(i - (PIXELS - 1) / 2d) * 100 / PIXELS;
+        double xJ = (j - (PIXELS - 1) / 2d) * 100 / PIXELS;
+        MutableVector pIJ = new MutableVector(p0);
+        if (!Util.isZero(xJ)) pIJ.addScaled(vRight, xJ);
+        if (!Util.isZero(yI)) pIJ.addScaled(vUp, yI);
+        pIJ.addScaled(vTo, 100);
+        return new Ray(p0, pIJ.subtract(p0));
+    }
+
+    /**
+     * Camera rays with the immutable operations
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public void constructRayImmutable(Blackhole blackhole) {
+        for (int i = 0; i < PIXELS; ++i)
+            for (int j = 0; j < PIXELS; ++j)
+                blackhole.consume(immutableRay(j, i));
+    }
+
+    /**
+     * Camera rays with a scratch vector
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public void constructRayScratch(Blackhole blackhole) {
+        for (int i = 0; i < PIXELS; ++i)
+            for (int j = 0; j < PIXELS; ++j)
+                blackhole.consume(scratchRay(j, i));
+    }
+
+    /**
+     * Distance of the sphere chord from its center with the immutable operations
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public void sphereKernelImmutable(Blackhole blackhole) {
+        for (Ray ray : rays) {
+            Vector u = center.subtract(ray.getHead());
+            double tm = u.dotProduct(ray.getDirection());
+            blackhole.consume(radius * radius - (u.lengthSquared() - tm * tm));
+        }
+    }
+
+    /**
+     * Distance of the sphere chord from its center with a scratch vector
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public void sphereKernelScratch(Blackhole blackhole) {
+        MutableVector u = new MutableVector();
+        for (Ray ray : rays) {
+            u.setSubtract(center, ray.getHead());
+            double tm = u.dotProduct(ray.getDirection());
+            blackhole.consume(radius * radius - (u.lengthSquared() - tm * tm));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package renderer;
+
+import static java.awt.Color.BLUE;
+import static java.awt.Color.WHITE;
+
+import geometries.*;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import primitives.*;
+import scene.Scene;
+
+/**
+ * The scenes of RenderTests and LightsTests rebuilt for the benchmarks, so that the benchmarks trace the same
+ * rays the tests render
+ */
+final class BenchmarkScenes {
+    /** the names of the scenes, for the benchmark parameters */
+    static final String TWO_COLOR = "twoColor", MULTI_COLOR = "multiColor", PHONG = "phong",
+            LIGHT_SPHERE_SPOT = "lightSphereSpot", LIGHT_TRIANGLES_POINT = "lightTrianglesPoint";
+
+    /** Don't let anyone instantiate this class */
+    private BenchmarkScenes() {}
+
+    /**
+     * Build a scene by its name
+     * @param  name the scene name
+     * @return      the scene
+     */
+    static Scene scene(String name) {
+        return switch (name) {
+            case TWO_COLOR -> {
+                Scene scene = new Scene("Two color").setBackground(new Color(75, 127, 90))
+                        .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1.0));
+                scene.geometries.add(new Sphere(50d, new Point(0, 0, -100)),
+                        new Triangle(new Point(-100, 0, -100), new Point(0, 100, -100), new Point(-100, 100, -100)),
+                        new Triangle(new Point(-100, 0, -100), new Point(0, -100, -100), new Point(-100, -100, -100)),
+                        new Triangle(new Point(100, 0, -100), new Point(0, -100, -100), new Point(100, -100, -100)));
+                yield scene;
+            }
+            case MULTI_COLOR -> {
+                Scene scene = new Scene("Multi color")
+                        .setAmbientLight(new AmbientLight(new Color(WHITE), new Double3(0.2)));
+                scene.geometries.add(
+                        new Sphere(50, new Point(0, 0, -100)).setMaterial(new Material().setkA(new Double3(0.4))),
+                        new Triangle(new Point(-100, 0, -100), new Point(0, 100, -100), new Point(-100, 100, -100))
+                                .setMaterial(new Material().setkA(new Double3(0, 0.8, 0))),
+                        new Triangle(new Point(-100, 0, -100), new Point(0, -100, -100), new Point(-100, -100, -100))
+                                .setMaterial(new Material().setkA(new Double3(0.8, 0, 0))),
+                        new Triangle(new Point(100, 0, -100), new Point(0, -100, -100), new Point(100, -100, -100))
+                                .setMaterial(new Material().setkA(new Double3(0, 0, 0.8))));
+                yield scene;
+            }
+            case PHONG -> {
+                Scene scene = new Scene("Phong Model Lighting Test")
+                        .setAmbientLight(new AmbientLight(new Color(WHITE), new Double3(0.1)));
+                scene.geometries.add(
+                        new Sphere(50, new Point(0, 0, -100))
+                                .setMaterial(new Material().setkA(0.1).setkD(0.5).setkS(0.5).setnShininess(300)),
+                        new Triangle(new Point(-100, 0, -100), new Point(0, 100, -100), new Point(-100, 100, -100))
+                                .setMaterial(new Material().setkA(0.1).setkD(0.7).setkS(0.3).setnShininess(150)));
+                scene.lights.add(new PointLight(new Color(700, 400, 400), new Point(50, 50, 0)));
+                yield scene;
+            }
+            case LIGHT_SPHERE_SPOT -> {
+                Scene scene = new Scene("Test scene");
+                scene.geometries.add(new Sphere(50d, new Point(0, 0, -50))
+                        .setEmission(new Color(BLUE).reduce(2))
+                        .setMaterial(new Material().setkD(0.5).setkS(0.5).setnShininess(301)));
+                scene.lights.add(new SpotLight(new Color(800, 500, 0), new Point(-50, -50, 25), new Vector(1, 1, -0.5))
+                        .setkL(0.001).setkQ(0.0001));
+                yield scene;
+            }
+            case LIGHT_TRIANGLES_POINT -> {
+                Scene scene = new Scene("Test scene")
+                        .setAmbientLight(new AmbientLight(new Color(WHITE), new Double3(0.2, 0.2, 0.2)));
+                Material material = new Material().setkD(new Double3(0.2, 0.6, 0.4))
+                        .setkS(new Double3(0.2, 0.4, 0.3)).setnShininess(301);
+                scene.geometries.add(
+                        new Triangle(new Point(-110, -110, -150), new Point(95, 100, -150), new Point(110, -110, -150))
+                                .setMaterial(material),
+                        new Triangle(new Point(-110, -110, -150), new Point(95, 100, -150), new Point(-75, 78, 100))
+                                .setMaterial(material));
+                scene.lights.add(new PointLight(new Color(800, 500, 250), new Point(30, 10, -100))
+                        .setkL(0.001).setkQ(0.0002));
+                yield scene;
+            }
+            default -> throw new IllegalArgumentException("Unknown benchmark scene: " + name);
+        };
+    }
+
+    /**
+     * Build the camera of a scene as in its test, without the resolution
+     * @param  name  the scene name
+     * @param  scene the scene
+     * @return       the camera builder
+     */
+    static Camera.Builder camera(String name, Scene scene) {
+        Camera.Builder builder = Camera.getBuilder().setRayTracer(scene, RayTracerType.SIMPLE);
+        return switch (name) {
+            case TWO_COLOR, MULTI_COLOR, PHONG -> builder
+                    .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                    .setVpDistance(100).setVpSize(500, 500);
+            case LIGHT_SPHERE_SPOT -> builder
+                    .setLocation(new Point(0, 0, 1000)).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                    .setVpSize(150, 150).setVpDistance(1000);
+            case LIGHT_TRIANGLES_POINT -> builder
+                    .setLocation(new Point(0, 0, 1000)).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                    .setVpSize(200, 200).setVpDistance(1000);
+            default -> throw new IllegalArgumentException("Unknown benchmark scene: " + name);
+        };
+    }
+}
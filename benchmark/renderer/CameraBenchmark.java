@@ -0,0 +1,47 @@
+package renderer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the camera ray generation - a ray through every pixel of the view plane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CameraBenchmark {
+    /** amount of pixels along each axis of the view plane */
+    private static final int PIXELS = 100;
+
+    /** the camera */
+    private Camera camera;
+
+    /** Build the camera */
+    @Setup
+    public void setup() {
+        camera = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 1000)).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpSize(200, 200).setVpDistance(1000)
+                .setResolution(PIXELS, PIXELS)
+                .build();
+    }
+
+    /**
+     * Rays through all the pixels
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(PIXELS * PIXELS)
+    public void constructRay(Blackhole blackhole) {
+        for (int i = 0; i < PIXELS; ++i)
+            for (int j = 0; j < PIXELS; ++j)
+                blackhole.consume(camera.constructRay(PIXELS, PIXELS, j, i));
+    }
+}
@@ -0,0 +1,52 @@
+package renderer;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Color;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of writing the pixels into the image buffer and of tone mapping the buffer into the image
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageWriterBenchmark {
+    /** amount of pixels along each axis of the image */
+    private static final int PIXELS = 500;
+
+    /** the image writer */
+    private ImageWriter imageWriter;
+    /** a palette of the written colors */
+    private final Color[] colors = { new Color(75, 127, 90), new Color(255, 191, 191), new Color(1000, 20, 0),
+            new Color(12.5, 250.75, 33.3) };
+
+    /** Build the image writer */
+    @Setup
+    public void setup() {
+        imageWriter = new ImageWriter(PIXELS, PIXELS);
+    }
+
+    /** Write all the pixels of the image */
+    @Benchmark
+    @OperationsPerInvocation(PIXELS * PIXELS)
+    public void writePixel() {
+        for (int i = 0; i < PIXELS; ++i)
+            for (int j = 0; j < PIXELS; ++j)
+                imageWriter.writePixel(j, i, colors[(i + j) & 3]);
+    }
+
+    /**
+     * Tone map all the pixels of the image into 8 bits
+     * @return the image
+     */
+    @Benchmark
+    @OperationsPerInvocation(PIXELS * PIXELS)
+    public BufferedImage toneMap() {
+        return imageWriter.getImage();
+    }
+}
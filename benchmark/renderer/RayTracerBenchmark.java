@@ -0,0 +1,56 @@
+package renderer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import primitives.Ray;
+import scene.Scene;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of tracing the camera rays of the RenderTests and LightsTests scenes.
+ * The rays are generated in advance, so only the intersections and the shading are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RayTracerBenchmark {
+    /** amount of pixels along each axis of the view plane */
+    private static final int PIXELS = 100;
+
+    /** the traced scene */
+    @Param({ BenchmarkScenes.TWO_COLOR, BenchmarkScenes.MULTI_COLOR, BenchmarkScenes.PHONG,
+            BenchmarkScenes.LIGHT_SPHERE_SPOT, BenchmarkScenes.LIGHT_TRIANGLES_POINT })
+    public String scene;
+
+    /** the ray tracer of the scene */
+    private SimpleRayTracer rayTracer;
+    /** the camera rays through all the pixels */
+    private Ray[] rays;
+
+    /** Build the scene and the camera rays */
+    @Setup
+    public void setup() {
+        Scene benchmarkScene = BenchmarkScenes.scene(scene);
+        Camera camera = BenchmarkScenes.camera(scene, benchmarkScene).setResolution(PIXELS, PIXELS).build();
+        rayTracer = new SimpleRayTracer(benchmarkScene);
+        rays = new Ray[PIXELS * PIXELS];
+        for (int i = 0; i < PIXELS; ++i)
+            for (int j = 0; j < PIXELS; ++j)
+                rays[i * PIXELS + j] = camera.constructRay(PIXELS, PIXELS, j, i);
+    }
+
+    /**
+     * Trace all the camera rays
+     * @param blackhole sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(PIXELS * PIXELS)
+    public void traceRay(Blackhole blackhole) {
+        for (Ray ray : rays)
+            blackhole.consume(rayTracer.traceRay(ray));
+    }
+}
@@ -0,0 +1,221 @@
+package geometries;
+
+import primitives.Ray;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Class BVH is a collection of geometries accelerated by a Bounding Volume Hierarchy.
+ * The tree is built over the bounding boxes of all the leaf geometries (nested collections are flattened)
+ * with the surface area heuristic (SAH) and is kept in flat arrays in depth-first order.
+ * The tree is built on the first query and is rebuilt after geometries are added to the hierarchy or to any
+ * of its nested collections.
+ * Unbounded geometries (planes, tubes) are kept out of the tree and tested for every ray.
+ * A built tree can be written and restored over the same geometries (see {@link #writeTree(DataOutput)}).
+ */
+public class BVH extends Geometries {
+    /** the built tree, or null if it must be (re)built */
+    private volatile Tree tree;
+
+    /**
+     * Constructs an empty hierarchy
+     */
+    public BVH() {
+        super();
+    }
+
+    /**
+     * Constructs a hierarchy over the geometries
+     *
+     * @param geometries the geometries
+     */
+    public BVH(Intersectable... geometries) {
+        super(geometries);
+    }
+
+    @Override
+    protected void changed() {
+        super.changed();
+        tree = null;
+    }
+
+    /**
+     * getter for the tree, building it if needed
+     *
+     * @return the tree
+     */
+    private Tree getTree() {
+        Tree result = tree;
+        if (result == null) {
+            synchronized (this) {
+                result = tree;
+                if (result == null) {
+                    List<Intersectable> leaves = new ArrayList<>();
+                    flatten(leaves);
+                    tree = result = new Tree(leaves, null);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write the tree, building it if needed, to be restored by {@link #readTree(ByteBuffer)}
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    public void writeTree(DataOutput out) throws IOException {
+        getTree().boxes.write(out);
+    }
+
+    /**
+     * Restore a tree written by {@link #writeTree(DataOutput)} instead of building it. The hierarchy must hold the
+     * same geometries, added in the same order, as the written one
+     *
+     * @param in the written tree, at its start - read up to its end
+     * @throws IllegalArgumentException if the written tree is malformed or does not fit the geometries
+     */
+    public void readTree(ByteBuffer in) {
+        BoxTree boxes = new BoxTree(in);
+        List<Intersectable> leaves = new ArrayList<>();
+        flatten(leaves);
+        synchronized (this) {
+            tree = new Tree(leaves, boxes);
+        }
+    }
+
+    /**
+     * finds the closest intersection of a ray with the geometries.
+     * The nodes are visited front to back and a node is skipped when its box is entered farther than the closest
+     * intersection found so far.
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return the closest intersection, or null if there is none closer than maxDistance
+     */
+    @Override
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        Tree t = getTree();
+        ClosestIntersection closest = new ClosestIntersection(ray, maxDistance);
+        for (Intersectable geometry : t.unbounded)
+            closest.test(geometry);
+        t.boxes.traverse(ray, closest.distance, (first, count, distance) -> {
+            for (int k = first; k < first + count; ++k)
+                closest.test(t.primitives[k]);
+            return closest.distance;
+        });
+        return closest.intersection;
+    }
+
+    /**
+     * checks whether a ray hits any of the geometries closer than the given distance.
+     * The traversal stops at the first geometry hit
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return true if there is an intersection closer than maxDistance
+     */
+    @Override
+    protected boolean hasIntersectionHelper(Ray ray, double maxDistance) {
+        Tree t = getTree();
+        for (Intersectable geometry : t.unbounded)
+            if (geometry.hasIntersection(ray, maxDistance)) return true;
+        // the search distance drops to 0 when a blocker is found
+        return t.boxes.traverse(ray, maxDistance, (first, count, distance) -> {
+            for (int k = first; k < first + count; ++k)
+                if (t.primitives[k].hasIntersection(ray, distance)) return 0;
+            return distance;
+        }) == 0;
+    }
+
+    /**
+     * finds all the intersections of a ray with the geometries whose boxes are crossed by the ray
+     *
+     * @param ray the ray that we want to check intersections with
+     * @return a list of the intersections, or null if there are none
+     */
+    @Override
+    public List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        Tree t = getTree();
+        List<Intersectable> crossed = new ArrayList<>(List.of(t.unbounded));
+        t.boxes.traverse(ray, Double.POSITIVE_INFINITY, (first, count, distance) -> {
+            for (int k = first; k < first + count; ++k)
+                crossed.add(t.primitives[k]);
+            return distance;
+        });
+        List<Intersection> intersections = null;
+        for (Intersectable geometry : crossed) {
+            List<Intersection> geometryIntersections = geometry.calculateIntersections(ray);
+            if (geometryIntersections != null) {
+                if (intersections == null) intersections = new LinkedList<>();
+                intersections.addAll(geometryIntersections);
+            }
+        }
+        return intersections;
+    }
+
+    /**
+     * The immutable built hierarchy - the box tree over the bounded geometries
+     */
+    private static final class Tree {
+        /** the geometries that are not in the tree */
+        private final Intersectable[] unbounded;
+        /** the geometries of the tree ordered by leaves */
+        private final Intersectable[] primitives;
+        /** the tree of the geometries boxes */
+        private final BoxTree boxes;
+
+        /**
+         * Build the hierarchy, or restore it
+         *
+         * @param leaves the leaf geometries
+         * @param built  the restored tree of the bounded leaves, or null to build it
+         * @throws IllegalArgumentException if the restored tree does not fit the bounded leaves
+         */
+        private Tree(List<Intersectable> leaves, BoxTree built) {
+            List<Intersectable> bounded = new ArrayList<>();
+            List<Intersectable> unboundedList = new ArrayList<>();
+            List<BoundingBox> boundedBoxes = new ArrayList<>();
+            for (Intersectable geometry : leaves) {
+                BoundingBox box = geometry.getBoundingBox();
+                if (box == null)
+                    unboundedList.add(geometry);
+                else {
+                    bounded.add(geometry);
+                    boundedBoxes.add(box);
+                }
+            }
+            unbounded = unboundedList.toArray(new Intersectable[0]);
+
+            int n = bounded.size();
+            if (built != null) {
+                if (built.order.length != n)
+                    throw new IllegalArgumentException("The tree is of " + built.order.length
+                            + " geometries instead of " + n);
+                boxes = built;
+            } else {
+                double[] geometryBoxes = new double[6 * n];
+                for (int k = 0; k < n; ++k) {
+                    BoundingBox box = boundedBoxes.get(k);
+                    geometryBoxes[6 * k] = box.minX;
+                    geometryBoxes[6 * k + 1] = box.minY;
+                    geometryBoxes[6 * k + 2] = box.minZ;
+                    geometryBoxes[6 * k + 3] = box.maxX;
+                    geometryBoxes[6 * k + 4] = box.maxY;
+                    geometryBoxes[6 * k + 5] = box.maxZ;
+                }
+                boxes = new BoxTree(geometryBoxes);
+            }
+
+            primitives = new Intersectable[n];
+            for (int k = 0; k < n; ++k)
+                primitives[k] = bounded.get(boxes.order[k]);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * Class BoundingBox represents an axis-aligned bounding box (AABB) in Cartesian
+ * 3-Dimensional coordinate system. The box is used by acceleration structures
+ * for conservative culling of geometries that cannot be hit by a ray.
+ */
+public class BoundingBox {
+    /** relative tolerance of the ray-box test */
+    private static final double TOLERANCE = 1e-9;
+
+    /** the minimal x coordinate of the box */
+    public final double minX;
+    /** the minimal y coordinate of the box */
+    public final double minY;
+    /** the minimal z coordinate of the box */
+    public final double minZ;
+    /** the maximal x coordinate of the box */
+    public final double maxX;
+    /** the maximal y coordinate of the box */
+    public final double maxY;
+    /** the maximal z coordinate of the box */
+    public final double maxZ;
+
+    /**
+     * Constructor to initialize a box with its minimal and maximal coordinates
+     * @param minX the minimal x coordinate
+     * @param minY the minimal y coordinate
+     * @param minZ the minimal z coordinate
+     * @param maxX the maximal x coordinate
+     * @param maxY the maximal y coordinate
+     * @param maxZ the maximal z coordinate
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("Minimal coordinates of a box can't be bigger than the maximal ones");
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructor to initialize the smallest box containing all the given points
+     * @param points the points the box must contain (at least one)
+     */
+    public BoundingBox(Point... points) {
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY, z0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY, z1 = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            x0 = Math.min(x0, p.getX());
+            y0 = Math.min(y0, p.getY());
+            z0 = Math.min(z0, p.getZ());
+            x1 = Math.max(x1, p.getX());
+            y1 = Math.max(y1, p.getY());
+            z1 = Math.max(z1, p.getZ());
+        }
+        if (x0 > x1)
+            throw new IllegalArgumentException("A bounding box must contain at least one point");
+        minX = x0;
+        minY = y0;
+        minZ = z0;
+        maxX = x1;
+        maxY = y1;
+        maxZ = z1;
+    }
+
+    /**
+     * calculates the smallest box containing both this and the other box
+     * @param other the other box
+     * @return a new box containing both boxes
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * checks whether this box overlaps the other box (touching boxes overlap)
+     * @param other the other box
+     * @return true if the boxes have at least one common point
+     */
+    public boolean overlaps(BoundingBox other) {
+        return minX <= other.maxX && other.minX <= maxX
+                && minY <= other.maxY && other.minY <= maxY
+                && minZ <= other.maxZ && other.minZ <= maxZ;
+    }
+
+    /**
+     * checks whether a ray crosses the box (slab test). The test is conservative - a ray touching the box
+     * crosses it
+     * @param ray the ray
+     * @return true if the ray crosses the box in front of its head or the head is inside the box
+     */
+    public boolean intersects(Ray ray) {
+        return intersects(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * checks whether a ray crosses the box before a given distance (slab test). The test is conservative - a ray
+     * touching the box crosses it
+     * @param ray         the ray
+     * @param maxDistance the distance from the ray head beyond which the box is not interesting
+     * @return true if the ray crosses the box in front of its head and before maxDistance or the head is inside the
+     * box
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double tNear = 0, tFar = maxDistance;
+
+        double d = dir.getX(), o = head.getX();
+        if (d == 0) {
+            if (o < minX || o > maxX) return false;
+        } else {
+            double t1 = (minX - o) / d, t2 = (maxX - o) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+        }
+
+        d = dir.getY();
+        o = head.getY();
+        if (d == 0) {
+            if (o < minY || o > maxY) return false;
+        } else {
+            double t1 = (minY - o) / d, t2 = (maxY - o) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+        }
+
+        d = dir.getZ();
+        o = head.getZ();
+        if (d == 0) {
+            if (o < minZ || o > maxZ) return false;
+        } else {
+            double t1 = (minZ - o) / d, t2 = (maxZ - o) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+        }
+        // tolerate rounding errors so that rays grazing the box are never rejected
+        return tNear <= tFar + TOLERANCE * Math.max(1, tFar);
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" +
+                "min=(" + minX + "," + minY + "," + minZ + ")" +
+                ", max=(" + maxX + "," + maxY + "," + maxZ + ")" +
+                '}';
+    }
+}
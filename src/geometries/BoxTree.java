@@ -0,0 +1,475 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bounding volume hierarchy over a set of primitive boxes, shared by the acceleration structures (BVH over
+ * geometries, TriangleMesh over its triangles). The tree is built with the binned surface area heuristic (SAH)
+ * and kept in flat arrays in depth-first order: node k keeps its box in bounds[6k..6k+5], a leaf node keeps
+ * a positive amount of primitives in counts[k] starting at position offsets[k] of {@link #order}, and an inner
+ * node keeps 0 in counts[k], its left child is node k+1 and its right child is node offsets[k].
+ * The tree knows nothing about the primitives themselves - they are intersected by a {@link LeafVisitor}.
+ * A built tree can be written and restored (see {@link #write(DataOutput)}), so it is built once per scene.
+ */
+final class BoxTree {
+    /** amount of bins along an axis for the binned SAH evaluation */
+    private static final int BINS = 16;
+    /** the cost of traversing a node relatively to the cost of intersecting a primitive */
+    private static final double TRAVERSAL_COST = 0.125;
+    /** the maximal amount of primitives in a leaf when splitting is not worth it */
+    private static final int MAX_LEAF_SIZE = 8;
+
+    /** the primitive indices ordered by leaves */
+    final int[] order;
+    /** the boxes of the nodes */
+    private double[] bounds;
+    /** first position in order of a leaf or right child of an inner node */
+    private int[] offsets;
+    /** amount of primitives in a leaf, 0 for an inner node */
+    private int[] counts;
+    /** amount of nodes */
+    private int nodes = 0;
+    /** the depth of the tree */
+    private int depth = 0;
+
+    /** the boxes of the primitives by their positions in order (during the build only) */
+    private double[] boxes;
+    /** the box centers of the primitives by their positions in order (during the build only) */
+    private double[] centroids;
+    /** scratch arrays of a node split, reused by all the nodes (during the build only) */
+    private double[] centroidBounds, binBounds, rightAreas, scales, acc;
+    /** scratch arrays of a node split, reused by all the nodes (during the build only) */
+    private int[] binCounts, rightCounts;
+
+    /**
+     * Visitor of the leaves crossed by a ray
+     */
+    interface LeafVisitor {
+        /**
+         * visit the primitives of a leaf
+         * @param  first       first position of the leaf primitives in {@link #order}
+         * @param  count       amount of the leaf primitives
+         * @param  maxDistance the current search distance
+         * @return             the new search distance - the distance of the closest intersection found so far,
+         *                     0 to stop the traversal, or maxDistance to go on unchanged
+         */
+        double visit(int first, int count, double maxDistance);
+    }
+
+    /**
+     * Build the hierarchy
+     * @param boxes the boxes of the primitives as min x, y, z and max x, y, z of each one (the array is kept only
+     *              during the build and is reordered along with {@link #order})
+     */
+    BoxTree(double[] boxes) {
+        int n = boxes.length / 6;
+        this.boxes = boxes;
+        centroids = new double[3 * n];
+        order = new int[n];
+        for (int k = 0; k < n; ++k) {
+            for (int axis = 0; axis < 3; ++axis)
+                centroids[3 * k + axis] = (boxes[6 * k + axis] + boxes[6 * k + 3 + axis]) / 2;
+            order[k] = k;
+        }
+
+        int maxNodes = Math.max(1, 2 * n - 1);
+        bounds = new double[6 * maxNodes];
+        offsets = new int[maxNodes];
+        counts = new int[maxNodes];
+        centroidBounds = new double[6];
+        binBounds = new double[6 * 3 * BINS];
+        binCounts = new int[3 * BINS];
+        rightAreas = new double[BINS];
+        rightCounts = new int[BINS];
+        scales = new double[3];
+        acc = new double[6];
+        if (n > 0) build(0, n, 1);
+
+        // keep only the used nodes and drop the build data
+        bounds = Arrays.copyOf(bounds, 6 * nodes);
+        offsets = Arrays.copyOf(offsets, nodes);
+        counts = Arrays.copyOf(counts, nodes);
+        this.boxes = null;
+        centroids = null;
+        centroidBounds = binBounds = rightAreas = scales = acc = null;
+        binCounts = rightCounts = null;
+    }
+
+    /**
+     * Restore a hierarchy written by {@link #write(DataOutput)}
+     * @param in the written hierarchy, at its start - read up to its end
+     * @throws IllegalArgumentException if the written hierarchy is malformed
+     */
+    BoxTree(ByteBuffer in) {
+        try {
+            nodes = in.getInt();
+            depth = in.getInt();
+            order = readInts(in, in.getInt());
+            bounds = readDoubles(in, 6 * nodes);
+            offsets = readInts(in, nodes);
+            counts = readInts(in, nodes);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Truncated bounding volume hierarchy", e);
+        }
+        for (int primitive : order)
+            if (primitive < 0 || primitive >= order.length)
+                throw new IllegalArgumentException("Malformed bounding volume hierarchy order");
+        if (depth < 0 || depth > nodes)
+            throw new IllegalArgumentException("Malformed bounding volume hierarchy depth " + depth);
+        // the children of an inner node follow it (depth-first order), so the levels are found in a single pass
+        int[] levels = new int[nodes];
+        if (nodes > 0) levels[0] = 1;
+        for (int node = 0; node < nodes; ++node) {
+            if (counts[node] < 0 || offsets[node] < 0
+                    || (counts[node] > 0 ? offsets[node] + counts[node] > order.length
+                                         : offsets[node] <= node + 1 || offsets[node] >= nodes))
+                throw new IllegalArgumentException("Malformed bounding volume hierarchy node " + node);
+            if (levels[node] > depth)
+                throw new IllegalArgumentException("Bounding volume hierarchy deeper than its depth " + depth);
+            if (counts[node] == 0) {
+                levels[node + 1] = Math.max(levels[node + 1], levels[node] + 1);
+                levels[offsets[node]] = Math.max(levels[offsets[node]], levels[node] + 1);
+            }
+        }
+    }
+
+    /**
+     * Write the hierarchy - its nodes and its order of the primitives
+     * @param  out the output
+     * @throws IOException if the output fails
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(nodes);
+        out.writeInt(depth);
+        out.writeInt(order.length);
+        for (int primitive : order) out.writeInt(primitive);
+        for (double bound : bounds) out.writeDouble(bound);
+        for (int offset : offsets) out.writeInt(offset);
+        for (int count : counts) out.writeInt(count);
+    }
+
+    /**
+     * getter for the box of the whole hierarchy
+     * @return the box of the root node, or null if the hierarchy is empty
+     */
+    BoundingBox getBox() {
+        return nodes == 0 ? null
+                : new BoundingBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+    }
+
+    /**
+     * read an array of numbers
+     * @param  in     the input, read past the numbers
+     * @param  length the amount of numbers
+     * @return        the numbers
+     */
+    static double[] readDoubles(ByteBuffer in, int length) {
+        double[] array = new double[length];
+        in.asDoubleBuffer().get(array);
+        in.position(in.position() + Double.BYTES * length);
+        return array;
+    }
+
+    /**
+     * read an array of integers
+     * @param  in     the input, read past the integers
+     * @param  length the amount of integers
+     * @return        the integers
+     */
+    static int[] readInts(ByteBuffer in, int length) {
+        int[] array = new int[length];
+        in.asIntBuffer().get(array);
+        in.position(in.position() + Integer.BYTES * length);
+        return array;
+    }
+
+    /**
+     * Visit the leaves whose boxes are crossed by a ray before the search distance, nearer child first.
+     * A node is skipped when its box is entered farther than the current search distance, so the search
+     * shrinks as the visitor finds closer intersections.
+     * @param  ray         the ray
+     * @param  maxDistance the initial search distance
+     * @param  visitor     the visitor of the leaves
+     * @return             the final search distance
+     */
+    double traverse(Ray ray, double maxDistance, LeafVisitor visitor) {
+        if (nodes == 0) return maxDistance;
+        RaySlabs slabs = new RaySlabs(ray);
+        int[] nodeStack = new int[depth + 1];
+        double[] entryStack = new double[depth + 1];
+        int size = 0;
+        double entry = slabs.entry(bounds, 0, maxDistance);
+        if (entry < maxDistance) {
+            nodeStack[0] = 0;
+            entryStack[0] = entry;
+            size = 1;
+        }
+        while (size > 0) {
+            --size;
+            if (entryStack[size] >= maxDistance) continue;
+            int node = nodeStack[size];
+            if (counts[node] > 0) {
+                maxDistance = visitor.visit(offsets[node], counts[node], maxDistance);
+                continue;
+            }
+            int near = node + 1, far = offsets[node];
+            double nearEntry = slabs.entry(bounds, near, maxDistance);
+            double farEntry = slabs.entry(bounds, far, maxDistance);
+            if (farEntry < nearEntry) {
+                int swapNode = near;
+                near = far;
+                far = swapNode;
+                double swapEntry = nearEntry;
+                nearEntry = farEntry;
+                farEntry = swapEntry;
+            }
+            // push the farther child first so that the nearer one is visited first
+            if (farEntry < maxDistance) {
+                nodeStack[size] = far;
+                entryStack[size++] = farEntry;
+            }
+            if (nearEntry < maxDistance) {
+                nodeStack[size] = near;
+                entryStack[size++] = nearEntry;
+            }
+        }
+        return maxDistance;
+    }
+
+    /**
+     * Build a subtree over a range of the primitives
+     * @param  start the first index of the range in order
+     * @param  end   the index after the last one of the range in order
+     * @param  level the depth of the subtree root
+     * @return       the index of the subtree root
+     */
+    private int build(int start, int end, int level) {
+        depth = Math.max(depth, level);
+        int node = nodes++;
+        int b = 6 * node;
+        emptyBox(bounds, b);
+        emptyBox(centroidBounds, 0);
+        for (int k = start; k < end; ++k) {
+            grow(bounds, b, boxes, 6 * k);
+            for (int axis = 0; axis < 3; ++axis) {
+                double centroid = centroids[3 * k + axis];
+                if (centroid < centroidBounds[axis]) centroidBounds[axis] = centroid;
+                if (centroid > centroidBounds[3 + axis]) centroidBounds[3 + axis] = centroid;
+            }
+        }
+
+        int n = end - start;
+        int bestAxis = -1, bestSplit = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        if (n > 1) {
+            // bin the primitives along the three axes in one pass
+            Arrays.fill(binCounts, 0);
+            for (int bin = 0; bin < 3 * BINS; ++bin)
+                emptyBox(binBounds, 6 * bin);
+            for (int axis = 0; axis < 3; ++axis) {
+                double extent = centroidBounds[3 + axis] - centroidBounds[axis];
+                scales[axis] = extent > 0 ? BINS / extent : 0;
+            }
+            for (int k = start; k < end; ++k)
+                for (int axis = 0; axis < 3; ++axis) {
+                    int bin = axis * BINS + bin(centroids[3 * k + axis], centroidBounds[axis], scales[axis]);
+                    ++binCounts[bin];
+                    grow(binBounds, 6 * bin, boxes, 6 * k);
+                }
+
+            double parentArea = area(bounds, b);
+            for (int axis = 0; axis < 3; ++axis) {
+                if (scales[axis] == 0) continue;
+                int first = axis * BINS;
+                // sweep from the right to get the area and count of every right side
+                emptyBox(acc, 0);
+                int count = 0;
+                for (int bin = BINS - 1; bin > 0; --bin) {
+                    grow(acc, 0, binBounds, 6 * (first + bin));
+                    count += binCounts[first + bin];
+                    rightAreas[bin] = area(acc, 0);
+                    rightCounts[bin] = count;
+                }
+                emptyBox(acc, 0);
+                count = 0;
+                for (int split = 1; split < BINS; ++split) {
+                    grow(acc, 0, binBounds, 6 * (first + split - 1));
+                    count += binCounts[first + split - 1];
+                    if (count == 0 || rightCounts[split] == 0) continue;
+                    double cost = TRAVERSAL_COST
+                            + (area(acc, 0) * count + rightAreas[split] * rightCounts[split]) / parentArea;
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestSplit = split;
+                    }
+                }
+            }
+        }
+
+        // make a leaf when the primitives can't be split or splitting is more expensive than testing them all
+        if (bestAxis < 0 || (bestCost >= n && n <= MAX_LEAF_SIZE)) {
+            offsets[node] = start;
+            counts[node] = n;
+            return node;
+        }
+
+        double min = centroidBounds[bestAxis], scale = BINS / (centroidBounds[3 + bestAxis] - min);
+        int mid = start;
+        // the build data moves with the primitives, so that every subtree reads a contiguous range
+        for (int k = start; k < end; ++k)
+            if (bin(centroids[3 * k + bestAxis], min, scale) < bestSplit)
+                swap(k, mid++);
+        build(start, mid, level + 1);
+        offsets[node] = build(mid, end, level + 1);
+        counts[node] = 0;
+        return node;
+    }
+
+    /**
+     * swap two primitives in order along with their build data
+     * @param i the position of the first primitive
+     * @param j the position of the second primitive
+     */
+    private void swap(int i, int j) {
+        if (i == j) return;
+        int primitive = order[i];
+        order[i] = order[j];
+        order[j] = primitive;
+        swap(boxes, 6 * i, 6 * j, 6);
+        swap(centroids, 3 * i, 3 * j, 3);
+    }
+
+    /**
+     * swap two ranges of an array
+     * @param array  the array
+     * @param i      the start of the first range
+     * @param j      the start of the second range
+     * @param length the length of the ranges
+     */
+    private static void swap(double[] array, int i, int j, int length) {
+        for (int k = 0; k < length; ++k) {
+            double value = array[i + k];
+            array[i + k] = array[j + k];
+            array[j + k] = value;
+        }
+    }
+
+    /**
+     * calculates the bin of a centroid coordinate
+     * @param  value  the centroid coordinate
+     * @param  min   the minimal centroid coordinate
+     * @param  scale the amount of bins divided by the extent of the centroid coordinates
+     * @return       the bin index
+     */
+    private static int bin(double value, double min, double scale) {
+        return Math.min(BINS - 1, (int) ((value - min) * scale));
+    }
+
+    /**
+     * set a box in an array to the empty box
+     * @param box    the array
+     * @param offset the start of the box in the array
+     */
+    private static void emptyBox(double[] box, int offset) {
+        for (int axis = 0; axis < 3; ++axis) {
+            box[offset + axis] = Double.POSITIVE_INFINITY;
+            box[offset + 3 + axis] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * grow a box in an array to contain another box
+     * @param box         the array of the growing box
+     * @param offset      the start of the growing box in its array
+     * @param other       the array of the other box
+     * @param otherOffset the start of the other box in its array
+     */
+    private static void grow(double[] box, int offset, double[] other, int otherOffset) {
+        // plain comparisons - the boxes have no NaN coordinates
+        for (int axis = 0; axis < 3; ++axis) {
+            double min = other[otherOffset + axis], max = other[otherOffset + 3 + axis];
+            if (min < box[offset + axis]) box[offset + axis] = min;
+            if (max > box[offset + 3 + axis]) box[offset + 3 + axis] = max;
+        }
+    }
+
+    /**
+     * calculates the surface area of a box in an array
+     * @param  box    the array
+     * @param  offset the start of the box in the array
+     * @return        the surface area, 0 for an empty box
+     */
+    private static double area(double[] box, int offset) {
+        double dx = box[offset + 3] - box[offset];
+        double dy = box[offset + 4] - box[offset + 1];
+        double dz = box[offset + 5] - box[offset + 2];
+        if (dx < 0 || dy < 0 || dz < 0) return 0;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Helper class with the precomputed values of a ray for slab tests against boxes kept in a flat array
+     */
+    private static final class RaySlabs {
+        /** the ray head coordinates */
+        private final double ox, oy, oz;
+        /** the inverse ray direction coordinates */
+        private final double invX, invY, invZ;
+
+        /**
+         * constructor for the ray
+         * @param ray the ray
+         */
+        private RaySlabs(Ray ray) {
+            Point head = ray.getHead();
+            Vector dir = ray.getDirection();
+            ox = head.getX();
+            oy = head.getY();
+            oz = head.getZ();
+            invX = 1 / dir.getX();
+            invY = 1 / dir.getY();
+            invZ = 1 / dir.getZ();
+        }
+
+        /**
+         * calculates where the ray enters a box
+         * @param  bounds      the boxes as min x, y, z and max x, y, z of each box
+         * @param  box         the index of the box
+         * @param  maxDistance the distance beyond which the box is not interesting
+         * @return             the entry distance (0 if the ray head is inside the box), or positive infinity if the
+         *                     ray misses the box before max distance
+         */
+        private double entry(double[] bounds, int box, double maxDistance) {
+            int b = 6 * box;
+            double tNear = 0, tFar = maxDistance;
+            double t1 = (bounds[b] - ox) * invX, t2 = (bounds[b + 3] - ox) * invX;
+            // NaN appears only when the ray lies in a slab plane - then the slab does not restrict the ray
+            if (t1 == t1 && t2 == t2) {
+                tNear = Math.max(tNear, Math.min(t1, t2));
+                tFar = Math.min(tFar, Math.max(t1, t2));
+            }
+            t1 = (bounds[b + 1] - oy) * invY;
+            t2 = (bounds[b + 4] - oy) * invY;
+            if (t1 == t1 && t2 == t2) {
+                tNear = Math.max(tNear, Math.min(t1, t2));
+                tFar = Math.min(tFar, Math.max(t1, t2));
+            }
+            t1 = (bounds[b + 2] - oz) * invZ;
+            t2 = (bounds[b + 5] - oz) * invZ;
+            if (t1 == t1 && t2 == t2) {
+                tNear = Math.max(tNear, Math.min(t1, t2));
+                tFar = Math.min(tFar, Math.max(t1, t2));
+            }
+            return tNear <= tFar ? tNear : Double.POSITIVE_INFINITY;
+        }
+    }
+}
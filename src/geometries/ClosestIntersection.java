@@ -0,0 +1,40 @@
+package geometries;
+
+import geometries.Intersectable.Intersection;
+import primitives.Ray;
+
+/**
+ * Helper class for collections of geometries keeping the closest intersection found so far along a ray.
+ * Every tested geometry is asked only for intersections closer than the closest one found so far, so the search
+ * bound shrinks as the search goes.
+ */
+final class ClosestIntersection {
+    /** the ray */
+    private final Ray ray;
+    /** the closest intersection found so far */
+    Intersection intersection = null;
+    /** distance of the closest intersection from the ray head, or the initial search bound */
+    double distance;
+
+    /**
+     * constructor for the ray
+     * @param ray         the ray
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     */
+    ClosestIntersection(Ray ray, double maxDistance) {
+        this.ray = ray;
+        this.distance = maxDistance;
+    }
+
+    /**
+     * intersect the ray with a geometry and keep the intersection if it is closer
+     * @param geometry the geometry
+     */
+    void test(Intersectable geometry) {
+        Intersection candidate = geometry.calculateClosestIntersection(ray, distance);
+        if (candidate != null) {
+            intersection = candidate;
+            distance = candidate.distance;
+        }
+    }
+}
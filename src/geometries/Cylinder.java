@@ -4,8 +4,9 @@ package geometries;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
-import primitives.Util;
-import java.util.List;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
 
 /**
  * Represents a cylinder in 3D space, extending from a given axis with a certain radius and height.
@@ -14,6 +15,8 @@ import java.util.List;
 public class Cylinder extends Tube{
 
     private final double height; // The height of the cylinder
+    /** the normals of the bottom base (at the axis head) and of the top base */
+    private final Vector bottomNormal, topNormal;
 
     /**
      * Constructs a cylinder with the given radius, axis, and height.
@@ -24,6 +27,8 @@ public class Cylinder extends Tube{
     public Cylinder(double radius, Ray axis, double height) {
         super(radius,axis);
         this.height=height;
+        topNormal = axis.getDirection();
+        bottomNormal = topNormal.scale(-1);
     }
 
     /**
@@ -57,9 +62,116 @@ public class Cylinder extends Tube{
         return super.getNormal(point);
     }
 
+    /**
+     * calculates the box containing both bases of the cylinder.
+     * A base disk with normal d extends r*sqrt(1 - d_i^2) along axis i from its center.
+     *
+     * @return the bounding box of the cylinder
+     */
     @Override
-    public List<Intersection> calculateIntersectionsHelper(Ray ray) {
-        return null;
+    public BoundingBox getBoundingBox() {
+        Point p0 = axis.getHead();
+        Point p1 = axis.getPoint(height);
+        Vector dir = axis.getDirection();
+        double ex = radius * Math.sqrt(Math.max(0, 1 - dir.getX() * dir.getX()));
+        double ey = radius * Math.sqrt(Math.max(0, 1 - dir.getY() * dir.getY()));
+        double ez = radius * Math.sqrt(Math.max(0, 1 - dir.getZ() * dir.getZ()));
+        return new BoundingBox(Math.min(p0.getX(), p1.getX()) - ex, Math.min(p0.getY(), p1.getY()) - ey,
+                Math.min(p0.getZ(), p1.getZ()) - ez, Math.max(p0.getX(), p1.getX()) + ex,
+                Math.max(p0.getY(), p1.getY()) + ey, Math.max(p0.getZ(), p1.getZ()) + ez);
+    }
+
+    /**
+     * finds the distance of the nearest intersection of a ray with the cylinder beyond a given distance, without
+     * creating any object. The candidates are the intersections with the lateral surface between the bases and
+     * the intersections with the base planes inside the base disks
+     *
+     * @param ray the ray
+     * @param after the distance from the ray head the intersection must be beyond (0 for the nearest one)
+     * @return the distance of the intersection from the ray head, or NaN if there is none
+     */
+    @Override
+    protected double nearest(Ray ray, double after) {
+        Point p0 = ray.getHead();
+        Vector d = ray.getDirection();
+        double dX = d.getX(), dY = d.getY(), dZ = d.getZ();
+        double wX = p0.getX() - hX, wY = p0.getY() - hY, wZ = p0.getZ() - hZ;
+        double dv = dX * vX + dY * vY + dZ * vZ;
+        double wv = wX * vX + wY * vY + wZ * vZ;
+        // the squared distance from the axis minus r^2 along the ray is a*t^2 + 2*b*t + c
+        double a = 1 - dv * dv;
+        double b = dX * wX + dY * wY + dZ * wZ - dv * wv;
+        double c = wX * wX + wY * wY + wZ * wZ - wv * wv - radius * radius;
+
+        double nearest = Double.NaN;
+        // the lateral surface between the bases (the rims included)
+        if (!isZero(a)) {
+            double discriminant = alignZero(b * b - a * c);
+            if (discriminant > 0) {
+                double root = Math.sqrt(discriminant);
+                double t = (-b - root) / a;
+                if (alignZero(wv + t * dv) >= 0 && alignZero(wv + t * dv - height) <= 0)
+                    nearest = closer(nearest, t, after);
+                t = (-b + root) / a;
+                if (alignZero(wv + t * dv) >= 0 && alignZero(wv + t * dv - height) <= 0)
+                    nearest = closer(nearest, t, after);
+            }
+        }
+        // the bases inside their disks (the rims excluded)
+        if (!isZero(dv)) {
+            double t = -wv / dv;
+            if (alignZero(a * t * t + 2 * b * t + c) < 0) nearest = closer(nearest, t, after);
+            t = (height - wv) / dv;
+            if (alignZero(a * t * t + 2 * b * t + c) < 0) nearest = closer(nearest, t, after);
+        }
+        return nearest;
+    }
+
+    /**
+     * picks the nearer of the current nearest distance and a candidate distance beyond a given distance
+     *
+     * @param nearest the current nearest distance, NaN if there is none yet
+     * @param t the candidate distance
+     * @param after the distance the candidate must be beyond
+     * @return the new nearest distance
+     */
+    private static double closer(double nearest, double t, double after) {
+        return alignZero(t - after) > 0 && (Double.isNaN(nearest) || t < nearest) ? t : nearest;
+    }
+
+    /**
+     * creates the intersection of a ray with the cylinder. An intersection on a base gets the base normal, which
+     * the normal calculation of a point would not detect exactly for a calculated point
+     *
+     * @param ray the ray
+     * @param t the distance of the intersection from the ray head
+     * @return the intersection
+     */
+    @Override
+    protected Intersection intersection(Ray ray, double t) {
+        Intersection intersection = super.intersection(ray, t);
+        Vector normal = baseNormal(ray, t);
+        if (normal != null) intersection.normal = normal;
+        return intersection;
+    }
 
+    /**
+     * finds whether an intersection distance found by {@link #nearest(Ray, double)} is the one of a base plane.
+     * The distances of the base planes are calculated exactly as in {@link #nearest(Ray, double)}, so the winning
+     * candidate is recognized by its distance instead of by the calculated point
+     *
+     * @param ray the ray
+     * @param t the distance of the intersection from the ray head
+     * @return the normal of the base the intersection is on, or null for an intersection on the lateral surface
+     */
+    private Vector baseNormal(Ray ray, double t) {
+        Point p0 = ray.getHead();
+        Vector d = ray.getDirection();
+        double dv = d.getX() * vX + d.getY() * vY + d.getZ() * vZ;
+        if (isZero(dv)) return null;
+        double wv = (p0.getX() - hX) * vX + (p0.getY() - hY) * vY + (p0.getZ() - hZ) * vZ;
+        if (t == -wv / dv) return bottomNormal;
+        if (t == (height - wv) / dv) return topNormal;
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,12 @@ import java.util.List;
 import primitives.*;
 public class Geometries extends Intersectable {
     List<Intersectable> geometries = new LinkedList<Intersectable>();
+    /** the cached bounding box of the collection, null if it is unbounded */
+    private BoundingBox box = null;
+    /** whether the cached bounding box must be recalculated */
+    private volatile boolean boxOutdated = true;
+    /** the collections containing this collection, notified when geometries are added to it */
+    private final List<Geometries> parents = new ArrayList<>();
 
     public Geometries() {
 
@@ -18,6 +24,26 @@ public class Geometries extends Intersectable {
 
     public void add(Intersectable... geometries) {
         Collections.addAll(this.geometries, geometries);
+        for (Intersectable geometry : geometries)
+            if (geometry instanceof Geometries nested)
+                synchronized (nested.parents) {
+                    nested.parents.add(this);
+                }
+        changed();
+    }
+
+    /**
+     * Mark the cached data of this collection and of all the collections containing it as outdated, after
+     * geometries are added to it
+     */
+    protected void changed() {
+        boxOutdated = true;
+        List<Geometries> containing;
+        synchronized (parents) {
+            containing = new ArrayList<>(parents);
+        }
+        for (Geometries parent : containing)
+            parent.changed();
     }
 
     /**
@@ -28,9 +54,10 @@ public class Geometries extends Intersectable {
      */
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        if (missesBox(ray, Double.POSITIVE_INFINITY)) return null;
         List<Intersection> intersections = null;
         for (Intersectable geometry : geometries) {
-            List<Intersection> geometryIntersections = geometry.calculateIntersectionsHelper(ray);
+            List<Intersection> geometryIntersections = geometry.calculateIntersections(ray);
             if (geometryIntersections != null) {
                 if (intersections == null) {
                     intersections = new LinkedList<>();
@@ -41,4 +68,89 @@ public class Geometries extends Intersectable {
         return intersections;
     }
 
+    /**
+     * finds the closest intersection of a ray with the geometries in the list.
+     * Each geometry is asked only for intersections closer than the closest one found so far
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return the closest intersection, or null if there is none closer than maxDistance
+     */
+    @Override
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        if (missesBox(ray, maxDistance)) return null;
+        ClosestIntersection closest = new ClosestIntersection(ray, maxDistance);
+        for (Intersectable geometry : geometries)
+            closest.test(geometry);
+        return closest.intersection;
+    }
+
+    /**
+     * checks whether a ray hits any of the geometries in the list closer than the given distance.
+     * The search stops at the first geometry hit
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return true if there is an intersection closer than maxDistance
+     */
+    @Override
+    protected boolean hasIntersectionHelper(Ray ray, double maxDistance) {
+        if (missesBox(ray, maxDistance)) return false;
+        for (Intersectable geometry : geometries)
+            if (geometry.hasIntersection(ray, maxDistance)) return true;
+        return false;
+    }
+
+    /**
+     * Add all the leaf geometries of this (possibly nested) collection to a list
+     *
+     * @param leaves the list of the leaf geometries
+     */
+    void flatten(List<Intersectable> leaves) {
+        for (Intersectable geometry : geometries) {
+            if (geometry instanceof Geometries nested)
+                nested.flatten(leaves);
+            else
+                leaves.add(geometry);
+        }
+    }
+
+    /**
+     * checks whether a ray certainly misses all the geometries in the list, so that a whole (nested)
+     * collection is rejected by a single slab test
+     *
+     * @param ray the ray
+     * @param maxDistance the distance from the ray head beyond which the geometries are not interesting
+     * @return true if the collection is bounded and the ray misses its bounding box before maxDistance
+     */
+    private boolean missesBox(Ray ray, double maxDistance) {
+        BoundingBox bounds = getBoundingBox();
+        return bounds != null && !bounds.intersects(ray, maxDistance);
+    }
+
+    /**
+     * returns the box containing all the geometries in the list.
+     * The box is calculated on the first call after geometries are added to the list or to any of its nested
+     * collections.
+     *
+     * @return the bounding box of the collection, or null if it is empty or any of its geometries is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (boxOutdated) {
+            BoundingBox bounds = null;
+            for (Intersectable geometry : geometries) {
+                BoundingBox geometryBox = geometry.getBoundingBox();
+                if (geometryBox == null) {
+                    bounds = null;
+                    break;
+                }
+                bounds = bounds == null ? geometryBox : bounds.union(geometryBox);
+            }
+            box = bounds;
+            boxOutdated = false;
+        }
+        return box;
+    }
+
 }
@@ -0,0 +1,316 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class Grid is a uniform grid acceleration structure over a collection of geometries.
+ * The bounding box of all the bounded geometries is split into equal cells and every cell keeps the
+ * geometries overlapping it. A ray walks only through the cells it crosses (3D-DDA by Amanatides and Woo),
+ * so only the geometries of those cells are tested. Unbounded geometries (planes, tubes) are tested for
+ * every ray.
+ */
+public class Grid extends Intersectable {
+    /** the wanted average amount of geometries per cell for automatic resolution */
+    private static final double DENSITY = 3;
+    /** the maximal amount of cells along each axis */
+    private static final int MAX_RESOLUTION = 128;
+    /** relative padding of the grid box so that geometries on its faces are still inside it */
+    private static final double PADDING = 1e-6;
+
+    /** geometries without a bounding box, tested for every ray */
+    private final Intersectable[] unbounded;
+    /** geometries of each cell (null for an empty cell), indexed by x + nX * (y + nY * z) */
+    private final Intersectable[][] cells;
+    /** the box of the bounded geometries, or null if there are none */
+    private final BoundingBox box;
+    /** amount of cells along x axis */
+    private final int nX;
+    /** amount of cells along y axis */
+    private final int nY;
+    /** amount of cells along z axis */
+    private final int nZ;
+    /** the size of a cell along x axis */
+    private final double cellX;
+    /** the size of a cell along y axis */
+    private final double cellY;
+    /** the size of a cell along z axis */
+    private final double cellZ;
+
+    /**
+     * Functional interface for visiting the cells crossed by a ray
+     */
+    private interface CellVisitor {
+        /**
+         * visit a non-empty cell
+         * @param  cell     the geometries of the cell
+         * @param  tCellExit distance from the ray head where the ray leaves the cell
+         * @return          true to stop the walk
+         */
+        boolean visit(Intersectable[] cell, double tCellExit);
+    }
+
+    /**
+     * Constructs a grid over the geometries with resolution chosen automatically according to the amount of
+     * the geometries and the extent of the scene
+     * @param geometries the geometries (nested collections are flattened)
+     */
+    public Grid(Geometries geometries) {
+        this(geometries, null);
+    }
+
+    /**
+     * Constructs a grid over the geometries with the given resolution
+     * @param geometries the geometries (nested collections are flattened)
+     * @param nX         amount of cells along x axis
+     * @param nY         amount of cells along y axis
+     * @param nZ         amount of cells along z axis
+     */
+    public Grid(Geometries geometries, int nX, int nY, int nZ) {
+        this(geometries, new int[] { nX, nY, nZ });
+    }
+
+    /**
+     * Constructs a grid over the geometries
+     * @param geometries the geometries (nested collections are flattened)
+     * @param resolution amount of cells along each axis, or null for automatic resolution
+     */
+    private Grid(Geometries geometries, int[] resolution) {
+        if (resolution != null && (resolution[0] <= 0 || resolution[1] <= 0 || resolution[2] <= 0))
+            throw new IllegalArgumentException("Grid resolution must be positive");
+
+        List<Intersectable> leaves = new ArrayList<>();
+        geometries.flatten(leaves);
+        List<Intersectable> boundedList = new ArrayList<>();
+        List<BoundingBox> boxes = new ArrayList<>();
+        List<Intersectable> unboundedList = new ArrayList<>();
+        BoundingBox union = null;
+        for (Intersectable geometry : leaves) {
+            BoundingBox geometryBox = geometry.getBoundingBox();
+            if (geometryBox == null)
+                unboundedList.add(geometry);
+            else {
+                boundedList.add(geometry);
+                boxes.add(geometryBox);
+                union = union == null ? geometryBox : union.union(geometryBox);
+            }
+        }
+        unbounded = unboundedList.toArray(new Intersectable[0]);
+
+        if (union == null) {
+            box = null;
+            cells = new Intersectable[0][];
+            nX = nY = nZ = 0;
+            cellX = cellY = cellZ = 0;
+            return;
+        }
+
+        double pad = PADDING * Math.max(1, Math.max(union.maxX - union.minX,
+                Math.max(union.maxY - union.minY, union.maxZ - union.minZ)));
+        box = new BoundingBox(union.minX - pad, union.minY - pad, union.minZ - pad,
+                union.maxX + pad, union.maxY + pad, union.maxZ + pad);
+        double ex = box.maxX - box.minX, ey = box.maxY - box.minY, ez = box.maxZ - box.minZ;
+
+        if (resolution == null) {
+            // Cleary's heuristic: cubic cells so that each holds DENSITY geometries in average
+            double cell = Math.cbrt(ex * ey * ez / (DENSITY * boundedList.size()));
+            resolution = new int[] { autoResolution(ex, cell), autoResolution(ey, cell), autoResolution(ez, cell) };
+        }
+        nX = resolution[0];
+        nY = resolution[1];
+        nZ = resolution[2];
+        cellX = ex / nX;
+        cellY = ey / nY;
+        cellZ = ez / nZ;
+
+        List<List<Intersectable>> lists = new ArrayList<>(Collections.nCopies(nX * nY * nZ, null));
+        for (int k = 0; k < boundedList.size(); ++k) {
+            BoundingBox b = boxes.get(k);
+            int x0 = cellIndex(b.minX - box.minX, cellX, nX), x1 = cellIndex(b.maxX - box.minX, cellX, nX);
+            int y0 = cellIndex(b.minY - box.minY, cellY, nY), y1 = cellIndex(b.maxY - box.minY, cellY, nY);
+            int z0 = cellIndex(b.minZ - box.minZ, cellZ, nZ), z1 = cellIndex(b.maxZ - box.minZ, cellZ, nZ);
+            for (int z = z0; z <= z1; ++z)
+                for (int y = y0; y <= y1; ++y)
+                    for (int x = x0; x <= x1; ++x) {
+                        int index = x + nX * (y + nY * z);
+                        if (lists.get(index) == null) lists.set(index, new ArrayList<>());
+                        lists.get(index).add(boundedList.get(k));
+                    }
+        }
+        cells = new Intersectable[lists.size()][];
+        for (int index = 0; index < lists.size(); ++index)
+            if (lists.get(index) != null)
+                cells[index] = lists.get(index).toArray(new Intersectable[0]);
+    }
+
+    /**
+     * calculates the automatic amount of cells along an axis
+     * @param  extent the extent of the grid box along the axis
+     * @param  cell   the wanted cell size
+     * @return        amount of the cells
+     */
+    private static int autoResolution(double extent, double cell) {
+        return (int) Math.max(1, Math.min(MAX_RESOLUTION, Math.ceil(extent / cell)));
+    }
+
+    /**
+     * calculates the index of the cell along an axis containing the given coordinate
+     * @param  offset the coordinate relatively to the grid box minimum
+     * @param  cell   the cell size along the axis
+     * @param  n      the amount of cells along the axis
+     * @return        the cell index clamped into the grid
+     */
+    private static int cellIndex(double offset, double cell, int n) {
+        return Math.max(0, Math.min(n - 1, (int) Math.floor(offset / cell)));
+    }
+
+    /**
+     * Walk the cells crossed by a ray from front to back (3D-DDA)
+     * @param ray     the ray
+     * @param visitor the visitor of the non-empty cells
+     */
+    private void walk(Ray ray, CellVisitor visitor) {
+        if (box == null) return;
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        // slab test of the ray against the grid box
+        double tEnter = 0, tExit = Double.POSITIVE_INFINITY;
+        if (dx != 0) {
+            double t1 = (box.minX - ox) / dx, t2 = (box.maxX - ox) / dx;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        } else if (ox < box.minX || ox > box.maxX) return;
+        if (dy != 0) {
+            double t1 = (box.minY - oy) / dy, t2 = (box.maxY - oy) / dy;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        } else if (oy < box.minY || oy > box.maxY) return;
+        if (dz != 0) {
+            double t1 = (box.minZ - oz) / dz, t2 = (box.maxZ - oz) / dz;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        } else if (oz < box.minZ || oz > box.maxZ) return;
+        if (tEnter > tExit) return;
+
+        // the first cell and the DDA increments
+        int x = cellIndex(ox + dx * tEnter - box.minX, cellX, nX);
+        int y = cellIndex(oy + dy * tEnter - box.minY, cellY, nY);
+        int z = cellIndex(oz + dz * tEnter - box.minZ, cellZ, nZ);
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1, stepZ = dz > 0 ? 1 : -1;
+        double tMaxX = dx == 0 ? Double.POSITIVE_INFINITY
+                : (box.minX + (x + (dx > 0 ? 1 : 0)) * cellX - ox) / dx;
+        double tMaxY = dy == 0 ? Double.POSITIVE_INFINITY
+                : (box.minY + (y + (dy > 0 ? 1 : 0)) * cellY - oy) / dy;
+        double tMaxZ = dz == 0 ? Double.POSITIVE_INFINITY
+                : (box.minZ + (z + (dz > 0 ? 1 : 0)) * cellZ - oz) / dz;
+        double tDeltaX = dx == 0 ? Double.POSITIVE_INFINITY : cellX / Math.abs(dx);
+        double tDeltaY = dy == 0 ? Double.POSITIVE_INFINITY : cellY / Math.abs(dy);
+        double tDeltaZ = dz == 0 ? Double.POSITIVE_INFINITY : cellZ / Math.abs(dz);
+
+        while (true) {
+            double tCellExit = Math.min(tMaxX, Math.min(tMaxY, tMaxZ));
+            Intersectable[] cell = cells[x + nX * (y + nY * z)];
+            if (cell != null && visitor.visit(cell, tCellExit)) return;
+            if (tMaxX == tCellExit) {
+                x += stepX;
+                if (x < 0 || x >= nX) return;
+                tMaxX += tDeltaX;
+            } else if (tMaxY == tCellExit) {
+                y += stepY;
+                if (y < 0 || y >= nY) return;
+                tMaxY += tDeltaY;
+            } else {
+                z += stepZ;
+                if (z < 0 || z >= nZ) return;
+                tMaxZ += tDeltaZ;
+            }
+        }
+    }
+
+    /**
+     * finds the closest intersection of a ray with the geometries of the grid.
+     * The cells are visited from front to back and the walk stops at the first cell whose geometries are hit
+     * inside the cell.
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return the closest intersection, or null if there is none closer than maxDistance
+     */
+    @Override
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        ClosestIntersection closest = new ClosestIntersection(ray, maxDistance);
+        for (Intersectable geometry : unbounded)
+            closest.test(geometry);
+        walk(ray, (cell, tCellExit) -> {
+            for (Intersectable geometry : cell)
+                closest.test(geometry);
+            return closest.distance <= tCellExit;
+        });
+        return closest.intersection;
+    }
+
+    /**
+     * checks whether a ray hits any of the geometries of the grid closer than the given distance.
+     * The walk stops at the first geometry hit or at the first cell beyond the distance.
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return true if there is an intersection closer than maxDistance
+     */
+    @Override
+    protected boolean hasIntersectionHelper(Ray ray, double maxDistance) {
+        for (Intersectable geometry : unbounded)
+            if (geometry.hasIntersection(ray, maxDistance)) return true;
+        boolean[] hit = { false };
+        walk(ray, (cell, tCellExit) -> {
+            for (Intersectable geometry : cell)
+                if (geometry.hasIntersection(ray, maxDistance)) {
+                    hit[0] = true;
+                    return true;
+                }
+            return tCellExit >= maxDistance;
+        });
+        return hit[0];
+    }
+
+    /**
+     * finds all the intersections of a ray with the geometries of the grid.
+     * Every geometry crossed by the ray is tested once even if it overlaps several cells.
+     *
+     * @param ray the ray that we want to check intersections with
+     * @return a list of the intersections, or null if there are none
+     */
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        Set<Intersectable> crossed = new LinkedHashSet<>(List.of(unbounded));
+        walk(ray, (cell, tCellExit) -> {
+            crossed.addAll(List.of(cell));
+            return false;
+        });
+        List<Intersection> intersections = null;
+        for (Intersectable geometry : crossed) {
+            List<Intersection> geometryIntersections = geometry.calculateIntersections(ray);
+            if (geometryIntersections != null) {
+                if (intersections == null) intersections = new LinkedList<>();
+                intersections.addAll(geometryIntersections);
+            }
+        }
+        return intersections;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return unbounded.length == 0 ? box : null;
+    }
+}
@@ -25,8 +25,9 @@ public abstract class Intersectable  {
             public Vector v2;
             public double Dot_Product;
             public LightSource light;
-            public Vector v3;
             public double Dot_Product_light;                                                    ;
+            /** distance of the point from the ray head, set by the closest intersection queries */
+            public double distance = Double.NaN;
 
         /**
          * a constructor for geoPoint
@@ -43,6 +44,17 @@ public abstract class Intersectable  {
             }
         }
 
+        /**
+         * a constructor for geoPoint with its distance from the ray head
+         * @param geometry the geometry
+         * @param point the point
+         * @param distance the distance of the point from the ray head
+         */
+        public Intersection(Geometry geometry, Point point, double distance) {
+            this(geometry, point);
+            this.distance = distance;
+        }
+
 
             @Override
         public boolean equals(Object obj) {
@@ -83,6 +95,84 @@ public abstract class Intersectable  {
      * @return a list of all the intersection GeoPoints between 'ray' and the geometry.
      */
     public List<Intersection> calculateIntersections(Ray ray) {
-        return calculateIntersectionsHelper(ray);
+        List<Intersection> intersections = calculateIntersectionsHelper(ray);
+        IntersectionCounter.count(this, intersections != null);
+        return intersections;
+    }
+
+    /**
+     * A method that receives a ray and returns the closest intersection between the ray and the current geometry.
+     * @param ray a ray that is thrown to the geometry.
+     * @return the closest intersection, or null if there is none.
+     */
+    public final Intersection findClosestIntersection(Ray ray) {
+        return calculateClosestIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * A method that receives a ray and returns the closest intersection between the ray and the current geometry
+     * which is closer than the given distance. No list of intersections is built.
+     * @param ray a ray that is thrown to the geometry.
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored.
+     * @return the closest intersection (with its distance set), or null if there is none closer than maxDistance.
+     */
+    public Intersection calculateClosestIntersection(Ray ray, double maxDistance) {
+        Intersection closest = calculateClosestIntersectionHelper(ray, maxDistance);
+        IntersectionCounter.count(this, closest != null);
+        return closest;
+    }
+
+    /**
+     * Helper method for calculateClosestIntersection. Geometries override it to find the closest intersection
+     * without allocating intermediate lists - by default the closest one is picked from all the intersections.
+     * @param ray a ray that is thrown to the geometry.
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored.
+     * @return the closest intersection (with its distance set), or null if there is none closer than maxDistance.
+     */
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        List<Intersection> intersections = calculateIntersectionsHelper(ray);
+        if (intersections == null) return null;
+        Intersection closest = null;
+        for (Intersection intersection : intersections) {
+            double distance = ray.distanceTo(intersection.point);
+            if (distance < maxDistance) {
+                closest = intersection;
+                maxDistance = distance;
+            }
+        }
+        if (closest != null) closest.distance = maxDistance;
+        return closest;
+    }
+
+    /**
+     * A method that checks whether a ray hits the current geometry closer than the given distance (any-hit query,
+     * used for shadow rays). The search stops at the first intersection found, which is not necessarily the closest.
+     * @param ray a ray that is thrown to the geometry.
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored.
+     * @return true if there is an intersection closer than maxDistance.
+     */
+    public boolean hasIntersection(Ray ray, double maxDistance) {
+        boolean hit = hasIntersectionHelper(ray, maxDistance);
+        IntersectionCounter.count(this, hit);
+        return hit;
+    }
+
+    /**
+     * Helper method for hasIntersection. Collections override it to stop at the first blocking geometry -
+     * by default the closest intersection query is used.
+     * @param ray a ray that is thrown to the geometry.
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored.
+     * @return true if there is an intersection closer than maxDistance.
+     */
+    protected boolean hasIntersectionHelper(Ray ray, double maxDistance) {
+        return calculateClosestIntersectionHelper(ray, maxDistance) != null;
+    }
+
+    /**
+     * A method that returns the axis-aligned box containing the whole geometry.
+     * @return the bounding box of the geometry, or null if the geometry is unbounded
+     */
+    public BoundingBox getBoundingBox() {
+        return null;
     }
 }
\ No newline at end of file
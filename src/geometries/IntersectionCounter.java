@@ -0,0 +1,98 @@
+package geometries;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class IntersectionCounter counts the intersection tests of the geometries and their hits, by geometry type.
+ * The counting is per thread - a thread starts counting, traces its rays and stops counting, getting its counter.
+ * A test is counted by the public intersection methods of {@link Intersectable}, so the tests the composite
+ * geometries and the shapes delegate to (e.g. the plane of a triangle) are counted as well.
+ * While no thread counts, a test costs a single volatile read.
+ */
+public final class IntersectionCounter {
+    /** the counter of the current thread, if it counts */
+    private static final ThreadLocal<IntersectionCounter> CURRENT = new ThreadLocal<>();
+    /** amount of counting threads */
+    private static volatile int counting = 0;
+
+    /** the amount of tests and of hits of each geometry type */
+    private final Map<Class<?>, long[]> counts = new HashMap<>();
+
+    /** Counters are created by {@link #start()} only */
+    private IntersectionCounter() {}
+
+    /**
+     * Start counting the intersection tests of the current thread
+     * @throws IllegalStateException if the thread counts already
+     */
+    public static void start() {
+        if (CURRENT.get() != null)
+            throw new IllegalStateException("The thread counts intersection tests already");
+        CURRENT.set(new IntersectionCounter());
+        synchronized (IntersectionCounter.class) {
+            ++counting;
+        }
+    }
+
+    /**
+     * Stop counting the intersection tests of the current thread
+     * @return the counter of the thread
+     * @throws IllegalStateException if the thread does not count
+     */
+    public static IntersectionCounter stop() {
+        IntersectionCounter counter = CURRENT.get();
+        if (counter == null)
+            throw new IllegalStateException("The thread does not count intersection tests");
+        CURRENT.remove();
+        synchronized (IntersectionCounter.class) {
+            --counting;
+        }
+        return counter;
+    }
+
+    /**
+     * Count an intersection test if the current thread counts
+     * @param geometry the tested geometry
+     * @param hit      whether the test found an intersection
+     */
+    static void count(Intersectable geometry, boolean hit) {
+        if (counting == 0) return;
+        IntersectionCounter counter = CURRENT.get();
+        if (counter == null) return;
+        long[] count = counter.counts.computeIfAbsent(geometry.getClass(), type -> new long[2]);
+        ++count[0];
+        if (hit) ++count[1];
+    }
+
+    /**
+     * getter for the amounts of tests by geometry type
+     * @return the amount of tests of each geometry type, by the type simple name
+     */
+    public Map<String, Long> getTests() {
+        return collect(0);
+    }
+
+    /**
+     * getter for the amounts of hits by geometry type
+     * @return the amount of tests that found an intersection of each geometry type, by the type simple name
+     */
+    public Map<String, Long> getHits() {
+        return collect(1);
+    }
+
+    /**
+     * collect one of the counts of every geometry type
+     * @param  index 0 for the tests, 1 for the hits
+     * @return       the counts by the type simple name
+     */
+    private Map<String, Long> collect(int index) {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<Class<?>, long[]> entry : counts.entrySet()) {
+            Class<?> type = entry.getKey();
+            String name = type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName();
+            result.merge(name, entry.getValue()[index], Long::sum);
+        }
+        return result;
+    }
+}
@@ -60,6 +60,16 @@ public class Plane extends Geometry {
         return getNormal();
     }
 
+    /**
+     * a plane is infinite
+     *
+     * @return null - the plane is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
         Vector rayDir = ray.getDirection();
@@ -90,4 +100,31 @@ public class Plane extends Geometry {
         Point p = ray.getPoint(t);
         return List.of(new Intersection(this, p));
     }
-}
\ No newline at end of file
+
+    /**
+     * finds the intersection of a ray and the plane if it is closer than the given distance
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersection is ignored
+     * @return the intersection, or null if there is none closer than maxDistance
+     */
+    @Override
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        Point rayP0 = ray.getHead();
+        double denominator = normal.dotProduct(ray.getDirection());
+        if (isZero(denominator) || rayP0.equals(q0))
+            return null;
+
+        double nx = normal.getX(), ny = normal.getY(), nz = normal.getZ();
+        double numerator = nx * (q0.getX() - rayP0.getX()) + ny * (q0.getY() - rayP0.getY())
+                + nz * (q0.getZ() - rayP0.getZ());
+        // the ray starts on the plane
+        if (isZero(numerator))
+            return null;
+
+        double t = numerator / denominator;
+        if (t <= 0 || t >= maxDistance)
+            return null;
+        return new Intersection(this, ray.getPoint(t), t);
+    }
+}
@@ -1,14 +1,13 @@
 //polygon.java
 package geometries;
 
-import java.util.LinkedList;
 import java.util.List;
 
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 import primitives.Point;
 import primitives.Ray;
-import primitives.Util;
 import primitives.Vector;
 
 /**
@@ -23,6 +22,14 @@ public class Polygon extends Geometry {
     protected final Plane       plane;
     /** The size of the polygon - the amount of the vertices in the polygon */
     private final int           size;
+    /** The plane unit normal components and the plane constant (normal * q for any point q of the plane) */
+    private final double        nX, nY, nZ, nD;
+    /**
+     * The edges of the polygon, 6 numbers for each: the edge start vertex and the unit vector in the plane
+     * orthogonal to the edge pointing into the polygon. A point of the plane is inside the polygon iff its
+     * (signed) distance from every edge line - (point - start) * inward - is positive
+     */
+    private final double[]      edges;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -55,9 +62,26 @@ public class Polygon extends Geometry {
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane         = new Plane(vertices[0], vertices[1], vertices[2]);
+        Vector  n        = plane.getNormal();
+        nX = n.getX();
+        nY = n.getY();
+        nZ = n.getZ();
+        nD = nX * vertices[0].getX() + nY * vertices[0].getY() + nZ * vertices[0].getZ();
+        // the normal is by the order of the first three vertices, so the polygon turns counterclockwise around it
+        // and the normal crossed with an edge points into the polygon
+        edges = new double[6 * size];
+        for (int i = 0; i < size; ++i) {
+            Point start = vertices[i];
+            Vector inward = n.crossProduct(vertices[(i + 1) % size].subtract(start)).normalize();
+            edges[6 * i] = start.getX();
+            edges[6 * i + 1] = start.getY();
+            edges[6 * i + 2] = start.getZ();
+            edges[6 * i + 3] = inward.getX();
+            edges[6 * i + 4] = inward.getY();
+            edges[6 * i + 5] = inward.getZ();
+        }
         if (size == 3) return; // no need for more tests for a Triangle
 
-        Vector  n        = plane.getNormal();
         // Subtracting any subsequent points will throw an IllegalArgumentException
         // because of Zero Vector if they are in the same point
         Vector  edge1    = vertices[vertices.length - 1].subtract(vertices[vertices.length - 2]);
@@ -86,40 +110,52 @@ public class Polygon extends Geometry {
     @Override
     public Vector getNormal(Point point) { return plane.getNormal(); }
 
+    @Override
+    public BoundingBox getBoundingBox() { return new BoundingBox(vertices.toArray(new Point[size])); }
+
 
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
-        // Initialize a list to hold the normals of the edges of the polygonal base
-        List<Vector> normals = new LinkedList<>();
-
-        // Get the starting point and direction of the ray
-        final Point startPoint = ray.getPoint(0);
-        final Vector dir = ray.getDirection();
-
-        // Calculate the normal vector for each edge of the polygonal base
-        Vector v1 = vertices.getFirst().subtract(startPoint);
-        for (Point p : vertices.subList(1, size)) {
-            Vector v2 = p.subtract(startPoint);
-            normals.add(v1.crossProduct(v2).normalize());
-            v1 = v2;
-        }
-        // Add the normal for the edge connecting the last vertex to the first vertex
-        normals.add(vertices.getLast().subtract(startPoint).crossProduct(vertices.getFirst().subtract(startPoint)).normalize());
-
-        // Determine if the ray direction is consistently on one side of all the polygon's edges
-        boolean allPositive = dir.dotProduct(normals.getFirst()) > 0;
-        for (Vector normal : normals) {
-            double s = dir.dotProduct(normal);
-            // If the dot product is zero or if it changes sign, the ray does not intersect the polygon's base
-            if (Util.isZero(s) || (s > 0 != allPositive)) {
-                return null;
-            }
-        }
+        double t = intersect(ray);
+        return Double.isNaN(t) ? null : List.of(new Intersection(this, ray.getPoint(t)));
+    }
 
-        // Create a plane defined by the first three vertices of the polygon
-        Plane plane = new Plane(vertices.getFirst(), vertices.get(1), vertices.get(2));
+    @Override
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        double t = intersect(ray);
+        return Double.isNaN(t) || t >= maxDistance ? null : new Intersection(this, ray.getPoint(t), t);
+    }
 
-        // Find and return the intersection points of the ray with the plane
-        return plane.calculateIntersections(ray);
+    /**
+     * Find the distance of the intersection of a ray with the polygon from the ray head, using the precomputed
+     * plane and edges and without creating any object. A ray starting on the plane of the polygon, or crossing
+     * it on an edge or a vertex of the polygon, does not intersect it
+     * @param  ray the ray
+     * @return     the distance of the intersection point from the ray head, or NaN if there is no intersection
+     */
+    private double intersect(Ray ray) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double hX = head.getX(), hY = head.getY(), hZ = head.getZ();
+        double dX = dir.getX(), dY = dir.getY(), dZ = dir.getZ();
+
+        // the ray is parallel to the plane
+        double denominator = nX * dX + nY * dY + nZ * dZ;
+        if (isZero(denominator)) return Double.NaN;
+        // the ray starts on the plane
+        double numerator = nD - (nX * hX + nY * hY + nZ * hZ);
+        if (isZero(numerator)) return Double.NaN;
+        // the plane is behind the ray
+        double t = numerator / denominator;
+        if (alignZero(t) <= 0) return Double.NaN;
+
+        // the point must be strictly inside all the edges
+        double pX = hX + dX * t, pY = hY + dY * t, pZ = hZ + dZ * t;
+        for (int i = 0; i < edges.length; i += 6) {
+            double distance = (pX - edges[i]) * edges[i + 3] + (pY - edges[i + 1]) * edges[i + 4]
+                    + (pZ - edges[i + 2]) * edges[i + 5];
+            if (alignZero(distance) <= 0) return Double.NaN;
+        }
+        return t;
     }
 }
@@ -1,6 +1,7 @@
 //sphere.java
 package geometries;
 
+import primitives.MutableVector;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
@@ -42,6 +43,12 @@ public class Sphere extends RadialGeometry {
     }
 
 
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
     /**
      * finds all the intersections of a ray and the sphere
      *
@@ -52,7 +59,7 @@ public class Sphere extends RadialGeometry {
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
         if (center.equals(ray.getHead())) return List.of(new Intersection(this,ray.getPoint(radius))); //boundary value po is center
-        Vector u= center.subtract(ray.getHead());
+        MutableVector u = new MutableVector().setSubtract(center, ray.getHead());
         double tm = Util.alignZero(u.dotProduct(ray.getDirection())) ;
         double d= sqrt(Util.alignZero(u.lengthSquared()-tm*tm));
         if (d>=radius) return null;
@@ -62,4 +69,28 @@ public class Sphere extends RadialGeometry {
         if (Util.alignZero(tm-th)<=0) return List.of(new Intersection(this,ray.getPoint(tm+th))); ;//po inside the shpere
         return List.of(new Intersection(this,ray.getPoint(tm-th)),new Intersection(this,ray.getPoint(tm+th))); //regular case to intersection
     }
+
+    /**
+     * finds the closest intersection of a ray and the sphere without allocating intermediate objects.
+     * The calculation is the same as in calculateIntersectionsHelper
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return the closest intersection, or null if there is none closer than maxDistance
+     */
+    @Override
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        if (center.equals(head))
+            return radius < maxDistance ? new Intersection(this, ray.getPoint(radius), radius) : null;
+        MutableVector u = new MutableVector().setSubtract(center, head);
+        double tm = alignZero(u.dotProduct(ray.getDirection()));
+        double d = sqrt(alignZero(u.lengthSquared() - tm * tm));
+        if (d >= radius) return null;
+        double th = sqrt(radius * radius - d * d);
+        // the nearer point is in front of the head unless the head is inside the sphere
+        double t = alignZero(tm - th) > 0 ? tm - th : tm + th;
+        if (alignZero(t) <= 0 || t >= maxDistance) return null;
+        return new Intersection(this, ray.getPoint(t), t);
+    }
 }
@@ -0,0 +1,432 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * Class TriangleMesh represents a mesh of triangles sharing one material and emission.
+ * The mesh is kept in flat buffers (structure of arrays) - the coordinates of the vertices and three vertex indices
+ * per triangle - instead of a Triangle object with its vertices list and plane per triangle, so that a triangle
+ * takes a few dozens of bytes and its intersection reads only the buffers.
+ * The buffers are off the heap (direct buffers, or views of a memory-mapped file for a restored mesh), so a large
+ * mesh neither grows the heap nor is copied by the garbage collector. They are NIO buffers rather than memory
+ * segments so that a restored mesh is a view of the snapshot buffer it is read from; the price of the buffers
+ * over arrays is about 5% of the intersection time.
+ * A ray is intersected with the triangles by the Möller–Trumbore algorithm, and the intersections carry the normal
+ * of the hit triangle.
+ * The triangles are kept in the order of the leaves of a bounding volume hierarchy built over them, so a ray is
+ * intersected only with the triangles of the crossed leaves.
+ * Unlike a single Triangle, the edges and the vertices of the triangles belong to the mesh, so that rays never
+ * pass through the cracks between adjacent triangles.
+ * A mesh can be written with its hierarchy and restored without building it again (see {@link #write(DataOutput)}).
+ */
+public class TriangleMesh extends Geometry {
+    /** tolerance of the distance of a point from a triangle for the point to be on the triangle */
+    private static final double ON_MESH_TOLERANCE = 1e-9;
+
+    /** the coordinates of the vertices - x, y and z of each vertex, off the heap */
+    private final DoubleBuffer vertices;
+    /** the indices of the vertices of the triangles - three per triangle, ordered by the hierarchy leaves, off the heap */
+    private final IntBuffer indices;
+    /** the bounding box of the mesh */
+    private final BoundingBox box;
+    /** the hierarchy over the triangles */
+    private final BoxTree tree;
+
+    /**
+     * Constructor of a mesh from flat arrays. The arrays are copied off the heap.
+     * @param vertices the coordinates of the vertices - x, y and z of each vertex
+     * @param indices  the indices of the vertices of the triangles - three per triangle, the normal of a triangle
+     *                 is directed by the right-hand rule along its vertices order
+     * @throws IllegalArgumentException if the arrays are not made of triads, there are no triangles, an index is
+     *                                  out of the vertices or a triangle is degenerate (its vertices are on a line)
+     */
+    public TriangleMesh(double[] vertices, int[] indices) {
+        if (vertices.length % 3 != 0)
+            throw new IllegalArgumentException("Vertices coordinates must be triads");
+        if (indices.length == 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("A mesh must have triangles of three vertices each");
+
+        int count = vertices.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= count)
+                throw new IllegalArgumentException("Vertex index " + index + " is out of the mesh vertices");
+
+        int triangles = indices.length / 3;
+        double[] boxes = new double[6 * triangles];
+        for (int triangle = 0; triangle < triangles; ++triangle) {
+            if (isDegenerate(vertices, indices, triangle))
+                throw new IllegalArgumentException("Triangle " + triangle + " of the mesh is degenerate");
+            int b = 6 * triangle;
+            for (int axis = 0; axis < 3; ++axis) {
+                boxes[b + axis] = Double.POSITIVE_INFINITY;
+                boxes[b + 3 + axis] = Double.NEGATIVE_INFINITY;
+            }
+            for (int corner = 0; corner < 3; ++corner) {
+                int v = 3 * indices[3 * triangle + corner];
+                for (int axis = 0; axis < 3; ++axis) {
+                    boxes[b + axis] = Math.min(boxes[b + axis], vertices[v + axis]);
+                    boxes[b + 3 + axis] = Math.max(boxes[b + 3 + axis], vertices[v + axis]);
+                }
+            }
+        }
+        tree = new BoxTree(boxes);
+
+        this.vertices = allocate(bytes(vertices.length, Double.BYTES)).asDoubleBuffer().put(0, vertices);
+        // keep the triangles in the order of the leaves
+        this.indices = allocate(bytes(indices.length, Integer.BYTES)).asIntBuffer();
+        for (int k = 0; k < triangles; ++k)
+            this.indices.put(3 * k, indices, 3 * tree.order[k], 3);
+
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY, z0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY, z1 = Double.NEGATIVE_INFINITY;
+        for (int triangle = 0; triangle < triangles; ++triangle) {
+            int b = 6 * triangle;
+            x0 = Math.min(x0, boxes[b]);
+            y0 = Math.min(y0, boxes[b + 1]);
+            z0 = Math.min(z0, boxes[b + 2]);
+            x1 = Math.max(x1, boxes[b + 3]);
+            y1 = Math.max(y1, boxes[b + 4]);
+            z1 = Math.max(z1, boxes[b + 5]);
+        }
+        box = new BoundingBox(x0, y0, z0, x1, y1, z1);
+    }
+
+    /**
+     * Constructor of a mesh from vertices points
+     * @param vertices the vertices
+     * @param indices  the indices of the vertices of the triangles - three per triangle
+     * @throws IllegalArgumentException in the cases of {@link #TriangleMesh(double[], int[])}
+     */
+    public TriangleMesh(Point[] vertices, int[] indices) {
+        this(coordinates(vertices), indices);
+    }
+
+    /**
+     * Constructor of a restored mesh
+     * @param vertices the coordinates of the vertices
+     * @param indices  the indices of the vertices of the triangles, ordered by the hierarchy leaves
+     * @param tree     the hierarchy over the triangles
+     */
+    private TriangleMesh(DoubleBuffer vertices, IntBuffer indices, BoxTree tree) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.tree = tree;
+        box = tree.getBox();
+    }
+
+    /**
+     * Write the mesh - its vertices, its triangles and its hierarchy, without its material and emission
+     * @param  out the output
+     * @throws IOException if the output fails
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(vertices.limit());
+        for (int k = 0; k < vertices.limit(); ++k) out.writeDouble(vertices.get(k));
+        out.writeInt(indices.limit());
+        for (int k = 0; k < indices.limit(); ++k) out.writeInt(indices.get(k));
+        tree.write(out);
+    }
+
+    /**
+     * Restore a mesh written by {@link #write(DataOutput)}, without building its hierarchy.
+     * The vertices and the indices are not copied - the mesh reads them from the given buffer, so a mesh restored
+     * from a memory-mapped file keeps them in the mapping
+     * @param  in the written mesh, at its start - read up to its end
+     * @return    the mesh
+     * @throws IllegalArgumentException if the written mesh is malformed
+     */
+    public static TriangleMesh read(ByteBuffer in) {
+        DoubleBuffer vertices;
+        IntBuffer indices;
+        try {
+            int length = bytes(in.getInt(), Double.BYTES);
+            vertices = in.slice(in.position(), length).order(in.order()).asDoubleBuffer();
+            in.position(in.position() + length);
+            length = bytes(in.getInt(), Integer.BYTES);
+            indices = in.slice(in.position(), length).order(in.order()).asIntBuffer();
+            in.position(in.position() + length);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated mesh", e);
+        }
+        BoxTree tree = new BoxTree(in);
+        if (vertices.limit() % 3 != 0 || indices.limit() == 0 || tree.order.length != indices.limit() / 3)
+            throw new IllegalArgumentException("Malformed mesh");
+        for (int k = 0; k < indices.limit(); ++k)
+            if (indices.get(k) < 0 || indices.get(k) >= vertices.limit() / 3)
+                throw new IllegalArgumentException("Vertex index " + indices.get(k) + " is out of the mesh vertices");
+        return new TriangleMesh(vertices, indices, tree);
+    }
+
+    /**
+     * calculates the size in bytes of a buffer of numbers, which must fit a single buffer
+     * @param  length the amount of numbers
+     * @param  size   the size of a number in bytes
+     * @return        the buffer size in bytes
+     * @throws IllegalArgumentException if the amount is negative or the buffer would exceed 2 GB
+     */
+    private static int bytes(int length, int size) {
+        if (length < 0) throw new IllegalArgumentException("Malformed mesh buffer length " + length);
+        long bytes = (long) length * size;
+        if (bytes > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Mesh buffer of " + length + " numbers exceeds the 2 GB buffer limit");
+        return (int) bytes;
+    }
+
+    /**
+     * allocates a buffer off the heap, in the native byte order
+     * @param  bytes the buffer size in bytes
+     * @return       the buffer
+     */
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * flatten the points into an array of coordinates
+     * @param  points the points
+     * @return        x, y and z of each point
+     */
+    private static double[] coordinates(Point[] points) {
+        double[] coordinates = new double[3 * points.length];
+        for (int k = 0; k < points.length; ++k) {
+            coordinates[3 * k] = points[k].getX();
+            coordinates[3 * k + 1] = points[k].getY();
+            coordinates[3 * k + 2] = points[k].getZ();
+        }
+        return coordinates;
+    }
+
+    /**
+     * getter for the amount of triangles in the mesh
+     * @return the amount of triangles
+     */
+    public int getTriangleCount() {
+        return indices.limit() / 3;
+    }
+
+    /**
+     * getter for the amount of vertices in the mesh
+     * @return the amount of vertices
+     */
+    public int getVertexCount() {
+        return vertices.limit() / 3;
+    }
+
+    /**
+     * getter for the size of the vertices and the indices of the mesh, kept off the heap
+     * @return the size in bytes
+     */
+    public long getStorageBytes() {
+        return (long) vertices.limit() * Double.BYTES + (long) indices.limit() * Integer.BYTES;
+    }
+
+    /**
+     * checks whether the vertices of a triangle are on a line, i.e. the cross product of its edges is zero
+     * @param  vertices the coordinates of the vertices
+     * @param  indices  the indices of the vertices of the triangles
+     * @param  triangle the triangle index
+     * @return          true if the triangle has no normal
+     */
+    private static boolean isDegenerate(double[] vertices, int[] indices, int triangle) {
+        int a = 3 * indices[3 * triangle], b = 3 * indices[3 * triangle + 1], c = 3 * indices[3 * triangle + 2];
+        double e1x = vertices[b] - vertices[a], e1y = vertices[b + 1] - vertices[a + 1];
+        double e1z = vertices[b + 2] - vertices[a + 2];
+        double e2x = vertices[c] - vertices[a], e2y = vertices[c + 1] - vertices[a + 1];
+        double e2z = vertices[c + 2] - vertices[a + 2];
+        double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+        return isZero(nx) && isZero(ny) && isZero(nz);
+    }
+
+    /**
+     * calculates the normal of a triangle, directed by the right-hand rule along its vertices order
+     * @param  triangle the triangle index
+     * @return          the unit normal of the triangle
+     */
+    private Vector faceNormal(int triangle) {
+        int a = 3 * indices.get(3 * triangle), b = 3 * indices.get(3 * triangle + 1);
+        int c = 3 * indices.get(3 * triangle + 2);
+        double ax = vertices.get(a), ay = vertices.get(a + 1), az = vertices.get(a + 2);
+        Vector e1 = new Vector(vertices.get(b) - ax, vertices.get(b + 1) - ay, vertices.get(b + 2) - az);
+        Vector e2 = new Vector(vertices.get(c) - ax, vertices.get(c + 1) - ay, vertices.get(c + 2) - az);
+        return e1.crossProduct(e2).normalize();
+    }
+
+    /**
+     * intersects a ray with a triangle of the mesh (Möller–Trumbore)
+     * @param  triangle the triangle index
+     * @param  ox       x coordinate of the ray head
+     * @param  oy       y coordinate of the ray head
+     * @param  oz       z coordinate of the ray head
+     * @param  dx       x coordinate of the ray direction
+     * @param  dy       y coordinate of the ray direction
+     * @param  dz       z coordinate of the ray direction
+     * @return          the distance of the intersection from the ray head, or NaN if there is none
+     */
+    private double intersect(int triangle, double ox, double oy, double oz, double dx, double dy, double dz) {
+        int a = 3 * indices.get(3 * triangle), b = 3 * indices.get(3 * triangle + 1);
+        int c = 3 * indices.get(3 * triangle + 2);
+        double ax = vertices.get(a), ay = vertices.get(a + 1), az = vertices.get(a + 2);
+        double e1x = vertices.get(b) - ax, e1y = vertices.get(b + 1) - ay, e1z = vertices.get(b + 2) - az;
+        double e2x = vertices.get(c) - ax, e2y = vertices.get(c + 1) - ay, e2z = vertices.get(c + 2) - az;
+
+        // p = d x e2, det = e1 . p - zero if the ray is parallel to the triangle
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (isZero(det)) return Double.NaN;
+        double inv = 1 / det;
+
+        // barycentric coordinates of the intersection with the triangle plane
+        double sx = ox - ax, sy = oy - ay, sz = oz - az;
+        double u = (sx * px + sy * py + sz * pz) * inv;
+        if (u < 0 || u > 1) return Double.NaN;
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inv;
+        if (v < 0 || u + v > 1) return Double.NaN;
+
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inv);
+        return t > 0 ? t : Double.NaN;
+    }
+
+    /**
+     * creates the intersection of a ray with a triangle with the triangle normal
+     * @param  ray      the ray
+     * @param  triangle the triangle index
+     * @param  t        the distance of the intersection from the ray head
+     * @return          the intersection
+     */
+    private Intersection intersection(Ray ray, int triangle, double t) {
+        Intersection intersection = new Intersection(this, ray.getPoint(t), t);
+        intersection.normal = faceNormal(triangle);
+        return intersection;
+    }
+
+    /**
+     * finds all the intersections of a ray with the triangles of the mesh in the leaves crossed by the ray.
+     * A point on an edge shared by several triangles is returned once
+     *
+     * @param ray the ray that we want to check intersections with
+     * @return a list of the intersections, or null if there are none
+     */
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        List<Intersection> intersections = new LinkedList<>();
+        tree.traverse(ray, Double.POSITIVE_INFINITY, (first, count, distance) -> {
+            for (int triangle = first; triangle < first + count; ++triangle) {
+                double t = intersect(triangle, ox, oy, oz, dx, dy, dz);
+                if (!Double.isNaN(t) && !contains(intersections, t))
+                    intersections.add(intersection(ray, triangle, t));
+            }
+            return distance;
+        });
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    /**
+     * checks whether an intersection at the given distance has already been found
+     * @param  intersections the found intersections
+     * @param  t             the distance from the ray head
+     * @return               true if there is an intersection at the same distance
+     */
+    private static boolean contains(List<Intersection> intersections, double t) {
+        for (Intersection intersection : intersections)
+            if (isZero(intersection.distance - t)) return true;
+        return false;
+    }
+
+    /**
+     * finds the closest intersection of a ray with the triangles of the mesh.
+     * The leaves are visited front to back and a leaf is skipped when its box is entered farther than the closest
+     * intersection found so far
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return the closest intersection, or null if there is none closer than maxDistance
+     */
+    @Override
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        int[] closest = { -1 };
+        double distance = tree.traverse(ray, maxDistance, (first, count, bound) -> {
+            for (int triangle = first; triangle < first + count; ++triangle) {
+                double t = intersect(triangle, ox, oy, oz, dx, dy, dz);
+                if (t < bound) {
+                    bound = t;
+                    closest[0] = triangle;
+                }
+            }
+            return bound;
+        });
+        return closest[0] < 0 ? null : intersection(ray, closest[0], distance);
+    }
+
+    /**
+     * checks whether a ray hits any triangle of the mesh closer than the given distance.
+     * The traversal stops at the first triangle hit
+     *
+     * @param ray the ray that we want to check intersections with
+     * @param maxDistance the distance from the ray head beyond which the intersections are ignored
+     * @return true if there is an intersection closer than maxDistance
+     */
+    @Override
+    protected boolean hasIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        // the search distance drops to 0 when a blocker is found
+        return tree.traverse(ray, maxDistance, (first, count, distance) -> {
+            for (int triangle = first; triangle < first + count; ++triangle)
+                if (intersect(triangle, ox, oy, oz, dx, dy, dz) < distance) return 0;
+            return distance;
+        }) == 0;
+    }
+
+    /**
+     * calculates the normal of the triangle the point lays on. The intersections of the mesh carry their normals
+     * already, so the search is needed only for points found otherwise
+     *
+     * @param point a point on the mesh
+     * @return the normal of the (first) triangle containing the point
+     * @throws IllegalArgumentException if the point is not on the mesh
+     */
+    @Override
+    public Vector getNormal(Point point) {
+        for (int triangle = 0, count = getTriangleCount(); triangle < count; ++triangle) {
+            Vector normal = faceNormal(triangle);
+            // a ray from the point against the normal crosses the triangle at the point itself
+            Point above = point.add(normal);
+            double t = intersect(triangle, above.getX(), above.getY(), above.getZ(),
+                    -normal.getX(), -normal.getY(), -normal.getZ());
+            if (Math.abs(t - 1) < ON_MESH_TOLERANCE)
+                return normal;
+        }
+        throw new IllegalArgumentException("The point is not on the mesh");
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+}
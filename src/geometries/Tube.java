@@ -6,6 +6,9 @@ import primitives.Vector;
 
 import java.util.List;
 
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
 /**
  * Class Tube is the class representing a Tube(infinity cylinder) in Cartesian
  * 3-Dimensional coordinate system.
@@ -15,6 +18,8 @@ public class Tube extends RadialGeometry {
 
     /**The axis of the Tube*/
     protected final Ray axis;
+    /** the axis head coordinates and the axis unit direction components, for the intersections */
+    protected final double hX, hY, hZ, vX, vY, vZ;
 
     /**
      * constructor with parameters
@@ -24,14 +29,92 @@ public class Tube extends RadialGeometry {
     public Tube(double radius, Ray axis){
         super(radius);
         this.axis = axis;
+        Point head = axis.getHead();
+        Vector direction = axis.getDirection();
+        hX = head.getX();
+        hY = head.getY();
+        hZ = head.getZ();
+        vX = direction.getX();
+        vY = direction.getY();
+        vZ = direction.getZ();
     }
 
+    /**
+     * finds the intersections of a ray and the tube - there are at most two of them, found by the nearest
+     * intersection query one after the other
+     *
+     * @param ray the ray that we want to check intersections with
+     * @return a list of the intersections ordered by their distance from the ray head, or null if there is none
+     */
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
-        // The tube is infinite, so we need to find the intersection of the ray with the axis
-        // and then check if the point is within the radius of the tube
+        double t1 = nearest(ray, 0);
+        if (Double.isNaN(t1)) return null;
+        double t2 = nearest(ray, t1);
+        return Double.isNaN(t2)
+                ? List.of(intersection(ray, t1))
+                : List.of(intersection(ray, t1), intersection(ray, t2));
+    }
+
+    @Override
+    protected Intersection calculateClosestIntersectionHelper(Ray ray, double maxDistance) {
+        double t = nearest(ray, 0);
+        if (Double.isNaN(t) || t >= maxDistance) return null;
+        Intersection intersection = intersection(ray, t);
+        intersection.distance = t;
+        return intersection;
+    }
+
+    /**
+     * finds the distance of the nearest intersection of a ray with the surface beyond a given distance, without
+     * creating any object. The lateral surface is the solution of |(P - head) - ((P - head) * v)v|^2 = r^2 for
+     * P = p0 + t*d, a quadratic equation in t. A ray tangent to the surface or parallel to the axis does not
+     * intersect it
+     *
+     * @param ray the ray
+     * @param after the distance from the ray head the intersection must be beyond (0 for the nearest one)
+     * @return the distance of the intersection from the ray head, or NaN if there is none
+     */
+    protected double nearest(Ray ray, double after) {
+        Point p0 = ray.getHead();
+        Vector d = ray.getDirection();
+        double dX = d.getX(), dY = d.getY(), dZ = d.getZ();
+        double wX = p0.getX() - hX, wY = p0.getY() - hY, wZ = p0.getZ() - hZ;
+        double dv = dX * vX + dY * vY + dZ * vZ;
+        double wv = wX * vX + wY * vY + wZ * vZ;
+        // a*t^2 + 2*b*t + c = 0 for the components of d and w orthogonal to the axis
+        double a = 1 - dv * dv;
+        if (isZero(a)) return Double.NaN;
+        double b = dX * wX + dY * wY + dZ * wZ - dv * wv;
+        double c = wX * wX + wY * wY + wZ * wZ - wv * wv - radius * radius;
+        double discriminant = alignZero(b * b - a * c);
+        if (discriminant <= 0) return Double.NaN;
+        double root = Math.sqrt(discriminant);
+        double t1 = (-b - root) / a, t2 = (-b + root) / a;
+        if (alignZero(t1 - after) > 0) return t1;
+        return alignZero(t2 - after) > 0 ? t2 : Double.NaN;
+    }
+
+    /**
+     * creates the intersection of a ray with the surface
+     *
+     * @param ray the ray
+     * @param t the distance of the intersection from the ray head
+     * @return the intersection
+     */
+    protected Intersection intersection(Ray ray, double t) {
+        return new Intersection(this, ray.getPoint(t));
+    }
+    /**
+     * a tube is infinite along its axis
+     *
+     * @return null - the tube is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
         return null;
     }
+
     @Override
     public Vector getNormal(Point point) {
         // The normal of a tube is the vector from the axis to the point on the tube
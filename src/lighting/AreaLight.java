@@ -0,0 +1,121 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+/**
+ * a class to represent a rectangular area light - a point light spread over a rectangle, which casts soft
+ * shadows. The light is attenuated by the distance from the rectangle center like a point light, and the
+ * shadows are sampled at a grid of points over the rectangle (see {@link #getSamplePoint(int, int)})
+ */
+public class AreaLight extends PointLight {
+
+    //the center of the rectangle
+    private final Point center;
+    //the edges of the rectangle, both through the center
+    private final Vector width, height;
+    //the amount of the sample points along each edge of the rectangle
+    private int gridSize = 9;
+
+    /**
+     * a constructor that gets all the parameters
+     *
+     * @param intensity the intensity of the light
+     * @param center    the center of the rectangle
+     * @param width     the vector of the first edge of the rectangle (its length is the edge length)
+     * @param height    the vector of the second edge of the rectangle (its length is the edge length)
+     */
+    public AreaLight(Color intensity, Point center, Vector width, Vector height) {
+        super(intensity, center);
+        this.center = center;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * setter for the sample grid - the shadows are sampled at gridSize x gridSize points, the corners of the
+     * rectangle included
+     *
+     * @param gridSize the amount of the sample points along each edge
+     * @return this object
+     * @throws IllegalArgumentException if there are less than 2 sample points along an edge
+     */
+    public AreaLight setGridSize(int gridSize) {
+        if (gridSize < 2)
+            throw new IllegalArgumentException("The sample grid must have at least 2 points along each edge");
+        this.gridSize = gridSize;
+        return this;
+    }
+
+    /**
+     * getter for the sample grid
+     *
+     * @return the amount of the sample points along each edge of the rectangle
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * a method to get a sample point of the rectangle
+     *
+     * @param i the index of the point along the width, 0 to gridSize - 1
+     * @param j the index of the point along the height, 0 to gridSize - 1
+     * @return the sample point - (0, 0) and (gridSize - 1, gridSize - 1) are opposite corners
+     */
+    public Point getSamplePoint(int i, int j) {
+        double u = (double) i / (gridSize - 1) - 0.5, v = (double) j / (gridSize - 1) - 0.5;
+        return new Point(center.getX() + width.getX() * u + height.getX() * v,
+                center.getY() + width.getY() * u + height.getY() * v,
+                center.getZ() + width.getZ() * u + height.getZ() * v);
+    }
+
+    /**
+     * setter for kC
+     *
+     * @param kC the kc to set
+     * @return this object
+     */
+    @Override
+    public AreaLight setkC(double kC) {
+        super.setkC(kC);
+        return this;
+    }
+
+    /**
+     * setter for kL
+     *
+     * @param kL the kL to set
+     * @return this object
+     */
+    @Override
+    public AreaLight setkL(double kL) {
+        super.setkL(kL);
+        return this;
+    }
+
+    /**
+     * setter for kQ
+     *
+     * @param kQ the kQ to set
+     * @return this object
+     */
+    @Override
+    public AreaLight setkQ(double kQ) {
+        super.setkQ(kQ);
+        return this;
+    }
+
+    /**
+     * setter for castShadows
+     *
+     * @param castShadows whether objects block the light
+     * @return this object
+     */
+    @Override
+    public AreaLight setCastShadows(boolean castShadows) {
+        super.setCastShadows(castShadows);
+        return this;
+    }
+}
@@ -48,12 +48,24 @@ public class DirectionalLight extends Light implements LightSource {
     }
 
     /**
+     * setter for castShadows
      *
-     * @param point
-     * @return
+     * @param castShadows whether objects block the light
+     * @return this object
      */
-//    @Override
-//    public double getDistance(Point point){
-//            return Double.POSITIVE_INFINITY;
-//    }
+    public DirectionalLight setCastShadows(boolean castShadows) {
+        this.castShadows = castShadows;
+        return this;
+    }
+
+    /**
+     * a method to get the distance of the light from a point
+     *
+     * @param point the point I want to get the distance from
+     * @return infinity - the light is infinitely far
+     */
+    @Override
+    public double getDistance(Point point) {
+        return Double.POSITIVE_INFINITY;
+    }
 }
@@ -2,12 +2,18 @@ package lighting;
 
 import primitives.Color;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * an abstract class to represents all the lights
  */
 abstract class Light {
     //the intensity of the light
     protected final Color intensity;
+    //whether objects block the light
+    protected boolean castShadows = true;
+    //the amount of changes of any light that change its influence radius
+    private static final AtomicLong modifications = new AtomicLong();
 
     /**
      * a constructor to Light
@@ -27,4 +33,29 @@ abstract class Light {
 
         return intensity;
     }
+
+    /**
+     * checks whether the light casts shadows
+     *
+     * @return true if the light casts shadows
+     */
+    public boolean isCastingShadows() {
+        return castShadows;
+    }
+
+    /**
+     * records a change of the light that changes its influence radius, so that the light indexes are rebuilt
+     */
+    protected static void modified() {
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * gets the amount of changes of any light that changed its influence radius
+     *
+     * @return the modification count
+     */
+    static long getModifications() {
+        return modifications.get();
+    }
 }
@@ -0,0 +1,15 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Vector;
+
+/**
+ * The evaluation of a light source at a point - everything the shading needs of the light, calculated together
+ * in a single call of {@link LightSource#sample(primitives.Point)}
+ *
+ * @param direction the normalized direction of the light at the point (from the light towards the point)
+ * @param distance  the distance of the light from the point (infinity for a light without position)
+ * @param intensity the intensity of the light at the point
+ */
+public record LightSample(Vector direction, double distance, Color intensity) {
+}
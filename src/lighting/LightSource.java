@@ -23,9 +23,58 @@ public interface LightSource {
     public Vector getL(Point point);
 
     /**
+     * a method to get the distance of the light source from a point
      *
-     * @param point
-     * @return
+     * @param point the point I want to get the distance from
+     * @return the distance of the light from point (infinity for a light without position)
      */
-    /*double getDistance(Point point);*/
+    double getDistance(Point point);
+
+    /**
+     * a method to evaluate the light at a point - its direction, its distance and its intensity together,
+     * sharing the calculations the separate methods would repeat
+     *
+     * @param point the point I want to evaluate the light at
+     * @return the direction, the distance and the intensity of the light at point
+     */
+    default LightSample sample(Point point) {
+        return new LightSample(getL(point), getDistance(point), getIntensity(point));
+    }
+
+    /**
+     * a method to check whether objects block the light, i.e. whether the light casts shadows
+     *
+     * @return true if the light casts shadows
+     */
+    boolean isCastingShadows();
+
+    /**
+     * a method to get the position of the light source
+     *
+     * @return the position of the light, or null for a light without position
+     */
+    default Point getPosition() {
+        return null;
+    }
+
+    /**
+     * a method to get the distance from the light position beyond which the light is negligible, so that the
+     * light can be skipped at farther points
+     *
+     * @param cutoff the intensity (of the strongest color component) below which the light is negligible
+     * @return the influence radius of the light, infinity for a light that reaches everywhere
+     */
+    default double getInfluenceRadius(double cutoff) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * a method to get the amount of changes of any light source that changed its influence radius (see
+     * {@link #getInfluenceRadius(double)}), for detecting outdated light indexes
+     *
+     * @return the modification count of all the light sources
+     */
+    static long getModificationCount() {
+        return Light.getModifications();
+    }
 }
@@ -40,12 +40,22 @@ public class PointLight extends Light implements LightSource {
      */
     @Override
     public Color getIntensity(Point point) {
+        return sample(point).intensity();
+    }
+
+    /**
+     * a method to get the intensity of the light at a point of a known direction and distance from the light
+     *
+     * @param l        the direction of the light at the point
+     * @param distance the distance of the point from the light position
+     * @return the intensity of the light at the point
+     */
+    protected Color getIntensity(Vector l, double distance) {
         // The intensity of the color of the light
         // (the distribution of the light in the surface area)
         // is proportional to squared distance
 
         //Calculate the denominator of the proportion
-        double distance = this.position.distance(point);
         double distanceSquared = distance * distance;
         double factor = this.kC + this.kL * distance + this.kQ * distanceSquared;
 
@@ -53,6 +63,21 @@ public class PointLight extends Light implements LightSource {
         return getIntensity().scale(1 / factor);
     }
 
+    /**
+     * a method to evaluate the light at a point - the vector from the light to the point is calculated once
+     * and gives both the direction and the distance
+     *
+     * @param point the point I want to evaluate the light at
+     * @return the direction, the distance and the intensity of the light at point
+     */
+    @Override
+    public LightSample sample(Point point) {
+        Vector vector = point.subtract(this.position);
+        double distance = vector.length();
+        Vector l = vector.scale(1 / distance);
+        return new LightSample(l, distance, getIntensity(l, distance));
+    }
+
     /**
      * a method to get the direction of the light in a specific point
      *
@@ -72,6 +97,7 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setkC(double kC) {
         this.kC = kC;
+        modified();
         return this;
     }
 
@@ -83,6 +109,7 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setkL(double kL) {
         this.kL = kL;
+        modified();
         return this;
     }
 
@@ -94,16 +121,57 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setkQ(double kQ) {
         this.kQ = kQ;
+        modified();
+        return this;
+    }
+
+    /**
+     * setter for castShadows
+     *
+     * @param castShadows whether objects block the light
+     * @return this object
+     */
+    public PointLight setCastShadows(boolean castShadows) {
+        this.castShadows = castShadows;
         return this;
     }
 
     /**
+     * a method to get the distance of the light from a specific point
+     *
+     * @param point the point I want to get the distance from
+     * @return the distance of the light position from point
+     */
+    @Override
+    public double getDistance(Point point) {
+        return position.distance(point);
+    }
+
+    /**
+     * a method to get the position of the light
      *
-     * @param point
-     * @return
+     * @return the position of the light
      */
-//    @Override
-//    public double getDistance(Point point) {
-//        return position.distance(point);
-//    }
+    @Override
+    public Point getPosition() {
+        return position;
+    }
+
+    /**
+     * a method to get the distance beyond which the attenuated light is weaker than a cutoff - the distance d
+     * where I0 / (kC + kL*d + kQ*d^2) equals the cutoff for the strongest component of I0
+     *
+     * @param cutoff the intensity below which the light is negligible
+     * @return the influence radius of the light, infinity for a light that is not attenuated by the distance
+     */
+    @Override
+    public double getInfluenceRadius(double cutoff) {
+        if (cutoff <= 0) return Double.POSITIVE_INFINITY;
+        // the attenuation factor at the radius
+        double factor = getIntensity().maxComponent() / cutoff - kC;
+        if (factor <= 0) return 0;
+        if (kQ > 0) return (-kL + Math.sqrt(kL * kL + 4 * kQ * factor)) / (2 * kQ);
+        if (kL > 0) return factor / kL;
+        return Double.POSITIVE_INFINITY;
+    }
 }
@@ -4,7 +4,6 @@ import primitives.Color;
 import primitives.Point;
 import primitives.Vector;
 
-import static primitives.Util.alignZero;
 /**
  * a class to represents Spot-Light
  */
@@ -57,6 +56,17 @@ public class SpotLight extends PointLight{
         return this;
     }
 
+    /**
+     * sets the castShadows
+     * @param castShadows whether objects block the light
+     * @return the spotlight
+     */
+    @Override
+    public SpotLight setCastShadows(boolean castShadows) {
+        super.setCastShadows(castShadows);
+        return this;
+    }
+
     /**
      * sets the NarrowBeam
      * @param narrowBeam the narowness of the light
@@ -68,16 +78,15 @@ public class SpotLight extends PointLight{
     }
 
     /**
-     * a method to get the intensity of the light
+     * a method to get the intensity of the light at a point of a known direction and distance from the light
      *
-     * @param point the point I want to get the color of
-     * @return the intensity of the light
+     * @param l        the direction of the light at the point
+     * @param distance the distance of the point from the light position
+     * @return the intensity of the light at the point
      */
     @Override
-    public Color getIntensity(Point point) {
-        double cos = alignZero(direction.dotProduct(getL(point)));
-        return NarrowBeam != 1
-                ? super.getIntensity(point).scale(Math.pow(Math.max(0, direction.dotProduct(getL(point))), NarrowBeam))
-                : super.getIntensity(point).scale(Math.max(0, direction.dotProduct(getL(point))));
+    protected Color getIntensity(Vector l, double distance) {
+        double cos = Math.max(0, direction.dotProduct(l));
+        return super.getIntensity(l, distance).scale(NarrowBeam != 1 ? Math.pow(cos, NarrowBeam) : cos);
     }
 }
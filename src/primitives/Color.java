@@ -70,6 +70,24 @@ public class Color {
         return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
     }
 
+    /**
+     * Red component getter
+     * @return the red component, not limited to 255
+     */
+    public double getRed() { return rgb.d1; }
+
+    /**
+     * Green component getter
+     * @return the green component, not limited to 255
+     */
+    public double getGreen() { return rgb.d2; }
+
+    /**
+     * Blue component getter
+     * @return the blue component, not limited to 255
+     */
+    public double getBlue() { return rgb.d3; }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      * @param  colors one or more other colors to add
@@ -118,6 +136,24 @@ public class Color {
         return new Color(rgb.reduce(k));
     }
 
+    /**
+     * Find the strongest component of the color
+     * @return the largest of the rgb components
+     */
+    public double maxComponent() {
+        return Math.max(rgb.d1, Math.max(rgb.d2, rgb.d3));
+    }
+
+    /**
+     * Calculate the difference between this and another color
+     * @param  other the other color
+     * @return       the largest absolute difference of the rgb components
+     */
+    public double difference(Color other) {
+        return Math.max(Math.abs(rgb.d1 - other.rgb.d1),
+                Math.max(Math.abs(rgb.d2 - other.rgb.d2), Math.abs(rgb.d3 - other.rgb.d3)));
+    }
+
     @Override
     public String toString() { return "rgb:" + rgb; }
 }
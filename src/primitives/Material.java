@@ -12,6 +12,12 @@ public class Material {
     // the shininess factor of the object material type//
     public int nShininess = 0;
 
+    // the reflection factor of the object material type
+    public Double3 kR = Double3.ZERO;
+
+    // the transparency factor of the object material type
+    public Double3 kT = Double3.ZERO;
+
     /**
      * set KD function - the diffuse light factor
      *
@@ -76,4 +82,48 @@ public class Material {
         this.nShininess = nShininess;
         return this;
     }
+
+    /**
+     * set kR function - the reflection factor
+     *
+     * @param kR reflection factor (Double3)
+     * @return this (Material)
+     */
+    public Material setkR(Double3 kR) {
+        this.kR = kR;
+        return this;
+    }
+
+    /**
+     * set kR function - the reflection factor
+     *
+     * @param kR reflection factor (double)
+     * @return this (Material)
+     */
+    public Material setkR(double kR) {
+        this.kR = new Double3(kR);
+        return this;
+    }
+
+    /**
+     * set kT function - the transparency factor
+     *
+     * @param kT transparency factor (Double3)
+     * @return this (Material)
+     */
+    public Material setkT(Double3 kT) {
+        this.kT = kT;
+        return this;
+    }
+
+    /**
+     * set kT function - the transparency factor
+     *
+     * @param kT transparency factor (double)
+     * @return this (Material)
+     */
+    public Material setkT(double kT) {
+        this.kT = new Double3(kT);
+        return this;
+    }
 }
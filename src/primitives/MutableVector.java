@@ -0,0 +1,186 @@
+package primitives;
+
+/**
+ * Class MutableVector is a mutable triad of coordinates for internal hot paths (ray generation, intersection
+ * kernels) where the immutable Point and Vector would allocate an object on every operation.
+ * All the operations change the vector itself and return it for chaining. A MutableVector used as a local
+ * scratch register does not escape its method, so the JIT removes its allocation as well.
+ * The immutable Point and Vector remain the public API of the geometries - convert at the end of the calculation
+ * with {@link #toPoint()} or {@link #toVector()}.
+ */
+public final class MutableVector {
+    /** x coordinate */
+    public double x;
+    /** y coordinate */
+    public double y;
+    /** z coordinate */
+    public double z;
+
+    /**
+     * Constructor of a zero triad
+     */
+    public MutableVector() {
+    }
+
+    /**
+     * Constructor to initialize the triad with the coordinates of a point (or a vector)
+     * @param point the point
+     */
+    public MutableVector(Point point) {
+        set(point);
+    }
+
+    /**
+     * set the coordinates
+     * @param  x x coordinate
+     * @param  y y coordinate
+     * @param  z z coordinate
+     * @return   this vector
+     */
+    public MutableVector set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /**
+     * set the coordinates of a point (or a vector)
+     * @param  point the point
+     * @return       this vector
+     */
+    public MutableVector set(Point point) {
+        return set(point.xyz.d1, point.xyz.d2, point.xyz.d3);
+    }
+
+    /**
+     * set the vector from one point to another one (the same as {@code to.subtract(from)})
+     * @param  to   the end point
+     * @param  from the start point
+     * @return      this vector
+     */
+    public MutableVector setSubtract(Point to, Point from) {
+        return set(to.xyz.d1 - from.xyz.d1, to.xyz.d2 - from.xyz.d2, to.xyz.d3 - from.xyz.d3);
+    }
+
+    /**
+     * add a vector
+     * @param  v the vector
+     * @return   this vector
+     */
+    public MutableVector add(Vector v) {
+        x += v.xyz.d1;
+        y += v.xyz.d2;
+        z += v.xyz.d3;
+        return this;
+    }
+
+    /**
+     * add a scaled vector (the same as {@code add(v.scale(t))})
+     * @param  v the vector
+     * @param  t the scale factor
+     * @return   this vector
+     */
+    public MutableVector addScaled(Vector v, double t) {
+        x += v.xyz.d1 * t;
+        y += v.xyz.d2 * t;
+        z += v.xyz.d3 * t;
+        return this;
+    }
+
+    /**
+     * subtract a point (or a vector)
+     * @param  point the point
+     * @return       this vector
+     */
+    public MutableVector subtract(Point point) {
+        x -= point.xyz.d1;
+        y -= point.xyz.d2;
+        z -= point.xyz.d3;
+        return this;
+    }
+
+    /**
+     * multiply the vector by a scalar
+     * @param  scalar the scalar
+     * @return        this vector
+     */
+    public MutableVector scale(double scalar) {
+        x *= scalar;
+        y *= scalar;
+        z *= scalar;
+        return this;
+    }
+
+    /**
+     * calculate the dot product with a vector
+     * @param  v the vector
+     * @return   the dot product
+     */
+    public double dotProduct(Vector v) {
+        return x * v.xyz.d1 + y * v.xyz.d2 + z * v.xyz.d3;
+    }
+
+    /**
+     * calculate the dot product with another mutable vector
+     * @param  v the vector
+     * @return   the dot product
+     */
+    public double dotProduct(MutableVector v) {
+        return x * v.x + y * v.y + z * v.z;
+    }
+
+    /**
+     * calculate the length squared of the vector
+     * @return the length squared
+     */
+    public double lengthSquared() {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * calculate the length of the vector
+     * @return the length
+     */
+    public double length() {
+        return Math.sqrt(lengthSquared());
+    }
+
+    /**
+     * normalize the vector (the same calculation as {@link Vector#normalize()})
+     * @return this vector
+     */
+    public MutableVector normalize() {
+        return scale(1 / length());
+    }
+
+    /**
+     * checks whether the vector is [almost] zero
+     * @return true if all the coordinates are zero or almost zero
+     */
+    public boolean isZero() {
+        return Util.isZero(x) && Util.isZero(y) && Util.isZero(z);
+    }
+
+    /**
+     * create an immutable point with the coordinates
+     * @return a new point
+     */
+    public Point toPoint() {
+        return new Point(x, y, z);
+    }
+
+    /**
+     * create an immutable vector with the coordinates
+     * @return a new vector
+     * @throws IllegalArgumentException if the vector is zero
+     */
+    public Vector toVector() {
+        return new Vector(x, y, z);
+    }
+
+    @Override
+    public String toString() {
+        return "MutableVector{(" + x + "," + y + "," + z + ")}";
+    }
+}
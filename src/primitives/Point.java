@@ -55,6 +55,30 @@ public class Point {
         return xyz;
     }
 
+    /**
+     * a get method for the x coordinate of the point
+     * @return the x coordinate
+     */
+    public double getX() {
+        return xyz.d1;
+    }
+
+    /**
+     * a get method for the y coordinate of the point
+     * @return the y coordinate
+     */
+    public double getY() {
+        return xyz.d2;
+    }
+
+    /**
+     * a get method for the z coordinate of the point
+     * @return the z coordinate
+     */
+    public double getZ() {
+        return xyz.d3;
+    }
+
     /**
      * calculates the squared distance between the current and parameter point
      * @param p1 the other point
@@ -12,6 +12,9 @@ import static primitives.Util.isZero;
  * @author Rachel and Tehila
  */
 public class Ray {
+    /** the size of the shift of a ray head off a surface, so that the ray does not hit the surface it starts on */
+    private static final double DELTA = 0.1;
+
     /** a point that represents the head of the ray */
     private final Point head;
     /** a normalized vector that represents the direction of the ray */
@@ -28,6 +31,33 @@ public class Ray {
         this.direction = direction.normalize();
     }
 
+    /**
+     * a constructor to initialize a ray with a point and a direction calculated in a mutable vector.
+     * the direction is normalized straight into the ray, the mutable vector is not changed.
+     * @param head the point that is the head of the ray
+     * @param direction the direction of the ray. (doesn't need to be normalized)
+     */
+    public Ray(Point head, MutableVector direction) {
+        if (direction.isZero())
+            throw new IllegalArgumentException("Vector can't be zero");
+        double scale = 1 / direction.length();
+        this.head = head;
+        this.direction = new Vector(direction.x * scale, direction.y * scale, direction.z * scale);
+    }
+
+    /**
+     * a constructor to initialize a ray starting on a surface. The head is shifted by DELTA along the normal
+     * to the side of the surface the ray goes to, so that the ray does not intersect the surface itself.
+     * @param point the point on the surface
+     * @param direction a vector representing the direction of the ray. (doesn't need to be normalized)
+     * @param normal the normal of the surface at the point
+     */
+    public Ray(Point point, Vector direction, Vector normal) {
+        double nv = direction.dotProduct(normal);
+        this.head = isZero(nv) ? point : point.add(normal.scale(nv > 0 ? DELTA : -DELTA));
+        this.direction = direction.normalize();
+    }
+
     /**
      * getter function for ray's direction vector
      * @return the vector representing the ray's direction
@@ -69,10 +99,24 @@ public class Ray {
         if(isZero(t)) {
             return head;
         } else {
-            return head.add(direction.scale(t));
+            // the same as head.add(direction.scale(t)) without the intermediate objects
+            return new Point(head.xyz.d1 + direction.xyz.d1 * t,
+                    head.xyz.d2 + direction.xyz.d2 * t,
+                    head.xyz.d3 + direction.xyz.d3 * t);
         }
     }
 
+    /**
+     * calculates the distance from the head of the ray to a point lying on the ray, without a square root
+     * @param point a point on the ray
+     * @return the distance of the point from the head of the ray
+     */
+    public double distanceTo(Point point) {
+        return (point.xyz.d1 - head.xyz.d1) * direction.xyz.d1
+                + (point.xyz.d2 - head.xyz.d2) * direction.xyz.d2
+                + (point.xyz.d3 - head.xyz.d3) * direction.xyz.d3;
+    }
+
     /**
      * receives a list of points and returns the closest point to the head of the ray
      * @param points the list of points
@@ -103,11 +147,11 @@ public class Ray {
         }
 
         Intersection closest = intersectionPoints.getFirst(); // the closest point to the head
-        double closestDistance = closest.point.distance(head); // the distance between the head and the closest point
-        double distance; //a temporary variable of the distance between the point that is checked and the head
+        double closestDistance = closest.point.distanceSquared(head); // the squared distance between the head and the closest point
+        double distance; //a temporary variable of the squared distance between the point that is checked and the head
 
         for(Intersection intersectionPoint : intersectionPoints) { // go through all of the points and find the closest one
-            distance = intersectionPoint.point.distance(head);
+            distance = intersectionPoint.point.distanceSquared(head);
             if(distance < closestDistance) {
                 closest = intersectionPoint;
                 closestDistance = distance;
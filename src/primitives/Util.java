@@ -6,6 +6,12 @@ package primitives;
 public final class Util {
     /** It is binary, equivalent to ~1/1,000,000,000,000 in decimal (12 digits) */
     private static final int ACCURACY = -40;
+    /** The greatest decimal mantissa that is an exact double, for parsing numbers (see {@link #decimal}) */
+    public static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /** The powers of 10 that are exact doubles */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
 
     /** Don't let anyone instantiate this class. */
     private Util() {}
@@ -46,6 +52,16 @@ public final class Util {
         return (n1 < 0 && n2 < 0) || (n1 > 0 && n2 > 0);
     }
 
+    /** Compute a parsed decimal number directly - the number is correctly rounded when its mantissa and the power
+     * of 10 of its scale are exact doubles, otherwise it is left for {@link Double#parseDouble(String)}
+     * @param  mantissa the digits of the number, non-negative
+     * @param  scale    the decimal exponent of the digits
+     * @return          mantissa * 10^scale, or NaN if it cannot be computed directly */
+    public static double decimal(long mantissa, int scale) {
+        if (mantissa > MAX_EXACT_MANTISSA || Math.abs(scale) >= POWERS_OF_TEN.length) return Double.NaN;
+        return scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+    }
+
     /** Provide a real random number in range between min and max
      * @param  min value (included)
      * @param  max value (excluded)
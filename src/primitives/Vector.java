@@ -1,6 +1,8 @@
 //vector.java
 package primitives;
 
+import static primitives.Util.isZero;
+
 /**
  * This class will serve most primitive classes by representing a vector
  */
@@ -18,8 +20,7 @@ public class Vector extends Point {
      */
     public Vector(double x, double y, double z) {
         super(x, y, z);
-        //Vector temp = new Vector(Double3.ZERO);
-        if (xyz.equals(Double3.ZERO))
+        if (isZero(x) && isZero(y) && isZero(z))
             throw new IllegalArgumentException("Vector can't be zero");
     }
 
@@ -30,7 +31,7 @@ public class Vector extends Point {
      */
     public Vector(Double3 xyz) {
         super(xyz);
-        if (this.xyz.equals(Double3.ZERO))
+        if (isZero(xyz.d1) && isZero(xyz.d2) && isZero(xyz.d3))
             throw new IllegalArgumentException("Vector can't be zero");
     }
 
@@ -100,7 +101,7 @@ public class Vector extends Point {
      * @return the vectors sum
      */
     public Vector add(Vector v) {
-        if (this.equals(v.scale(-1)))
+        if (isZero(xyz.d1 + v.xyz.d1) && isZero(xyz.d2 + v.xyz.d2) && isZero(xyz.d3 + v.xyz.d3))
             throw new IllegalArgumentException("You cant do vector+-itself");
         return new Vector(xyz.add(v.xyz));
     }
@@ -3,13 +3,27 @@ package renderer;
 import primitives.*;
 import scene.Scene;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.MissingResourceException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntSupplier;
 
 
 /**
  * Camera class represents a camera in the 3D space
  */
 public class Camera implements Cloneable {
+    /** the scratch vector of every rendering thread for constructing the rays */
+    private static final ThreadLocal<MutableVector> SCRATCH = ThreadLocal.withInitial(MutableVector::new);
+
     private Point p0;
     private Vector vUp;
     private Vector vTo;
@@ -24,6 +38,41 @@ public class Camera implements Cloneable {
     private int nX = 1;
     private int nY = 1;
 
+    /** amount of rendering threads - 0 means serial rendering on the calling thread */
+    private int threadsCount = 0;
+    /** size (in pixels) of the square tiles the view plane is split into for parallel rendering */
+    private int tileSize = 16;
+
+    /** maximal depth of the adaptive super sampling subdivision - 0 means a single ray through each pixel center */
+    private int antiAliasingDepth = 0;
+    /** the largest difference of the color components of the corners of a pixel region that is not subdivided */
+    private double antiAliasingThreshold = 0;
+
+    /** the tone mapping of the rendered colors into the written image */
+    private ToneMapping toneMapping = ToneMapping.CLAMP;
+
+    /** the name of the image file written while rendering - null means the image is written on demand only */
+    private String outputName = null;
+    /** the format of the image file written while rendering */
+    private ImageFormat outputFormat = ImageFormat.PNG;
+    /** the image file of the current rendering, or null if it is not written while rendering */
+    private ImageStream output = null;
+    /** the amount of tiles (or of rows, in progressive rendering) of each row of tiles not rendered yet */
+    private AtomicIntegerArray remainingTiles = null;
+
+    /** the render farm rendering the tiles of the image - null means rendering on this machine */
+    private RenderFarm renderFarm = null;
+
+    /** amount of passes of progressive rendering */
+    private int progressivePasses = 1;
+    /** the listener of progressive rendering passes - null means rendering in a single pass */
+    private ProgressListener progressListener = null;
+
+    /** the listener of the rendering metrics - null means no metrics unless the JFR render event is enabled */
+    private MetricsListener metricsListener = null;
+    /** the metrics of the current rendering, or null if it is not measured */
+    private RenderMetrics metrics = null;
+
     /**
      * Camera getter
      * @return the location of the camera
@@ -67,26 +116,454 @@ public class Camera implements Cloneable {
     public double getDistance() { return distance; }
 
 
-    private void castRay(int nX, int nY) {
-        Ray ray=constructRay(this.nX, this.nY, nX, nY);
-        Color color = rayTracer.traceRay(ray);
-        imageWriter.writePixel(nX,nY,color);
+    /**
+     * Cast a ray through a single pixel and write its color to the image
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     */
+    private void castRay(int j, int i) {
+        imageWriter.writePixel(j, i, tracePixel(j, i));
+    }
+
+    /**
+     * Calculate the color of a single pixel
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     * @return the color seen through the pixel
+     */
+    private Color tracePixel(int j, int i) {
+        return rayTracer.traceRay(constructRay(nX, nY, j, i));
+    }
+
+    /**
+     * Calculate the color seen through a point of the view plane
+     * @param u the column coordinate of the point in pixels from the left edge of the view plane
+     * @param v the row coordinate of the point in pixels from the top edge of the view plane
+     * @return the color seen through the point
+     */
+    private Color traceSample(double u, double v) {
+        return rayTracer.traceRay(constructRay(nX, nY, u, v));
+    }
+
+    /**
+     * Render a rectangular block of pixels into the image.
+     * With adaptive anti-aliasing the pixel corners are traced first - each corner once for all the pixels of the
+     * block sharing it - and only the pixels whose corners differ are subdivided.
+     * @param x0     the column of the top-left pixel of the block
+     * @param y0     the row of the top-left pixel of the block
+     * @param width  the amount of columns of the block
+     * @param height the amount of rows of the block
+     */
+    private void traceBlock(int x0, int y0, int width, int height) {
+        traceBlock(x0, y0, width, height, null);
+    }
+
+    /**
+     * Render a rectangular block of pixels into the image, continuing the block above it - the corners of the
+     * upper edge of the block are taken from the rendering of the block above instead of being traced again.
+     * @param x0     the column of the top-left pixel of the block
+     * @param y0     the row of the top-left pixel of the block
+     * @param width  the amount of columns of the block
+     * @param height the amount of rows of the block
+     * @param top    the colors of the corners of the upper edge of the block, null to trace them
+     * @return the colors of the corners of the lower edge of the block, null without anti-aliasing
+     */
+    private Color[] traceBlock(int x0, int y0, int width, int height, Color[] top) {
+        if (antiAliasingDepth == 0) {
+            for (int i = 0; i < height; i++)
+                for (int j = 0; j < width; j++)
+                    castRay(x0 + j, y0 + i);
+            return null;
+        }
+
+        // the corners of the upper and the lower edges of the current row of pixels
+        Color[] upper = top;
+        Color[] lower = new Color[width + 1];
+        if (upper == null) {
+            upper = new Color[width + 1];
+            for (int j = 0; j <= width; j++)
+                upper[j] = traceSample(x0 + j, y0);
+        }
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j <= width; j++)
+                lower[j] = traceSample(x0 + j, y0 + i + 1);
+            for (int j = 0; j < width; j++) {
+                imageWriter.writePixel(x0 + j, y0 + i, Color.BLACK);
+                traceRegion(x0 + j, y0 + i, x0 + j, y0 + i, 1,
+                        upper[j], upper[j + 1], lower[j], lower[j + 1], antiAliasingDepth);
+            }
+            Color[] swap = upper;
+            upper = lower;
+            lower = swap;
+        }
+        return upper;
+    }
+
+    /**
+     * Accumulate the color of a square region of a pixel into the pixel, from the region corners, subdividing it
+     * into four quarters while its corners differ by more than the threshold and the depth allows.
+     * The quarters share the corners and the edge middles of the region, so a subdivision traces five new rays.
+     * Every region that is not subdivided adds the average of its corners weighted by its area.
+     * @param x           the column of the pixel
+     * @param y           the row of the pixel
+     * @param u           the column coordinate of the region top-left corner in pixels
+     * @param v           the row coordinate of the region top-left corner in pixels
+     * @param size        the edge length of the region in pixels
+     * @param topLeft     the color of the top-left corner
+     * @param topRight    the color of the top-right corner
+     * @param bottomLeft  the color of the bottom-left corner
+     * @param bottomRight the color of the bottom-right corner
+     * @param depth       the remaining subdivision depth
+     */
+    private void traceRegion(int x, int y, double u, double v, double size,
+                             Color topLeft, Color topRight, Color bottomLeft, Color bottomRight, int depth) {
+        if (depth == 0 || similar(topLeft, topRight, bottomLeft, bottomRight)) {
+            double weight = size * size / 4;
+            imageWriter.addPixel(x, y, topLeft, weight);
+            imageWriter.addPixel(x, y, topRight, weight);
+            imageWriter.addPixel(x, y, bottomLeft, weight);
+            imageWriter.addPixel(x, y, bottomRight, weight);
+            return;
+        }
+
+        double half = size / 2;
+        Color top = traceSample(u + half, v);
+        Color left = traceSample(u, v + half);
+        Color center = traceSample(u + half, v + half);
+        Color right = traceSample(u + size, v + half);
+        Color bottom = traceSample(u + half, v + size);
+        traceRegion(x, y, u, v, half, topLeft, top, left, center, depth - 1);
+        traceRegion(x, y, u + half, v, half, top, topRight, center, right, depth - 1);
+        traceRegion(x, y, u, v + half, half, left, center, bottomLeft, bottom, depth - 1);
+        traceRegion(x, y, u + half, v + half, half, center, right, bottom, bottomRight, depth - 1);
+    }
+
+    /**
+     * Check whether the corner colors of a region are close enough for the region not to be subdivided
+     * @param topLeft     the color of the top-left corner
+     * @param topRight    the color of the top-right corner
+     * @param bottomLeft  the color of the bottom-left corner
+     * @param bottomRight the color of the bottom-right corner
+     * @return true if no two corners differ by more than the threshold
+     */
+    private boolean similar(Color topLeft, Color topRight, Color bottomLeft, Color bottomRight) {
+        return topLeft.difference(topRight) <= antiAliasingThreshold
+                && topLeft.difference(bottomLeft) <= antiAliasingThreshold
+                && topLeft.difference(bottomRight) <= antiAliasingThreshold
+                && topRight.difference(bottomLeft) <= antiAliasingThreshold
+                && topRight.difference(bottomRight) <= antiAliasingThreshold
+                && bottomLeft.difference(bottomRight) <= antiAliasingThreshold;
     }
 
     /**
      * Render the image by casting rays through all pixels.
+     * When multithreading is set the view plane is split into tiles which are rendered by a pool of worker
+     * threads, otherwise all the pixels are rendered serially on the calling thread.
+     * When progressive rendering is set the image is rendered in passes of growing resolution.
+     * The rendering is measured when a metrics listener is set or the JFR render event is enabled.
+     * When an image output is set the image file is written while rendering, and it is complete when the
+     * rendering is done.
      * @return this camera
      */
     public Camera renderImage() {
-
-        for (int i = 0; i < nY; i++) {
-            for (int j = 0; j < nX; j++) {
-               castRay(i,j);
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        metrics = metricsListener != null || event.isEnabled() ? new RenderMetrics((long) nX * nY) : null;
+        output = outputName == null ? null : imageWriter.openStream(outputName, outputFormat);
+        try {
+            if (renderFarm != null)
+                renderFarmTiles();
+            else if (progressListener != null)
+                renderProgressive();
+            else if (threadsCount != 0)
+                renderTiles();
+            else if (antiAliasingDepth == 0) {
+                for (int i = 0; i < nY; i++) {
+                    final int row = i;
+                    renderBlock(() -> {
+                        for (int j = 0; j < nX; j++)
+                            castRay(j, row);
+                        return nX;
+                    });
+                    // the rows are written in strips of the height of the tiles
+                    if (output != null && ((i + 1) % tileSize == 0 || i == nY - 1))
+                        output.write(i - i % tileSize, i % tileSize + 1);
+                }
+            } else {
+                // the rows are traced and written in strips of the height of the tiles, every strip continuing the
+                // corners of the strip above it
+                Color[][] edge = new Color[1][];
+                for (int y = 0; y < nY; y += tileSize) {
+                    final int y0 = y, height = Math.min(tileSize, nY - y);
+                    renderBlock(() -> {
+                        edge[0] = traceBlock(0, y0, nX, height, edge[0]);
+                        return nX * height;
+                    });
+                    if (output != null) output.write(y0, height);
+                }
+            }
+            if (output != null) output.finish();
+        } finally {
+            if (output != null) {
+                output.close();
+                output = null;
+            }
+            RenderMetrics rendered = metrics;
+            metrics = null;
+            if (rendered != null) {
+                rendered.finish();
+                if (metricsListener != null) metricsListener.renderFinished(rendered);
+                if (event.shouldCommit()) {
+                    event.set(rendered);
+                    event.commit();
+                }
             }
         }
         return this;
     }
 
+    /**
+     * Render a block of pixels, measuring it when the rendering is measured
+     * @param block the rendering of the block, returning the amount of pixels it traced
+     */
+    private void renderBlock(IntSupplier block) {
+        RenderMetrics current = metrics;
+        if (current == null) {
+            block.getAsInt();
+            return;
+        }
+        RenderMetrics.Recorder.start();
+        try {
+            RenderMetrics.Recorder.current().pixels += block.getAsInt();
+        } finally {
+            RenderMetrics.Recorder.stop(current);
+        }
+        if (metricsListener != null) metricsListener.blockRendered(current);
+    }
+
+    /**
+     * Render the image tile by tile using a pool of worker threads.
+     * Each tile is traced straight into its own pixels of the image buffer, so the workers never share any pixel.
+     * When the image is written while rendering, every row of tiles is written by the worker finishing it.
+     */
+    private void renderTiles() {
+        ExecutorService pool = Executors.newFixedThreadPool(threadsCount);
+        remainingTiles = new AtomicIntegerArray((nY + tileSize - 1) / tileSize);
+        for (int row = 0; row < remainingTiles.length(); ++row)
+            remainingTiles.set(row, (nX + tileSize - 1) / tileSize);
+        try {
+            List<Runnable> tiles = new LinkedList<>();
+            for (int y = 0; y < nY; y += tileSize)
+                for (int x = 0; x < nX; x += tileSize) {
+                    final int x0 = x, y0 = y;
+                    tiles.add(() -> renderTile(x0, y0));
+                }
+            runAll(pool, tiles);
+        } finally {
+            pool.shutdownNow();
+            remainingTiles = null;
+        }
+    }
+
+    /**
+     * Render the image tile by tile by the workers of the render farm. Every tile done by a worker is written to
+     * the image (and to the image output) as it arrives. The rays traced by the workers are not measured.
+     */
+    private void renderFarmTiles() {
+        remainingTiles = new AtomicIntegerArray((nY + tileSize - 1) / tileSize);
+        for (int row = 0; row < remainingTiles.length(); ++row)
+            remainingTiles.set(row, (nX + tileSize - 1) / tileSize);
+        try {
+            List<int[]> tiles = new LinkedList<>();
+            for (int y = 0; y < nY; y += tileSize)
+                for (int x = 0; x < nX; x += tileSize)
+                    tiles.add(new int[] { x, y, Math.min(tileSize, nX - x), Math.min(tileSize, nY - y) });
+            renderFarm.render(this, tiles, (tile, pixels) -> {
+                imageWriter.writeTile(tile[0], tile[1], tile[2], tile[3], pixels);
+                if (output != null && remainingTiles.decrementAndGet(tile[1] / tileSize) == 0)
+                    output.write(tile[1], tile[3]);
+            });
+        } finally {
+            remainingTiles = null;
+        }
+    }
+
+    /**
+     * Render a single tile of the view plane into a buffer of its own - the rendering of a tile by a worker of a
+     * render farm. Tiles may be rendered concurrently
+     * @param x0     the column of the top-left pixel of the tile
+     * @param y0     the row of the top-left pixel of the tile
+     * @param width  the amount of columns of the tile
+     * @param height the amount of rows of the tile
+     * @return the high dynamic range colors of the tile pixels - red, green and blue of each pixel, row by row
+     */
+    float[] renderTile(int x0, int y0, int width, int height) {
+        Camera tile;
+        try {
+            tile = (Camera) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        tile.imageWriter = new ImageWriter(x0, y0, width, height);
+        tile.traceBlock(x0, y0, width, height);
+        return tile.imageWriter.getPixels();
+    }
+
+    /**
+     * Write the settings of the rendering of the camera - its location, directions, view plane, resolution,
+     * anti-aliasing and ray tracer type - for rendering its tiles elsewhere
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeSettings(DataOutput out) throws IOException {
+        for (double value : new double[] { p0.getX(), p0.getY(), p0.getZ(), vTo.getX(), vTo.getY(), vTo.getZ(),
+                vUp.getX(), vUp.getY(), vUp.getZ(), width, height, distance, antiAliasingThreshold })
+            out.writeDouble(value);
+        out.writeInt(nX);
+        out.writeInt(nY);
+        out.writeInt(antiAliasingDepth);
+        out.writeBoolean(rayTracer instanceof GridRayTracer);
+    }
+
+    /**
+     * Read the settings written by {@link #writeSettings(DataOutput)} into a camera of a scene, rendering tiles by
+     * {@link #renderTile(int, int, int, int)} only
+     * @param in    the input
+     * @param scene the scene of the camera
+     * @return the camera
+     * @throws IOException if the input fails
+     */
+    static Camera readSettings(DataInput in, Scene scene) throws IOException {
+        Camera camera = new Camera();
+        camera.p0 = new Point(in.readDouble(), in.readDouble(), in.readDouble());
+        camera.vTo = new Vector(in.readDouble(), in.readDouble(), in.readDouble());
+        camera.vUp = new Vector(in.readDouble(), in.readDouble(), in.readDouble());
+        camera.vRight = camera.vTo.crossProduct(camera.vUp).normalize();
+        camera.width = in.readDouble();
+        camera.height = in.readDouble();
+        camera.distance = in.readDouble();
+        camera.antiAliasingThreshold = in.readDouble();
+        camera.nX = in.readInt();
+        camera.nY = in.readInt();
+        camera.antiAliasingDepth = in.readInt();
+        camera.rayTracer = in.readBoolean() ? new GridRayTracer(scene) : new SimpleRayTracer(scene);
+        return camera;
+    }
+
+    /**
+     * Run rendering tasks in a pool of worker threads and wait for all of them
+     * @param pool  the worker threads
+     * @param tasks the tasks
+     */
+    private static void runAll(ExecutorService pool, List<Runnable> tasks) {
+        try {
+            List<Future<?>> futures = new LinkedList<>();
+            for (Runnable task : tasks)
+                futures.add(pool.submit(task));
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rendering of a tile failed", e.getCause());
+        }
+    }
+
+    /**
+     * Render the image in passes of doubling resolution. The first pass traces every 2^(passes-1)-th pixel of
+     * every 2^(passes-1)-th row and fills the block below and to the right of it with its color, each next pass
+     * traces the pixels in the middles of the previous blocks, and the last pass traces the rest of the pixels.
+     * Every pixel is traced once, so the final image is identical to the one of a single pass rendering.
+     * The listener is called after every pass and may abort the rendering.
+     * When the image is written while rendering, every strip of rows of the height of the tiles is written as soon
+     * as the last pass has traced all its rows.
+     */
+    private void renderProgressive() {
+        ExecutorService pool = threadsCount == 0 ? null : Executors.newFixedThreadPool(threadsCount);
+        // the amount of rows of each strip not traced by the last pass yet
+        remainingTiles = new AtomicIntegerArray((nY + tileSize - 1) / tileSize);
+        for (int strip = 0; strip < remainingTiles.length(); ++strip)
+            remainingTiles.set(strip, Math.min(tileSize, nY - strip * tileSize));
+        try {
+            int step = 1 << (progressivePasses - 1);
+            for (int pass = 1; pass <= progressivePasses; ++pass, step /= 2) {
+                List<Runnable> rows = new LinkedList<>();
+                for (int y = 0; y < nY; y += step) {
+                    final int y0 = y, rowStep = step;
+                    final boolean first = pass == 1, last = pass == progressivePasses;
+                    rows.add(() -> {
+                        renderPassRow(y0, rowStep, first);
+                        if (last && output != null && remainingTiles.decrementAndGet(y0 / tileSize) == 0) {
+                            int strip = y0 - y0 % tileSize;
+                            output.write(strip, Math.min(tileSize, nY - strip));
+                        }
+                    });
+                }
+                if (pool == null) rows.forEach(Runnable::run);
+                else runAll(pool, rows);
+                if (!progressListener.passRendered(imageWriter.getImage(), pass, progressivePasses))
+                    return;
+            }
+        } finally {
+            if (pool != null) pool.shutdownNow();
+            remainingTiles = null;
+        }
+    }
+
+    /**
+     * Render the pixels of a row in a progressive rendering pass
+     * @param y     the row
+     * @param step  the distance between the pixels traced in the pass
+     * @param first whether it is the first pass - the pixels traced by the previous passes are skipped otherwise
+     */
+    private void renderPassRow(int y, int step, boolean first) {
+        boolean tracedRow = !first && y % (2 * step) == 0;
+        int height = Math.min(step, nY - y);
+        renderBlock(() -> {
+            int pixels = 0;
+            for (int x = 0; x < nX; x += step) {
+                if (tracedRow && x % (2 * step) == 0) continue;
+                renderPixel(x, y);
+                if (step > 1) imageWriter.fillTile(x, y, Math.min(step, nX - x), height);
+                ++pixels;
+            }
+            return pixels;
+        });
+    }
+
+    /**
+     * Render a single pixel on its own, anti-aliased if it is set
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     */
+    private void renderPixel(int j, int i) {
+        if (antiAliasingDepth == 0) {
+            castRay(j, i);
+            return;
+        }
+        imageWriter.writePixel(j, i, Color.BLACK);
+        traceRegion(j, i, j, i, 1, traceSample(j, i), traceSample(j + 1, i),
+                traceSample(j, i + 1), traceSample(j + 1, i + 1), antiAliasingDepth);
+    }
+
+    /**
+     * Render a single tile of the view plane. The corners on the tile borders are traced by each of the tiles
+     * sharing them, so the image is identical to the serial one.
+     * @param x0 the column of the top-left pixel of the tile
+     * @param y0 the row of the top-left pixel of the tile
+     */
+    private void renderTile(int x0, int y0) {
+        int width = Math.min(tileSize, nX - x0);
+        int height = Math.min(tileSize, nY - y0);
+        renderBlock(() -> {
+            traceBlock(x0, y0, width, height);
+            return width * height;
+        });
+        if (output != null && remainingTiles.decrementAndGet(y0 / tileSize) == 0)
+            output.write(y0, height);
+    }
+
     /**
      * Print a grid of the given color and interval.
      * @param interval interval between grid lines
@@ -112,6 +589,16 @@ public class Camera implements Cloneable {
         imageWriter.writeToImage(filename);
     }
 
+    /**
+     * Write the image to a file of the given format - an 8-bit tone mapped PNG, or a high dynamic range PFM or
+     * OpenEXR file of the rendered colors.
+     * @param filename name of the file (without extension)
+     * @param format   the file format
+     */
+    public void writeToImage(String filename, ImageFormat format) {
+        imageWriter.writeToImage(filename, format);
+    }
+
     /**
      * Camera builder
      */
@@ -161,9 +648,137 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * set multithreading rendering - the view plane is split into tiles that are rendered in parallel.
+         * The rendered image is identical to the one produced by serial rendering.
+         *
+         * @param threads amount of rendering threads: 0 - serial rendering (the default),
+         *                -1 - as many threads as available processors
+         * @return the camera builder, this object
+         */
+        public Builder setMultithreading(int threads) {
+            if (threads < -1)
+                throw new IllegalArgumentException("Multithreading must be -1 or higher");
+            camera.threadsCount = threads == -1 ? Runtime.getRuntime().availableProcessors() : threads;
+            return this;
+        }
+
+        /**
+         * set the size of the square tiles used by multithreading rendering
+         *
+         * @param tileSize the tile edge length in pixels
+         * @return the camera builder, this object
+         */
+        public Builder setTileSize(int tileSize) {
+            if (tileSize <= 0)
+                throw new IllegalArgumentException("Tile size must be positive");
+            camera.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * set adaptive super sampling anti-aliasing. The rays are traced through the pixel corners, which are
+         * shared by the neighbouring pixels, and a pixel is recursively subdivided into quarters only where the
+         * colors of the corners differ by more than the threshold. A pixel takes the average of its regions.
+         *
+         * @param maxDepth  the maximal subdivision depth - a pixel takes up to (2^maxDepth+1)^2 rays,
+         *                  0 - a single ray through the pixel center (the default)
+         * @param threshold the largest difference of the color components (0-255) of the corners of a region
+         *                  that is not subdivided
+         * @return the camera builder, this object
+         */
+        public Builder setAdaptiveAntiAliasing(int maxDepth, double threshold) {
+            if (maxDepth < 0)
+                throw new IllegalArgumentException("Anti-aliasing depth must not be negative");
+            if (threshold < 0)
+                throw new IllegalArgumentException("Anti-aliasing threshold must not be negative");
+            camera.antiAliasingDepth = maxDepth;
+            camera.antiAliasingThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * set the tone mapping of the rendered colors into the written image. The colors are accumulated in a
+         * high dynamic range buffer, and they are tone mapped to 8 bits only when the image is written or previewed
+         *
+         * @param toneMapping the tone mapping operator, {@link ToneMapping#CLAMP} by default
+         * @return the camera builder, this object
+         */
+        public Builder setToneMapping(ToneMapping toneMapping) {
+            if (toneMapping == null)
+                throw new IllegalArgumentException("Tone mapping must not be null");
+            camera.toneMapping = toneMapping;
+            return this;
+        }
+
+        /**
+         * set the image file written while rendering. Every strip of rows is encoded and written by the rendering
+         * thread finishing it, so the writing overlaps the rendering (strips rendered in parallel are deflated in
+         * parallel), and the file is complete when the rendering is done. Changes of the image after the rendering
+         * (e.g. {@link Camera#printGrid(int, Color)}) are written by {@link Camera#writeToImage(String)} only.
+         *
+         * @param imageName the name of the file (without extension), null to write the image on demand only
+         *                  (the default)
+         * @param format    the file format
+         * @return the camera builder, this object
+         */
+        public Builder setImageOutput(String imageName, ImageFormat format) {
+            if (imageName != null && format == null)
+                throw new IllegalArgumentException("Image format must not be null");
+            camera.outputName = imageName;
+            camera.outputFormat = format;
+            return this;
+        }
+
+        /**
+         * set a render farm - the image is split into tiles of the tile size, which are rendered by the workers of
+         * the farm (other processes, possibly on other machines) and gathered into the image of this camera.
+         * The workers render the scene of the farm with the settings of this camera; the multithreading and the
+         * progressive rendering of this camera are not used.
+         *
+         * @param farm the render farm, null to render on this machine (the default)
+         * @return the camera builder, this object
+         */
+        public Builder setRenderFarm(RenderFarm farm) {
+            camera.renderFarm = farm;
+            return this;
+        }
+
+        /**
+         * set progressive rendering - the image is rendered in passes of doubling resolution and a listener gets
+         * the image after every pass, so a bad framing can be seen and aborted early. Every pixel is still traced
+         * once (with anti-aliasing the corners are traced per pixel rather than shared).
+         *
+         * @param passes   amount of passes - the first one traces every 2^(passes-1)-th pixel of every
+         *                 2^(passes-1)-th row
+         * @param listener the listener of the passes, null to render in a single pass (the default)
+         * @return the camera builder, this object
+         */
+        public Builder setProgressiveRendering(int passes, ProgressListener listener) {
+            if (passes < 1 || passes > 16)
+                throw new IllegalArgumentException("Progressive passes must be between 1 and 16");
+            camera.progressivePasses = passes;
+            camera.progressListener = listener;
+            return this;
+        }
+
+        /**
+         * set the listener of the rendering metrics - the rendered pixels, the primary and the shadow rays, the
+         * intersection tests by geometry type and the intersection and shading times. The rendering is measured
+         * only while a listener is set or the JFR render event ({@code renderer.Render}) is enabled.
+         *
+         * @param listener the listener, null for no listener (the default)
+         * @return the camera builder, this object
+         */
+        public Builder setMetricsListener(MetricsListener listener) {
+            camera.metricsListener = listener;
+            return this;
+        }
+
         public Builder setRayTracer(Scene scene, RayTracerType type) {
             switch (type) {
                 case SIMPLE -> camera.rayTracer = new SimpleRayTracer(scene);
+                case GRID -> camera.rayTracer = new GridRayTracer(scene);
                 default -> camera.rayTracer = null;
             }
             return this;
@@ -182,6 +797,7 @@ public class Camera implements Cloneable {
 
             camera.vRight = camera.vTo.crossProduct(camera.vUp).normalize();
             camera.imageWriter=new ImageWriter(camera.nX, camera.nY);
+            camera.imageWriter.setToneMapping(camera.toneMapping);
 
             if (!Util.isZero(camera.vTo.dotProduct(camera.vRight)) ||
                     !Util.isZero(camera.vTo.dotProduct(camera.vUp)) ||
@@ -214,21 +830,40 @@ public class Camera implements Cloneable {
 
     private Camera() {}
 
+    /**
+     * getter for the image writer the camera renders into
+     * @return the image writer
+     */
+    ImageWriter getImageWriter() { return imageWriter; }
+
     public static Builder getBuilder() {
         return new Builder();
     }
 
     public Ray constructRay(int nX, int nY, int j, int i) {
-        Point pIJ = p0;
-        double yI = -(i - (nY - 1) / 2d) * height / nY;
-        double xJ = (j - (nX - 1) / 2d) * width / nX;
+        return constructRay(nX, nY, j + 0.5, i + 0.5);
+    }
+
+    /**
+     * Construct a ray through any point of the view plane
+     * @param nX the amount of columns of the view plane
+     * @param nY the amount of rows of the view plane
+     * @param u  the column coordinate of the point in pixels from the left edge - j + 0.5 is the center of column j
+     * @param v  the row coordinate of the point in pixels from the top edge - i + 0.5 is the center of row i
+     * @return the ray from the camera through the point
+     */
+    private Ray constructRay(int nX, int nY, double u, double v) {
+        double yI = -(v - nY / 2d) * height / nY;
+        double xJ = (u - nX / 2d) * width / nX;
 
-        if (!Util.isZero(xJ)) pIJ = pIJ.add(vRight.scale(xJ));
-        if (!Util.isZero(yI)) pIJ = pIJ.add(vUp.scale(yI));
+        // the pixel center is calculated in the scratch vector of the thread - only the ray itself is allocated
+        MutableVector pIJ = SCRATCH.get().set(p0);
+        if (!Util.isZero(xJ)) pIJ.addScaled(vRight, xJ);
+        if (!Util.isZero(yI)) pIJ.addScaled(vUp, yI);
 
-        pIJ = pIJ.add(vTo.scale(distance));
+        pIJ.addScaled(vTo, distance);
 
-        return new Ray(p0, pIJ.subtract(p0).normalize());
+        return new Ray(p0, pIJ.subtract(p0));
     }
 
 }
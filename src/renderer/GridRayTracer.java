@@ -0,0 +1,72 @@
+package renderer;
+
+import geometries.Grid;
+import geometries.Intersectable.Intersection;
+import primitives.Ray;
+import scene.Scene;
+
+/**
+ * This class represents a ray tracer that finds the closest intersections using a regular grid
+ * built over the scene geometries.
+ * The grid is built once - on the first traced ray, after the scene has been populated.
+ */
+public class GridRayTracer extends SimpleRayTracer {
+    /** the grid resolution along the axes, or null for automatic resolution */
+    private final int[] resolution;
+    /** the grid over the scene geometries */
+    private volatile Grid grid = null;
+
+    /**
+     * constructor for scene - the grid resolution is chosen automatically
+     *
+     * @param scene the scene
+     */
+    public GridRayTracer(Scene scene) {
+        super(scene);
+        resolution = null;
+    }
+
+    /**
+     * constructor for scene with grid resolution override
+     *
+     * @param scene the scene
+     * @param nX    amount of grid cells along x axis
+     * @param nY    amount of grid cells along y axis
+     * @param nZ    amount of grid cells along z axis
+     */
+    public GridRayTracer(Scene scene, int nX, int nY, int nZ) {
+        super(scene);
+        if (nX <= 0 || nY <= 0 || nZ <= 0)
+            throw new IllegalArgumentException("Grid resolution must be positive");
+        resolution = new int[] { nX, nY, nZ };
+    }
+
+    /**
+     * getter for the grid, building it on the first call
+     *
+     * @return the grid over the scene geometries
+     */
+    private Grid getGrid() {
+        Grid result = grid;
+        if (result == null) {
+            synchronized (this) {
+                result = grid;
+                if (result == null)
+                    grid = result = resolution == null
+                            ? new Grid(scene.geometries)
+                            : new Grid(scene.geometries, resolution[0], resolution[1], resolution[2]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected Intersection findClosestIntersection(Ray ray) {
+        return getGrid().findClosestIntersection(ray);
+    }
+
+    @Override
+    protected boolean isOccluded(Ray ray, double distance) {
+        return getGrid().hasIntersection(ray, distance);
+    }
+}
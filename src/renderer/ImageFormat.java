@@ -0,0 +1,32 @@
+package renderer;
+
+/**
+ * Image file formats of the image writer
+ */
+public enum ImageFormat {
+    /** PNG - 8-bit RGB, tone mapped, deflated in strips of rows */
+    PNG("png"),
+    /** Portable float map - 32-bit float RGB, not tone mapped, 1.0 is the printed white (255) */
+    PFM("pfm"),
+    /** OpenEXR - 32-bit float RGB scanlines, uncompressed, not tone mapped, 1.0 is the printed white (255) */
+    EXR("exr");
+
+    /** the file name extension */
+    private final String extension;
+
+    /**
+     * Constructor of a format
+     * @param extension the file name extension
+     */
+    ImageFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * getter for the file name extension
+     * @return the extension, without the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,411 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streaming output of an image file, written strip by strip as the strips of rows of the image are done.
+ * A strip is encoded on the thread writing it, so the strips rendered by several threads are encoded (and
+ * deflated) in parallel, while the rendering goes on.
+ * <ul>
+ * <li>PNG - every strip is tone mapped, filtered and deflated on its own into a part of the single zlib stream of
+ * the image (the non-final parts end with a sync flush), and the parts are written in the order of the rows as
+ * soon as the strips before them are written</li>
+ * <li>PFM and EXR - the rows have a fixed size and place in the file, so every strip is written at its place
+ * at once</li>
+ * </ul>
+ * The rows not written by the time the image is finished are written then, in parallel.
+ */
+final class ImageStream implements AutoCloseable {
+    /** the amount of rows of a strip written on finishing */
+    private static final int STRIP_ROWS = 16;
+    /** the PNG file signature */
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    /** the zlib header of the PNG image data - deflate with a 32K window, no preset dictionary */
+    private static final byte[] ZLIB_HEADER = { 0x78, 0x01 };
+    /** the OpenEXR magic number */
+    private static final int EXR_MAGIC = 20000630;
+    /** the OpenEXR pixel type of 32-bit floats */
+    private static final int EXR_FLOAT = 2;
+    /** the scale of the stored float components - the printed white (255) is 1.0 */
+    private static final float HDR_SCALE = 1f / 255;
+
+    /** the file format */
+    private final ImageFormat format;
+    /** amount of pixels in a row */
+    private final int nX;
+    /** amount of rows */
+    private final int nY;
+    /** the high dynamic range pixels - red, green and blue of each pixel, row by row */
+    private final float[] pixels;
+    /** the tone mapping of the PNG pixels */
+    private final ToneMapping toneMapping;
+    /** the file */
+    private final FileChannel channel;
+    /** the position of the first row in the file (PFM and EXR) */
+    private final long dataPosition;
+
+    /** the rows written so far */
+    private final BitSet written = new BitSet();
+    /** the encoded PNG strips waiting for the strips before them, by their first row */
+    private final TreeMap<Integer, Strip> pending = new TreeMap<>();
+    /** the first PNG row not written to the file yet */
+    private int nextRow = 0;
+    /** the length of the PNG file written so far */
+    private long fileLength;
+    /** the checksum of the PNG rows written to the file */
+    private long adler = 1;
+
+    /**
+     * An encoded PNG strip
+     * @param rows       the amount of rows
+     * @param compressed the deflated rows
+     * @param adler      the Adler-32 checksum of the filtered rows
+     */
+    private record Strip(int rows, byte[] compressed, long adler) {}
+
+    /**
+     * Open a file and write its header
+     * @param  file        the file
+     * @param  format      the file format
+     * @param  nX          amount of pixels in a row
+     * @param  nY          amount of rows
+     * @param  pixels      the high dynamic range pixels, read as the rows are written
+     * @param  toneMapping the tone mapping of the PNG pixels
+     * @throws IOException if the file can't be written
+     */
+    ImageStream(Path file, ImageFormat format, int nX, int nY, float[] pixels, ToneMapping toneMapping)
+            throws IOException {
+        this.format = format;
+        this.nX = nX;
+        this.nY = nY;
+        this.pixels = pixels;
+        this.toneMapping = toneMapping;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = switch (format) {
+                case PNG -> pngHeader();
+                // a negative scale - little-endian floats
+                case PFM -> ByteBuffer.wrap(("PF\n" + nX + " " + nY + "\n-1.0\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                case EXR -> exrHeader();
+            };
+            dataPosition = fileLength = header.remaining();
+            writeFully(header, 0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write a strip of rows - the rows must be done. Strips may be written concurrently by several threads, as long
+     * as every row is written once
+     * @param  y0   the first row of the strip
+     * @param  rows the amount of rows of the strip
+     * @throws IllegalArgumentException if a row is out of the image or has already been written
+     * @throws IllegalStateException    if the file can't be written
+     */
+    void write(int y0, int rows) {
+        if (y0 < 0 || rows <= 0 || y0 + rows > nY)
+            throw new IllegalArgumentException("Rows " + y0 + ".." + (y0 + rows - 1) + " are out of the image");
+        synchronized (written) {
+            int next = written.nextSetBit(y0);
+            if (next >= 0 && next < y0 + rows)
+                throw new IllegalArgumentException("Row " + next + " has already been written");
+            written.set(y0, y0 + rows);
+        }
+        try {
+            switch (format) {
+                case PNG -> emit(y0, encodePng(y0, rows));
+                case PFM -> {
+                    // the rows are stored from the bottom up
+                    ByteBuffer data = ByteBuffer.allocate(rows * 12 * nX).order(ByteOrder.LITTLE_ENDIAN);
+                    for (int y = y0 + rows - 1; y >= y0; --y)
+                        for (int k = 3 * y * nX, end = k + 3 * nX; k < end; ++k)
+                            data.putFloat(pixels[k] * HDR_SCALE);
+                    writeFully(data.flip(), dataPosition + 12L * nX * (nY - y0 - rows));
+                }
+                case EXR -> {
+                    // a chunk per row - its number, its size and the row of each channel, in the order B, G, R
+                    ByteBuffer data = ByteBuffer.allocate(rows * (8 + 12 * nX)).order(ByteOrder.LITTLE_ENDIAN);
+                    for (int y = y0; y < y0 + rows; ++y) {
+                        data.putInt(y).putInt(12 * nX);
+                        for (int component = 2; component >= 0; --component)
+                            for (int k = 3 * y * nX + component, end = 3 * (y + 1) * nX; k < end; k += 3)
+                                data.putFloat(pixels[k] * HDR_SCALE);
+                    }
+                    writeFully(data.flip(), dataPosition + (8L + 12L * nX) * y0);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error writing the image", e);
+        }
+    }
+
+    /**
+     * Write the rows that have not been written yet, in parallel, and complete the file
+     * @throws IllegalStateException if the file can't be written
+     */
+    void finish() {
+        List<Runnable> strips = new LinkedList<>();
+        synchronized (written) {
+            for (int y = written.nextClearBit(0); y < nY; y = written.nextClearBit(y)) {
+                int end = Math.min(written.nextSetBit(y) < 0 ? nY : written.nextSetBit(y), y + STRIP_ROWS);
+                final int y0 = y, rows = end - y;
+                strips.add(() -> write(y0, rows));
+                y = end;
+            }
+        }
+        int threads = Math.min(strips.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1)
+            strips.forEach(Runnable::run);
+        else
+            runAll(strips, threads);
+
+        if (format == ImageFormat.PNG) {
+            try {
+                ByteBuffer trailer = ByteBuffer.allocate(28);
+                chunk(trailer, "IDAT", ByteBuffer.allocate(4).putInt((int) adler).array());
+                chunk(trailer, "IEND", new byte[0]);
+                writeFully(trailer.flip(), fileLength);
+            } catch (IOException e) {
+                throw new IllegalStateException("I/O error writing the image", e);
+            }
+        }
+        close();
+    }
+
+    /**
+     * Close the file, complete or not
+     * @throws IllegalStateException if the file can't be closed
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error closing the image", e);
+        }
+    }
+
+    /**
+     * Run the encoding of strips by a pool of threads and wait for all of them
+     * @param strips  the encoding of the strips
+     * @param threads amount of threads
+     */
+    private static void runAll(List<Runnable> strips, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new LinkedList<>();
+            for (Runnable strip : strips)
+                futures.add(pool.submit(strip));
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Writing the image was interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause
+                    : new IllegalStateException("Writing the image failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * tone map, filter and deflate a strip of rows into a part of the zlib stream of the image.
+     * Every row is filtered by the Sub filter, and the rows after the first one of the strip by the Up filter
+     * where it is better, so that the strip doesn't depend on the rows of other strips
+     * @param  y0   the first row
+     * @param  rows the amount of rows
+     * @return      the encoded strip
+     */
+    private Strip encodePng(int y0, int rows) {
+        int stride = 3 * nX;
+        byte[] raw = new byte[rows * (1 + stride)];
+        byte[] previous = new byte[stride], current = new byte[stride];
+        for (int r = 0; r < rows; ++r) {
+            for (int x = 0, k = 3 * (y0 + r) * nX; x < stride; ++x, ++k)
+                current[x] = (byte) toneMapping.toByte(pixels[k]);
+            int start = r * (1 + stride);
+            // Sub - the difference from the pixel on the left, Up - the difference from the pixel above
+            long sub = 0, up = 0;
+            for (int x = 0; x < stride; ++x) {
+                sub += Math.abs((byte) (current[x] - (x < 3 ? 0 : current[x - 3])));
+                up += Math.abs((byte) (current[x] - previous[x]));
+            }
+            boolean byUp = r > 0 && up < sub;
+            raw[start] = (byte) (byUp ? 2 : 1);
+            for (int x = 0; x < stride; ++x)
+                raw[start + 1 + x] = (byte) (current[x] - (byUp ? previous[x] : x < 3 ? 0 : current[x - 3]));
+            byte[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            boolean last = y0 + rows == nY;
+            if (last) deflater.finish();
+            byte[] buffer = new byte[Math.max(64, raw.length / 4)];
+            int length = 0;
+            while (true) {
+                length += deflater.deflate(buffer, length, buffer.length - length,
+                        last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                if (last ? deflater.finished() : length < buffer.length) break;
+                if (length == buffer.length) buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            Adler32 checksum = new Adler32();
+            checksum.update(raw);
+            return new Strip(rows, Arrays.copyOf(buffer, length), checksum.getValue());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * write an encoded PNG strip in its place in the order of the rows, with the strips after it waiting for it
+     * @param  y0    the first row of the strip
+     * @param  strip the encoded strip
+     * @throws IOException if the file can't be written
+     */
+    private synchronized void emit(int y0, Strip strip) throws IOException {
+        pending.put(y0, strip);
+        for (Strip next = pending.remove(nextRow); next != null; next = pending.remove(nextRow)) {
+            ByteBuffer data = ByteBuffer.allocate(12 + next.compressed.length);
+            chunk(data, "IDAT", next.compressed);
+            writeFully(data.flip(), fileLength);
+            fileLength += data.capacity();
+            adler = combineAdler(adler, next.adler, (long) next.rows * (1 + 3 * nX));
+            nextRow += next.rows;
+        }
+    }
+
+    /**
+     * combines the Adler-32 checksums of two consecutive sequences of bytes (as zlib adler32_combine)
+     * @param  first  the checksum of the first sequence
+     * @param  second the checksum of the second sequence
+     * @param  length the length of the second sequence
+     * @return        the checksum of both sequences
+     */
+    static long combineAdler(long first, long second, long length) {
+        final long base = 65521;
+        long remainder = length % base;
+        long sum1 = first & 0xFFFF;
+        long sum2 = remainder * sum1 % base;
+        sum1 += (second & 0xFFFF) + base - 1;
+        sum2 += ((first >>> 16) & 0xFFFF) + ((second >>> 16) & 0xFFFF) + base - remainder;
+        if (sum1 >= base) sum1 -= base;
+        if (sum1 >= base) sum1 -= base;
+        if (sum2 >= base << 1) sum2 -= base << 1;
+        if (sum2 >= base) sum2 -= base;
+        return sum1 | sum2 << 16;
+    }
+
+    /**
+     * creates the PNG header - the signature, the image header and the zlib header of the image data
+     * @return the header
+     */
+    private ByteBuffer pngHeader() {
+        ByteBuffer header = ByteBuffer.allocate(PNG_SIGNATURE.length + 25 + 14).put(PNG_SIGNATURE);
+        // width, height, 8 bits per sample, truecolor, deflate, adaptive filtering, no interlace
+        chunk(header, "IHDR", ByteBuffer.allocate(13).putInt(nX).putInt(nY).put((byte) 8).put((byte) 2)
+                .put((byte) 0).put((byte) 0).put((byte) 0).array());
+        chunk(header, "IDAT", ZLIB_HEADER);
+        return header.flip();
+    }
+
+    /**
+     * writes a PNG chunk - its length, its type, its data and its CRC
+     * @param out  the output
+     * @param type the chunk type
+     * @param data the chunk data
+     */
+    private static void chunk(ByteBuffer out, String type, byte[] data) {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data);
+        out.putInt(data.length).put(name).put(data).putInt((int) crc.getValue());
+    }
+
+    /**
+     * creates the OpenEXR header - the magic number, the version, the attributes and the table of the row offsets
+     * @return the header
+     */
+    private ByteBuffer exrHeader() {
+        ByteBuffer attributes = ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN);
+        attribute(attributes, "channels", "chlist", 3 * 18 + 1);
+        for (String name : new String[] { "B", "G", "R" }) {
+            // name, pixel type, linear flag and reserved bytes, x and y sampling
+            attributes.put(name.getBytes(StandardCharsets.US_ASCII)).put((byte) 0).putInt(EXR_FLOAT).putInt(0)
+                    .putInt(1).putInt(1);
+        }
+        attributes.put((byte) 0);
+        attribute(attributes, "compression", "compression", 1);
+        attributes.put((byte) 0);
+        for (String window : new String[] { "dataWindow", "displayWindow" }) {
+            attribute(attributes, window, "box2i", 16);
+            attributes.putInt(0).putInt(0).putInt(nX - 1).putInt(nY - 1);
+        }
+        attribute(attributes, "lineOrder", "lineOrder", 1);
+        attributes.put((byte) 0);
+        attribute(attributes, "pixelAspectRatio", "float", 4);
+        attributes.putFloat(1);
+        attribute(attributes, "screenWindowCenter", "v2f", 8);
+        attributes.putFloat(0).putFloat(0);
+        attribute(attributes, "screenWindowWidth", "float", 4);
+        attributes.putFloat(1);
+        attributes.put((byte) 0).flip();
+
+        ByteBuffer header = ByteBuffer.allocate(8 + attributes.remaining() + 8 * nY).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(EXR_MAGIC).putInt(2).put(attributes);
+        long offset = header.capacity();
+        for (int y = 0; y < nY; ++y, offset += 8 + 12L * nX)
+            header.putLong(offset);
+        return header.flip();
+    }
+
+    /**
+     * writes the name, the type and the size of an OpenEXR header attribute
+     * @param out  the output
+     * @param name the attribute name
+     * @param type the attribute type
+     * @param size the size of the attribute value
+     */
+    private static void attribute(ByteBuffer out, String name, String type, int size) {
+        out.put(name.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+        out.put(type.getBytes(StandardCharsets.US_ASCII)).put((byte) 0).putInt(size);
+    }
+
+    /**
+     * writes a buffer at a position of the file
+     * @param  data     the buffer
+     * @param  position the position
+     * @throws IOException if the file can't be written
+     */
+    private void writeFully(ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining())
+            position += channel.write(data, position);
+    }
+}
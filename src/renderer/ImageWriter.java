@@ -1,9 +1,9 @@
 package renderer;
 
 import java.awt.image.BufferedImage;
-import java.io.*;
-
-import javax.imageio.ImageIO;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.file.Path;
 
 import primitives.Color;
 
@@ -11,7 +11,11 @@ import primitives.Color;
  * Image writer class combines accumulation of pixel color matrix and finally
  * producing a non-optimized jpeg image from this matrix. The class although is
  * responsible of holding image related parameters of View Plane - pixel matrix
- * size and resolution
+ * size and resolution.
+ * The pixels are accumulated in a high dynamic range buffer of float RGB
+ * components, without any limit and without allocating per pixel, and they are
+ * tone mapped to 8 bits in a single pass over the whole buffer when the image is
+ * needed (see {@link ToneMapping})
  * @author Dan
  */
 final class ImageWriter {
@@ -19,6 +23,8 @@ final class ImageWriter {
     private final int           nX;
     /** Vertical resolution of the image - number of pixels in column */
     private final int           nY;
+    /** Column and row of the top-left pixel in a larger image, for a tile of it */
+    private final int           originX, originY;
 
     /**
      * Directory path for the image file generation - relative to the user
@@ -26,8 +32,12 @@ final class ImageWriter {
      */
     private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
 
-    /** Image generation buffer (the matrix of the pixels) */
+    /** High dynamic range buffer - red, green and blue of each pixel, row by row */
+    private final float[]       pixels;
+    /** Image generation buffer (the tone mapped matrix of the pixels) */
     private final BufferedImage image;
+    /** The tone mapping of the buffer into the image */
+    private ToneMapping         toneMapping = ToneMapping.CLAMP;
 
     // ***************** Constructors ********************** //
     /**
@@ -35,10 +45,23 @@ final class ImageWriter {
      * @param nX amount of pixels by Width
      * @param nY amount of pixels by height
      */
-    ImageWriter(int nX, int nY) {
+    ImageWriter(int nX, int nY) { this(0, 0, nX, nY); }
+
+    /**
+     * Image Writer constructor of a tile of a larger image - the pixels are
+     * addressed by their indices in the larger image
+     * @param originX X axis index of the top-left pixel of the tile
+     * @param originY Y axis index of the top-left pixel of the tile
+     * @param nX      amount of pixels by Width
+     * @param nY      amount of pixels by height
+     */
+    ImageWriter(int originX, int originY, int nX, int nY) {
+        this.originX = originX;
+        this.originY = originY;
         this.nX = nX;
         this.nY = nY;
 
+        pixels  = new float[3 * nX * nY];
         image   = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
     }
 
@@ -55,6 +78,12 @@ final class ImageWriter {
      */
     int nX() { return nX; }
 
+    /**
+     * Setter of the tone mapping of the pixels into the image
+     * @param toneMapping the tone mapping operator
+     */
+    void setToneMapping(ToneMapping toneMapping) { this.toneMapping = toneMapping; }
+
     // ***************** Operations ******************** //
 
     /**
@@ -62,10 +91,33 @@ final class ImageWriter {
      * to pixel color matrix in the directory of the project
      * @param imageName the name of png file
      */
-    void writeToImage(String imageName) {
+    void writeToImage(String imageName) { writeToImage(imageName, ImageFormat.PNG); }
+
+    /**
+     * Function writeToImage produces an image file of the given format according
+     * to pixel color matrix in the directory of the project. The strips of the
+     * image are encoded in parallel
+     * @param imageName the name of the file, without its extension
+     * @param format    the file format
+     */
+    void writeToImage(String imageName, ImageFormat format) {
+        try (ImageStream stream = openStream(imageName, format)) {
+            stream.finish();
+        }
+    }
+
+    /**
+     * Function openStream opens an image file of the given format in the
+     * directory of the project, to be written strip by strip as the rows of pixel
+     * color matrix are done (see {@link ImageStream})
+     * @param  imageName the name of the file, without its extension
+     * @param  format    the file format
+     * @return           the open image stream
+     */
+    ImageStream openStream(String imageName, ImageFormat format) {
         try {
-            File file = new File(FOLDER_PATH + '/' + imageName + ".png");
-            ImageIO.write(image, "png", file);
+            return new ImageStream(Path.of(FOLDER_PATH, imageName + '.' + format.getExtension()), format, nX, nY,
+                    pixels, toneMapping);
         } catch (IOException e) {
             throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
         }
@@ -73,11 +125,107 @@ final class ImageWriter {
 
     /**
      * The function writePixel writes a color of a specific pixel into pixel color
-     * matrix
+     * matrix. Pixels may be written concurrently by several rendering threads, as
+     * long as no two threads write the same pixel
      * @param xIndex X axis index of the pixel
      * @param yIndex Y axis index of the pixel
      * @param color  final color of the pixel
      */
-    void writePixel(int xIndex, int yIndex, Color color) { image.setRGB(xIndex, yIndex, color.getColor().getRGB()); }
+    void writePixel(int xIndex, int yIndex, Color color) {
+        int k = index(xIndex, yIndex);
+        pixels[k] = (float) color.getRed();
+        pixels[k + 1] = (float) color.getGreen();
+        pixels[k + 2] = (float) color.getBlue();
+    }
+
+    /**
+     * The function addPixel accumulates a weighted color into a specific pixel of
+     * pixel color matrix, e.g. a sample of the pixel
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @param color  the added color
+     * @param weight the weight of the added color
+     */
+    void addPixel(int xIndex, int yIndex, Color color, double weight) {
+        int k = index(xIndex, yIndex);
+        pixels[k] += (float) (color.getRed() * weight);
+        pixels[k + 1] += (float) (color.getGreen() * weight);
+        pixels[k + 2] += (float) (color.getBlue() * weight);
+    }
+
+    /**
+     * The function fillTile copies the color of the top-left pixel of a
+     * rectangular block of pixels to the whole block in pixel color matrix
+     * @param xIndex X axis index of the top-left pixel of the block
+     * @param yIndex Y axis index of the top-left pixel of the block
+     * @param width  amount of pixels in a row of the block
+     * @param height amount of pixels in a column of the block
+     */
+    void fillTile(int xIndex, int yIndex, int width, int height) {
+        int source = index(xIndex, yIndex);
+        for (int i = yIndex; i < yIndex + height; ++i)
+            for (int k = index(xIndex, i), end = k + 3 * width; k < end; k += 3) {
+                pixels[k] = pixels[source];
+                pixels[k + 1] = pixels[source + 1];
+                pixels[k + 2] = pixels[source + 2];
+            }
+    }
+
+    /**
+     * The function writeTile writes the high dynamic range colors of a
+     * rectangular block of pixels into pixel color matrix. It may be called
+     * concurrently for different blocks
+     * @param xIndex X axis index of the top-left pixel of the block
+     * @param yIndex Y axis index of the top-left pixel of the block
+     * @param width  amount of pixels in a row of the block
+     * @param height amount of pixels in a column of the block
+     * @param tile   red, green and blue of each pixel of the block, row by row
+     */
+    void writeTile(int xIndex, int yIndex, int width, int height, float[] tile) {
+        for (int i = 0; i < height; ++i)
+            System.arraycopy(tile, 3 * i * width, pixels, index(xIndex, yIndex + i), 3 * width);
+    }
+
+    /**
+     * The function getPixels gives the high dynamic range buffer itself - red,
+     * green and blue of each pixel, row by row
+     * @return the buffer
+     */
+    float[] getPixels() { return pixels; }
+
+    /**
+     * calculates the position of a pixel in the high dynamic range buffer
+     * @param  xIndex X axis index of the pixel
+     * @param  yIndex Y axis index of the pixel
+     * @return        the position of the red component of the pixel
+     */
+    private int index(int xIndex, int yIndex) { return 3 * ((yIndex - originY) * nX + xIndex - originX); }
+
+    /**
+     * The function getImage tone maps the whole pixel color matrix into the image
+     * and gives the image, for previews and for writing
+     * @return the image buffer
+     */
+    BufferedImage getImage() {
+        int[] rgb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        ToneMapping mapping = toneMapping;
+        for (int p = 0, k = 0; p < rgb.length; ++p, k += 3)
+            rgb[p] = mapping.toByte(pixels[k]) << 16 | mapping.toByte(pixels[k + 1]) << 8
+                    | mapping.toByte(pixels[k + 2]);
+        return image;
+    }
+
+    /**
+     * The function getPixel reads the tone mapped color of a specific pixel from
+     * pixel color matrix
+     * @param  xIndex X axis index of the pixel
+     * @param  yIndex Y axis index of the pixel
+     * @return        the RGB value of the pixel
+     */
+    int getPixel(int xIndex, int yIndex) {
+        int k = index(xIndex, yIndex);
+        return 0xFF000000 | toneMapping.toByte(pixels[k]) << 16 | toneMapping.toByte(pixels[k + 1]) << 8
+                | toneMapping.toByte(pixels[k + 2]);
+    }
 
 }
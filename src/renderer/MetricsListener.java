@@ -0,0 +1,21 @@
+package renderer;
+
+/**
+ * Listener of the metrics of a rendering (see {@link Camera.Builder#setMetricsListener(MetricsListener)}).
+ * While a listener is set the camera and the ray tracer measure the rendering - otherwise they don't.
+ */
+@FunctionalInterface
+public interface MetricsListener {
+    /**
+     * Called when a block of pixels (a row or a tile) is rendered - possibly concurrently by the rendering
+     * threads. Does nothing by default
+     * @param metrics the metrics of the rendering so far
+     */
+    default void blockRendered(RenderMetrics metrics) {}
+
+    /**
+     * Called on the rendering thread when the rendering is done
+     * @param metrics the metrics of the rendering
+     */
+    void renderFinished(RenderMetrics metrics);
+}
@@ -0,0 +1,21 @@
+package renderer;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Listener of the passes of a progressive rendering (see
+ * {@link Camera.Builder#setProgressiveRendering(int, ProgressListener)}).
+ * It is called on the rendering thread after every pass, from the coarsest one to the full resolution one.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * Called when a rendering pass is done
+     * @param  frame  the image rendered so far - pixels that were not traced yet repeat the nearest traced pixel
+     *                above and to the left of them. The image is valid only until the method returns
+     * @param  pass   the number of the pass, starting at 1
+     * @param  passes the amount of passes
+     * @return        true to go on rendering, false to abort the rendering and keep the image as is
+     */
+    boolean passRendered(BufferedImage frame, int pass, int passes);
+}
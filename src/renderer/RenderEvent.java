@@ -0,0 +1,93 @@
+package renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of a rendering of an image by a camera, with the metrics of the rendering.
+ * While the event is enabled in a flight recording the camera measures its renderings even without a
+ * {@link MetricsListener}.
+ */
+@Name("renderer.Render")
+@Label("Render")
+@Category("Ray Tracer")
+@Description("Rendering of an image by a camera")
+class RenderEvent extends Event {
+    /** the amount of rendered pixels */
+    @Label("Pixels")
+    long pixels;
+
+    /** the rendering rate */
+    @Label("Pixels per Second")
+    double pixelsPerSecond;
+
+    /** the amount of primary rays */
+    @Label("Primary Rays")
+    long primaryRays;
+
+    /** the amount of primary rays hitting a geometry */
+    @Label("Primary Hits")
+    long primaryHits;
+
+    /** the amount of primary rays missing all the geometries */
+    @Label("Primary Misses")
+    long primaryMisses;
+
+    /** the amount of reflected and refracted rays */
+    @Label("Secondary Rays")
+    long secondaryRays;
+
+    /** the amount of reflected and refracted rays not traced by the depth or the attenuation cutoff */
+    @Label("Skipped Secondary Rays")
+    long skippedSecondaryRays;
+
+    /** the amount of shadow rays */
+    @Label("Shadow Rays")
+    long shadowRays;
+
+    /** the amount of intersection tests */
+    @Label("Intersection Tests")
+    long intersectionTests;
+
+    /** the amount of intersection tests finding an intersection */
+    @Label("Intersection Hits")
+    long intersectionHits;
+
+    /** the time spent finding intersections */
+    @Label("Intersection Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long intersectionTime;
+
+    /** the time spent shading */
+    @Label("Shading Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long shadingTime;
+
+    /** the intersection tests by geometry type */
+    @Label("Tests by Type")
+    String testsByType;
+
+    /**
+     * Set the event fields from the metrics of the rendering
+     * @param metrics the metrics
+     */
+    void set(RenderMetrics metrics) {
+        pixels = metrics.getPixels();
+        pixelsPerSecond = metrics.getPixelsPerSecond();
+        primaryRays = metrics.getPrimaryRays();
+        primaryHits = metrics.getPrimaryHits();
+        primaryMisses = metrics.getPrimaryMisses();
+        secondaryRays = metrics.getSecondaryRays();
+        skippedSecondaryRays = metrics.getSkippedSecondaryRays();
+        shadowRays = metrics.getShadowRays();
+        intersectionTests = metrics.getTotalIntersectionTests();
+        intersectionHits = metrics.getTotalIntersectionHits();
+        intersectionTime = metrics.getIntersectionNanos();
+        shadingTime = metrics.getShadingNanos();
+        testsByType = metrics.getIntersectionTests().toString();
+    }
+}
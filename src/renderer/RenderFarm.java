@@ -0,0 +1,427 @@
+package renderer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Class RenderFarm is the coordinator of the rendering of images by worker processes (see {@link RenderWorker}),
+ * possibly on other machines. A camera with a render farm (see {@link Camera.Builder#setRenderFarm(RenderFarm)})
+ * splits its image into tiles, and the farm hands the tiles out to the workers and gathers their colors into the
+ * image of the camera.
+ * <p>
+ * The scene of a scene file is serialized once, as its snapshot with the built acceleration structures (see
+ * {@link SceneFile#writeSnapshot(java.io.OutputStream)}), and it is sent once to every worker, when the farm
+ * connects to it - the connections are kept for the next images (e.g. the frames of an animation). Every image
+ * sends only the camera settings and the tiles.
+ * <p>
+ * Every worker gets as many tiles at a time as it has rendering threads. A worker that fails (its connection
+ * breaks or it sends a malformed tile) is dropped and its tiles are handed out again, and a tile that is not done
+ * by its worker within the tile timeout is handed out again to another worker - the first of them to be done is
+ * taken. A dropped worker is connected again for the next image.
+ */
+public final class RenderFarm implements AutoCloseable {
+    /** the magic number of the farm protocol - "RTRF" */
+    static final int MAGIC = 0x52545246;
+    /** the version of the farm protocol */
+    static final int VERSION = 1;
+    /** the message of the camera settings of an image - the image number and the settings */
+    static final byte SETTINGS = 1;
+    /** the message of a tile - the image number, the tile number, its top-left pixel and its size */
+    static final byte TILE = 2;
+    /** the time limit of connecting to a worker and of its handshake in milliseconds */
+    private static final int CONNECT_TIMEOUT = 10_000;
+    /** the interval of checking the tiles timeout in milliseconds */
+    private static final long CHECK_INTERVAL = 50;
+
+    /** the snapshot of the scene */
+    private final byte[] scene;
+    /** the addresses of the workers */
+    private final List<InetSocketAddress> addresses;
+    /** the connected workers */
+    private final List<Node> nodes = new ArrayList<>();
+    /** the time after which a tile is handed out again in milliseconds */
+    private long tileTimeout = 60_000;
+    /** the number of the last image */
+    private int images = 0;
+    /** the image being rendered, null between the images */
+    private volatile Image current = null;
+    /** the largest amount of colors of a tile of the rendered images */
+    private volatile int maxTileLength = 0;
+
+    /**
+     * A connected worker
+     */
+    private final class Node {
+        /** the worker address */
+        private final InetSocketAddress address;
+        /** the connection */
+        private final Socket socket;
+        /** the output to the worker */
+        private final DataOutputStream out;
+        /** the input from the worker */
+        private final DataInputStream in;
+        /** the amount of tiles the worker renders at a time */
+        private final int slots;
+        /** the tiles of the current image handed out to the worker and not done yet */
+        private final Set<Integer> tiles = new HashSet<>();
+        /** whether the worker failed */
+        private volatile boolean failed = false;
+
+        /**
+         * Connect a worker and send it the scene
+         * @param  address the worker address
+         * @throws IOException if the connection or the handshake fails
+         */
+        private Node(InetSocketAddress address) throws IOException {
+            this.address = address;
+            socket = new Socket();
+            try {
+                socket.connect(address, CONNECT_TIMEOUT);
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(CONNECT_TIMEOUT);
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(scene.length);
+                out.write(scene);
+                out.flush();
+                if (in.readInt() != MAGIC) throw new IOException("Not a render worker: " + address);
+                slots = Math.max(1, in.readInt());
+                // the worker answers once the scene is received and builds the scene only then, so the tiles
+                // wait for the build with no read timeout - a worker failing to build it closes the connection
+                socket.setSoTimeout(0);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            Thread reader = new Thread(this::read, "render farm " + address);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        /**
+         * Read the tiles done by the worker until the connection breaks
+         */
+        private void read() {
+            try {
+                while (true) {
+                    int image = in.readInt(), tile = in.readInt(), length = in.readInt();
+                    Image rendered = current;
+                    // the colors of a tile of another image are skipped, so their length is checked as well
+                    if (length < 0 || length > maxTileLength)
+                        throw new IOException("Tile of " + length + " colors from " + address);
+                    byte[] bytes = new byte[length * Float.BYTES];
+                    in.readFully(bytes);
+                    if (rendered == null || rendered.number != image) continue;
+                    float[] pixels = new float[length];
+                    ByteBuffer.wrap(bytes).asFloatBuffer().get(pixels);
+                    rendered.done(this, tile, pixels);
+                }
+            } catch (IOException | RuntimeException e) {
+                // a broken connection or a worker breaking the protocol
+                fail();
+            }
+        }
+
+        /**
+         * Send a message to the worker, dropping it if it fails
+         * @param message the message
+         */
+        private void send(byte[] message) {
+            try {
+                synchronized (out) {
+                    out.write(message);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                fail();
+            }
+        }
+
+        /**
+         * Drop the worker - its tiles are handed out again
+         */
+        private void fail() {
+            synchronized (this) {
+                if (failed) return;
+                failed = true;
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // the worker is dropped anyway
+            }
+            Image rendered = current;
+            if (rendered != null) rendered.failed(this);
+        }
+    }
+
+    /**
+     * The state of the rendering of an image
+     */
+    private final class Image {
+        /** the image number */
+        private final int number;
+        /** the tiles - the column and the row of the top-left pixel, the width and the height of each tile */
+        private final List<int[]> tiles;
+        /** the consumer of the done tiles */
+        private final BiConsumer<int[], float[]> consumer;
+        /** the tiles waiting for a worker */
+        private final Deque<Integer> waiting = new ArrayDeque<>();
+        /** the workers of every tile handed out and not done yet */
+        private final List<Set<Node>> workers = new ArrayList<>();
+        /** the time every tile was handed out last, in System.nanoTime() units */
+        private final long[] handedOut;
+        /** whether every tile is taken - done by a worker */
+        private final boolean[] taken;
+        /** amount of the tiles not written yet */
+        private int remaining;
+        /** the failure of writing a tile, null if there is none */
+        private RuntimeException failure = null;
+
+        /**
+         * Constructor of the rendering of an image
+         * @param number   the image number
+         * @param tiles    the tiles
+         * @param consumer the consumer of the done tiles
+         */
+        private Image(int number, List<int[]> tiles, BiConsumer<int[], float[]> consumer) {
+            this.number = number;
+            this.tiles = tiles;
+            this.consumer = consumer;
+            handedOut = new long[tiles.size()];
+            taken = new boolean[tiles.size()];
+            remaining = tiles.size();
+            for (int tile = 0; tile < tiles.size(); ++tile) {
+                waiting.add(tile);
+                workers.add(new HashSet<>());
+            }
+        }
+
+        /**
+         * Find a tile for a worker - a waiting tile, or a tile that its workers have not done within the timeout
+         * @param  node the worker
+         * @param  now  the current time in System.nanoTime() units
+         * @return      the tile, or -1 if there is none
+         */
+        private int next(Node node, long now) {
+            Integer tile = waiting.poll();
+            if (tile == null) {
+                // the longest late tile of the other workers
+                long limit = now - tileTimeout * 1_000_000;
+                for (int late = 0; late < taken.length; ++late)
+                    if (!taken[late] && handedOut[late] - limit < 0 && !workers.get(late).contains(node)
+                            && (tile == null || handedOut[late] - handedOut[tile] < 0))
+                        tile = late;
+                if (tile == null) return -1;
+            }
+            workers.get(tile).add(node);
+            handedOut[tile] = now;
+            node.tiles.add(tile);
+            return tile;
+        }
+
+        /**
+         * Take a tile done by a worker and write it, unless it has been taken from another worker
+         * @param node   the worker
+         * @param tile   the tile
+         * @param pixels the colors of the tile pixels
+         */
+        private void done(Node node, int tile, float[] pixels) {
+            synchronized (this) {
+                node.tiles.remove(tile);
+                if (tile < 0 || tile >= taken.length || taken[tile]) return;
+                int[] bounds = tiles.get(tile);
+                if (pixels.length != 3 * bounds[2] * bounds[3]) return;
+                taken[tile] = true;
+                workers.get(tile).clear();
+                notifyAll();
+            }
+            RuntimeException error = null;
+            try {
+                consumer.accept(tiles.get(tile), pixels);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            synchronized (this) {
+                --remaining;
+                if (error != null && failure == null) failure = error;
+                notifyAll();
+            }
+        }
+
+        /**
+         * checks whether all the tiles are done by the workers, though they may still be written
+         * @return true if every tile is taken
+         */
+        private boolean allTaken() {
+            for (boolean tile : taken)
+                if (!tile) return false;
+            return true;
+        }
+
+        /**
+         * Hand out again the tiles of a failed worker which no other worker renders
+         * @param node the worker
+         */
+        private synchronized void failed(Node node) {
+            for (int tile : node.tiles) {
+                workers.get(tile).remove(node);
+                if (!taken[tile] && workers.get(tile).isEmpty()) waiting.addFirst(tile);
+            }
+            node.tiles.clear();
+            notifyAll();
+        }
+    }
+
+    /**
+     * Constructor of a render farm of a scene file
+     * @param sceneFile the scene file - its scene is rendered as it was loaded, without later changes
+     * @param workers   the addresses of the workers
+     * @throws IllegalArgumentException if there are no workers
+     * @throws IllegalStateException    if the scene cannot be serialized
+     */
+    public RenderFarm(SceneFile sceneFile, InetSocketAddress... workers) {
+        if (workers.length == 0) throw new IllegalArgumentException("A render farm must have workers");
+        addresses = List.of(workers);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try {
+            sceneFile.writeSnapshot(snapshot);
+        } catch (IOException e) {
+            throw new IllegalStateException("Serialization of the scene failed", e);
+        }
+        scene = snapshot.toByteArray();
+    }
+
+    /**
+     * set the time after which a tile that is not done by its worker is handed out again to another worker
+     * @param  millis the timeout in milliseconds
+     * @return        this render farm
+     */
+    public RenderFarm setTileTimeout(long millis) {
+        if (millis <= 0) throw new IllegalArgumentException("Tile timeout must be positive");
+        tileTimeout = millis;
+        return this;
+    }
+
+    /**
+     * getter for the amount of connected workers
+     * @return the amount of the workers that have not failed
+     */
+    public synchronized int getWorkerCount() {
+        return (int) nodes.stream().filter(node -> !node.failed).count();
+    }
+
+    /**
+     * Render the tiles of an image of a camera by the workers
+     * @param  camera   the camera
+     * @param  tiles    the tiles - the column and the row of the top-left pixel, the width and the height of each
+     *                  tile
+     * @param  consumer the consumer of every done tile and the colors of its pixels, called once per tile by the
+     *                  threads reading from the workers
+     * @throws IllegalStateException if all the workers failed or the rendering was interrupted
+     */
+    synchronized void render(Camera camera, List<int[]> tiles, BiConsumer<int[], float[]> consumer) {
+        nodes.removeIf(node -> node.failed);
+        for (InetSocketAddress address : addresses)
+            if (nodes.stream().noneMatch(node -> node.address.equals(address))) {
+                try {
+                    nodes.add(new Node(address));
+                } catch (IOException e) {
+                    // the worker is not available for this image
+                }
+            }
+
+        Image image = new Image(++images, tiles, consumer);
+        byte[] settings;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(SETTINGS);
+            out.writeInt(image.number);
+            camera.writeSettings(out);
+            settings = bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Node node : nodes)
+            node.tiles.clear();
+        for (int[] tile : tiles)
+            maxTileLength = Math.max(maxTileLength, 3 * tile[2] * tile[3]);
+        current = image;
+        try {
+            for (Node node : nodes)
+                node.send(settings);
+            List<Node> receivers = new ArrayList<>();
+            List<byte[]> messages = new ArrayList<>();
+            while (true) {
+                receivers.clear();
+                messages.clear();
+                synchronized (image) {
+                    if (image.failure != null) throw image.failure;
+                    if (image.remaining == 0) break;
+                    boolean alive = false;
+                    long now = System.nanoTime();
+                    for (Node node : nodes) {
+                        if (node.failed) continue;
+                        alive = true;
+                        while (!node.failed && node.tiles.size() < node.slots) {
+                            int tile = image.next(node, now);
+                            if (tile < 0) break;
+                            receivers.add(node);
+                            messages.add(tileMessage(image.number, tile, tiles.get(tile)));
+                        }
+                    }
+                    if (!alive && !image.allTaken())
+                        throw new IllegalStateException("All the render workers failed");
+                    if (receivers.isEmpty()) image.wait(CHECK_INTERVAL);
+                }
+                // the tiles are sent outside the lock, so a slow worker does not hold back the tiles done by others
+                for (int k = 0; k < receivers.size(); ++k)
+                    receivers.get(k).send(messages.get(k));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        } finally {
+            current = null;
+        }
+    }
+
+    /**
+     * creates the message of a tile
+     * @param  image  the image number
+     * @param  tile   the tile number
+     * @param  bounds the top-left pixel and the size of the tile
+     * @return        the message
+     */
+    private static byte[] tileMessage(int image, int tile, int[] bounds) {
+        return ByteBuffer.allocate(1 + 6 * Integer.BYTES).put(TILE).putInt(image).putInt(tile).putInt(bounds[0])
+                .putInt(bounds[1]).putInt(bounds[2]).putInt(bounds[3]).array();
+    }
+
+    /**
+     * Close the connections to the workers
+     */
+    @Override
+    public synchronized void close() {
+        for (Node node : nodes)
+            node.fail();
+        nodes.clear();
+    }
+}
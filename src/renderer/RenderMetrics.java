@@ -0,0 +1,285 @@
+package renderer;
+
+import geometries.IntersectionCounter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class RenderMetrics holds the measurements of a rendering: the rendered pixels and the rendering time, the
+ * primary, the secondary (reflected and refracted) and the shadow rays, the intersection tests and hits by
+ * geometry type, and the time spent in the intersections and in the shading of the primary rays.
+ * Every rendering thread measures its work in its own {@link Recorder}, which is added to the metrics when the
+ * thread finishes a block of pixels.
+ */
+public final class RenderMetrics {
+    /** the amount of pixels of the image */
+    private final long totalPixels;
+    /** the time the rendering started at, in System.nanoTime() units */
+    private final long startNanos;
+    /** the rendering time, set when the rendering is done */
+    private long elapsedNanos = -1;
+
+    /** the amount of rendered pixels */
+    private long pixels;
+    /** the amount of primary rays - rays traced through the view plane */
+    private long primaryRays;
+    /** the amount of primary rays hitting a geometry */
+    private long primaryHits;
+    /** the amount of secondary rays - reflected and refracted rays */
+    private long secondaryRays;
+    /** the amount of secondary rays not traced because of the recursion depth or the attenuation cutoff */
+    private long skippedSecondaryRays;
+    /** the amount of shadow rays */
+    private long shadowRays;
+    /** the time spent finding intersections of the primary, the secondary and the shadow rays */
+    private long intersectionNanos;
+    /** the time spent shading the primary rays hits (with their secondary rays hits), without the intersections */
+    private long shadingNanos;
+    /** the amount of intersection tests by geometry type */
+    private final Map<String, Long> intersectionTests = new TreeMap<>();
+    /** the amount of intersection tests finding an intersection by geometry type */
+    private final Map<String, Long> intersectionHits = new TreeMap<>();
+
+    /**
+     * Constructor of the metrics of a rendering starting now
+     * @param totalPixels the amount of pixels of the image
+     */
+    RenderMetrics(long totalPixels) {
+        this.totalPixels = totalPixels;
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Add the measurements of a thread
+     * @param recorder the measurements of the thread rays
+     * @param counter  the intersection tests of the thread
+     */
+    synchronized void add(Recorder recorder, IntersectionCounter counter) {
+        pixels += recorder.pixels;
+        primaryRays += recorder.primaryRays;
+        primaryHits += recorder.primaryHits;
+        secondaryRays += recorder.secondaryRays;
+        skippedSecondaryRays += recorder.skippedSecondaryRays;
+        shadowRays += recorder.shadowRays;
+        intersectionNanos += recorder.intersectionNanos;
+        shadingNanos += recorder.shadingNanos;
+        counter.getTests().forEach((type, count) -> intersectionTests.merge(type, count, Long::sum));
+        counter.getHits().forEach((type, count) -> intersectionHits.merge(type, count, Long::sum));
+    }
+
+    /**
+     * Mark the rendering done
+     */
+    synchronized void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * getter for the amount of pixels of the image
+     * @return the amount of pixels
+     */
+    public long getTotalPixels() {
+        return totalPixels;
+    }
+
+    /**
+     * getter for the amount of rendered pixels
+     * @return the amount of rendered pixels
+     */
+    public synchronized long getPixels() {
+        return pixels;
+    }
+
+    /**
+     * getter for the rendering time so far, or of the whole rendering when it is done
+     * @return the rendering time in nanoseconds
+     */
+    public synchronized long getElapsedNanos() {
+        return elapsedNanos >= 0 ? elapsedNanos : System.nanoTime() - startNanos;
+    }
+
+    /**
+     * getter for the rendering rate
+     * @return the rendered pixels per second
+     */
+    public synchronized double getPixelsPerSecond() {
+        long elapsed = getElapsedNanos();
+        return elapsed == 0 ? 0 : pixels * 1e9 / elapsed;
+    }
+
+    /**
+     * getter for the amount of primary rays
+     * @return the amount of rays traced through the view plane
+     */
+    public synchronized long getPrimaryRays() {
+        return primaryRays;
+    }
+
+    /**
+     * getter for the amount of primary rays hitting a geometry
+     * @return the amount of hitting primary rays
+     */
+    public synchronized long getPrimaryHits() {
+        return primaryHits;
+    }
+
+    /**
+     * getter for the amount of primary rays missing all the geometries
+     * @return the amount of primary rays getting the background color
+     */
+    public synchronized long getPrimaryMisses() {
+        return primaryRays - primaryHits;
+    }
+
+    /**
+     * getter for the amount of secondary rays
+     * @return the amount of traced reflected and refracted rays
+     */
+    public synchronized long getSecondaryRays() {
+        return secondaryRays;
+    }
+
+    /**
+     * getter for the amount of skipped secondary rays
+     * @return the amount of reflected and refracted rays not traced because of the recursion depth or because
+     *         their attenuation is below the cutoff
+     */
+    public synchronized long getSkippedSecondaryRays() {
+        return skippedSecondaryRays;
+    }
+
+    /**
+     * getter for the amount of shadow rays
+     * @return the amount of shadow rays
+     */
+    public synchronized long getShadowRays() {
+        return shadowRays;
+    }
+
+    /**
+     * getter for the time spent finding intersections
+     * @return the time of the intersections of the primary and the shadow rays in nanoseconds
+     */
+    public synchronized long getIntersectionNanos() {
+        return intersectionNanos;
+    }
+
+    /**
+     * getter for the time spent shading
+     * @return the time of the shading of the primary rays hits, without the shadow rays, in nanoseconds
+     */
+    public synchronized long getShadingNanos() {
+        return shadingNanos;
+    }
+
+    /**
+     * getter for the intersection tests by geometry type
+     * @return the amount of tests of each geometry type, by the type simple name
+     */
+    public synchronized Map<String, Long> getIntersectionTests() {
+        return Collections.unmodifiableMap(new TreeMap<>(intersectionTests));
+    }
+
+    /**
+     * getter for the intersection hits by geometry type
+     * @return the amount of tests finding an intersection of each geometry type, by the type simple name
+     */
+    public synchronized Map<String, Long> getIntersectionHits() {
+        return Collections.unmodifiableMap(new TreeMap<>(intersectionHits));
+    }
+
+    /**
+     * getter for the total amount of intersection tests
+     * @return the amount of tests of all the geometry types
+     */
+    public synchronized long getTotalIntersectionTests() {
+        return intersectionTests.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * getter for the total amount of intersection tests finding an intersection
+     * @return the amount of hits of all the geometry types
+     */
+    public synchronized long getTotalIntersectionHits() {
+        return intersectionHits.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder report = new StringBuilder(String.format(
+                "%d/%d pixels in %.1f ms (%.0f pixels/s), primary rays %d (%d hits, %d misses), "
+                        + "secondary rays %d (%d skipped), shadow rays %d, intersection %.1f ms, shading %.1f ms",
+                pixels, totalPixels, getElapsedNanos() / 1e6, getPixelsPerSecond(), primaryRays, primaryHits,
+                primaryRays - primaryHits, secondaryRays, skippedSecondaryRays, shadowRays, intersectionNanos / 1e6,
+                shadingNanos / 1e6));
+        intersectionTests.forEach((type, tests) -> report.append(String.format(", %s tests %d (%d hits)",
+                type, tests, intersectionHits.getOrDefault(type, 0L))));
+        return report.toString();
+    }
+
+    /**
+     * The measurements of a single rendering thread. The ray tracers measure the rays of the current thread's
+     * recorder, and they get the recorder by {@link #current()} which costs a single volatile read while no
+     * thread measures.
+     */
+    static final class Recorder {
+        /** the recorder of the current thread, if it measures */
+        private static final ThreadLocal<Recorder> CURRENT = new ThreadLocal<>();
+        /** amount of measuring threads */
+        private static volatile int recording = 0;
+
+        /** the amount of rendered pixels */
+        long pixels;
+        /** the amount of primary rays */
+        long primaryRays;
+        /** the amount of primary rays hitting a geometry */
+        long primaryHits;
+        /** the amount of secondary rays */
+        long secondaryRays;
+        /** the amount of skipped secondary rays */
+        long skippedSecondaryRays;
+        /** the amount of shadow rays */
+        long shadowRays;
+        /** the time spent finding intersections */
+        long intersectionNanos;
+        /** the time spent shading */
+        long shadingNanos;
+
+        /** Recorders are created by {@link #start()} only */
+        private Recorder() {}
+
+        /**
+         * getter for the recorder of the current thread
+         * @return the recorder, or null if the thread does not measure
+         */
+        static Recorder current() {
+            return recording == 0 ? null : CURRENT.get();
+        }
+
+        /**
+         * Start measuring the current thread - its rays and its intersection tests
+         */
+        static void start() {
+            CURRENT.set(new Recorder());
+            synchronized (Recorder.class) {
+                ++recording;
+            }
+            IntersectionCounter.start();
+        }
+
+        /**
+         * Stop measuring the current thread and add its measurements to the metrics
+         * @param metrics the metrics of the rendering
+         */
+        static void stop(RenderMetrics metrics) {
+            Recorder recorder = CURRENT.get();
+            CURRENT.remove();
+            synchronized (Recorder.class) {
+                --recording;
+            }
+            metrics.add(recorder, IntersectionCounter.stop());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package renderer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import scene.Scene;
+
+/**
+ * Class RenderWorker is a worker process of a render farm (see {@link RenderFarm}) - it serves the farms connecting
+ * to it, builds the scene every farm sends and renders the tiles the farm hands out, by a pool of rendering threads.
+ * A worker is started by {@code java renderer.RenderWorker [port [threads]]}, e.g. several of them on localhost.
+ */
+public final class RenderWorker implements AutoCloseable {
+    /** the socket accepting the farms */
+    private final ServerSocket server;
+    /** the amount of rendering threads */
+    private final int threads;
+    /** the rendering threads */
+    private final ExecutorService pool;
+    /** the connections of the farms */
+    private final List<Socket> connections = new ArrayList<>();
+
+    /**
+     * Constructor of a worker listening on a port
+     * @param port    the port, 0 for any free port
+     * @param threads amount of rendering threads, -1 for as many threads as available processors
+     * @throws IllegalArgumentException if the amount of threads is illegal
+     * @throws IllegalStateException    if the port cannot be listened on
+     */
+    public RenderWorker(int port, int threads) {
+        if (threads == 0 || threads < -1)
+            throw new IllegalArgumentException("Rendering threads must be positive or -1");
+        this.threads = threads == -1 ? Runtime.getRuntime().availableProcessors() : threads;
+        try {
+            server = new ServerSocket(port);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error listening on port " + port, e);
+        }
+        pool = Executors.newFixedThreadPool(this.threads, task -> {
+            Thread thread = new Thread(task, "render worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * getter for the port the worker listens on
+     * @return the port
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Serve the farms in a background thread
+     * @return this worker
+     */
+    public RenderWorker start() {
+        Thread acceptor = new Thread(this::serve, "render worker " + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return this;
+    }
+
+    /**
+     * Serve the farms connecting to the worker, until it is closed - every farm is served by a thread of its own
+     */
+    public void serve() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                synchronized (connections) {
+                    connections.add(socket);
+                }
+                Thread connection = new Thread(() -> serve(socket), "render worker " + socket.getRemoteSocketAddress());
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException e) {
+                // the worker is closed, or the connection failed
+            }
+        }
+    }
+
+    /**
+     * Serve a farm - receive its scene, answer the handshake, build the scene and then render its tiles until the
+     * connection is closed. The tiles sent while the scene is built wait in the connection
+     * @param socket the connection of the farm
+     */
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            if (in.readInt() != RenderFarm.MAGIC || in.readInt() != RenderFarm.VERSION) return;
+            // the scene is kept off the heap - its meshes read their vertices from the received snapshot
+            ByteBuffer snapshot = ByteBuffer.allocateDirect(in.readInt());
+            byte[] chunk = new byte[1 << 16];
+            while (snapshot.hasRemaining()) {
+                int length = Math.min(chunk.length, snapshot.remaining());
+                in.readFully(chunk, 0, length);
+                snapshot.put(chunk, 0, length);
+            }
+            // the handshake precedes building the scene, which may outlast the handshake timeout of the farm
+            out.writeInt(RenderFarm.MAGIC);
+            out.writeInt(threads);
+            out.flush();
+            Scene scene = SceneFile.read(snapshot.flip()).getScene();
+
+            Camera camera = null;
+            int image = 0;
+            while (true) {
+                byte message = in.readByte();
+                if (message == RenderFarm.SETTINGS) {
+                    image = in.readInt();
+                    camera = Camera.readSettings(in, scene);
+                } else if (message == RenderFarm.TILE) {
+                    int tileImage = in.readInt(), tile = in.readInt();
+                    int x0 = in.readInt(), y0 = in.readInt(), width = in.readInt(), height = in.readInt();
+                    if (tileImage != image || camera == null) throw new IOException("Tile of unknown settings");
+                    Camera tileCamera = camera;
+                    pool.execute(() -> renderTile(socket, out, tileCamera, tileImage, tile, x0, y0, width, height));
+                } else
+                    throw new IOException("Unknown message " + message);
+            }
+        } catch (IOException | RuntimeException e) {
+            // the farm is gone or broke the protocol - the connection is closed
+        } finally {
+            synchronized (connections) {
+                connections.remove(socket);
+            }
+        }
+    }
+
+    /**
+     * Render a tile and send its colors to the farm, closing the connection if it fails
+     * @param socket the connection of the farm
+     * @param out    the output to the farm
+     * @param camera the camera of the image
+     * @param image  the image number
+     * @param tile   the tile number
+     * @param x0     the column of the top-left pixel of the tile
+     * @param y0     the row of the top-left pixel of the tile
+     * @param width  the amount of columns of the tile
+     * @param height the amount of rows of the tile
+     */
+    private static void renderTile(Socket socket, DataOutputStream out, Camera camera, int image, int tile,
+                                   int x0, int y0, int width, int height) {
+        try {
+            float[] pixels = camera.renderTile(x0, y0, width, height);
+            ByteBuffer bytes = ByteBuffer.allocate(pixels.length * Float.BYTES);
+            bytes.asFloatBuffer().put(pixels);
+            synchronized (out) {
+                out.writeInt(image);
+                out.writeInt(tile);
+                out.writeInt(pixels.length);
+                out.write(bytes.array());
+                out.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            // the farm hands the tiles of a broken connection out again
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // the connection is closed anyway
+            }
+        }
+    }
+
+    /**
+     * Stop serving the farms and close their connections
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            // nothing more to do
+        }
+        synchronized (connections) {
+            for (Socket socket : connections)
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // nothing more to do
+                }
+        }
+        pool.shutdownNow();
+    }
+
+    /**
+     * Run a worker until the process is killed
+     * @param args the port (0 or none for any free port) and the amount of rendering threads (none for as many
+     *             threads as available processors)
+     */
+    public static void main(String[] args) {
+        RenderWorker worker = new RenderWorker(args.length > 0 ? Integer.parseInt(args[0]) : 0,
+                args.length > 1 ? Integer.parseInt(args[1]) : -1);
+        System.out.println("Render worker listening on port " + worker.getPort());
+        worker.serve();
+    }
+}
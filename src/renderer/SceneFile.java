@@ -0,0 +1,1267 @@
+package renderer;
+
+import geometries.*;
+import lighting.*;
+import primitives.*;
+import scene.MeshLoader;
+import scene.Scene;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class SceneFile loads a scene and its camera from an XML scene description file, e.g.
+ * <pre>{@code
+ * <scene name="demo" background-color="75 127 190" light-cutoff="0.5">
+ *     <camera location="0 0 1000" direction="0 0 -1" up="0 1 0" vp-size="200 200" vp-distance="1000"
+ *             resolution="600 600"/>
+ *     <ambient-light color="255 191 191" k="0.1"/>
+ *     <materials>
+ *         <material name="shiny" kd="0.5" ks="0.5" shininess="60" kr="0.2" kt="0 0 0" ka="1"/>
+ *     </materials>
+ *     <lights>
+ *         <directional-light color="100 100 100" direction="0 0 -1" cast-shadows="false"/>
+ *         <point-light color="500 300 0" position="0 100 100" kc="1" kl="0.001" kq="0.0001"/>
+ *         <spot-light color="800 400 400" position="-100 -100 500" direction="1 1 -2" kl="0.0004" narrow-beam="10"/>
+ *         <area-light color="700 700 700" center="0 0 300" width="40 0 0" height="0 40 0" grid="9"/>
+ *     </lights>
+ *     <geometries bvh="true">
+ *         <sphere center="0 0 -100" radius="50" material="shiny" emission="0 0 100"/>
+ *         <plane point="0 -50 0" normal="0 1 0"/>
+ *         <triangle p0="-100 0 -100" p1="0 100 -100" p2="-100 100 -100"/>
+ *         <polygon vertices="0 0 0  1 0 0  1 1 0  0 1 0"/>
+ *         <tube radius="5" origin="0 0 0" direction="0 1 0"/>
+ *         <cylinder radius="5" origin="0 0 0" direction="0 1 0" height="20"/>
+ *         <mesh file="bunny.obj"/>
+ *         <mesh vertices="0 0 0  1 0 0  0 1 0" indices="0 1 2"/>
+ *         <group bvh="false"> ... </group>
+ *     </geometries>
+ * </scene>
+ * }</pre>
+ * The colors and the points are triads of numbers, the material factors are a single number or a triad, a mesh
+ * file is an OBJ or a PLY file (see {@link MeshLoader}) relative to the scene file, and the materials must be
+ * defined before the geometries that use them. A group is a nested collection of geometries (a {@link BVH} if its
+ * bvh attribute is true).
+ * <p>
+ * The file is streamed by a parser of the XML subset that the scene files need into a compact binary form - a
+ * sequence of tagged records of raw numbers - and the scene is built from the binary form.
+ * <p>
+ * The binary form is kept in a versioned snapshot file next to the scene file, along with the built acceleration
+ * structures - the trees of the BVH groups and the meshes with their trees. A later load of an unchanged scene
+ * file, with unchanged mesh files, maps the snapshot into memory and builds the scene from it, restoring the structures instead of parsing
+ * the scene file, loading the mesh files and building the trees. A snapshot may also be opened without its
+ * scene file (see {@link #open(Path)}), or sent to another process (see {@link #writeSnapshot(OutputStream)}).
+ */
+public final class SceneFile {
+    /** the suffix of the snapshot file name, appended to the scene file name */
+    public static final String CACHE_SUFFIX = ".cache";
+    /** the snapshot file magic number - "RTSF" */
+    private static final int MAGIC = 0x52545346;
+    /** the version of the snapshot - to be changed with the records or the structures */
+    private static final int VERSION = 3;
+
+    // the snapshot header - the magic number, the version, the size and the modification time of the scene file
+    // and the position of the structures
+    /** the position of the scene file size in the header */
+    private static final int SIZE_POSITION = 8;
+    /** the position of the scene file modification time in the header */
+    private static final int MODIFIED_POSITION = 16;
+    /** the position of the structures position in the header */
+    private static final int STRUCTURES_POSITION = 24;
+    /** the size of the header */
+    private static final int HEADER_SIZE = 32;
+
+    // the records tags of the binary form
+    /** end of the records */
+    private static final byte END = 0;
+    /** the scene name, background and light cutoff */
+    private static final byte SCENE = 1;
+    /** the camera location, directions, view plane and resolution */
+    private static final byte CAMERA = 2;
+    /** the ambient light */
+    private static final byte AMBIENT = 3;
+    /** a material, referenced by its order */
+    private static final byte MATERIAL = 4;
+    /** the emission and the material of the following geometries */
+    private static final byte APPEARANCE = 5;
+    /** the lights */
+    private static final byte DIRECTIONAL_LIGHT = 6, POINT_LIGHT = 7, SPOT_LIGHT = 8, AREA_LIGHT = 9;
+    /** the start and the end of a collection of geometries */
+    private static final byte GROUP = 10, GROUP_END = 11;
+    /** the geometries */
+    private static final byte SPHERE = 12, PLANE = 13, TRIANGLE = 14, POLYGON = 15, TUBE = 16, CYLINDER = 17;
+    /** a mesh of inline vertices and indices */
+    private static final byte MESH = 18;
+    /** a mesh loaded from a file, with the size and the modification time of the file */
+    private static final byte MESH_FILE = 19;
+
+    /** the loaded scene */
+    private final Scene scene;
+    /** the camera of the scene file, null if the file has no camera */
+    private final Camera.Builder camera;
+    /** the amount of loaded geometries, the meshes counted once */
+    private final int geometryCount;
+    /** whether the scene was built from a snapshot, without parsing */
+    private final boolean cached;
+    /** the duration of the load in nanoseconds */
+    private final long loadNanos;
+    /** the snapshot the scene was built from, or null if the scene was parsed */
+    private final ByteBuffer snapshot;
+    /** the binary form of a parsed scene, with its header, or null if the scene was built from a snapshot */
+    private final byte[] records;
+    /** the BVH groups and the meshes of a parsed scene, in the order of their construction */
+    private final List<Intersectable> structures;
+
+    /**
+     * Constructor of a loaded scene file
+     * @param builder   the builder of the scene
+     * @param snapshot  the snapshot the scene was built from, null if it was parsed
+     * @param records   the binary form of the parsed scene, null if it was built from a snapshot
+     * @param loadNanos the duration of the load
+     */
+    private SceneFile(Builder builder, ByteBuffer snapshot, byte[] records, long loadNanos) {
+        scene = builder.scene;
+        camera = builder.camera;
+        geometryCount = builder.geometryCount;
+        cached = snapshot != null;
+        this.snapshot = snapshot;
+        this.records = records;
+        structures = builder.structures;
+        this.loadNanos = loadNanos;
+    }
+
+    /**
+     * Loads a scene file, through its cache file next to it (the file name with {@link #CACHE_SUFFIX})
+     * @param  file the scene file
+     * @return      the loaded scene file
+     * @throws IllegalArgumentException if the file is malformed
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public static SceneFile load(Path file) {
+        return load(file, file.resolveSibling(file.getFileName() + CACHE_SUFFIX));
+    }
+
+    /**
+     * Loads a scene file through a snapshot file. If the snapshot was written from the scene file and the mesh
+     * files in their current sizes and modification times the scene is built from the snapshot, otherwise the
+     * scene file is parsed and the snapshot is (re)written. A snapshot that cannot be written is skipped
+     * @param  file  the scene file
+     * @param  cache the snapshot file, null for no snapshot
+     * @return       the loaded scene file
+     * @throws IllegalArgumentException if the file is malformed
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public static SceneFile load(Path file, Path cache) {
+        long start = System.nanoTime();
+        try {
+            long size = Files.size(file);
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            ByteBuffer snapshot = cache == null ? null : readSnapshot(cache);
+            if (snapshot != null && snapshot.getLong(SIZE_POSITION) == size
+                    && snapshot.getLong(MODIFIED_POSITION) == modified) {
+                Builder builder = build(file, snapshot, true);
+                if (!builder.changedMeshFile)
+                    return new SceneFile(builder, snapshot, null, System.nanoTime() - start);
+            }
+
+            byte[] records = parse(file, size, modified);
+            Builder builder = build(file, ByteBuffer.wrap(records), false);
+            if (cache != null) writeSnapshot(cache, records, builder.structures);
+            return new SceneFile(builder, null, records, System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error reading the scene file " + file, e);
+        }
+    }
+
+    /**
+     * Opens a snapshot file written by {@link #load(Path, Path)}, without its scene file
+     * @param  snapshot the snapshot file
+     * @return          the loaded scene file
+     * @throws IllegalArgumentException if the file is not a snapshot of this version or is malformed
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public static SceneFile open(Path snapshot) {
+        long start = System.nanoTime();
+        ByteBuffer buffer;
+        try {
+            buffer = map(snapshot);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error reading the snapshot " + snapshot, e);
+        }
+        if (buffer == null) throw new IllegalArgumentException("Not a scene snapshot of version " + VERSION
+                + ": " + snapshot);
+        return new SceneFile(build(snapshot, buffer, false), buffer, null, System.nanoTime() - start);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeSnapshot(OutputStream)}, e.g. by another process. The meshes keep
+     * reading their vertices from the buffer
+     * @param  snapshot the snapshot, from its start
+     * @return          the loaded scene file
+     * @throws IllegalArgumentException if the buffer is not a snapshot of this version or is malformed
+     */
+    public static SceneFile read(ByteBuffer snapshot) {
+        long start = System.nanoTime();
+        ByteBuffer buffer = snapshot.slice();
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IllegalArgumentException("Not a scene snapshot of version " + VERSION);
+        return new SceneFile(build(Path.of("snapshot"), buffer, false), buffer, null, System.nanoTime() - start);
+    }
+
+    /**
+     * Writes the snapshot of the scene - its binary form and its built structures, as in the snapshot file - so
+     * that the scene can be built elsewhere without parsing and building the structures (see
+     * {@link #read(ByteBuffer)}). The scene is written as it was loaded, without later changes
+     * @param  out the output
+     * @throws IOException if the output fails
+     */
+    public void writeSnapshot(OutputStream out) throws IOException {
+        if (snapshot != null) {
+            byte[] chunk = new byte[1 << 16];
+            ByteBuffer bytes = snapshot.duplicate().position(0);
+            while (bytes.hasRemaining()) {
+                int length = Math.min(chunk.length, bytes.remaining());
+                bytes.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        } else {
+            DataOutputStream data = new DataOutputStream(out);
+            writeSnapshot(data, records, structures);
+            data.flush();
+        }
+    }
+
+    /**
+     * getter for the scene
+     * @return the loaded scene
+     */
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * getter for the camera of the scene file - its location, directions, view plane and resolution are set and
+     * its ray tracer is a {@link SimpleRayTracer} of the scene, all of which may still be changed
+     * @return the camera builder, or null if the scene file has no camera
+     */
+    public Camera.Builder getCamera() {
+        return camera;
+    }
+
+    /**
+     * getter for the amount of loaded geometries
+     * @return the amount of geometries, a mesh counted as one geometry and a group not counted
+     */
+    public int getGeometryCount() {
+        return geometryCount;
+    }
+
+    /**
+     * checks whether the scene was built from a snapshot
+     * @return true if the scene file was not parsed
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * getter for the duration of the load, including the construction of the scene (and the writing of the
+     * snapshot after parsing)
+     * @return the duration in milliseconds
+     */
+    public double getLoadMillis() {
+        return loadNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d geometries, %d lights in %.1f ms (%s)", scene.name, geometryCount,
+                scene.lights.size(), getLoadMillis(), cached ? "cached" : "parsed");
+    }
+
+    // ***************** Snapshot ********************** //
+
+    /**
+     * Build the scene of a binary form
+     * @param  file     the scene file or the snapshot, for resolving the mesh files and for the errors
+     * @param  snapshot the binary form, with its header
+     * @param  check    whether to check the mesh files against their sizes and modification times in the records
+     * @return          the builder, with the built scene
+     */
+    private static Builder build(Path file, ByteBuffer snapshot, boolean check) {
+        Builder builder = new Builder(file, check);
+        long structures = snapshot.getLong(STRUCTURES_POSITION);
+        if (structures < 0 || structures > snapshot.limit())
+            throw new IllegalArgumentException("Malformed snapshot " + file);
+        if (structures > 0) builder.stored = snapshot.duplicate().position((int) structures);
+        builder.build(snapshot.duplicate().position(HEADER_SIZE));
+        return builder;
+    }
+
+    /**
+     * Read the snapshot of a scene file, skipping it if it cannot be read
+     * @param  cache the snapshot file
+     * @return       the mapped snapshot, or null if there is no snapshot of this version
+     */
+    private static ByteBuffer readSnapshot(Path cache) {
+        try {
+            return Files.isRegularFile(cache) ? map(cache) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Map a snapshot file into memory
+     * @param  snapshot the snapshot file
+     * @return          the mapped snapshot, or null if the file is not a snapshot of this version
+     * @throws IOException if the file cannot be read
+     */
+    private static ByteBuffer map(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) return null;
+            // the mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION ? buffer : null;
+        }
+    }
+
+    /**
+     * Write the snapshot of a scene file - its binary form followed by the built structures - skipping it if it
+     * cannot be written. The snapshot is written aside and moved into place, so that a loading process never
+     * reads a partly written snapshot
+     * @param cache      the snapshot file
+     * @param records    the binary form, with its header
+     * @param structures the BVH groups and the meshes, in the order of their construction
+     */
+    private static void writeSnapshot(Path cache, byte[] records, List<Intersectable> structures) {
+        Path temporary = null;
+        try {
+            Path folder = cache.toAbsolutePath().getParent();
+            temporary = Files.createTempFile(folder, cache.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                writeSnapshot(out, records, structures);
+            }
+            Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // the snapshot is an optimization only
+            try {
+                if (temporary != null) Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // nothing more to do
+            }
+        }
+    }
+
+    /**
+     * Write a snapshot - the binary form followed by the built structures
+     * @param  out        the output
+     * @param  records    the binary form, with its header
+     * @param  structures the BVH groups and the meshes, in the order of their construction
+     * @throws IOException if the output fails
+     */
+    private static void writeSnapshot(DataOutputStream out, byte[] records, List<Intersectable> structures)
+            throws IOException {
+        ByteBuffer.wrap(records).putLong(STRUCTURES_POSITION, records.length);
+        out.write(records);
+        for (Intersectable structure : structures)
+            if (structure instanceof BVH bvh) bvh.writeTree(out);
+            else ((TriangleMesh) structure).write(out);
+    }
+
+    // ***************** Parser ********************** //
+
+    /**
+     * Parse a scene file into its binary form
+     * @param  file     the scene file
+     * @param  size     the size of the file, for the header
+     * @param  modified the modification time of the file, for the header
+     * @return          the binary form, with its header
+     * @throws IOException if the file cannot be read
+     */
+    private static byte[] parse(Path file, long size, long modified) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, size));
+        try (InputStream in = Files.newInputStream(file)) {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeLong(0); // the position of the structures, set when the snapshot is written
+            new Parser(in, out, file.toAbsolutePath().getParent()).parse();
+            out.flush();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The translation of the XML elements of a scene file into the records of its binary form.
+     * The parser scans the bytes of the file directly and supports the subset of XML that a scene file needs -
+     * elements, attributes (with the predefined and the character entities), comments and the XML declaration
+     */
+    private static final class Parser {
+        /** the size of the file buffer */
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        /** the scene file */
+        private final InputStream in;
+        /** the binary form */
+        private final DataOutputStream out;
+        /** the folder of the scene file, for resolving the mesh files */
+        private final Path folder;
+        /** the file buffer */
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        /** the position of the next byte in the buffer and the amount of bytes in the buffer */
+        private int position, limit;
+        /** the current line, for the errors */
+        private int line = 1;
+        /** the bytes of the current token */
+        private byte[] token = new byte[256];
+
+        /** the attributes names and values of the current element */
+        private String[] names = new String[8], values = new String[8];
+        /** the amount of attributes of the current element */
+        private int attributes;
+
+        /** the indices of the materials by their names */
+        private final Map<String, Integer> materials = new HashMap<>();
+        /** the names of the open elements */
+        private final Deque<String> open = new ArrayDeque<>();
+        /** the emission of the last written appearance */
+        private double[] emission = { 0, 0, 0 };
+        /** the material index of the last written appearance, -1 for the default material */
+        private int material = -1;
+        /** whether the geometries element was parsed */
+        private boolean geometries = false;
+
+        /**
+         * Constructor of a parser
+         * @param in     the scene file
+         * @param out    the binary form
+         * @param folder the folder of the scene file
+         */
+        private Parser(InputStream in, DataOutputStream out, Path folder) {
+            this.in = in;
+            this.out = out;
+            this.folder = folder;
+        }
+
+        /**
+         * Parse the scene file
+         * @throws IOException if the file cannot be read or the binary form cannot be written
+         */
+        private void parse() throws IOException {
+            boolean root = false;
+            for (int c = read(); c != -1; c = read()) {
+                if (c != '<') {
+                    if (!isSpace(c)) throw error("Unexpected text");
+                    continue;
+                }
+                c = read();
+                if (c == '?') {
+                    skip("?>");
+                } else if (c == '!') {
+                    if (read() != '-' || read() != '-') throw error("Unsupported declaration");
+                    skip("-->");
+                } else if (c == '/') {
+                    String name = readName(read());
+                    if (skipSpaces(read()) != '>') throw error("Malformed end of element " + name);
+                    if (!name.equals(open.peek())) throw error("Unexpected end of element " + name);
+                    endElement(open.pop());
+                } else {
+                    if (root && open.isEmpty()) throw error("Element after the root element");
+                    root = true;
+                    String name = readName(c);
+                    boolean empty = readAttributes();
+                    startElement(name, open.peek());
+                    if (empty) endElement(name);
+                    else open.push(name);
+                }
+            }
+            if (!root) throw error("No root element");
+            if (!open.isEmpty()) throw error("Unclosed element " + open.peek());
+            out.writeByte(END);
+        }
+
+        /**
+         * Translate an element end
+         * @param  name the element name
+         * @throws IOException if the binary form cannot be written
+         */
+        private void endElement(String name) throws IOException {
+            if (name.equals("geometries") || name.equals("group")) out.writeByte(GROUP_END);
+        }
+
+        /**
+         * read the next byte of the file
+         * @return the byte, or -1 at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, BUFFER_SIZE);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            int c = buffer[position++] & 0xFF;
+            if (c == '\n') ++line;
+            return c;
+        }
+
+        /**
+         * checks whether a byte is an XML white space
+         * @param  c the byte
+         * @return   true for a space, a tab or a line end
+         */
+        private static boolean isSpace(int c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+        }
+
+        /**
+         * skip white spaces
+         * @param  c the current byte
+         * @return   the first byte that is not a white space
+         * @throws IOException if the file cannot be read
+         */
+        private int skipSpaces(int c) throws IOException {
+            while (isSpace(c)) c = read();
+            return c;
+        }
+
+        /**
+         * skip the file up to the end of a terminator
+         * @param  terminator the terminator
+         * @throws IOException if the file cannot be read
+         */
+        private void skip(String terminator) throws IOException {
+            int length = terminator.length();
+            int[] last = new int[length];
+            for (int count = 0; ; ) {
+                int c = read();
+                if (c == -1) throw error("Missing " + terminator);
+                last[count++ % length] = c;
+                if (count < length) continue;
+                int k = 0;
+                while (k < length && last[(count + k) % length] == terminator.charAt(k)) ++k;
+                if (k == length) return;
+            }
+        }
+
+        /**
+         * add a byte to the current token
+         * @param length the token length
+         * @param c      the byte
+         */
+        private void append(int length, int c) {
+            if (length == token.length) token = Arrays.copyOf(token, 2 * length);
+            token[length] = (byte) c;
+        }
+
+        /**
+         * read a name
+         * @param  c the first byte of the name
+         * @return   the name, the byte after it is unread
+         * @throws IOException if the file cannot be read
+         */
+        private String readName(int c) throws IOException {
+            int length = 0;
+            while (c != -1 && c != '=' && c != '>' && c != '/' && !isSpace(c)) {
+                append(length++, c);
+                c = read();
+            }
+            if (length == 0) throw error("Missing name");
+            if (c != -1) --position;
+            if (c == '\n') --line;
+            return new String(token, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * read the attributes of an element up to the element start end
+         * @return true if the element is empty (ends by "/>")
+         * @throws IOException if the file cannot be read
+         */
+        private boolean readAttributes() throws IOException {
+            attributes = 0;
+            while (true) {
+                int c = skipSpaces(read());
+                if (c == '>') return false;
+                if (c == '/') {
+                    if (read() != '>') throw error("Malformed empty element");
+                    return true;
+                }
+                if (c == -1) throw error("Unclosed element");
+                String name = readName(c);
+                if (skipSpaces(read()) != '=') throw error("Missing value of attribute " + name);
+                int quote = skipSpaces(read());
+                if (quote != '"' && quote != '\'') throw error("Unquoted value of attribute " + name);
+                int length = 0;
+                boolean entities = false;
+                for (c = read(); c != quote; c = read()) {
+                    if (c == -1 || c == '<') throw error("Unclosed value of attribute " + name);
+                    if (c == '&') entities = true;
+                    append(length++, c);
+                }
+                String value = new String(token, 0, length, StandardCharsets.UTF_8);
+                if (attributes == names.length) {
+                    names = Arrays.copyOf(names, 2 * attributes);
+                    values = Arrays.copyOf(values, 2 * attributes);
+                }
+                names[attributes] = name;
+                values[attributes++] = entities ? replaceEntities(value) : value;
+            }
+        }
+
+        /**
+         * replace the entities of an attribute value by their characters
+         * @param  value the attribute value
+         * @return       the value with the characters
+         */
+        private String replaceEntities(String value) {
+            StringBuilder result = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); ++i) {
+                char c = value.charAt(i);
+                if (c != '&') {
+                    result.append(c);
+                    continue;
+                }
+                int end = value.indexOf(';', i);
+                if (end == -1) throw error("Malformed entity in " + value);
+                String entity = value.substring(i + 1, end);
+                switch (entity) {
+                    case "lt" -> result.append('<');
+                    case "gt" -> result.append('>');
+                    case "amp" -> result.append('&');
+                    case "quot" -> result.append('"');
+                    case "apos" -> result.append('\'');
+                    default -> {
+                        try {
+                            if (entity.startsWith("#x")) result.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+                            else if (entity.startsWith("#")) result.appendCodePoint(Integer.parseInt(entity.substring(1)));
+                            else throw error("Unknown entity " + entity);
+                        } catch (IllegalArgumentException e) {
+                            throw error("Malformed entity " + entity);
+                        }
+                    }
+                }
+                i = end;
+            }
+            return result.toString();
+        }
+
+        /**
+         * getter for an attribute of the current element
+         * @param  name the attribute name
+         * @return      the attribute value, or null if the element has no such attribute
+         */
+        private String attribute(String name) {
+            for (int i = 0; i < attributes; ++i)
+                if (names[i].equals(name)) return values[i];
+            return null;
+        }
+
+        /**
+         * Translate an element start
+         * @param  name   the element name
+         * @param  parent the name of the parent element, null for the root element
+         * @throws IOException if the binary form cannot be written
+         */
+        private void startElement(String name, String parent) throws IOException {
+            if (parent == null) {
+                if (!name.equals("scene")) throw error("The root element must be a scene");
+                out.writeByte(SCENE);
+                String sceneName = attribute("name");
+                out.writeUTF(sceneName == null ? "" : sceneName);
+                writeNumbers(optional("background-color", "0 0 0"), 3);
+                writeNumbers(optional("light-cutoff", "0"), 1);
+                return;
+            }
+            switch (parent) {
+                case "scene" -> sceneElement(name);
+                case "materials" -> {
+                    if (!name.equals("material")) throw error("Unknown material element " + name);
+                    material();
+                }
+                case "lights" -> light(name);
+                case "geometries", "group" -> geometry(name);
+                default -> throw error("Unexpected element " + name + " in " + parent);
+            }
+        }
+
+        /**
+         * Translate a child element of the scene
+         * @param  name the element name
+         * @throws IOException if the binary form cannot be written
+         */
+        private void sceneElement(String name) throws IOException {
+            switch (name) {
+                case "camera" -> {
+                    out.writeByte(CAMERA);
+                    writeNumbers(required("location"), 3);
+                    writeNumbers(required("direction"), 3);
+                    writeNumbers(required("up"), 3);
+                    writeNumbers(required("vp-size"), 2);
+                    writeNumbers(required("vp-distance"), 1);
+                    double[] resolution = numbers(optional("resolution", "0 0"), 2);
+                    out.writeInt((int) resolution[0]);
+                    out.writeInt((int) resolution[1]);
+                }
+                case "ambient-light" -> {
+                    out.writeByte(AMBIENT);
+                    writeNumbers(required("color"), 3);
+                    writeFactor(optional("k", "1"));
+                }
+                case "materials", "lights" -> { }
+                case "geometries" -> {
+                    if (geometries) throw error("A scene must have a single geometries element");
+                    geometries = true;
+                    group();
+                }
+                default -> throw error("Unknown scene element " + name);
+            }
+        }
+
+        /**
+         * Translate a material element
+         * @throws IOException if the binary form cannot be written
+         */
+        private void material() throws IOException {
+            String name = required("name");
+            if (materials.putIfAbsent(name, materials.size()) != null)
+                throw error("Material " + name + " is defined twice");
+            out.writeByte(MATERIAL);
+            writeFactor(optional("ka", "1"));
+            writeFactor(optional("kd", "0"));
+            writeFactor(optional("ks", "0"));
+            out.writeInt((int) numbers(optional("shininess", "0"), 1)[0]);
+            writeFactor(optional("kr", "0"));
+            writeFactor(optional("kt", "0"));
+        }
+
+        /**
+         * Translate a light element
+         * @param  name the element name
+         * @throws IOException if the binary form cannot be written
+         */
+        private void light(String name) throws IOException {
+            switch (name) {
+                case "directional-light" -> {
+                    out.writeByte(DIRECTIONAL_LIGHT);
+                    writeNumbers(required("color"), 3);
+                    writeNumbers(required("direction"), 3);
+                }
+                case "point-light" -> {
+                    out.writeByte(POINT_LIGHT);
+                    writeNumbers(required("color"), 3);
+                    writeNumbers(required("position"), 3);
+                    writeAttenuation();
+                }
+                case "spot-light" -> {
+                    out.writeByte(SPOT_LIGHT);
+                    writeNumbers(required("color"), 3);
+                    writeNumbers(required("position"), 3);
+                    writeNumbers(required("direction"), 3);
+                    writeAttenuation();
+                    writeNumbers(optional("narrow-beam", "1"), 1);
+                }
+                case "area-light" -> {
+                    out.writeByte(AREA_LIGHT);
+                    writeNumbers(required("color"), 3);
+                    writeNumbers(required("center"), 3);
+                    writeNumbers(required("width"), 3);
+                    writeNumbers(required("height"), 3);
+                    writeAttenuation();
+                    out.writeInt((int) numbers(optional("grid", "0"), 1)[0]);
+                }
+                default -> throw error("Unknown light element " + name);
+            }
+            out.writeBoolean(Boolean.parseBoolean(optional("cast-shadows", "true")));
+        }
+
+        /**
+         * Translate a geometry element
+         * @param  name the element name
+         * @throws IOException if the binary form cannot be written
+         */
+        private void geometry(String name) throws IOException {
+            if (name.equals("group")) {
+                group();
+                return;
+            }
+            appearance();
+            switch (name) {
+                case "sphere" -> {
+                    out.writeByte(SPHERE);
+                    writeNumbers(required("center"), 3);
+                    writeNumbers(required("radius"), 1);
+                }
+                case "plane" -> {
+                    out.writeByte(PLANE);
+                    writeNumbers(required("point"), 3);
+                    writeNumbers(required("normal"), 3);
+                }
+                case "triangle" -> {
+                    out.writeByte(TRIANGLE);
+                    writeNumbers(required("p0"), 3);
+                    writeNumbers(required("p1"), 3);
+                    writeNumbers(required("p2"), 3);
+                }
+                case "polygon" -> {
+                    out.writeByte(POLYGON);
+                    writeNumbers(required("vertices"), -1);
+                }
+                case "tube", "cylinder" -> {
+                    out.writeByte(name.equals("tube") ? TUBE : CYLINDER);
+                    writeNumbers(required("radius"), 1);
+                    writeNumbers(required("origin"), 3);
+                    writeNumbers(required("direction"), 3);
+                    if (name.equals("cylinder")) writeNumbers(required("height"), 1);
+                }
+                case "mesh" -> {
+                    String file = attribute("file");
+                    if (file != null) {
+                        Path path = folder.resolve(file);
+                        out.writeByte(MESH_FILE);
+                        out.writeUTF(file);
+                        out.writeLong(Files.size(path));
+                        out.writeLong(Files.getLastModifiedTime(path).toMillis());
+                        return;
+                    }
+                    out.writeByte(MESH);
+                    writeNumbers(required("vertices"), -1);
+                    double[] indices = numbers(required("indices"), 0);
+                    out.writeInt(indices.length);
+                    for (double index : indices) out.writeInt((int) index);
+                }
+                default -> throw error("Unknown geometry element " + name);
+            }
+        }
+
+        /**
+         * Translate the start of a collection of geometries
+         * @throws IOException if the binary form cannot be written
+         */
+        private void group() throws IOException {
+            out.writeByte(GROUP);
+            out.writeBoolean(Boolean.parseBoolean(optional("bvh", "false")));
+        }
+
+        /**
+         * Write the appearance of the current geometry element, if it differs from the last written one
+         * @throws IOException if the binary form cannot be written
+         */
+        private void appearance() throws IOException {
+            String emissionValue = attribute("emission");
+            double[] newEmission = emissionValue == null ? new double[3] : numbers(emissionValue, 3);
+            String materialName = attribute("material");
+            int newMaterial = -1;
+            if (materialName != null) {
+                Integer index = materials.get(materialName);
+                if (index == null) throw error("Undefined material " + materialName);
+                newMaterial = index;
+            }
+            if (newMaterial == material && Arrays.equals(newEmission, emission)) return;
+            emission = newEmission;
+            material = newMaterial;
+            out.writeByte(APPEARANCE);
+            for (double value : emission) out.writeDouble(value);
+            out.writeInt(material);
+        }
+
+        /**
+         * Write the attenuation factors and the shadows flag of a light
+         * @throws IOException if the binary form cannot be written
+         */
+        private void writeAttenuation() throws IOException {
+            writeNumbers(optional("kc", "1"), 1);
+            writeNumbers(optional("kl", "0"), 1);
+            writeNumbers(optional("kq", "0"), 1);
+        }
+
+        /**
+         * Write a factor - a single number or a triad - as a triad
+         * @param  value the attribute value
+         * @throws IOException if the binary form cannot be written
+         */
+        private void writeFactor(String value) throws IOException {
+            double[] factor = numbers(value, 0);
+            if (factor.length == 1) factor = new double[] { factor[0], factor[0], factor[0] };
+            else if (factor.length != 3) throw error("A factor must be one or three numbers: " + value);
+            for (double number : factor) out.writeDouble(number);
+        }
+
+        /**
+         * Write the numbers of an attribute
+         * @param  value the attribute value
+         * @param  count the amount of numbers, or -1 for a list of triads whose length is written before them
+         * @throws IOException if the binary form cannot be written
+         */
+        private void writeNumbers(String value, int count) throws IOException {
+            double[] numbers = numbers(value, count);
+            if (count == -1) out.writeInt(numbers.length);
+            for (double number : numbers) out.writeDouble(number);
+        }
+
+        /**
+         * Parse the numbers of an attribute, separated by white spaces
+         * @param  value the attribute value
+         * @param  count the amount of numbers, -1 for any amount of triads or 0 for any amount of numbers
+         * @return       the numbers
+         */
+        private double[] numbers(String value, int count) {
+            double[] numbers = new double[count > 0 ? count : 8];
+            int size = 0, length = value.length();
+            for (int i = 0; i < length; ) {
+                while (i < length && Character.isWhitespace(value.charAt(i))) ++i;
+                if (i == length) break;
+                int start = i;
+                while (i < length && !Character.isWhitespace(value.charAt(i))) ++i;
+                if (size == numbers.length) {
+                    if (count > 0) throw error("Expected " + count + " numbers: " + value);
+                    numbers = Arrays.copyOf(numbers, 2 * size);
+                }
+                numbers[size++] = parseNumber(value, start, i);
+            }
+            if (count > 0 && size != count) throw error("Expected " + count + " numbers: " + value);
+            if (count == -1 && (size == 0 || size % 3 != 0)) throw error("Expected triads of numbers: " + value);
+            return size == numbers.length ? numbers : Arrays.copyOf(numbers, size);
+        }
+
+        /**
+         * Parse a decimal number. Numbers of an exact double mantissa and no exponent are computed directly, the
+         * others are parsed by {@link Double#parseDouble(String)}, so the result is always correctly rounded
+         * @param  value the text of the number
+         * @param  start the index of the number start in the text
+         * @param  end   the index after the number end in the text
+         * @return       the number
+         */
+        private double parseNumber(String value, int start, int end) {
+            int i = start;
+            char c = value.charAt(i);
+            boolean negative = c == '-';
+            if (c == '-' || c == '+') ++i;
+            long mantissa = 0;
+            int digits = 0, scale = 0;
+            boolean exact = i < end, point = false;
+            for (; i < end && exact; ++i) {
+                c = value.charAt(i);
+                if (c == '.' && !point) {
+                    point = true;
+                } else if (c >= '0' && c <= '9' && mantissa < Util.MAX_EXACT_MANTISSA / 10) {
+                    mantissa = 10 * mantissa + c - '0';
+                    ++digits;
+                    if (point) --scale;
+                } else {
+                    exact = false;
+                }
+            }
+            double number = exact && digits > 0 ? Util.decimal(mantissa, scale) : Double.NaN;
+            if (!Double.isNaN(number)) return negative ? -number : number;
+            try {
+                return Double.parseDouble(value.substring(start, end));
+            } catch (NumberFormatException e) {
+                throw error("Malformed number: " + value.substring(start, end));
+            }
+        }
+
+        /**
+         * getter for a required attribute of the current element
+         * @param  name the attribute name
+         * @return      the attribute value
+         */
+        private String required(String name) {
+            String value = attribute(name);
+            if (value == null) throw error("Missing attribute " + name);
+            return value;
+        }
+
+        /**
+         * getter for an optional attribute of the current element
+         * @param  name         the attribute name
+         * @param  defaultValue the value of a missing attribute
+         * @return              the attribute value
+         */
+        private String optional(String name, String defaultValue) {
+            String value = attribute(name);
+            return value == null ? defaultValue : value;
+        }
+
+        /**
+         * create an error of the current element
+         * @param  message the error description
+         * @return         the error, with the element line
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " in line " + line);
+        }
+    }
+
+    // ***************** Builder ********************** //
+
+    /**
+     * The construction of a scene from the records of its binary form
+     */
+    private static final class Builder {
+        /** the scene file, for resolving the mesh files */
+        private final Path file;
+        /** the built scene */
+        private Scene scene;
+        /** the built camera, null if there is none */
+        private Camera.Builder camera;
+        /** the amount of built geometries */
+        private int geometryCount;
+        /** the materials by their order */
+        private final List<Material> materials = new ArrayList<>();
+        /** the emission of the following geometries */
+        private Color emission = Color.BLACK;
+        /** the material of the following geometries, null for the default material */
+        private Material material;
+        /** the loader of the mesh files */
+        private MeshLoader meshLoader;
+        /** the stored structures of a snapshot, at the next one - null to construct the structures */
+        private ByteBuffer stored;
+        /** whether to check the mesh files of a snapshot against their sizes and modification times */
+        private final boolean check;
+        /** whether a checked mesh file was changed since the snapshot was written */
+        private boolean changedMeshFile = false;
+        /** the constructed BVH groups and meshes, in the order of their construction */
+        private final List<Intersectable> structures = new ArrayList<>();
+
+        /**
+         * Constructor of a builder
+         * @param file  the scene file
+         * @param check whether to check the mesh files of a snapshot
+         */
+        private Builder(Path file, boolean check) {
+            this.file = file;
+            this.check = check;
+        }
+
+        /**
+         * Build the scene of the records
+         * @param records the records, after the header
+         */
+        private void build(ByteBuffer records) {
+            Deque<Geometries> groups = new ArrayDeque<>();
+            try {
+                for (byte tag = records.get(); tag != END; tag = records.get()) {
+                    switch (tag) {
+                        case SCENE -> {
+                            scene = new Scene(readUTF(records));
+                            scene.setBackground(color(records)).setLightCutoff(records.getDouble());
+                        }
+                        case CAMERA -> {
+                            camera = Camera.getBuilder().setLocation(point(records))
+                                    .setDirection(vector(records), vector(records))
+                                    .setVpSize(records.getDouble(), records.getDouble())
+                                    .setVpDistance(records.getDouble());
+                            int nX = records.getInt(), nY = records.getInt();
+                            if (nX > 0 || nY > 0) camera.setResolution(nX, nY);
+                        }
+                        case AMBIENT -> scene.setAmbientLight(new AmbientLight(color(records), factor(records)));
+                        case MATERIAL -> materials.add(new Material().setkA(factor(records))
+                                .setkD(factor(records)).setkS(factor(records)).setnShininess(records.getInt())
+                                .setkR(factor(records)).setkT(factor(records)));
+                        case APPEARANCE -> {
+                            emission = color(records);
+                            int index = records.getInt();
+                            material = index < 0 ? null : materials.get(index);
+                        }
+                        case DIRECTIONAL_LIGHT -> scene.lights.add(new DirectionalLight(color(records), vector(records))
+                                .setCastShadows(records.get() != 0));
+                        case POINT_LIGHT -> scene.lights.add(new PointLight(color(records), point(records))
+                                .setkC(records.getDouble()).setkL(records.getDouble()).setkQ(records.getDouble())
+                                .setCastShadows(records.get() != 0));
+                        case SPOT_LIGHT -> scene.lights.add(new SpotLight(color(records), point(records), vector(records))
+                                .setkC(records.getDouble()).setkL(records.getDouble()).setkQ(records.getDouble())
+                                .setNarrowBeam(records.getDouble()).setCastShadows(records.get() != 0));
+                        case AREA_LIGHT -> {
+                            AreaLight light = new AreaLight(color(records), point(records), vector(records),
+                                    vector(records)).setkC(records.getDouble()).setkL(records.getDouble())
+                                    .setkQ(records.getDouble());
+                            int grid = records.getInt();
+                            if (grid > 0) light.setGridSize(grid);
+                            scene.lights.add(light.setCastShadows(records.get() != 0));
+                        }
+                        case GROUP -> {
+                            Geometries group = records.get() != 0 ? new BVH() : new Geometries();
+                            if (groups.isEmpty()) scene.setGeometries(group);
+                            else groups.peek().add(group);
+                            groups.push(group);
+                        }
+                        case GROUP_END -> {
+                            if (groups.pop() instanceof BVH bvh) {
+                                if (stored != null) bvh.readTree(stored);
+                                structures.add(bvh);
+                            }
+                        }
+                        default -> {
+                            Geometry geometry = geometry(tag, records);
+                            geometry.setEmission(emission);
+                            if (material != null) geometry.setMaterial(material);
+                            groups.element().add(geometry);
+                            ++geometryCount;
+                        }
+                    }
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Truncated scene records of " + file, e);
+            }
+            if (scene == null) throw new IllegalArgumentException("No scene in " + file);
+            if (camera != null) camera.setRayTracer(scene, RayTracerType.SIMPLE);
+        }
+
+        /**
+         * Build a geometry record
+         * @param  tag     the record tag
+         * @param  records the records, after the tag
+         * @return         the geometry
+         */
+        private Geometry geometry(byte tag, ByteBuffer records) {
+            return switch (tag) {
+                case SPHERE -> {
+                    Point center = point(records);
+                    yield new Sphere(records.getDouble(), center);
+                }
+                case PLANE -> new Plane(point(records), vector(records));
+                case TRIANGLE -> new Triangle(point(records), point(records), point(records));
+                case POLYGON -> {
+                    Point[] vertices = new Point[records.getInt() / 3];
+                    for (int i = 0; i < vertices.length; ++i) vertices[i] = point(records);
+                    yield new Polygon(vertices);
+                }
+                case TUBE -> new Tube(records.getDouble(), new Ray(point(records), vector(records)));
+                case CYLINDER -> {
+                    double radius = records.getDouble();
+                    Ray axis = new Ray(point(records), vector(records));
+                    yield new Cylinder(radius, axis, records.getDouble());
+                }
+                case MESH, MESH_FILE -> {
+                    TriangleMesh mesh = mesh(tag, records);
+                    structures.add(mesh);
+                    yield mesh;
+                }
+                default -> throw new IllegalArgumentException("Unknown scene record " + tag + " in " + file);
+            };
+        }
+
+        /**
+         * Build a mesh record - restore the stored mesh of a snapshot, or construct the mesh
+         * @param  tag     the record tag
+         * @param  records the records, after the tag
+         * @return         the mesh
+         */
+        private TriangleMesh mesh(byte tag, ByteBuffer records) {
+            if (tag == MESH_FILE) {
+                Path path = file.toAbsolutePath().getParent().resolve(readUTF(records));
+                long size = records.getLong(), modified = records.getLong();
+                if (stored != null) {
+                    if (check && !changedMeshFile) changedMeshFile = changed(path, size, modified);
+                    return TriangleMesh.read(stored);
+                }
+                if (meshLoader == null) meshLoader = new MeshLoader();
+                return meshLoader.load(path);
+            }
+            int coordinates = records.getInt();
+            if (stored != null) {
+                records.position(records.position() + coordinates * Double.BYTES);
+                int indices = records.getInt();
+                records.position(records.position() + indices * Integer.BYTES);
+                return TriangleMesh.read(stored);
+            }
+            double[] vertices = new double[coordinates];
+            records.asDoubleBuffer().get(vertices);
+            records.position(records.position() + vertices.length * Double.BYTES);
+            int[] indices = new int[records.getInt()];
+            records.asIntBuffer().get(indices);
+            records.position(records.position() + indices.length * Integer.BYTES);
+            return new TriangleMesh(vertices, indices);
+        }
+
+        /**
+         * check whether a mesh file was changed since its record was written
+         * @param  path     the mesh file
+         * @param  size     the size of the file in the record
+         * @param  modified the modification time of the file in the record
+         * @return          true if the file was changed or cannot be read
+         */
+        private static boolean changed(Path path, long size, long modified) {
+            try {
+                return Files.size(path) != size || Files.getLastModifiedTime(path).toMillis() != modified;
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        /**
+         * read a string written by {@link DataOutputStream#writeUTF(String)}
+         * @param  records the records
+         * @return         the string
+         */
+        private static String readUTF(ByteBuffer records) {
+            byte[] bytes = new byte[records.getShort() & 0xFFFF];
+            records.get(bytes);
+            // the modified UTF-8 differs from UTF-8 only in the null and the supplementary characters
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * read a point
+         * @param  records the records
+         * @return         the point
+         */
+        private static Point point(ByteBuffer records) {
+            return new Point(records.getDouble(), records.getDouble(), records.getDouble());
+        }
+
+        /**
+         * read a vector
+         * @param  records the records
+         * @return         the vector
+         */
+        private static Vector vector(ByteBuffer records) {
+            return new Vector(records.getDouble(), records.getDouble(), records.getDouble());
+        }
+
+        /**
+         * read a color
+         * @param  records the records
+         * @return         the color
+         */
+        private static Color color(ByteBuffer records) {
+            return new Color(records.getDouble(), records.getDouble(), records.getDouble());
+        }
+
+        /**
+         * read a factor
+         * @param  records the records
+         * @return         the factor
+         */
+        private static Double3 factor(ByteBuffer records) {
+            return new Double3(records.getDouble(), records.getDouble(), records.getDouble());
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package renderer;
 import geometries.Intersectable.Intersection;
 import primitives.*;
+import scene.LightIndex;
 import scene.Scene;
+import lighting.AreaLight;
+import lighting.LightSample;
 import lighting.LightSource;
 import primitives.Color;
 import primitives.Vector;
@@ -18,6 +21,12 @@ import static primitives.Util.alignZero;
  */
 
 public class SimpleRayTracer extends RayTracerBase {
+    /** the maximal depth of the recursion of the reflected and the refracted rays */
+    private static final int MAX_CALC_COLOR_LEVEL = 10;
+    /** the attenuation below which a reflected or a refracted ray is not traced - its color is negligible */
+    private static final double MIN_CALC_COLOR_K = 0.001;
+    /** the attenuation of the primary rays */
+    private static final Double3 INITIAL_K = Double3.ONE;
 
     /**
      * constructor for scene
@@ -29,7 +38,9 @@ public class SimpleRayTracer extends RayTracerBase {
     }
     public boolean preprocessIntersection(Intersection intersection, Vector intersectionRay){
         intersection.v1 = intersectionRay;
-        intersection.normal = intersection.geometry.getNormal(intersection.point);
+        // geometries made of several faces (meshes) set the normal of the hit face in the intersection
+        if (intersection.normal == null)
+            intersection.normal = intersection.geometry.getNormal(intersection.point);
         intersection.Dot_Product  = alignZero(intersection.v1
                 .dotProduct(intersection.normal));
         return intersection.Dot_Product  != 0;
@@ -38,9 +49,19 @@ public class SimpleRayTracer extends RayTracerBase {
     private Color calcColorLocalEffects(Intersection intersection) {
         Color color = intersection.geometry.getEmission();
 
-        for (LightSource lightSource : scene.lights) {
-            if (setLightSource(intersection, lightSource)) { // sign(nl) == sign(nv)
-                Color iL = lightSource.getIntensity(intersection.point);
+        // only the lights that are not negligible at the point
+        for (LightIndex.Entry entry : scene.getLightIndex().lightsAt(intersection.point)) {
+            if (!entry.reaches(intersection.point)) continue;
+            LightSource lightSource = entry.light;
+            // the direction, the distance and the intensity of the light are evaluated together
+            LightSample sample = lightSource.sample(intersection.point);
+            if (!setLightSource(intersection, lightSource, sample)) continue;
+            // the lit part of an area light, otherwise whether the light is blocked
+            double visibility = lightSource instanceof AreaLight area
+                    ? areaVisibility(intersection, area)
+                    : unshaded(intersection, sample.distance()) ? 1 : 0;
+            if (visibility > 0) { // sign(nl) == sign(nv)
+                Color iL = visibility < 1 ? sample.intensity().scale(visibility) : sample.intensity();
                 color = color.add(
                         iL.scale(calcDiffusive(intersection)
                                 .add(calcSpecular(intersection))));
@@ -49,14 +70,127 @@ public class SimpleRayTracer extends RayTracerBase {
         return color;
     }
 
-    public boolean setLightSource(Intersection intersection, LightSource light) {
-        intersection.v2 = light.getL(intersection.point);
+    /**
+     * Set the light source of the intersection and its direction at the intersection point
+     *
+     * @param intersection the intersection
+     * @param light the light source
+     * @param sample the evaluation of the light at the intersection point
+     * @return false if the light or the view direction is tangent to the surface
+     */
+    public boolean setLightSource(Intersection intersection, LightSource light, LightSample sample) {
+        intersection.v2 = sample.direction();
         intersection.Dot_Product_light = intersection.normal.dotProduct(intersection.v2);
-        intersection.v3 = intersection.v1.subtract(intersection.v2);
         intersection.light = light;
         return !(isZero(intersection.Dot_Product) || isZero(intersection.Dot_Product_light));
     }
 
+    /**
+     * Check whether the light of the intersection reaches the intersection point, i.e. no geometry blocks it.
+     * A shadow ray is cast from the point towards the light and the search stops at the first blocker
+     *
+     * @param intersection the intersection with its light source set
+     * @param distance the distance of the light from the intersection point
+     * @return true if the point is lit by the light
+     */
+    private boolean unshaded(Intersection intersection, double distance) {
+        if (!intersection.light.isCastingShadows()) return true;
+        Ray shadowRay = new Ray(intersection.point, intersection.v2.scale(-1), intersection.normal);
+        return !isShadowed(shadowRay, distance);
+    }
+
+    /**
+     * Cast a shadow ray, measuring it if the current thread measures
+     *
+     * @param shadowRay the ray from the lit point towards the light
+     * @param distance the distance of the light from the point
+     * @return true if a geometry blocks the ray
+     */
+    private boolean isShadowed(Ray shadowRay, double distance) {
+        RenderMetrics.Recorder recorder = RenderMetrics.Recorder.current();
+        if (recorder == null) return isOccluded(shadowRay, distance);
+
+        long start = System.nanoTime();
+        boolean occluded = isOccluded(shadowRay, distance);
+        ++recorder.shadowRays;
+        recorder.intersectionNanos += System.nanoTime() - start;
+        return occluded;
+    }
+
+    /**
+     * Calculate the part of an area light that reaches the intersection point. The light grid is sampled
+     * adaptively: a region of the grid is sampled at its corners, and it is divided into quarters only if the
+     * corners disagree - so a fully lit or a fully shadowed point costs 4 shadow rays rather than the whole grid.
+     * The samples are kept so that the corners shared by adjacent regions are cast once
+     *
+     * @param intersection the intersection with the area light set
+     * @param light the area light
+     * @return the lit part of the light, from 0 (fully shadowed) to 1 (fully lit)
+     */
+    private double areaVisibility(Intersection intersection, AreaLight light) {
+        if (!light.isCastingShadows()) return 1;
+        int n = light.getGridSize();
+        // 0 - not sampled yet, 1 - lit, 2 - shadowed
+        byte[] samples = new byte[n * n];
+        return regionVisibility(intersection, light, samples, 0, 0, n - 1, n - 1) / ((n - 1) * (n - 1));
+    }
+
+    /**
+     * Calculate the lit area of a region of the sample grid of an area light, in grid cells
+     *
+     * @param intersection the intersection with the area light set
+     * @param light the area light
+     * @param samples the samples of the grid cast so far
+     * @param i0 the first column of the region
+     * @param j0 the first row of the region
+     * @param i1 the last column of the region
+     * @param j1 the last row of the region
+     * @return the lit area of the region
+     */
+    private double regionVisibility(Intersection intersection, AreaLight light, byte[] samples,
+                                    int i0, int j0, int i1, int j1) {
+        int lit = (isLit(intersection, light, samples, i0, j0) ? 1 : 0)
+                + (isLit(intersection, light, samples, i1, j0) ? 1 : 0)
+                + (isLit(intersection, light, samples, i0, j1) ? 1 : 0)
+                + (isLit(intersection, light, samples, i1, j1) ? 1 : 0);
+        double area = (i1 - i0) * (j1 - j0);
+        // the corners agree, or the region is a single cell
+        if (lit == 0 || lit == 4 || (i1 - i0 == 1 && j1 - j0 == 1)) return area * lit / 4;
+
+        int im = (i0 + i1) / 2, jm = (j0 + j1) / 2;
+        if (i1 - i0 == 1)
+            return regionVisibility(intersection, light, samples, i0, j0, i1, jm)
+                    + regionVisibility(intersection, light, samples, i0, jm, i1, j1);
+        if (j1 - j0 == 1)
+            return regionVisibility(intersection, light, samples, i0, j0, im, j1)
+                    + regionVisibility(intersection, light, samples, im, j0, i1, j1);
+        return regionVisibility(intersection, light, samples, i0, j0, im, jm)
+                + regionVisibility(intersection, light, samples, im, j0, i1, jm)
+                + regionVisibility(intersection, light, samples, i0, jm, im, j1)
+                + regionVisibility(intersection, light, samples, im, jm, i1, j1);
+    }
+
+    /**
+     * Check whether a sample point of an area light reaches the intersection point, casting its shadow ray once.
+     * A sample behind the surface (on the other side than the light center) does not reach it
+     *
+     * @param intersection the intersection with the area light set
+     * @param light the area light
+     * @param samples the samples of the grid cast so far
+     * @param i the column of the sample
+     * @param j the row of the sample
+     * @return true if the sample point lights the intersection point
+     */
+    private boolean isLit(Intersection intersection, AreaLight light, byte[] samples, int i, int j) {
+        int index = i + j * light.getGridSize();
+        if (samples[index] == 0) {
+            Vector toLight = light.getSamplePoint(i, j).subtract(intersection.point);
+            boolean lit = alignZero(toLight.dotProduct(intersection.normal) * intersection.Dot_Product_light) < 0
+                    && !isShadowed(new Ray(intersection.point, toLight, intersection.normal), toLight.length());
+            samples[index] = (byte) (lit ? 1 : 2);
+        }
+        return samples[index] == 1;
+    }
 
     private Double3 calcDiffusive(Intersection intersection) {
         return intersection.geometry.getMaterial().kD.scale(abs(intersection.Dot_Product_light));
@@ -76,10 +210,53 @@ public class SimpleRayTracer extends RayTracerBase {
 
     @Override
     public Color traceRay(Ray ray) {
-        var intersections = scene.geometries.calculateIntersections(ray);
-        return intersections == null
+        RenderMetrics.Recorder recorder = RenderMetrics.Recorder.current();
+        if (recorder != null) return traceMeasuredRay(ray, recorder);
+        Intersection closest = findClosestIntersection(ray);
+        return closest == null
                 ? scene.background
-                : calcColor(ray.findClosestIntersection(intersections), ray);
+                : calcColor(closest, ray);
+    }
+
+    /**
+     * Trace a primary ray measuring it - the time of its shadow rays is counted as intersection time rather
+     * than shading time
+     * @param ray the ray
+     * @param recorder the measurements of the current thread
+     * @return the color of the ray
+     */
+    private Color traceMeasuredRay(Ray ray, RenderMetrics.Recorder recorder) {
+        long start = System.nanoTime();
+        Intersection closest = findClosestIntersection(ray);
+        long found = System.nanoTime();
+        ++recorder.primaryRays;
+        recorder.intersectionNanos += found - start;
+        if (closest == null) return scene.background;
+
+        ++recorder.primaryHits;
+        long intersectionNanos = recorder.intersectionNanos;
+        Color color = calcColor(closest, ray);
+        recorder.shadingNanos += System.nanoTime() - found - (recorder.intersectionNanos - intersectionNanos);
+        return color;
+    }
+
+    /**
+     * Find the closest intersection of a ray with the scene geometries
+     * @param ray the ray
+     * @return the closest intersection, or null if the ray hits nothing
+     */
+    protected Intersection findClosestIntersection(Ray ray) {
+        return scene.geometries.findClosestIntersection(ray);
+    }
+
+    /**
+     * Check whether any of the scene geometries blocks a ray before a given distance
+     * @param ray the ray
+     * @param distance the distance from the ray head beyond which the geometries do not block the ray
+     * @return true if the ray is blocked
+     */
+    protected boolean isOccluded(Ray ray, double distance) {
+        return scene.geometries.hasIntersection(ray, distance);
     }
 
 
@@ -90,11 +267,112 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return the color of the intersection point
      */
     public Color calcColor(Intersection intersection, Ray ray) {
-        if(preprocessIntersection(intersection, ray.getDirection())) {
-            return scene.ambientLight.getIntensity()
-                    .scale(intersection.geometry.getMaterial().kA)
-                    .add(calcColorLocalEffects(intersection));
+        if (!preprocessIntersection(intersection, ray.getDirection()))
+            return Color.BLACK;
+        Color color = scene.ambientLight.getIntensity()
+                .scale(intersection.geometry.getMaterial().kA)
+                .add(calcColorLocalEffects(intersection));
+        return calcGlobalEffects(intersection, MAX_CALC_COLOR_LEVEL, INITIAL_K, color);
+    }
+
+    /**
+     * Calculate the color of the intersection point of a secondary ray with the local effects and, down to the
+     * given recursion level, the global effects - the reflection and the refraction
+     * @param intersection the intersection point
+     * @param ray the ray that created the intersection
+     * @param level the remaining recursion levels
+     * @param k the attenuation of the ray color so far
+     * @return the color of the intersection point
+     */
+    private Color calcColor(Intersection intersection, Ray ray, int level, Double3 k) {
+        if (!preprocessIntersection(intersection, ray.getDirection()))
+            return Color.BLACK;
+        Color color = calcColorLocalEffects(intersection);
+        return calcGlobalEffects(intersection, level, k, color);
+    }
+
+    /**
+     * Add the global effects of the intersection point - the colors of the reflected and the refracted rays.
+     * A secondary ray is traced only if its attenuation is not below {@link #MIN_CALC_COLOR_K} and the recursion
+     * depth is not exhausted, so the rays are spent where their colors are visible
+     * @param intersection the intersection point with its normal and view direction set
+     * @param level the remaining recursion levels
+     * @param k the attenuation of the ray color so far
+     * @param color the local color of the intersection point
+     * @return the color with the global effects added
+     */
+    private Color calcGlobalEffects(Intersection intersection, int level, Double3 k, Color color) {
+        Material material = intersection.material;
+        if (isNegligible(material.kR) && isNegligible(material.kT)) return color;
+        RenderMetrics.Recorder recorder = RenderMetrics.Recorder.current();
+        if (!isNegligible(material.kR)) {
+            Double3 kkr = k.product(material.kR);
+            if (level == 1 || isNegligible(kkr)) {
+                if (recorder != null) ++recorder.skippedSecondaryRays;
+            } else
+                color = color.add(calcGlobalEffect(constructReflectedRay(intersection), level, kkr, recorder)
+                        .scale(material.kR));
         }
-        return Color.BLACK;
+        if (!isNegligible(material.kT)) {
+            Double3 kkt = k.product(material.kT);
+            if (level == 1 || isNegligible(kkt)) {
+                if (recorder != null) ++recorder.skippedSecondaryRays;
+            } else
+                color = color.add(calcGlobalEffect(constructRefractedRay(intersection), level, kkt, recorder)
+                        .scale(material.kT));
+        }
+        return color;
+    }
+
+    /**
+     * Trace a secondary ray - its color, not yet attenuated by the material factor
+     * @param ray the reflected or the refracted ray
+     * @param level the remaining recursion levels at the intersection the ray leaves
+     * @param kx the attenuation of the ray color
+     * @param recorder the measurements of the current thread, or null if it does not measure
+     * @return the color of the ray
+     */
+    private Color calcGlobalEffect(Ray ray, int level, Double3 kx, RenderMetrics.Recorder recorder) {
+        Intersection intersection;
+        if (recorder == null)
+            intersection = findClosestIntersection(ray);
+        else {
+            long start = System.nanoTime();
+            intersection = findClosestIntersection(ray);
+            ++recorder.secondaryRays;
+            recorder.intersectionNanos += System.nanoTime() - start;
+        }
+        return intersection == null
+                ? scene.background
+                : calcColor(intersection, ray, level - 1, kx);
+    }
+
+    /**
+     * Check whether an attenuation factor is too small for its ray to be traced
+     * @param k the attenuation factor
+     * @return true if all the components are below {@link #MIN_CALC_COLOR_K}
+     */
+    private static boolean isNegligible(Double3 k) {
+        return k.lowerThan(MIN_CALC_COLOR_K);
+    }
+
+    /**
+     * Construct the ray reflected at the intersection point: r = v - 2(v*n)n, moved off the surface
+     * @param intersection the intersection point with its normal and view direction set
+     * @return the reflected ray
+     */
+    private Ray constructReflectedRay(Intersection intersection) {
+        Vector r = intersection.v1.subtract(intersection.normal.scale(2 * intersection.Dot_Product));
+        return new Ray(intersection.point, r, intersection.normal);
+    }
+
+    /**
+     * Construct the ray refracted at the intersection point - it continues in the view direction (no refraction
+     * index), moved off the surface to its other side
+     * @param intersection the intersection point with its normal and view direction set
+     * @return the refracted ray
+     */
+    private Ray constructRefractedRay(Intersection intersection) {
+        return new Ray(intersection.point, intersection.v1, intersection.normal);
     }
 }
@@ -0,0 +1,48 @@
+package renderer;
+
+/**
+ * Tone mapping operators - the mapping of the unlimited color components of the image buffer (0..255 for a printed
+ * white, more for bright lights) to the 0..255 range of an 8-bit image.
+ * The image writer applies the operator to all the pixels in a single pass when the image is written.
+ */
+public enum ToneMapping {
+    /** Clamping of every component to 255 - the colors below 255 are kept as they are */
+    CLAMP {
+        @Override
+        double map(double component) {
+            return component;
+        }
+    },
+    /** Reinhard operator x / (1 + x) - the bright colors are compressed smoothly and never reach the white */
+    REINHARD {
+        @Override
+        double map(double component) {
+            return 255 * component / (255 + component);
+        }
+    },
+    /** ACES filmic curve (Narkowicz fit) - a filmic contrast with highlights rolling off to the white */
+    ACES {
+        @Override
+        double map(double component) {
+            double x = component / 255;
+            return 255 * x * (2.51 * x + 0.03) / (x * (2.43 * x + 0.59) + 0.14);
+        }
+    };
+
+    /**
+     * maps a color component
+     * @param  component the component, 0..255 for a printed white or more
+     * @return           the mapped component - it is limited to 255 by the caller
+     */
+    abstract double map(double component);
+
+    /**
+     * converts a color component to 8 bits
+     * @param  component the component
+     * @return           the mapped component, truncated to 0..255
+     */
+    final int toByte(double component) {
+        int mapped = (int) map(component);
+        return mapped > 255 ? 255 : mapped;
+    }
+}
@@ -0,0 +1,212 @@
+package scene;
+
+import lighting.LightSource;
+import primitives.Point;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class LightIndex is a spatial index of the light sources of a scene by their influence.
+ * Every light gets an influence radius from its attenuation and the scene cutoff (see
+ * {@link LightSource#getInfluenceRadius(double)}). The lights that reach everywhere are visited at every point,
+ * the others are kept in a regular grid over their influence spheres, so a point visits only the lights whose
+ * spheres overlap its cell. The lights are kept in the order of the scene list, so the shading sums their
+ * contributions in the same order with or without culling.
+ */
+public final class LightIndex {
+    /** the maximal amount of grid cells along an axis */
+    private static final int MAX_RESOLUTION = 32;
+
+    /** the indexed lights, in the order of the list, for detecting changes of the list */
+    private final LightSource[] source;
+    /** the modification count of the light sources when the index was built, for detecting changed lights */
+    private final long modifications;
+    /** the cutoff the index is built for */
+    private final double cutoff;
+
+    /** the lights reaching everywhere - visited at points out of the grid */
+    private final Entry[] unbounded;
+    /** the lights of each cell, including the unbounded ones, by x + resolution * (y + resolution * z) */
+    private final Entry[][] cells;
+    /** the grid resolution along each axis */
+    private final int resolution;
+    /** the grid minimal corner */
+    private final double minX, minY, minZ;
+    /** the grid cell size along each axis */
+    private final double cellX, cellY, cellZ;
+
+    /**
+     * A light with its influence sphere
+     */
+    public static final class Entry {
+        /** the light source */
+        public final LightSource light;
+        /** the influence sphere center (the light position) */
+        private final double x, y, z;
+        /** the squared influence radius, infinity for a light reaching everywhere */
+        private final double radiusSquared;
+
+        /**
+         * Constructor of an entry
+         * @param light  the light source
+         * @param radius the influence radius of the light
+         */
+        private Entry(LightSource light, double radius) {
+            this.light = light;
+            Point position = light.getPosition();
+            boolean bounded = position != null && radius < Double.POSITIVE_INFINITY;
+            x = bounded ? position.getX() : 0;
+            y = bounded ? position.getY() : 0;
+            z = bounded ? position.getZ() : 0;
+            radiusSquared = bounded ? radius * radius : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * checks whether the light is not negligible at a point
+         * @param  point the point
+         * @return       true if the point is in the influence sphere of the light
+         */
+        public boolean reaches(Point point) {
+            if (radiusSquared == Double.POSITIVE_INFINITY) return true;
+            double dx = point.getX() - x, dy = point.getY() - y, dz = point.getZ() - z;
+            return dx * dx + dy * dy + dz * dz <= radiusSquared;
+        }
+
+        /**
+         * checks whether the light reaches everywhere
+         * @return true if the light has no influence sphere
+         */
+        private boolean isUnbounded() {
+            return radiusSquared == Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Build the index of a list of lights
+     * @param lights the lights
+     * @param cutoff the intensity below which a light is negligible - 0 keeps all the lights everywhere
+     */
+    public LightIndex(List<LightSource> lights, double cutoff) {
+        // the count is taken first, so a light changed while the index is built outdates it
+        modifications = LightSource.getModificationCount();
+        source = lights.toArray(new LightSource[0]);
+        this.cutoff = cutoff;
+
+        List<Entry> entries = new ArrayList<>(source.length);
+        List<Entry> unboundedEntries = new ArrayList<>();
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY, z0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY, z1 = Double.NEGATIVE_INFINITY;
+        int bounded = 0;
+        for (LightSource light : source) {
+            double radius = light.getInfluenceRadius(cutoff);
+            if (radius <= 0) continue; // the light is negligible everywhere
+            Entry entry = new Entry(light, radius);
+            entries.add(entry);
+            if (entry.isUnbounded()) {
+                unboundedEntries.add(entry);
+                continue;
+            }
+            ++bounded;
+            x0 = Math.min(x0, entry.x - radius);
+            y0 = Math.min(y0, entry.y - radius);
+            z0 = Math.min(z0, entry.z - radius);
+            x1 = Math.max(x1, entry.x + radius);
+            y1 = Math.max(y1, entry.y + radius);
+            z1 = Math.max(z1, entry.z + radius);
+        }
+        unbounded = unboundedEntries.toArray(new Entry[0]);
+
+        if (bounded == 0) {
+            resolution = 0;
+            cells = null;
+            minX = minY = minZ = cellX = cellY = cellZ = 0;
+            return;
+        }
+        resolution = Math.min(MAX_RESOLUTION, Math.max(1, (int) Math.ceil(2 * Math.cbrt(bounded))));
+        minX = x0;
+        minY = y0;
+        minZ = z0;
+        cellX = (x1 - x0) / resolution;
+        cellY = (y1 - y0) / resolution;
+        cellZ = (z1 - z0) / resolution;
+
+        // every cell gets the lights whose influence boxes overlap it, in the order of the list
+        List<List<Entry>> cellLists = new ArrayList<>(Collections.nCopies(resolution * resolution * resolution, null));
+        for (Entry entry : entries) {
+            if (entry.isUnbounded()) {
+                for (int k = 0; k < cellLists.size(); ++k)
+                    add(cellLists, k, entry);
+                continue;
+            }
+            double radius = Math.sqrt(entry.radiusSquared);
+            int i0 = cell(entry.x - radius, minX, cellX), i1 = cell(entry.x + radius, minX, cellX);
+            int j0 = cell(entry.y - radius, minY, cellY), j1 = cell(entry.y + radius, minY, cellY);
+            int k0 = cell(entry.z - radius, minZ, cellZ), k1 = cell(entry.z + radius, minZ, cellZ);
+            for (int k = k0; k <= k1; ++k)
+                for (int j = j0; j <= j1; ++j)
+                    for (int i = i0; i <= i1; ++i)
+                        add(cellLists, i + resolution * (j + resolution * k), entry);
+        }
+        cells = new Entry[cellLists.size()][];
+        for (int k = 0; k < cells.length; ++k)
+            cells[k] = cellLists.get(k) == null ? unbounded : cellLists.get(k).toArray(new Entry[0]);
+    }
+
+    /**
+     * add an entry to the list of a cell, creating the list if needed
+     * @param cellLists the lists of the cells
+     * @param cell      the cell index
+     * @param entry     the entry
+     */
+    private static void add(List<List<Entry>> cellLists, int cell, Entry entry) {
+        if (cellLists.get(cell) == null) cellLists.set(cell, new ArrayList<>());
+        cellLists.get(cell).add(entry);
+    }
+
+    /**
+     * calculates the cell index of a coordinate along an axis, clamped to the grid
+     * @param  value the coordinate
+     * @param  min   the grid minimal coordinate along the axis
+     * @param  size  the cell size along the axis
+     * @return       the cell index
+     */
+    private int cell(double value, double min, double size) {
+        if (size <= 0) return 0;
+        return Math.max(0, Math.min(resolution - 1, (int) Math.floor((value - min) / size)));
+    }
+
+    /**
+     * Find the lights that may reach a point - the lights reaching everywhere and the lights whose influence
+     * spheres overlap the grid cell of the point. Each of them should still be checked by
+     * {@link Entry#reaches(Point)}
+     * @param  point the point
+     * @return       the candidate lights in the order of the scene list (the array must not be changed)
+     */
+    public Entry[] lightsAt(Point point) {
+        if (cells == null) return unbounded;
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        if (x < minX || y < minY || z < minZ
+                || x > minX + resolution * cellX || y > minY + resolution * cellY || z > minZ + resolution * cellZ)
+            return unbounded;
+        return cells[cell(x, minX, cellX) + resolution * (cell(y, minY, cellY) + resolution * cell(z, minZ, cellZ))];
+    }
+
+    /**
+     * checks whether the index is up to date for a list of lights and a cutoff
+     * @param  lights the list of lights
+     * @param  cutoff the cutoff
+     * @return        true if the index was built of the same lights, in the same order, for the cutoff, and no
+     *                light has changed its influence since
+     */
+    boolean isIndexOf(List<LightSource> lights, double cutoff) {
+        if (cutoff != this.cutoff || modifications != LightSource.getModificationCount()
+                || lights.size() != source.length)
+            return false;
+        int k = 0;
+        for (LightSource light : lights)
+            if (light != source[k++]) return false;
+        return true;
+    }
+}
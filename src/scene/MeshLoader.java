@@ -0,0 +1,681 @@
+package scene;
+
+import geometries.TriangleMesh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static primitives.Util.MAX_EXACT_MANTISSA;
+import static primitives.Util.decimal;
+import static primitives.Util.isZero;
+
+/**
+ * Class MeshLoader loads triangle meshes from Wavefront OBJ files and binary PLY files.
+ * The file is streamed through a bounded buffer, the numbers are parsed directly from its bytes into growing
+ * primitive arrays, and the arrays are passed to a {@link TriangleMesh} - no object is created per vertex or per
+ * triangle, so the memory of the load is that of the mesh itself.
+ * Faces of more than three vertices are split into a fan of triangles, and degenerate triangles (whose vertices
+ * are on a line) are skipped.
+ * The loader keeps the statistics of its last load, for reporting the load throughput.
+ */
+public class MeshLoader {
+    /** the size of the file buffer */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** the file of the last load */
+    private Path file;
+    /** the size of the file of the last load in bytes */
+    private long bytes;
+    /** the amount of vertices of the last loaded mesh */
+    private int vertexCount;
+    /** the amount of triangles of the last loaded mesh */
+    private int triangleCount;
+    /** the amount of degenerate triangles skipped in the last load */
+    private int degenerateCount;
+    /** the duration of the last load in nanoseconds */
+    private long loadNanos;
+
+    /** the input of the current load */
+    private Input input;
+    /** the coordinates of the loaded vertices */
+    private double[] vertices;
+    /** the amount of the loaded coordinates */
+    private int coordinates;
+    /** the indices of the vertices of the loaded triangles */
+    private int[] indices;
+    /** the amount of the loaded indices */
+    private int indexCount;
+    /** the amount of the skipped degenerate triangles */
+    private int skipped;
+
+    /**
+     * Loads a mesh from a file. The format is chosen by the file extension - .obj or .ply
+     * @param  path the file path
+     * @return      the mesh
+     * @throws IllegalArgumentException if the format is not supported or the file is malformed
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public TriangleMesh load(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        boolean obj = name.endsWith(".obj");
+        if (!obj && !name.endsWith(".ply"))
+            throw new IllegalArgumentException("Unsupported mesh format: " + path);
+
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            input = new Input(channel);
+            vertices = new double[3 * 1024];
+            indices = new int[3 * 1024];
+            coordinates = indexCount = skipped = 0;
+            if (obj) loadObj();
+            else loadPly();
+            TriangleMesh mesh = new TriangleMesh(
+                    coordinates == vertices.length ? vertices : Arrays.copyOf(vertices, coordinates),
+                    indexCount == indices.length ? indices : Arrays.copyOf(indices, indexCount));
+            loadNanos = System.nanoTime() - start;
+            file = path;
+            bytes = input.bytes;
+            vertexCount = mesh.getVertexCount();
+            triangleCount = mesh.getTriangleCount();
+            degenerateCount = skipped;
+            return mesh;
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error reading the mesh " + path, e);
+        } finally {
+            input = null;
+            vertices = null;
+            indices = null;
+        }
+    }
+
+    /**
+     * Loads a mesh from a file and adds it to the geometries of a scene
+     * @param  path  the file path
+     * @param  scene the scene
+     * @return       the mesh, for setting its material and emission
+     * @throws IllegalArgumentException if the format is not supported or the file is malformed
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public TriangleMesh load(Path path, Scene scene) {
+        TriangleMesh mesh = load(path);
+        scene.geometries.add(mesh);
+        return mesh;
+    }
+
+    /**
+     * getter for the size of the last loaded file
+     * @return the size in bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * getter for the amount of vertices of the last loaded mesh
+     * @return the amount of vertices
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * getter for the amount of triangles of the last loaded mesh
+     * @return the amount of triangles
+     */
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * getter for the amount of degenerate triangles skipped in the last load
+     * @return the amount of skipped triangles
+     */
+    public int getDegenerateCount() {
+        return degenerateCount;
+    }
+
+    /**
+     * getter for the duration of the last load, including the construction of the mesh
+     * @return the duration in milliseconds
+     */
+    public double getLoadMillis() {
+        return loadNanos / 1e6;
+    }
+
+    /**
+     * getter for the triangles throughput of the last load
+     * @return the loaded triangles per second
+     */
+    public double getTrianglesPerSecond() {
+        return loadNanos == 0 ? 0 : triangleCount * 1e9 / loadNanos;
+    }
+
+    /**
+     * getter for the bytes throughput of the last load
+     * @return the loaded megabytes (2^20 bytes) per second
+     */
+    public double getMegabytesPerSecond() {
+        return loadNanos == 0 ? 0 : bytes * 1e9 / loadNanos / (1 << 20);
+    }
+
+    @Override
+    public String toString() {
+        if (file == null) return "MeshLoader: nothing loaded";
+        return String.format("%s: %d triangles (%d degenerate skipped), %d vertices, %.1f MB in %.1f ms"
+                        + " (%.0f triangles/s, %.1f MB/s)", file.getFileName(), triangleCount, degenerateCount,
+                vertexCount, bytes / (double) (1 << 20), getLoadMillis(), getTrianglesPerSecond(),
+                getMegabytesPerSecond());
+    }
+
+    // ***************** OBJ ********************** //
+
+    /**
+     * Parse an OBJ file - the vertices (v) and the faces (f) are loaded, the other statements are skipped
+     * @throws IOException if the file cannot be read
+     */
+    private void loadObj() throws IOException {
+        int line = 1;
+        for (int c = input.read(); c >= 0; c = input.read(), ++line) {
+            c = skipBlanks(c);
+            if (c == 'v') {
+                c = input.read();
+                if (c == ' ' || c == '\t') {
+                    for (int axis = 0; axis < 3; ++axis)
+                        addCoordinate(parseDouble(line));
+                    c = input.read();
+                }
+            } else if (c == 'f') {
+                c = input.read();
+                if (c == ' ' || c == '\t') c = parseFace(line);
+            }
+            while (c >= 0 && c != '\n') c = input.read();
+        }
+    }
+
+    /**
+     * Parse the vertices of a face statement and add its triangles
+     * @param  line the line number, for the errors
+     * @return      the character after the face
+     * @throws IOException if the file cannot be read
+     */
+    private int parseFace(int line) throws IOException {
+        int vertexTotal = coordinates / 3;
+        int first = -1, previous = -1, count = 0;
+        int c = skipBlanks(input.read());
+        while (c >= 0 && c != '\n' && c != '\r' && c != '#') {
+            int sign = 1;
+            if (c == '-') {
+                sign = -1;
+                c = input.read();
+            }
+            if (c < '0' || c > '9')
+                throw new IllegalArgumentException("Malformed face in line " + line);
+            long index = 0;
+            for (; c >= '0' && c <= '9'; c = input.read())
+                if ((index = 10 * index + c - '0') > Integer.MAX_VALUE)
+                    throw new IllegalArgumentException("Vertex index out of range in line " + line);
+            // skip the texture and normal indices
+            while (c >= 0 && c != ' ' && c != '\t' && c != '\n' && c != '\r') c = input.read();
+
+            // OBJ indices are 1-based, negative indices are relative to the last vertex
+            long vertex = sign > 0 ? index - 1 : vertexTotal - index;
+            if (index == 0 || vertex < 0 || vertex >= vertexTotal)
+                throw new IllegalArgumentException("Vertex index out of range in line " + line);
+            if (count == 0) first = (int) vertex;
+            else if (count >= 2) addTriangle(first, previous, (int) vertex);
+            previous = (int) vertex;
+            ++count;
+            c = skipBlanks(c);
+        }
+        if (count < 3)
+            throw new IllegalArgumentException("Face of less than three vertices in line " + line);
+        return c;
+    }
+
+    /**
+     * Skip spaces and tabs
+     * @param  c the current character
+     * @return   the first character that is not a space or a tab
+     * @throws IOException if the file cannot be read
+     */
+    private int skipBlanks(int c) throws IOException {
+        while (c == ' ' || c == '\t') c = input.read();
+        return c;
+    }
+
+    /**
+     * Parse a decimal number. Numbers whose mantissa and exponent are exact doubles are computed directly, the
+     * others are parsed by {@link Double#parseDouble(String)}, so the result is always correctly rounded
+     * @param  line the line number, for the errors
+     * @return      the number
+     * @throws IOException if the file cannot be read
+     */
+    private double parseDouble(int line) throws IOException {
+        StringBuilder token = input.token;
+        token.setLength(0);
+        int c = skipBlanks(input.read());
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            token.append((char) c);
+            c = input.read();
+        }
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean exact = true, point = false;
+        for (; (c >= '0' && c <= '9') || (c == '.' && !point); c = input.read()) {
+            token.append((char) c);
+            if (c == '.') {
+                point = true;
+                continue;
+            }
+            ++digits;
+            if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                mantissa = 10 * mantissa + c - '0';
+                if (point) --scale;
+            } else {
+                exact = false;
+            }
+        }
+        if (c == 'e' || c == 'E') {
+            token.append((char) c);
+            c = input.read();
+            int exponentSign = 1;
+            if (c == '-' || c == '+') {
+                token.append((char) c);
+                if (c == '-') exponentSign = -1;
+                c = input.read();
+            }
+            int exponent = 0;
+            boolean exponentDigits = false;
+            for (; c >= '0' && c <= '9'; c = input.read()) {
+                token.append((char) c);
+                exponentDigits = true;
+                if (exponent < 10000) exponent = 10 * exponent + c - '0';
+            }
+            if (!exponentDigits)
+                throw new IllegalArgumentException("Malformed number in line " + line);
+            scale += exponentSign * exponent;
+        }
+        if (digits == 0)
+            throw new IllegalArgumentException("Malformed number in line " + line);
+        input.unread(c);
+
+        double value = exact ? decimal(mantissa, scale) : Double.NaN;
+        if (Double.isNaN(value)) return Double.parseDouble(token.toString());
+        return negative ? -value : value;
+    }
+
+    // ***************** PLY ********************** //
+
+    /**
+     * Parse a binary PLY file - the x, y, z properties of the vertex element and the vertex indices list of the
+     * face element are loaded, the other elements and properties are skipped
+     * @throws IOException if the file cannot be read
+     */
+    private void loadPly() throws IOException {
+        if (!"ply".equals(input.readLine()))
+            throw new IllegalArgumentException("Not a PLY file");
+        List<Element> elements = new ArrayList<>();
+        ByteOrder order = null;
+        for (String line = input.readLine(); !"end_header".equals(line); line = input.readLine()) {
+            if (line == null)
+                throw new IllegalArgumentException("PLY header has no end");
+            String[] words = line.trim().split("\\s+");
+            switch (words[0]) {
+                case "format" -> order = switch (words.length > 1 ? words[1] : "") {
+                    case "binary_little_endian" -> ByteOrder.LITTLE_ENDIAN;
+                    case "binary_big_endian" -> ByteOrder.BIG_ENDIAN;
+                    default -> throw new IllegalArgumentException("Unsupported PLY format: " + line);
+                };
+                case "element" -> {
+                    if (words.length != 3)
+                        throw new IllegalArgumentException("Malformed PLY element: " + line);
+                    elements.add(new Element(words[1], Long.parseLong(words[2])));
+                }
+                case "property" -> {
+                    if (elements.isEmpty())
+                        throw new IllegalArgumentException("PLY property out of an element: " + line);
+                    elements.getLast().properties.add(Property.parse(words, line));
+                }
+                default -> { // comment, obj_info and unknown statements
+                }
+            }
+        }
+        if (order == null)
+            throw new IllegalArgumentException("PLY header has no format");
+        input.buffer.order(order);
+
+        for (Element element : elements) {
+            switch (element.name) {
+                case "vertex" -> readVertices(element);
+                case "face" -> readFaces(element);
+                default -> {
+                    for (long k = 0; k < element.count; ++k)
+                        for (Property property : element.properties)
+                            readProperty(property);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the vertices of a PLY file
+     * @param  element the vertex element
+     * @throws IOException if the file cannot be read
+     */
+    private void readVertices(Element element) throws IOException {
+        if (element.count > Integer.MAX_VALUE / 3)
+            throw new IllegalArgumentException("Too many PLY vertices: " + element.count);
+        int[] axes = new int[element.properties.size()];
+        boolean[] found = new boolean[3];
+        for (int k = 0; k < axes.length; ++k) {
+            Property property = element.properties.get(k);
+            axes[k] = switch (property.name) {
+                case "x" -> 0;
+                case "y" -> 1;
+                case "z" -> 2;
+                default -> -1;
+            };
+            if (axes[k] >= 0) {
+                if (property.countType != null)
+                    throw new IllegalArgumentException("PLY vertex coordinate is a list: " + property.name);
+                found[axes[k]] = true;
+            }
+        }
+        if (!found[0] || !found[1] || !found[2])
+            throw new IllegalArgumentException("PLY vertex has no x, y and z properties");
+
+        int count = (int) element.count;
+        vertices = new double[3 * count];
+        for (int v = 0; v < count; ++v)
+            for (int k = 0; k < axes.length; ++k) {
+                double value = readProperty(element.properties.get(k));
+                if (axes[k] >= 0) vertices[3 * v + axes[k]] = value;
+            }
+        coordinates = 3 * count;
+    }
+
+    /**
+     * Read the faces of a PLY file
+     * @param  element the face element
+     * @throws IOException if the file cannot be read
+     */
+    private void readFaces(Element element) throws IOException {
+        int vertexTotal = coordinates / 3;
+        for (long f = 0; f < element.count; ++f)
+            for (Property property : element.properties) {
+                if (property.countType == null
+                        || !property.name.equals("vertex_indices") && !property.name.equals("vertex_index")) {
+                    readProperty(property);
+                    continue;
+                }
+                long count = (long) input.readNumber(property.countType);
+                if (count < 3)
+                    throw new IllegalArgumentException("PLY face " + f + " has less than three vertices");
+                int first = -1, previous = -1;
+                for (long k = 0; k < count; ++k) {
+                    long vertex = (long) input.readNumber(property.type);
+                    if (vertex < 0 || vertex >= vertexTotal)
+                        throw new IllegalArgumentException("PLY face " + f + " has a vertex index out of range");
+                    if (k == 0) first = (int) vertex;
+                    else if (k >= 2) addTriangle(first, previous, (int) vertex);
+                    previous = (int) vertex;
+                }
+            }
+    }
+
+    /**
+     * Read a property value, a list is skipped
+     * @param  property the property
+     * @return          the scalar value, or NaN for a list
+     * @throws IOException if the file cannot be read
+     */
+    private double readProperty(Property property) throws IOException {
+        if (property.countType == null) return input.readNumber(property.type);
+        long count = (long) input.readNumber(property.countType);
+        for (long k = 0; k < count; ++k) input.readNumber(property.type);
+        return Double.NaN;
+    }
+
+    // ***************** Arrays ********************** //
+
+    /**
+     * Add a vertex coordinate, growing the array as needed
+     * @param value the coordinate
+     */
+    private void addCoordinate(double value) {
+        if (coordinates == vertices.length) {
+            if (coordinates >= Integer.MAX_VALUE / 2)
+                throw new IllegalArgumentException("Too many vertices in the mesh");
+            vertices = Arrays.copyOf(vertices, 2 * coordinates);
+        }
+        vertices[coordinates++] = value;
+    }
+
+    /**
+     * Add a triangle, growing the array as needed. A degenerate triangle is skipped
+     * @param a the first vertex index
+     * @param b the second vertex index
+     * @param c the third vertex index
+     */
+    private void addTriangle(int a, int b, int c) {
+        int i = 3 * a, j = 3 * b, k = 3 * c;
+        double e1x = vertices[j] - vertices[i], e1y = vertices[j + 1] - vertices[i + 1];
+        double e1z = vertices[j + 2] - vertices[i + 2];
+        double e2x = vertices[k] - vertices[i], e2y = vertices[k + 1] - vertices[i + 1];
+        double e2z = vertices[k + 2] - vertices[i + 2];
+        if (isZero(e1y * e2z - e1z * e2y) && isZero(e1z * e2x - e1x * e2z) && isZero(e1x * e2y - e1y * e2x)) {
+            ++skipped;
+            return;
+        }
+        if (indexCount + 3 > indices.length) {
+            if (indexCount >= Integer.MAX_VALUE / 2)
+                throw new IllegalArgumentException("Too many triangles in the mesh");
+            indices = Arrays.copyOf(indices, 2 * indices.length);
+        }
+        indices[indexCount++] = a;
+        indices[indexCount++] = b;
+        indices[indexCount++] = c;
+    }
+
+    /**
+     * The bounded buffer over the file channel
+     */
+    private static final class Input {
+        /** the file channel */
+        private final FileChannel channel;
+        /** the buffer - its remaining bytes are the bytes not read yet */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        /** reused builder of the text tokens */
+        private final StringBuilder token = new StringBuilder();
+        /** the amount of bytes read from the channel */
+        private long bytes;
+        /** a character returned to the input, or -2 if there is none */
+        private int pending = -2;
+
+        /**
+         * Constructor of an input over a file channel
+         * @param channel the file channel
+         */
+        private Input(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Ensure the buffer has the given amount of bytes, reading from the channel as needed
+         * @param  size the amount of bytes
+         * @return      false if the file ended before
+         * @throws IOException if the file cannot be read
+         */
+        private boolean ensure(int size) throws IOException {
+            if (buffer.remaining() >= size) return true;
+            buffer.compact();
+            int read;
+            while (buffer.position() < size && (read = channel.read(buffer)) >= 0)
+                bytes += read;
+            buffer.flip();
+            return buffer.remaining() >= size;
+        }
+
+        /**
+         * Read a byte as a character
+         * @return the character, or -1 at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return ensure(1) ? buffer.get() & 0xFF : -1;
+        }
+
+        /**
+         * Return a character to the input, to be read again
+         * @param c the character
+         */
+        private void unread(int c) {
+            pending = c;
+        }
+
+        /**
+         * Read a text line
+         * @return the line without the line separator, or null at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+        private String readLine() throws IOException {
+            int c = read();
+            if (c < 0) return null;
+            token.setLength(0);
+            for (; c >= 0 && c != '\n'; c = read())
+                if (c != '\r') token.append((char) c);
+            return token.toString();
+        }
+
+        /**
+         * Read a binary number in the buffer byte order
+         * @param  type the PLY type of the number
+         * @return      the number
+         * @throws IOException if the file cannot be read
+         */
+        private double readNumber(Type type) throws IOException {
+            if (!ensure(type.size))
+                throw new IllegalArgumentException("PLY file ended before its data");
+            return switch (type) {
+                case CHAR -> buffer.get();
+                case UCHAR -> buffer.get() & 0xFF;
+                case SHORT -> buffer.getShort();
+                case USHORT -> buffer.getShort() & 0xFFFF;
+                case INT -> buffer.getInt();
+                case UINT -> buffer.getInt() & 0xFFFFFFFFL;
+                case FLOAT -> buffer.getFloat();
+                case DOUBLE -> buffer.getDouble();
+            };
+        }
+    }
+
+    /**
+     * The PLY binary types
+     */
+    private enum Type {
+        /** signed byte */
+        CHAR(1),
+        /** unsigned byte */
+        UCHAR(1),
+        /** signed 16 bits integer */
+        SHORT(2),
+        /** unsigned 16 bits integer */
+        USHORT(2),
+        /** signed 32 bits integer */
+        INT(4),
+        /** unsigned 32 bits integer */
+        UINT(4),
+        /** 32 bits floating point */
+        FLOAT(4),
+        /** 64 bits floating point */
+        DOUBLE(8);
+
+        /** the size in bytes */
+        private final int size;
+
+        /**
+         * Constructor of a type
+         * @param size the size in bytes
+         */
+        Type(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Find a type by its PLY name
+         * @param  name the name, either the old one (uchar) or the sized one (uint8)
+         * @return      the type
+         * @throws IllegalArgumentException if there is no such type
+         */
+        private static Type of(String name) {
+            return switch (name) {
+                case "char", "int8" -> CHAR;
+                case "uchar", "uint8" -> UCHAR;
+                case "short", "int16" -> SHORT;
+                case "ushort", "uint16" -> USHORT;
+                case "int", "int32" -> INT;
+                case "uint", "uint32" -> UINT;
+                case "float", "float32" -> FLOAT;
+                case "double", "float64" -> DOUBLE;
+                default -> throw new IllegalArgumentException("Unknown PLY type: " + name);
+            };
+        }
+    }
+
+    /**
+     * A PLY property - a scalar, or a list when it has a count type
+     * @param name      the property name
+     * @param type      the type of the value (of the list items)
+     * @param countType the type of the list length, or null for a scalar
+     */
+    private record Property(String name, Type type, Type countType) {
+        /**
+         * Parse a property line of the header
+         * @param  words the words of the line
+         * @param  line  the line, for the errors
+         * @return       the property
+         */
+        private static Property parse(String[] words, String line) {
+            if (words.length == 3)
+                return new Property(words[2], Type.of(words[1]), null);
+            if (words.length == 5 && words[1].equals("list"))
+                return new Property(words[4], Type.of(words[3]), Type.of(words[2]));
+            throw new IllegalArgumentException("Malformed PLY property: " + line);
+        }
+    }
+
+    /**
+     * A PLY element - its instances are stored one after another
+     */
+    private static final class Element {
+        /** the element name */
+        private final String name;
+        /** the amount of instances */
+        private final long count;
+        /** the properties of each instance */
+        private final List<Property> properties = new ArrayList<>();
+
+        /**
+         * Constructor of an element
+         * @param name  the element name
+         * @param count the amount of instances
+         */
+        private Element(String name, long count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+}
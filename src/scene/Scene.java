@@ -24,6 +24,11 @@ public class Scene {
     public Geometries geometries = new Geometries();
     /** a list of the lights sources of the scene */
     public List<LightSource> lights = new LinkedList<>();
+    /** the light intensity below which a light is negligible and is culled - 0 means no culling */
+    public double lightCutoff = 0;
+
+    /** the index of the lights, built on the first use and rebuilt when the lights or the cutoff change */
+    private volatile LightIndex lightIndex = null;
 
     public Scene setLights(List<LightSource> lights) {
         this.lights = lights;
@@ -61,6 +66,39 @@ public class Scene {
         return this;
     }
 
+    /**
+     * setter for the light intensity below which a light is negligible. Every light with attenuation gets an
+     * influence radius beyond which its strongest color component is below the cutoff, and is skipped when
+     * shading points out of its radius
+     *
+     * @param lightCutoff the cutoff (in color component units), 0 for no culling
+     * @return this
+     */
+    public Scene setLightCutoff(double lightCutoff) {
+        if (lightCutoff < 0)
+            throw new IllegalArgumentException("Light cutoff must not be negative");
+        this.lightCutoff = lightCutoff;
+        return this;
+    }
+
+    /**
+     * getter for the index of the scene lights by their influence. The index is rebuilt when the lights list is
+     * replaced or changed, the attenuation of a light changes, or the cutoff changes
+     *
+     * @return the light index
+     */
+    public LightIndex getLightIndex() {
+        LightIndex index = lightIndex;
+        if (index == null || !index.isIndexOf(lights, lightCutoff)) {
+            synchronized (this) {
+                index = lightIndex;
+                if (index == null || !index.isIndexOf(lights, lightCutoff))
+                    lightIndex = index = new LightIndex(lights, lightCutoff);
+            }
+        }
+        return index;
+    }
+
     /**
      * setter for scene's geometries set
      *
@@ -0,0 +1,198 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing BVH
+ */
+class BVHTests {
+    /** Random generator with a fixed seed for repeatable scenes */
+    private final Random random = new Random(2244);
+
+    /**
+     * Fill a collection with random spheres and triangles
+     * @param  geometries the collection to fill
+     * @param  amount     amount of the geometries
+     * @return            the collection
+     */
+    private Geometries randomGeometries(Geometries geometries, int amount) {
+        for (int k = 0; k < amount; ++k) {
+            Point p = new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), random.nextDouble(-150, -50));
+            if (k % 3 == 0)
+                geometries.add(new Sphere(random.nextDouble(0.5, 3), p));
+            else
+                geometries.add(new Triangle(p,
+                        p.add(new Vector(random.nextDouble(1, 5), 0, random.nextDouble(-1, 1))),
+                        p.add(new Vector(0, random.nextDouble(1, 5), random.nextDouble(-1, 1)))));
+        }
+        return geometries;
+    }
+
+    /**
+     * Generate a random ray from the origin or from inside the scene
+     * @param  k the ray number
+     * @return   the ray
+     */
+    private Ray randomRay(int k) {
+        Point head = k % 2 == 0 ? Point.ZERO
+                : new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), random.nextDouble(-150, -50));
+        return new Ray(head, new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 0.2)));
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#findClosestIntersection(Ray)}.
+     */
+    @Test
+    void testFindClosestIntersection() {
+        Geometries flat = randomGeometries(new Geometries(), 500);
+        flat.add(new Geometries(new Sphere(4, new Point(0, 0, -100))),
+                new Plane(new Point(0, 0, -160), new Vector(0, 0, 1)));
+        BVH bvh = new BVH(flat);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random rays from inside and outside the scene - same closest point as the flat list
+        for (int k = 0; k < 2000; ++k) {
+            Ray ray = randomRay(k);
+            Intersectable.Intersection expected = flat.findClosestIntersection(ray);
+            Intersectable.Intersection result = bvh.findClosestIntersection(ray);
+            if (expected == null)
+                assertNull(result, "BVH found an intersection where there is none");
+            else {
+                assertNotNull(result, "BVH missed an intersection");
+                assertEquals(expected.point, result.point, "BVH found a wrong closest intersection");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: ray along an axis
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+        assertEquals(flat.findClosestIntersection(ray).point, bvh.findClosestIntersection(ray).point,
+                "BVH found a wrong closest intersection along an axis");
+        // TC12: ray missing all the boxes hits only the unbounded plane
+        ray = new Ray(Point.ZERO, new Vector(0, 1, -1));
+        assertEquals(new Point(0, 160, -160), bvh.findClosestIntersection(ray).point,
+                "BVH should hit the unbounded plane");
+        // TC13: empty hierarchy
+        assertNull(new BVH().findClosestIntersection(ray), "Empty BVH found an intersection");
+        // TC14: single geometry added after the first query
+        BVH single = new BVH();
+        assertNull(single.findClosestIntersection(ray), "Empty BVH found an intersection");
+        single.add(new Sphere(1, new Point(0, 10, -10)));
+        assertNotNull(single.findClosestIntersection(ray), "BVH was not rebuilt after adding a geometry");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        BVH bvh = new BVH();
+        randomGeometries(bvh, 300);
+        Geometries flat = new Geometries();
+        flat.add(bvh.geometries.toArray(new Intersectable[0]));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: same amount of points as the flat list
+        for (int k = 0; k < 500; ++k) {
+            Ray ray = randomRay(k);
+            var expected = flat.findIntersections(ray);
+            var result = bvh.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                    "BVH found wrong amount of intersections");
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#hasIntersection(Ray, double)}.
+     */
+    @Test
+    void testHasIntersection() {
+        Geometries flat = randomGeometries(new Geometries(), 500);
+        BVH bvh = new BVH(flat);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random rays and distances - blocked exactly when the closest intersection is nearer
+        for (int k = 0; k < 2000; ++k) {
+            Ray ray = randomRay(k);
+            double distance = random.nextDouble(1, 150);
+            assertEquals(flat.calculateClosestIntersection(ray, distance) != null, bvh.hasIntersection(ray, distance),
+                    "BVH any-hit query is wrong");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: unbounded geometry beyond and before the distance
+        BVH plane = new BVH(new Plane(new Point(0, 0, -10), new Vector(0, 0, 1)));
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+        assertFalse(plane.hasIntersection(ray, 10), "BVH found a geometry at the distance");
+        assertTrue(plane.hasIntersection(ray, 11), "BVH missed an unbounded geometry");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#readTree(ByteBuffer)}.
+     */
+    @Test
+    void testReadTree() throws IOException {
+        Geometries flat = randomGeometries(new Geometries(), 500);
+        flat.add(new Plane(new Point(0, 0, -160), new Vector(0, 0, 1)));
+        BVH built = new BVH(flat);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        built.writeTree(new DataOutputStream(bytes));
+        byte[] tree = bytes.toByteArray();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Restored tree over the same geometries finds the same closest intersections
+        BVH restored = new BVH(flat);
+        ByteBuffer in = ByteBuffer.wrap(tree);
+        restored.readTree(in);
+        assertEquals(tree.length, in.position(), "Tree is not read up to its end");
+        for (int k = 0; k < 1000; ++k) {
+            Ray ray = randomRay(k);
+            Intersectable.Intersection expected = built.findClosestIntersection(ray);
+            Intersectable.Intersection result = restored.findClosestIntersection(ray);
+            if (expected == null)
+                assertNull(result, "Restored BVH found an intersection where there is none");
+            else
+                assertEquals(expected.point, result.point, "Restored BVH found a wrong closest intersection");
+        }
+        // TC02: Tree of other geometries
+        BVH other = new BVH();
+        randomGeometries(other, 20);
+        assertThrows(IllegalArgumentException.class, () -> other.readTree(ByteBuffer.wrap(tree)),
+                "Restored a tree of other geometries");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Truncated tree
+        BVH truncated = new BVH(flat);
+        assertThrows(IllegalArgumentException.class,
+                () -> truncated.readTree(ByteBuffer.wrap(Arrays.copyOf(tree, tree.length - 4))),
+                "Restored a truncated tree");
+        // TC12: Tree deeper than its written depth
+        ByteBuffer shallow = ByteBuffer.wrap(tree.clone()).putInt(4, 1);
+        assertThrows(IllegalArgumentException.class, () -> new BVH(flat).readTree(shallow),
+                "Restored a tree deeper than its depth");
+        // TC13: Child of the root beyond the nodes
+        ByteBuffer wrongChild = ByteBuffer.wrap(tree.clone());
+        int nodes = wrongChild.getInt(0);
+        wrongChild.putInt(12 + Integer.BYTES * wrongChild.getInt(8) + 6 * Double.BYTES * nodes, nodes);
+        assertThrows(IllegalArgumentException.class, () -> new BVH(flat).readTree(wrongChild),
+                "Restored a tree with a child beyond the nodes");
+        // TC14: Empty hierarchy
+        bytes.reset();
+        new BVH().writeTree(new DataOutputStream(bytes));
+        BVH empty = new BVH();
+        empty.readTree(ByteBuffer.wrap(bytes.toByteArray()));
+        assertNull(empty.findClosestIntersection(randomRay(0)), "Restored empty BVH found an intersection");
+    }
+}
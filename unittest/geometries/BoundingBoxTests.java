@@ -0,0 +1,135 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing BoundingBox and the bounding boxes of the geometries
+ */
+class BoundingBoxTests {
+    /**
+     * Delta value for accuracy when comparing the numbers of type 'double' in
+     * assertEquals
+     */
+    private static final double DELTA = 0.000001;
+
+    /** A unit box for the tests */
+    private final BoundingBox box = new BoundingBox(0, 0, 0, 1, 1, 1);
+
+    /**
+     * Check a box has the expected coordinates
+     * @param expected the expected box
+     * @param result   the tested box
+     * @param message  the failure message
+     */
+    private static void assertBox(BoundingBox expected, BoundingBox result, String message) {
+        assertNotNull(result, message);
+        assertEquals(expected.minX, result.minX, DELTA, message);
+        assertEquals(expected.minY, result.minY, DELTA, message);
+        assertEquals(expected.minZ, result.minZ, DELTA, message);
+        assertEquals(expected.maxX, result.maxX, DELTA, message);
+        assertEquals(expected.maxY, result.maxY, DELTA, message);
+        assertEquals(expected.maxZ, result.maxZ, DELTA, message);
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersects(Ray)}.
+     */
+    @Test
+    void testIntersects() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the box
+        assertTrue(box.intersects(new Ray(new Point(-1, 0.5, 0.5), new Vector(1, 0.1, 0))),
+                "Ray crossing the box was rejected");
+        // TC02: Ray misses the box
+        assertFalse(box.intersects(new Ray(new Point(-1, 0.5, 0.5), new Vector(1, 2, 0))),
+                "Ray missing the box was accepted");
+        // TC03: Ray starts inside the box
+        assertTrue(box.intersects(new Ray(new Point(0.5, 0.5, 0.5), new Vector(1, 1, 1))),
+                "Ray starting inside the box was rejected");
+        // TC04: Ray starts after the box
+        assertFalse(box.intersects(new Ray(new Point(2, 0.5, 0.5), new Vector(1, 0, 0))),
+                "Ray starting after the box was accepted");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray parallel to a face outside the box
+        assertFalse(box.intersects(new Ray(new Point(-1, 2, 0.5), new Vector(1, 0, 0))),
+                "Ray parallel outside the box was accepted");
+        // TC12: Ray along a face of the box
+        assertTrue(box.intersects(new Ray(new Point(-1, 1, 0.5), new Vector(1, 0, 0))),
+                "Ray along a face of the box was rejected");
+        // TC13: Ray through a vertex of the box
+        assertTrue(box.intersects(new Ray(new Point(2, 2, 0), new Vector(-1, -1, 0))),
+                "Ray through a vertex of the box was rejected");
+        // TC14: Flat box
+        assertTrue(new BoundingBox(0, 0, 0, 1, 1, 0).intersects(new Ray(new Point(0.5, 0.5, 1), new Vector(0, 0, -1))),
+                "Ray crossing a flat box was rejected");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#union(BoundingBox)}.
+     */
+    @Test
+    void testUnion() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Disjoint boxes
+        assertBox(new BoundingBox(0, 0, -1, 3, 2, 1), box.union(new BoundingBox(2, 1, -1, 3, 2, 0)),
+                "Wrong union of disjoint boxes");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Box inside the other one
+        assertBox(box, box.union(new BoundingBox(0.2, 0.2, 0.2, 0.5, 0.5, 0.5)), "Wrong union of nested boxes");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#getBoundingBox()} of the geometries.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Sphere
+        assertBox(new BoundingBox(-1, 0, 1, 3, 4, 5), new Sphere(2, new Point(1, 2, 3)).getBoundingBox(),
+                "Wrong sphere bounding box");
+        // TC02: Triangle
+        assertBox(new BoundingBox(-1, 0, 0, 1, 3, 2),
+                new Triangle(new Point(-1, 0, 0), new Point(1, 0, 2), new Point(0, 3, 1)).getBoundingBox(),
+                "Wrong triangle bounding box");
+        // TC03: Polygon
+        assertBox(new BoundingBox(0, 0, 0, 1, 1, 0),
+                new Polygon(new Point(0, 0, 0), new Point(1, 0, 0), new Point(1, 1, 0), new Point(0, 1, 0))
+                        .getBoundingBox(),
+                "Wrong polygon bounding box");
+        // TC04: Cylinder along z axis
+        assertBox(new BoundingBox(-1, -1, 0, 1, 1, 2),
+                new Cylinder(1, new Ray(Point.ZERO, new Vector(0, 0, 1)), 2).getBoundingBox(),
+                "Wrong cylinder bounding box");
+        // TC05: Geometries with nested collection
+        Geometries geometries = new Geometries(new Sphere(1, Point.ZERO),
+                new Geometries(new Sphere(1, new Point(5, 0, 0))));
+        assertBox(new BoundingBox(-1, -1, -1, 6, 1, 1), geometries.getBoundingBox(),
+                "Wrong geometries bounding box");
+        // TC06: Geometries box is updated after adding a geometry
+        geometries.add(new Sphere(1, new Point(0, 0, 9)));
+        assertBox(new BoundingBox(-1, -1, -1, 6, 1, 10), geometries.getBoundingBox(),
+                "Geometries bounding box was not updated");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Plane and tube are unbounded
+        assertNull(new Plane(Point.ZERO, new Vector(0, 0, 1)).getBoundingBox(), "Plane must be unbounded");
+        assertNull(new Tube(1, new Ray(Point.ZERO, new Vector(0, 0, 1))).getBoundingBox(), "Tube must be unbounded");
+        // TC12: Geometries with an unbounded geometry
+        geometries.add(new Plane(Point.ZERO, new Vector(0, 0, 1)));
+        assertNull(geometries.getBoundingBox(), "Geometries with a plane must be unbounded");
+        // TC13: Empty geometries
+        assertNull(new Geometries().getBoundingBox(), "Empty geometries must be unbounded");
+        // TC14: Cylinder along a diagonal is bounded by its bases disks
+        BoundingBox cylinderBox = new Cylinder(1, new Ray(Point.ZERO, new Vector(1, 1, 0)), Math.sqrt(2))
+                .getBoundingBox();
+        double e = Math.sqrt(0.5);
+        assertBox(new BoundingBox(-e, -e, -1, 1 + e, 1 + e, 1), cylinderBox, "Wrong diagonal cylinder bounding box");
+    }
+}
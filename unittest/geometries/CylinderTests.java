@@ -10,6 +10,7 @@ import primitives.Ray;
 import primitives.Vector;
 
 import java.util.List;
+import java.util.Random;
 
 
 class CylinderTests {
@@ -80,8 +81,10 @@ class CylinderTests {
         assertTrue(valid7, "ERROR: Cylinder normal at the junction between lateral and bottom base is not computed correctly");
     }
 
-
-/*    @Test
+    /**
+     * Test method for {@link geometries.Cylinder#findIntersections(Ray)}.
+     */
+    @Test
     void testFindIntersections() {
         Cylinder cylinder = new Cylinder(1, new Ray(new Point(1, 1, 1), new Vector(0, 0, 1)), 2);
 
@@ -92,19 +95,52 @@ class CylinderTests {
                 "Ray's line is outside the cylinder");
 
         // TC02: Ray crosses the cylinder's lateral surface (2 points)
-        List<Point> intersections = cylinder.findIntersections(new Ray(new Point(-1, 1, 2), new Vector(1, 0, 0)));
-        assertNotNull(intersections, "Intersection list should not be null");
-        assertEquals(2, intersections.size(), "Wrong number of intersections");
-
-        // TC03: Ray crosses through the top base (1 point)
-        intersections = cylinder.findIntersections(new Ray(new Point(1.5, 1, 4), new Vector(0, 0, -1)));
-        assertNotNull(intersections, "Intersection list should not be null");
-        assertEquals(1, intersections.size(), "Wrong number of intersections");
-
-        // TC04: Ray crosses through the bottom base (1 point)
-        intersections = cylinder.findIntersections(new Ray(new Point(1.5, 1, 0), new Vector(0, 0, 1)));
-        assertNotNull(intersections, "Intersection list should not be null");
-        assertEquals(1, intersections.size(), "Wrong number of intersections");
+        assertEquals(List.of(new Point(0, 1, 2), new Point(2, 1, 2)),
+                cylinder.findIntersections(new Ray(new Point(-1, 1, 2), new Vector(1, 0, 0))),
+                "Ray crossing the lateral surface - wrong intersections");
+
+        // TC03: Ray crosses both bases (2 points) - with the bases normals
+        Ray ray = new Ray(new Point(1.5, 1, 4), new Vector(0, 0, -1));
+        assertEquals(List.of(new Point(1.5, 1, 3), new Point(1.5, 1, 1)), cylinder.findIntersections(ray),
+                "Ray crossing the bases - wrong intersections");
+        var intersections = cylinder.calculateIntersections(ray);
+        assertEquals(new Vector(0, 0, 1), intersections.get(0).normal, "Wrong normal of the top base");
+        assertEquals(new Vector(0, 0, -1), intersections.get(1).normal, "Wrong normal of the bottom base");
+
+        // TC04: Ray crosses a base and the lateral surface (2 points)
+        assertEquals(List.of(new Point(1.5, 1, 3), new Point(2, 1, 2)),
+                cylinder.findIntersections(new Ray(new Point(1, 1, 4), new Vector(0.5, 0, -1))),
+                "Ray crossing a base and the lateral surface - wrong intersections");
+
+        // TC05: Ray starts inside the cylinder (1 point)
+        assertEquals(List.of(new Point(2, 1, 2)),
+                cylinder.findIntersections(new Ray(new Point(1, 1, 2), new Vector(1, 0, 0))),
+                "Ray starting inside - wrong intersection");
+
+        // TC06: Ray crosses the tube of the cylinder beyond the bases (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(-1, 1, 4), new Vector(1, 0, 0))),
+                "Ray above the cylinder - should return null");
+
+        // TC07: The closest intersection is found before the distance only
+        Intersectable.Intersection closest = cylinder.calculateClosestIntersection(ray, 10);
+        assertNotNull(closest, "No closest intersection");
+        assertEquals(new Point(1.5, 1, 3), closest.point, "Wrong closest intersection");
+        assertEquals(1, closest.distance, DELTA, "Wrong closest intersection distance");
+        assertNull(cylinder.calculateClosestIntersection(ray, 0.5), "Intersection beyond the distance is found");
+
+        // TC08: Rays crossing the lateral surface of a tall cylinder get the radial normal, not a base normal
+        Cylinder tall = new Cylinder(1, new Ray(Point.ZERO, new Vector(0, 0, 1)), 100);
+        Random random = new Random(17);
+        for (int k = 0; k < 10000; ++k) {
+            double angle = 2 * Math.PI * random.nextDouble(), z = 1 + 98 * random.nextDouble();
+            Point target = new Point(Math.cos(angle), Math.sin(angle), z);
+            Point head = new Point(5 * Math.cos(angle + 0.3), 5 * Math.sin(angle + 0.3), z + random.nextDouble() - 0.5);
+            Intersectable.Intersection side = tall.calculateClosestIntersection(new Ray(head, target.subtract(head)),
+                    Double.POSITIVE_INFINITY);
+            assertNotNull(side, "No intersection with the lateral surface");
+            assertNull(side.normal, "Lateral surface intersection got a base normal");
+            assertEquals(0, tall.getNormal(side.point).getZ(), DELTA, "Wrong normal of the lateral surface");
+        }
 
         // =============== Boundary Values Tests ==================
 
@@ -116,9 +152,22 @@ class CylinderTests {
         assertNull(cylinder.findIntersections(new Ray(new Point(1.5, 1, 1), new Vector(0, 0, -1))),
                 "Ray starts at bottom base and goes outside - should return null");
 
-        // TC13: Ray is tangent to the cylinder (1 point)
-        intersections = cylinder.findIntersections(new Ray(new Point(2, 0, 2), new Vector(0, 1, 0)));
-        assertNotNull(intersections, "Intersection list should not be null");
-        assertEquals(1, intersections.size(), "Wrong number of intersections");
-    }*/
+        // TC13: Ray is tangent to the cylinder (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(2, 0, 2), new Vector(0, 1, 0))),
+                "Ray tangent to the cylinder - should return null");
+
+        // TC14: Ray is on the lateral surface (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(2, 1, 0), new Vector(0, 0, 1))),
+                "Ray on the lateral surface - should return null");
+
+        // TC15: Ray is parallel to the axis inside the cylinder (2 points)
+        assertEquals(List.of(new Point(1.5, 1, 1), new Point(1.5, 1, 3)),
+                cylinder.findIntersections(new Ray(new Point(1.5, 1, 0), new Vector(0, 0, 1))),
+                "Ray parallel to the axis - wrong intersections");
+
+        // TC16: Ray crosses the rims of the bases (2 points)
+        assertEquals(List.of(new Point(2, 1, 3), new Point(0, 1, 1)),
+                cylinder.findIntersections(new Ray(new Point(3, 1, 4), new Vector(-1, 0, -1))),
+                "Ray crossing the rims - wrong intersections");
+    }
 }
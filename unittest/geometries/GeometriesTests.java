@@ -5,8 +5,7 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 class GeometriesTest {
 
@@ -53,4 +52,60 @@ class GeometriesTest {
                 "TwoDGeometries findintersection doesnt work"
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Intersectable#calculateClosestIntersection(Ray, double)}.
+     */
+    @Test
+    void testCalculateClosestIntersection() {
+        Geometries geometries = new Geometries(
+                new Sphere(1, new Point(0, 0, -5)),
+                new Plane(new Point(0, 0, -10), new Vector(0, 0, 1)),
+                new Triangle(new Point(-1, -1, -3), new Point(1, -1, -3), new Point(0, 1, -3)));
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the closest of several intersected geometries
+        Intersectable.Intersection closest = geometries.calculateClosestIntersection(ray, Double.POSITIVE_INFINITY);
+        assertEquals(new Point(0, 0, -3), closest.point, "Wrong closest intersection");
+        assertEquals(3, closest.distance, 0.00001, "Wrong distance of the closest intersection");
+        // TC02: all the intersections are beyond the maximal distance
+        assertNull(geometries.calculateClosestIntersection(ray, 2), "Intersection beyond the maximal distance");
+        // TC03: the ray starts between the geometries
+        assertEquals(new Point(0, 0, -6),
+                geometries.calculateClosestIntersection(new Ray(new Point(0, 0, -5), new Vector(0, 0, -1)), 100).point,
+                "Wrong closest intersection from inside the sphere");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the maximal distance is exactly at the closest intersection - the cutoff is exclusive
+        assertNull(geometries.calculateClosestIntersection(ray, 3), "Intersection at the maximal distance must be ignored");
+        // TC12: empty collection
+        assertNull(new Geometries().calculateClosestIntersection(ray, 100), "Empty collection found an intersection");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        Geometries nested = new Geometries(new Sphere(1, new Point(0, 0, -5)));
+        Geometries geometries = new Geometries(nested);
+        BVH bvh = new BVH(new Geometries(geometries));
+        Ray ray = new Ray(new Point(10, 0, 0), new Vector(0, 0, -1));
+        assertNull(geometries.calculateClosestIntersection(ray, 100), "Intersection outside the box");
+        assertFalse(bvh.hasIntersection(ray, 100), "Intersection outside the hierarchy");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a geometry added to a nested collection after the box is calculated
+        nested.add(new Sphere(1, new Point(10, 0, -5)));
+        assertEquals(new Point(10, 0, -4), geometries.calculateClosestIntersection(ray, 100).point,
+                "Geometry added to a nested collection is culled");
+        // TC02: a geometry added to a collection nested in a hierarchy after the tree is built
+        assertTrue(bvh.hasIntersection(ray, 100), "Geometry added to a nested collection is missed by the hierarchy");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: an unbounded geometry added to a nested collection
+        nested.add(new Plane(new Point(0, 0, -100), new Vector(0, 0, 1)));
+        assertNull(geometries.getBoundingBox(), "Unbounded nested collection has a box");
+    }
+}
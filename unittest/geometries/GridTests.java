@@ -0,0 +1,127 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing Grid
+ */
+class GridTests {
+    /** Random generator with a fixed seed for repeatable scenes */
+    private final Random random = new Random(5785);
+
+    /**
+     * Build a scene of random spheres and triangles
+     * @param  amount amount of the geometries
+     * @return        the geometries
+     */
+    private Geometries randomGeometries(int amount) {
+        Geometries geometries = new Geometries();
+        for (int k = 0; k < amount; ++k) {
+            Point p = new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), random.nextDouble(-150, -50));
+            if (k % 2 == 0)
+                geometries.add(new Sphere(random.nextDouble(0.5, 3), p));
+            else
+                geometries.add(new Triangle(p,
+                        p.add(new Vector(random.nextDouble(1, 5), 0, random.nextDouble(-1, 1))),
+                        p.add(new Vector(0, random.nextDouble(1, 5), random.nextDouble(-1, 1)))));
+        }
+        return geometries;
+    }
+
+    /**
+     * Test method for {@link geometries.Grid#findClosestIntersection(Ray)}.
+     */
+    @Test
+    void testFindClosestIntersection() {
+        Geometries geometries = randomGeometries(300);
+        // nested collection and an unbounded geometry
+        geometries.add(new Geometries(new Sphere(4, new Point(0, 0, -100))),
+                new Plane(new Point(0, 0, -160), new Vector(0, 0, 1)));
+        Grid automatic = new Grid(geometries);
+        Grid coarse = new Grid(geometries, 1, 1, 1);
+        Grid fine = new Grid(geometries, 40, 7, 13);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random rays from inside and outside the grid box - same closest point as linear search
+        for (int k = 0; k < 2000; ++k) {
+            Point head = k % 2 == 0 ? Point.ZERO
+                    : new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), random.nextDouble(-150, -50));
+            Ray ray = new Ray(head, new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), -1));
+            Intersectable.Intersection expected = ray.findClosestIntersection(geometries.calculateIntersections(ray));
+            for (Grid grid : new Grid[] { automatic, coarse, fine }) {
+                Intersectable.Intersection result = grid.findClosestIntersection(ray);
+                if (expected == null)
+                    assertNull(result, "Grid found an intersection where there is none");
+                else {
+                    assertNotNull(result, "Grid missed an intersection");
+                    assertEquals(expected.point, result.point, "Grid found a wrong closest intersection");
+                }
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: ray parallel to the axes - along the grid cells walls
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+        assertEquals(ray.findClosestIntersection(geometries.calculateIntersections(ray)).point,
+                fine.findClosestIntersection(ray).point, "Grid found a wrong closest intersection along an axis");
+        // TC12: ray missing the grid box hits only the unbounded plane
+        ray = new Ray(new Point(0, 0, 0), new Vector(0, 1, -1));
+        assertEquals(new Point(0, 160, -160), fine.findClosestIntersection(ray).point,
+                "Grid should hit the unbounded plane");
+        // TC13: empty grid
+        assertNull(new Grid(new Geometries()).findClosestIntersection(ray), "Empty grid found an intersection");
+    }
+
+    /**
+     * Test method for {@link geometries.Grid#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Geometries geometries = randomGeometries(200);
+        Grid grid = new Grid(geometries);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every crossed geometry is reported once - same amount of points as linear search
+        for (int k = 0; k < 500; ++k) {
+            Ray ray = new Ray(Point.ZERO, new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), -1));
+            var expected = geometries.findIntersections(ray);
+            var result = grid.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                    "Grid found wrong amount of intersections");
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Grid#hasIntersection(Ray, double)}.
+     */
+    @Test
+    void testHasIntersection() {
+        Geometries geometries = randomGeometries(300);
+        Grid grid = new Grid(geometries);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random rays and distances - blocked exactly when the closest intersection is nearer
+        for (int k = 0; k < 2000; ++k) {
+            Point head = new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), random.nextDouble(-150, -50));
+            Ray ray = new Ray(head, new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1),
+                    random.nextDouble(-1, 1)));
+            double distance = random.nextDouble(1, 100);
+            Intersectable.Intersection closest = geometries.calculateClosestIntersection(ray, distance);
+            assertEquals(closest != null, grid.hasIntersection(ray, distance), "Grid any-hit query is wrong");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: distance ends before the only geometry on the ray
+        Grid single = new Grid(new Geometries(new Sphere(1, new Point(0, 0, -10))));
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+        assertFalse(single.hasIntersection(ray, 8), "Grid found a geometry beyond the distance");
+        assertTrue(single.hasIntersection(ray, 10), "Grid missed a geometry before the distance");
+    }
+}
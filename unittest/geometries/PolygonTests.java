@@ -1,7 +1,9 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import geometries.Intersectable.Intersection;
 import primitives.Point;
+import primitives.Ray;
 import primitives.Vector;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -89,4 +91,55 @@ class PolygonTests {
             assertEquals(0d, result.dotProduct(pts[i].subtract(pts[i == 0 ? 3 : i - 1])), DELTA,
                     "Polygon's normal is not orthogonal to one of the edges");
     }
+
+    /**
+     * Test method for {@link geometries.Polygon#calculateIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testCalculateIntersections() {
+        Polygon polygon = new Polygon(new Point(0, 0, 1), new Point(1, 0, 0), new Point(0, 1, 0),
+                new Point(-1, 1, 1));
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the polygon inside (1 point) - the intersection is of the polygon itself
+        Ray ray = new Ray(new Point(0.5, 0.5, 2), new Vector(-0.5, -0.2, -1));
+        var result = polygon.calculateIntersections(ray);
+        assertNotNull(result, "Ray crossing the polygon has no intersection");
+        assertEquals(1, result.size(), "Wrong number of intersections");
+        assertSame(polygon, result.getFirst().geometry, "Intersection is not of the polygon");
+        assertEquals(0, result.getFirst().point.subtract(Point.ZERO).dotProduct(polygon.getNormal(null))
+                - new Point(0, 0, 1).subtract(Point.ZERO).dotProduct(polygon.getNormal(null)), DELTA,
+                "Intersection point is not on the polygon plane");
+        // TC02: Ray crosses the plane outside the polygon opposite to an edge (0 points)
+        assertNull(polygon.calculateIntersections(new Ray(new Point(2, 2, 2), new Vector(0, 0, -1))),
+                "Ray outside the polygon has an intersection");
+        // TC03: Ray crosses the plane outside the polygon opposite to a vertex (0 points)
+        assertNull(polygon.calculateIntersections(new Ray(new Point(2, -0.5, 2), new Vector(0, 0, -1))),
+                "Ray outside the polygon near a vertex has an intersection");
+        // TC04: Polygon is behind the ray (0 points)
+        assertNull(polygon.calculateIntersections(new Ray(new Point(0.1, 0.1, 0), new Vector(0, 0, -1))),
+                "Ray starting after the polygon has an intersection");
+        // TC05: The closest intersection is found before the distance only
+        Intersection closest = polygon.calculateClosestIntersection(ray, 10);
+        assertNotNull(closest, "No closest intersection");
+        assertEquals(ray.distanceTo(closest.point), closest.distance, DELTA, "Wrong closest intersection distance");
+        assertNull(polygon.calculateClosestIntersection(ray, closest.distance / 2),
+                "Intersection beyond the distance is found");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray crosses the polygon on an edge (0 points)
+        assertNull(polygon.calculateIntersections(new Ray(new Point(0.5, 0.5, 2), new Vector(0, 0, -1))),
+                "Ray crossing an edge has an intersection");
+        // TC12: Ray crosses the polygon on a vertex (0 points)
+        assertNull(polygon.calculateIntersections(new Ray(new Point(1, 0, 2), new Vector(0, 0, -1))),
+                "Ray crossing a vertex has an intersection");
+        // TC13: Ray crosses the continuation of an edge (0 points)
+        assertNull(polygon.calculateIntersections(new Ray(new Point(2, -1, 2), new Vector(0, 0, -1))),
+                "Ray crossing an edge continuation has an intersection");
+        // TC14: Ray is parallel to the plane (0 points)
+        assertNull(polygon.calculateIntersections(new Ray(new Point(0, 0, 2), new Vector(-1, 1, 0))),
+                "Parallel ray has an intersection");
+        // TC15: Ray starts inside the polygon (0 points)
+        assertNull(polygon.calculateIntersections(new Ray(new Point(0.1, 0.1, 0.8), new Vector(1, 2, 3))),
+                "Ray starting on the polygon has an intersection");
+    }
 }
@@ -0,0 +1,248 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing TriangleMesh
+ */
+class TriangleMeshTests {
+    /**
+     * Delta value for accuracy when comparing the numbers of type 'double' in
+     * assertEquals
+     */
+    private static final double DELTA = 0.000001;
+
+    /** A unit square on the plane z=0 made of two triangles sharing the diagonal (0,0,0)-(1,1,0) */
+    private final TriangleMesh square = new TriangleMesh(
+            new double[] { 0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0 },
+            new int[] { 0, 1, 2, 0, 2, 3 });
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Correct mesh
+        assertDoesNotThrow(() -> new TriangleMesh(new Point[] { Point.ZERO, new Point(1, 0, 0), new Point(0, 1, 0) },
+                new int[] { 0, 1, 2 }), "Failed constructing a correct mesh");
+        // TC02: Index out of the vertices
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 }, new int[] { 0, 1, 3 }),
+                "Constructed a mesh with a wrong vertex index");
+        // TC03: Degenerate triangle
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[] { 0, 0, 0, 1, 0, 0, 2, 0, 0 }, new int[] { 0, 1, 2 }),
+                "Constructed a mesh with vertices on a line");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: No triangles
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[] { 0, 0, 0 }, new int[0]), "Constructed an empty mesh");
+        // TC12: Coordinates are not triads
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[] { 0, 0, 0, 1, 0, 0, 0, 1 }, new int[] { 0, 1, 2 }),
+                "Constructed a mesh with partial vertex");
+        // TC13: Triangle with a repeated vertex
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 }, new int[] { 0, 1, 1 }),
+                "Constructed a mesh with a repeated vertex");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#calculateIntersections(Ray)}.
+     */
+    @Test
+    void testCalculateIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the first triangle
+        List<Intersectable.Intersection> result = square.calculateIntersections(
+                new Ray(new Point(0.7, 0.2, 1), new Vector(0, 0, -1)));
+        assertNotNull(result, "Ray crossing the mesh has no intersection");
+        assertEquals(1, result.size(), "Wrong amount of intersections");
+        assertEquals(new Point(0.7, 0.2, 0), result.getFirst().point, "Wrong intersection point");
+        assertEquals(new Vector(0, 0, 1), result.getFirst().normal, "Wrong intersection normal");
+        // TC02: Ray crosses the second triangle diagonally
+        result = square.calculateIntersections(new Ray(new Point(-1, 1.5, 1), new Vector(1.2, -1, -1)));
+        assertEquals(List.of(new Point(0.2, 0.5, 0)), result.stream().map(i -> i.point).toList(),
+                "Wrong intersection of the second triangle");
+        // TC03: Ray misses the mesh
+        assertNull(square.calculateIntersections(new Ray(new Point(2, 2, 1), new Vector(0, 0, -1))),
+                "Ray missing the mesh has intersections");
+        // TC04: Ray starts after the mesh
+        assertNull(square.calculateIntersections(new Ray(new Point(0.5, 0.2, -1), new Vector(0, 0, -1))),
+                "Ray starting after the mesh has intersections");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray crosses the shared edge - one intersection
+        result = square.calculateIntersections(new Ray(new Point(0.5, 0.5, 1), new Vector(0, 0, -1)));
+        assertNotNull(result, "Ray through the shared edge passes through a crack");
+        assertEquals(1, result.size(), "Point on the shared edge is returned twice");
+        // TC12: Ray crosses a vertex
+        assertNotNull(square.calculateIntersections(new Ray(new Point(1, 1, 1), new Vector(0, 0, -1))),
+                "Ray through a vertex has no intersection");
+        // TC13: Ray in the plane of the mesh
+        assertNull(square.calculateIntersections(new Ray(new Point(-1, 0.5, 0), new Vector(1, 0, 0))),
+                "Ray in the mesh plane has intersections");
+        // TC14: Ray starts on the mesh
+        assertNull(square.calculateIntersections(new Ray(new Point(0.7, 0.2, 0), new Vector(0, 0, -1))),
+                "Ray starting on the mesh has intersections");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findClosestIntersection(Ray)}.
+     */
+    @Test
+    void testFindClosestIntersection() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Random triangles - the same closest points as separate triangles
+        Random random = new Random(2244);
+        int count = 200;
+        double[] coordinates = new double[9 * count];
+        int[] indices = new int[3 * count];
+        Geometries triangles = new Geometries();
+        for (int k = 0; k < count; ++k) {
+            Point[] p = new Point[3];
+            Point base = new Point(random.nextDouble(-20, 20), random.nextDouble(-20, 20), random.nextDouble(-60, -20));
+            p[0] = base;
+            p[1] = base.add(new Vector(random.nextDouble(1, 5), 0, random.nextDouble(-1, 1)));
+            p[2] = base.add(new Vector(0, random.nextDouble(1, 5), random.nextDouble(-1, 1)));
+            for (int v = 0; v < 3; ++v) {
+                coordinates[9 * k + 3 * v] = p[v].getX();
+                coordinates[9 * k + 3 * v + 1] = p[v].getY();
+                coordinates[9 * k + 3 * v + 2] = p[v].getZ();
+                indices[3 * k + v] = 3 * k + v;
+            }
+            triangles.add(new Triangle(p[0], p[1], p[2]));
+        }
+        TriangleMesh mesh = new TriangleMesh(coordinates, indices);
+        for (int k = 0; k < 1000; ++k) {
+            Ray ray = new Ray(Point.ZERO, new Vector(random.nextDouble(-0.6, 0.6), random.nextDouble(-0.6, 0.6), -1));
+            Intersectable.Intersection expected = triangles.findClosestIntersection(ray);
+            Intersectable.Intersection result = mesh.findClosestIntersection(ray);
+            if (expected == null)
+                assertNull(result, "Mesh found an intersection where there is none");
+            else {
+                assertNotNull(result, "Mesh missed an intersection");
+                assertEquals(expected.point, result.point, "Mesh found a wrong closest intersection");
+                assertTrue(expected.geometry.getNormal(expected.point).isParallel(result.normal),
+                        "Mesh intersection has a wrong normal");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Intersection beyond the maximal distance
+        Ray ray = new Ray(new Point(0.7, 0.2, 1), new Vector(0, 0, -1));
+        assertNull(square.calculateClosestIntersection(ray, 1), "Mesh found an intersection beyond the distance");
+        assertTrue(square.hasIntersection(ray, 1.5), "Mesh missed an intersection before the distance");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        TriangleMesh tent = new TriangleMesh(new double[] { 0, 0, 0, 1, 0, 0, 1, 1, 1, 0, 1, 1 },
+                new int[] { 0, 1, 2, 0, 2, 3 });
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Point on the first triangle
+        assertEquals(new Vector(0, -1, 1).normalize(), tent.getNormal(new Point(0.8, 0.3, 0.3)),
+                "Wrong normal of the first triangle");
+        // TC02: Point on the second triangle
+        assertEquals(new Vector(0, -1, 1).normalize(), tent.getNormal(new Point(0.2, 0.7, 0.7)),
+                "Wrong normal of the second triangle");
+        // TC03: Point off the mesh
+        assertThrows(IllegalArgumentException.class, () -> tent.getNormal(new Point(0.5, 0.5, 2)),
+                "Normal of a point off the mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Opposite vertices order gives opposite normal
+        TriangleMesh flipped = new TriangleMesh(new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 }, new int[] { 0, 2, 1 });
+        assertEquals(new Vector(0, 0, -1), flipped.getNormal(new Point(0.2, 0.2, 0)), "Wrong normal direction");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Box of the mesh triangles
+        BoundingBox box = new TriangleMesh(new double[] { -1, 0, 2, 1, 0, 3, 0, 4, 2, 9, 9, 9 },
+                new int[] { 0, 1, 2 }).getBoundingBox();
+        assertEquals(-1, box.minX, DELTA, "Wrong box");
+        assertEquals(0, box.minY, DELTA, "Wrong box");
+        assertEquals(2, box.minZ, DELTA, "Wrong box");
+        assertEquals(1, box.maxX, DELTA, "Wrong box");
+        assertEquals(4, box.maxY, DELTA, "Wrong box");
+        // TC02: Vertices not used by triangles are out of the box
+        assertEquals(3, box.maxZ, DELTA, "Unused vertex in the box");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#read(ByteBuffer)}.
+     */
+    @Test
+    void testRead() throws IOException {
+        TriangleMesh tent = new TriangleMesh(new double[] { 0, 0, 0, 1, 0, 0, 1, 1, 1, 0, 1, 1, 5, 5, 5 },
+                new int[] { 0, 1, 2, 0, 2, 3 });
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        tent.write(new DataOutputStream(bytes));
+        byte[] written = bytes.toByteArray();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Restored mesh has the same triangles, box and intersections
+        ByteBuffer in = ByteBuffer.wrap(written);
+        TriangleMesh restored = TriangleMesh.read(in);
+        assertEquals(written.length, in.position(), "Mesh is not read up to its end");
+        assertEquals(2, restored.getTriangleCount(), "Wrong amount of restored triangles");
+        assertEquals(5, restored.getVertexCount(), "Wrong amount of restored vertices");
+        assertEquals(1, restored.getBoundingBox().maxZ, DELTA, "Wrong restored box");
+        Ray ray = new Ray(new Point(0.2, 0.7, 2), new Vector(0, 0, -1));
+        assertEquals(tent.findClosestIntersection(ray).point, restored.findClosestIntersection(ray).point,
+                "Restored mesh found a wrong intersection");
+        assertEquals(new Vector(0, -1, 1).normalize(), restored.getNormal(new Point(0.8, 0.3, 0.3)),
+                "Wrong normal of the restored mesh");
+        assertEquals(tent.getStorageBytes(), restored.getStorageBytes(), "Wrong restored storage size");
+        // TC02: Mesh restored from a direct buffer, after other data, reads its vertices from the buffer
+        ByteBuffer direct = ByteBuffer.allocateDirect(8 + written.length).putLong(-1).put(written).position(8);
+        TriangleMesh mapped = TriangleMesh.read(direct);
+        assertEquals(8 + written.length, direct.position(), "Mesh is not read up to its end");
+        assertEquals(tent.findClosestIntersection(ray).point, mapped.findClosestIntersection(ray).point,
+                "Mesh restored from a direct buffer found a wrong intersection");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Truncated mesh
+        assertThrows(IllegalArgumentException.class,
+                () -> TriangleMesh.read(ByteBuffer.wrap(Arrays.copyOf(written, written.length - 4))),
+                "Restored a truncated mesh");
+        // TC12: Index out of the vertices
+        byte[] wrongIndex = written.clone();
+        ByteBuffer.wrap(wrongIndex).putInt(4 + 15 * Double.BYTES + 4, 7);
+        assertThrows(IllegalArgumentException.class, () -> TriangleMesh.read(ByteBuffer.wrap(wrongIndex)),
+                "Restored a mesh with a wrong vertex index");
+        // TC13: Vertex count overflowing the buffer size
+        byte[] huge = written.clone();
+        ByteBuffer.wrap(huge).putInt(0, Integer.MAX_VALUE / 4);
+        assertThrows(IllegalArgumentException.class, () -> TriangleMesh.read(ByteBuffer.wrap(huge)),
+                "Restored a mesh of an overflowing size");
+        // TC14: Negative vertex count
+        byte[] negative = written.clone();
+        ByteBuffer.wrap(negative).putInt(0, -3);
+        assertThrows(IllegalArgumentException.class, () -> TriangleMesh.read(ByteBuffer.wrap(negative)),
+                "Restored a mesh of a negative size");
+    }
+}
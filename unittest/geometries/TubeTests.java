@@ -29,35 +29,66 @@ class TubeTests {
         assertEquals(expected, normal, "ERROR: Tube normal is not computed correctly");
     }
 
-
-/*    @Test
-    void testFindIntersections_Tube() {
+    /**
+     * Test method for {@link geometries.Tube#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersectionsTube() {
         Tube tube = new Tube(1, new Ray(new Point(2, 2, 2), new Vector(0, 0, 1)));
 
+        // ============ Equivalence Partitions Tests ==============
         // TC01: Ray's line is outside the tube (0 points)
         assertNull(tube.findIntersections(new Ray(new Point(5, 5, 2), new Vector(1, 0, 0))),
                 "Ray's line is outside the tube");
 
         // TC02: Ray starts before and crosses the tube (2 points)
-        List<Point> intersections = tube.findIntersections(
-                new Ray(new Point(0, 2, 2), new Vector(1, 0, 0)));
-        assertNotNull(intersections, "Intersection list should not be null");
-        assertEquals(2, intersections.size(), "Wrong number of intersections");
+        assertEquals(List.of(new Point(1, 2, 2), new Point(3, 2, 2)),
+                tube.findIntersections(new Ray(new Point(0, 2, 2), new Vector(1, 0, 0))),
+                "Ray crossing the tube - wrong intersections");
 
         // TC03: Ray starts inside the tube (1 point)
-        intersections = tube.findIntersections(
-                new Ray(new Point(2.5, 2, 2), new Vector(1, 0, 0)));
-        assertNotNull(intersections, "Intersection list should not be null");
-        assertEquals(1, intersections.size(), "Wrong number of intersections");
+        assertEquals(List.of(new Point(3, 2, 2)),
+                tube.findIntersections(new Ray(new Point(2.5, 2, 2), new Vector(1, 0, 0))),
+                "Ray starting inside the tube - wrong intersection");
 
         // TC04: Ray starts after the tube (0 points)
         assertNull(tube.findIntersections(new Ray(new Point(6, 2, 2), new Vector(1, 0, 0))),
                 "Ray starts after the tube - should return null");
 
-        // TC11: Ray is tangent to the tube (1 point)
-        intersections = tube.findIntersections(new Ray(new Point(3, 1, 2), new Vector(0, 1, 0)));
-        assertNotNull(intersections, "Intersection list should not be null");
-        assertEquals(1, intersections.size(), "Wrong number of intersections");
-    }*/
+        // TC05: Ray crosses the tube not orthogonally to the axis (2 points)
+        assertEquals(List.of(new Point(1, 2, 1), new Point(3, 2, 3)),
+                tube.findIntersections(new Ray(new Point(0, 2, 0), new Vector(1, 0, 1))),
+                "Oblique ray crossing the tube - wrong intersections");
+
+        // TC06: The closest intersection is found before the distance only
+        Ray ray = new Ray(new Point(0, 2, 2), new Vector(1, 0, 0));
+        Intersectable.Intersection closest = tube.calculateClosestIntersection(ray, 10);
+        assertNotNull(closest, "No closest intersection");
+        assertEquals(new Point(1, 2, 2), closest.point, "Wrong closest intersection");
+        assertEquals(1, closest.distance, DELTA, "Wrong closest intersection distance");
+        assertNull(tube.calculateClosestIntersection(ray, 0.5), "Intersection beyond the distance is found");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray is tangent to the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(3, 1, 2), new Vector(0, 1, 0))),
+                "Ray tangent to the tube - should return null");
+
+        // TC12: Ray is parallel to the axis inside the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(2.5, 2, 0), new Vector(0, 0, 1))),
+                "Ray parallel to the axis - should return null");
+
+        // TC13: Ray is on the surface of the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(3, 2, 0), new Vector(0, 0, 1))),
+                "Ray on the surface - should return null");
+
+        // TC14: Ray starts on the surface and goes inside (1 point)
+        assertEquals(List.of(new Point(3, 2, 2)),
+                tube.findIntersections(new Ray(new Point(1, 2, 2), new Vector(1, 0, 0))),
+                "Ray starting on the surface inwards - wrong intersection");
+
+        // TC15: Ray starts on the surface and goes outside (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(1, 2, 2), new Vector(-1, 0, 0))),
+                "Ray starting on the surface outwards - should return null");
+    }
 }
 
@@ -0,0 +1,52 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing AreaLight
+ */
+class AreaLightTests {
+    /** the tested light - a 4 x 2 rectangle around (1, 1, 1) in the plane z = 1 */
+    private final AreaLight light = new AreaLight(new Color(100, 100, 100), new Point(1, 1, 1),
+            new Vector(4, 0, 0), new Vector(0, 2, 0));
+
+    /**
+     * Test method for {@link lighting.AreaLight#getSamplePoint(int, int)}.
+     */
+    @Test
+    void testGetSamplePoint() {
+        light.setGridSize(5);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A sample inside the rectangle
+        assertEquals(new Point(0, 1.5, 1), light.getSamplePoint(1, 3), "Wrong inner sample point");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The first corner
+        assertEquals(new Point(-1, 0, 1), light.getSamplePoint(0, 0), "Wrong first corner");
+        // TC12: The opposite corner
+        assertEquals(new Point(3, 2, 1), light.getSamplePoint(4, 4), "Wrong opposite corner");
+        // TC13: The middle sample is the center of the light
+        assertEquals(new Point(1, 1, 1), light.getSamplePoint(2, 2), "Wrong middle sample");
+    }
+
+    /**
+     * Test method for {@link lighting.AreaLight#setGridSize(int)}.
+     */
+    @Test
+    void testSetGridSize() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A regular grid
+        assertEquals(9, light.setGridSize(9).getGridSize(), "Wrong grid size");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The corners only
+        assertDoesNotThrow(() -> light.setGridSize(2), "Grid of the corners is rejected");
+        // TC12: A single sample
+        assertThrows(IllegalArgumentException.class, () -> light.setGridSize(1), "Grid of a single sample");
+    }
+}
@@ -0,0 +1,88 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing PointLight
+ */
+class PointLightTests {
+    /**
+     * Delta value for accuracy when comparing the numbers of type 'double' in
+     * assertEquals
+     */
+    private static final double DELTA = 0.000001;
+
+    /**
+     * Test method for {@link lighting.PointLight#getInfluenceRadius(double)}.
+     */
+    @Test
+    void testGetInfluenceRadius() {
+        Color intensity = new Color(100, 400, 200);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Quadratic attenuation - the strongest component is at the cutoff on the radius
+        PointLight light = new PointLight(intensity, Point.ZERO).setkL(0.1).setkQ(0.01);
+        double radius = light.getInfluenceRadius(1);
+        assertEquals(1, light.getIntensity(new Point(radius, 0, 0)).maxComponent(), DELTA,
+                "Wrong radius of quadratic attenuation");
+        // TC02: Linear attenuation
+        light = new PointLight(intensity, Point.ZERO).setkL(0.5);
+        assertEquals(1598, light.getInfluenceRadius(0.5), DELTA, "Wrong radius of linear attenuation");
+        // TC03: Spot light has the radius of its attenuation
+        SpotLight spot = new SpotLight(intensity, Point.ZERO, new Vector(1, 0, 0)).setkQ(0.04);
+        assertEquals(Math.sqrt(399 / 0.04), spot.getInfluenceRadius(1), DELTA, "Wrong radius of spot light");
+        // TC04: Directional light reaches everywhere
+        assertEquals(Double.POSITIVE_INFINITY,
+                new DirectionalLight(intensity, new Vector(1, 0, 0)).getInfluenceRadius(1), "Wrong directional radius");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: No attenuation by the distance
+        assertEquals(Double.POSITIVE_INFINITY, new PointLight(intensity, Point.ZERO).getInfluenceRadius(1),
+                "Not attenuated light has a radius");
+        // TC12: No cutoff
+        assertEquals(Double.POSITIVE_INFINITY, light.getInfluenceRadius(0), "Radius without cutoff");
+        // TC13: Light below the cutoff everywhere
+        assertEquals(0, new PointLight(intensity, Point.ZERO).setkC(2).setkL(1).getInfluenceRadius(300), DELTA,
+                "Negligible light has a radius");
+    }
+
+    /**
+     * Test method for {@link lighting.PointLight#sample(Point)}.
+     */
+    @Test
+    void testSample() {
+        Color intensity = new Color(100, 400, 200);
+        Point point = new Point(3, -4, 12);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Point light - the sample matches the separate evaluations
+        PointLight light = new PointLight(intensity, new Point(1, 1, 1)).setkL(0.1).setkQ(0.01);
+        LightSample sample = light.sample(point);
+        assertEquals(light.getL(point), sample.direction(), "Wrong direction of point light");
+        assertEquals(light.getDistance(point), sample.distance(), DELTA, "Wrong distance of point light");
+        assertEquals(0, light.getIntensity(point).difference(sample.intensity()), DELTA,
+                "Wrong intensity of point light");
+        // TC02: Spot light - the beam is applied to the attenuated intensity
+        SpotLight spot = new SpotLight(intensity, new Point(1, 1, 1), new Vector(1, -2, 5)).setkQ(0.01)
+                .setNarrowBeam(4);
+        sample = spot.sample(point);
+        Vector l = point.subtract(new Point(1, 1, 1)).normalize();
+        double beam = Math.pow(l.dotProduct(new Vector(1, -2, 5).normalize()), 4);
+        assertEquals(0, intensity.scale(beam / (1 + 0.01 * 150)).difference(sample.intensity()), DELTA,
+                "Wrong intensity of spot light");
+        // TC03: Directional light
+        DirectionalLight directional = new DirectionalLight(intensity, new Vector(0, 0, -2));
+        sample = directional.sample(point);
+        assertEquals(new Vector(0, 0, -1), sample.direction(), "Wrong direction of directional light");
+        assertEquals(Double.POSITIVE_INFINITY, sample.distance(), "Wrong distance of directional light");
+        assertEquals(0, intensity.difference(sample.intensity()), DELTA, "Wrong intensity of directional light");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Point behind the spot light is not lit
+        sample = spot.sample(new Point(-1, 5, -9));
+        assertEquals(0, Color.BLACK.difference(sample.intensity()), DELTA, "Point behind the spot light is lit");
+    }
+}
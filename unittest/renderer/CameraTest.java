@@ -1,9 +1,23 @@
 package renderer;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Geometries;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
 import primitives.*;
 import scene.Scene;
 
@@ -60,4 +74,313 @@ class CameraTest {
         assertEquals(new Ray(Point.ZERO, new Vector(2, -2, -10)),
                 camera2.constructRay(3, 3, 0, 0), badRay);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link renderer.Camera#renderImage()} with multithreading.
+     */
+    @Test
+    void testRenderImageMultithreading() {
+        Scene scene = new Scene("Test").setBackground(new Color(75, 127, 90))
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1.0));
+        scene.geometries.add(new Sphere(50d, new Point(0, 0, -100)),
+                new Triangle(new Point(-100, 0, -100), new Point(0, 100, -100), new Point(-100, 100, -100)));
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(500, 300)
+                .setRayTracer(scene, RayTracerType.SIMPLE)
+                .setResolution(250, 150);
+
+        ImageWriter serial = builder.build().renderImage().getImageWriter();
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: several threads, tiles that do not divide the resolution evenly
+        ImageWriter parallel = builder.setMultithreading(3).setTileSize(16).build().renderImage().getImageWriter();
+        for (int i = 0; i < 150; ++i)
+            for (int j = 0; j < 250; ++j)
+                assertEquals(serial.getPixel(j, i), parallel.getPixel(j, i), "Wrong pixel color in parallel rendering");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a single thread with a single pixel tiles
+        parallel = builder.setMultithreading(1).setTileSize(1).build().renderImage().getImageWriter();
+        for (int i = 0; i < 150; ++i)
+            for (int j = 0; j < 250; ++j)
+                assertEquals(serial.getPixel(j, i), parallel.getPixel(j, i), "Wrong pixel color in parallel rendering");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setImageOutput(String, ImageFormat)}.
+     * @throws IOException if the written image can't be read
+     */
+    @Test
+    void testImageOutput() throws IOException {
+        Scene scene = new Scene("Test").setBackground(new Color(75, 127, 90))
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1.0));
+        scene.geometries.add(new Sphere(50d, new Point(0, 0, -100)));
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(500, 300)
+                .setRayTracer(scene, RayTracerType.SIMPLE)
+                .setResolution(250, 150);
+        File file = new File(System.getProperty("user.dir") + "/images/stream test.png");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: rows of tiles written by several threads while rendering
+        ImageWriter parallel = builder.setMultithreading(3).setTileSize(16)
+                .setImageOutput("stream test", ImageFormat.PNG).build().renderImage().getImageWriter();
+        BufferedImage written = ImageIO.read(file);
+        for (int i = 0; i < 150; ++i)
+            for (int j = 0; j < 250; ++j)
+                assertEquals(parallel.getPixel(j, i), written.getRGB(j, i), "Wrong pixel written while rendering");
+        // TC02: strips of rows written by serial rendering
+        file.delete();
+        ImageWriter serial = builder.setMultithreading(0).build().renderImage().getImageWriter();
+        written = ImageIO.read(file);
+        for (int i = 0; i < 150; ++i)
+            for (int j = 0; j < 250; ++j)
+                assertEquals(serial.getPixel(j, i), written.getRGB(j, i), "Wrong pixel written while rendering");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: image rendered at once (anti-aliasing) is written when it is done
+        file.delete();
+        ImageWriter smooth = builder.setAdaptiveAntiAliasing(2, 10).build().renderImage().getImageWriter();
+        written = ImageIO.read(file);
+        assertEquals(smooth.getPixel(125, 25), written.getRGB(125, 25), "Wrong anti-aliased pixel written");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setImageOutput(String, ImageFormat)} - the strips of rows are
+     * written while rendering, before the image is finished.
+     */
+    @Test
+    void testImageOutputStrips() throws IOException {
+        Scene scene = new Scene("Test").setBackground(new Color(75, 127, 90))
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1.0));
+        scene.geometries.add(new Sphere(50d, new Point(0, 0, -100)));
+        File file = new File(System.getProperty("user.dir") + "/images/strips test.png");
+        List<Long> sizes = new LinkedList<>();
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(500, 300)
+                .setRayTracer(scene, RayTracerType.SIMPLE)
+                .setResolution(250, 150).setTileSize(16)
+                .setImageOutput("strips test", ImageFormat.PNG);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: serial anti-aliased rendering - every strip is written after it is traced
+        // the size of the file is taken after every traced strip
+        ImageWriter serial = builder.setAdaptiveAntiAliasing(2, 10)
+                .setMetricsListener(new MetricsListener() {
+                    @Override
+                    public void blockRendered(RenderMetrics metrics) {
+                        sizes.add(file.length());
+                    }
+
+                    @Override
+                    public void renderFinished(RenderMetrics metrics) {
+                        sizes.add(file.length());
+                    }
+                }).build().renderImage().getImageWriter();
+        assertEquals(11, sizes.size(), "Wrong amount of strips");
+        for (int k = 1; k < 10; ++k)
+            assertTrue(sizes.get(k) > sizes.get(k - 1), "Strip is not written while rendering");
+        BufferedImage written = ImageIO.read(file);
+        assertEquals(serial.getPixel(125, 75), written.getRGB(125, 75), "Wrong anti-aliased pixel written");
+        // TC02: progressive rendering - the strips are written by the last pass, before the image is finished
+        file.delete();
+        sizes.clear();
+        builder.setMetricsListener(null).setProgressiveRendering(3, (frame, pass, passes) -> {
+            sizes.add(file.length());
+            return true;
+        });
+        ImageWriter progressive = builder.build().renderImage().getImageWriter();
+        assertEquals(3, sizes.size(), "Wrong amount of passes");
+        assertEquals(sizes.get(0), sizes.get(1), "Strip is written before the last pass");
+        assertTrue(sizes.get(2) > sizes.get(1), "Strips are not written by the last pass");
+        written = ImageIO.read(file);
+        for (int i = 0; i < 150; ++i)
+            for (int j = 0; j < 250; ++j)
+                assertEquals(progressive.getPixel(j, i), written.getRGB(j, i), "Wrong pixel written while rendering");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setAdaptiveAntiAliasing(int, double)}.
+     */
+    @Test
+    void testAdaptiveAntiAliasing() {
+        Scene scene = new Scene("Test").setBackground(new Color(75, 127, 90))
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1.0));
+        scene.geometries.add(new Sphere(50d, new Point(0, 0, -100)));
+        AtomicInteger rays = new AtomicInteger();
+        SimpleRayTracer countingTracer = new SimpleRayTracer(scene) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return super.traceRay(ray);
+            }
+        };
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(500, 500)
+                .setRayTracer(countingTracer)
+                .setResolution(50, 50);
+        ImageWriter aliased = builder.build().renderImage().getImageWriter();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: edge pixels get blended colors, the others keep their colors, far fewer rays than full sampling
+        rays.set(0);
+        ImageWriter smooth = builder.setAdaptiveAntiAliasing(3, 10).build().renderImage().getImageWriter();
+        assertTrue(rays.get() < 50 * 50 * 9 * 9 / 4, "Adaptive sampling traced too many rays");
+        assertEquals(aliased.getPixel(0, 0), smooth.getPixel(0, 0), "Wrong background pixel color");
+        assertEquals(aliased.getPixel(25, 25), smooth.getPixel(25, 25), "Wrong sphere pixel color");
+        int blended = 0;
+        int background = aliased.getPixel(0, 0), sphere = aliased.getPixel(25, 25);
+        for (int i = 0; i < 50; ++i)
+            for (int j = 0; j < 50; ++j) {
+                int pixel = smooth.getPixel(j, i);
+                if (pixel != background && pixel != sphere) ++blended;
+            }
+        assertTrue(blended > 0, "Edge pixels are not blended");
+        // TC02: parallel rendering gives the same image
+        ImageWriter parallel = builder.setMultithreading(2).setTileSize(7).build().renderImage().getImageWriter();
+        for (int i = 0; i < 50; ++i)
+            for (int j = 0; j < 50; ++j)
+                assertEquals(smooth.getPixel(j, i), parallel.getPixel(j, i), "Wrong pixel color in parallel rendering");
+        // TC03: negative depth or threshold
+        assertThrows(IllegalArgumentException.class, () -> builder.setAdaptiveAntiAliasing(-1, 10),
+                "Negative anti-aliasing depth");
+        assertThrows(IllegalArgumentException.class, () -> builder.setAdaptiveAntiAliasing(2, -1),
+                "Negative anti-aliasing threshold");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: uniform image - only the pixel corners are traced, each one once
+        scene.geometries = new Geometries();
+        rays.set(0);
+        builder.setMultithreading(0).setAdaptiveAntiAliasing(3, 10).build().renderImage();
+        assertEquals(51 * 51, rays.get(), "Pixel corners are not shared");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setProgressiveRendering(int, ProgressListener)}.
+     */
+    @Test
+    void testProgressiveRendering() {
+        Scene scene = new Scene("Test").setBackground(new Color(75, 127, 90))
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1.0));
+        scene.geometries.add(new Sphere(50d, new Point(0, 0, -100)),
+                new Triangle(new Point(-100, 0, -100), new Point(0, 100, -100), new Point(-100, 100, -100)));
+        AtomicInteger rays = new AtomicInteger();
+        SimpleRayTracer countingTracer = new SimpleRayTracer(scene) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return super.traceRay(ray);
+            }
+        };
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(500, 300)
+                .setRayTracer(countingTracer)
+                .setResolution(50, 30);
+        ImageWriter expected = builder.build().renderImage().getImageWriter();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: all the passes - each pixel is traced once and the final image is the full one
+        List<Integer> passes = new LinkedList<>();
+        rays.set(0);
+        ImageWriter progressive = builder.setProgressiveRendering(3, (frame, pass, count) -> {
+            assertEquals(3, count, "Wrong amount of passes");
+            if (pass == 1)
+                assertEquals(frame.getRGB(0, 0), frame.getRGB(3, 3), "Coarse pass does not fill its blocks");
+            passes.add(pass);
+            return true;
+        }).build().renderImage().getImageWriter();
+        assertEquals(List.of(1, 2, 3), passes, "Wrong passes");
+        assertEquals(50 * 30, rays.get(), "Pixels are traced more than once");
+        for (int i = 0; i < 30; ++i)
+            for (int j = 0; j < 50; ++j)
+                assertEquals(expected.getPixel(j, i), progressive.getPixel(j, i), "Wrong pixel color");
+        // TC02: aborted after the first pass - only the coarse pixels are traced
+        rays.set(0);
+        builder.setProgressiveRendering(3, (frame, pass, count) -> false).build().renderImage();
+        assertEquals(13 * 8, rays.get(), "Rendering was not aborted");
+        // TC03: parallel progressive rendering gives the same image
+        progressive = builder.setProgressiveRendering(4, (frame, pass, count) -> true).setMultithreading(3)
+                .build().renderImage().getImageWriter();
+        for (int i = 0; i < 30; ++i)
+            for (int j = 0; j < 50; ++j)
+                assertEquals(expected.getPixel(j, i), progressive.getPixel(j, i), "Wrong pixel color in parallel");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a single pass
+        passes.clear();
+        builder.setProgressiveRendering(1, (frame, pass, count) -> passes.add(pass)).setMultithreading(0)
+                .build().renderImage();
+        assertEquals(List.of(1), passes, "Wrong single pass");
+        // TC12: no passes
+        assertThrows(IllegalArgumentException.class, () -> builder.setProgressiveRendering(0, null),
+                "Progressive rendering without passes");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setMetricsListener(MetricsListener)}.
+     */
+    @Test
+    void testMetricsListener() {
+        Scene scene = new Scene("Test").setBackground(new Color(75, 127, 90))
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 0.1));
+        scene.geometries.add(new Sphere(50d, new Point(0, 0, -100)),
+                new Triangle(new Point(-100, 0, -100), new Point(0, 100, -100), new Point(-100, 100, -100)));
+        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(50, 50, 0)));
+        List<RenderMetrics> finished = new LinkedList<>();
+        AtomicInteger blocks = new AtomicInteger();
+        MetricsListener listener = new MetricsListener() {
+            @Override
+            public void blockRendered(RenderMetrics metrics) {
+                blocks.incrementAndGet();
+            }
+
+            @Override
+            public void renderFinished(RenderMetrics metrics) {
+                finished.add(metrics);
+            }
+        };
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(500, 300)
+                .setRayTracer(scene, RayTracerType.SIMPLE)
+                .setResolution(50, 30)
+                .setMetricsListener(listener);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: serial rendering - a block per row, all the rays and the tests are counted
+        builder.build().renderImage();
+        assertEquals(1, finished.size(), "Rendering is not reported");
+        assertEquals(30, blocks.get(), "Wrong amount of rendered blocks");
+        RenderMetrics serial = finished.getFirst();
+        assertEquals(50 * 30, serial.getPixels(), "Wrong amount of pixels");
+        assertEquals(50 * 30, serial.getPrimaryRays(), "Wrong amount of primary rays");
+        assertEquals(serial.getPrimaryRays(), serial.getPrimaryHits() + serial.getPrimaryMisses(),
+                "Primary hits and misses do not add up");
+        assertTrue(serial.getPrimaryHits() > 0 && serial.getPrimaryMisses() > 0, "Wrong primary hits");
+        assertTrue(serial.getShadowRays() > 0 && serial.getShadowRays() <= serial.getPrimaryHits(),
+                "Wrong amount of shadow rays");
+        assertEquals(serial.getPrimaryRays() + serial.getShadowRays(),
+                serial.getIntersectionTests().get("Geometries"), "Wrong amount of scene tests");
+        assertTrue(serial.getIntersectionTests().get("Sphere") >= serial.getIntersectionHits().get("Sphere"),
+                "Wrong sphere tests");
+        assertTrue(serial.getIntersectionNanos() > 0 && serial.getShadingNanos() > 0, "Times are not measured");
+        assertTrue(serial.getPixelsPerSecond() > 0, "Rendering rate is not measured");
+        // TC02: parallel rendering counts the same
+        finished.clear();
+        builder.setMultithreading(3).setTileSize(16).build().renderImage();
+        RenderMetrics parallel = finished.getFirst();
+        assertEquals(serial.getPrimaryHits(), parallel.getPrimaryHits(), "Wrong parallel primary hits");
+        assertEquals(serial.getShadowRays(), parallel.getShadowRays(), "Wrong parallel shadow rays");
+        assertEquals(serial.getIntersectionTests(), parallel.getIntersectionTests(), "Wrong parallel tests");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: no listener - nothing is reported
+        finished.clear();
+        builder.setMetricsListener(null).build().renderImage();
+        assertTrue(finished.isEmpty(), "Rendering is reported without a listener");
+    }
+}
@@ -1,5 +1,19 @@
 package renderer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
 import org.junit.jupiter.api.Test;
 import primitives.Color;
 
@@ -19,4 +33,95 @@ public class ImageWriterTest {
         }
         imageWriter.writeToImage("grid");
     }
+
+    /**
+     * Test method for the accumulation and the tone mapping of the high dynamic range pixels
+     */
+    @Test
+    void testToneMapping() {
+        ImageWriter imageWriter = new ImageWriter(3, 2);
+        imageWriter.writePixel(0, 0, new Color(100, 255, 1000));
+        imageWriter.addPixel(1, 0, new Color(600, 0, 40), 0.25);
+        imageWriter.addPixel(1, 0, new Color(600, 0, 40), 0.75);
+        imageWriter.writePixel(2, 0, new Color(200, 10, 0));
+        imageWriter.fillTile(2, 0, 1, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Clamping keeps the colors below 255 and limits the brighter ones
+        assertEquals(0xFF64FFFF, imageWriter.getPixel(0, 0), "Wrong clamped pixel");
+        // TC02: Accumulated samples are kept beyond 255 until tone mapping
+        assertEquals(0xFFFF0028, imageWriter.getPixel(1, 0), "Wrong accumulated pixel");
+        // TC03: Filled block copies its top-left pixel
+        assertEquals(imageWriter.getPixel(2, 0), imageWriter.getPixel(2, 1), "Wrong filled pixel");
+        // TC04: Reinhard compresses the bright colors below the white
+        imageWriter.setToneMapping(ToneMapping.REINHARD);
+        assertEquals(0xFF477FCB, imageWriter.getPixel(0, 0), "Wrong Reinhard mapped pixel");
+        assertEquals(imageWriter.getPixel(1, 0), imageWriter.getImage().getRGB(1, 0), "Wrong mapped image");
+        // TC05: ACES rolls the highlights off to the white
+        imageWriter.setToneMapping(ToneMapping.ACES);
+        assertEquals(0xF7, imageWriter.getPixel(0, 0) & 0xFF, "Wrong ACES mapped highlight");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Black stays black by all the operators
+        for (ToneMapping mapping : ToneMapping.values()) {
+            imageWriter.setToneMapping(mapping);
+            assertEquals(0xFF000000, imageWriter.getPixel(1, 1), "Wrong black pixel by " + mapping);
+        }
+    }
+
+    /**
+     * Test method for the PNG, PFM and OpenEXR files of the image
+     * @throws IOException if a written image can't be read
+     */
+    @Test
+    void testWriteFormats() throws IOException {
+        ImageWriter imageWriter = new ImageWriter(3, 40);
+        for (int i = 0; i < 40; ++i)
+            for (int j = 0; j < 3; ++j)
+                imageWriter.writePixel(j, i, new Color(10 * i, 100 * j, 510));
+        String folder = System.getProperty("user.dir") + "/images/";
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: PNG of several strips is the tone mapped image
+        imageWriter.writeToImage("formats test");
+        BufferedImage png = ImageIO.read(new File(folder + "formats test.png"));
+        for (int i = 0; i < 40; ++i)
+            for (int j = 0; j < 3; ++j)
+                assertEquals(imageWriter.getPixel(j, i), png.getRGB(j, i), "Wrong PNG pixel");
+        // TC02: PFM keeps the colors beyond the white, from the bottom row up
+        imageWriter.writeToImage("formats test", ImageFormat.PFM);
+        byte[] pfm = Files.readAllBytes(Path.of(folder + "formats test.pfm"));
+        String header = "PF\n3 40\n-1.0\n";
+        assertEquals(header, new String(pfm, 0, header.length(), StandardCharsets.US_ASCII), "Wrong PFM header");
+        ByteBuffer floats = ByteBuffer.wrap(pfm, header.length(), pfm.length - header.length())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(390 / 255f, floats.getFloat(), 1e-6, "Wrong PFM red of the bottom row");
+        assertEquals(0, floats.getFloat(), 1e-6, "Wrong PFM green");
+        assertEquals(2, floats.getFloat(), 1e-6, "Wrong PFM blue beyond the white");
+        // TC03: OpenEXR rows are found by the offsets table, with the channels in the order B, G, R
+        imageWriter.writeToImage("formats test", ImageFormat.EXR);
+        ByteBuffer exr = ByteBuffer.wrap(Files.readAllBytes(Path.of(folder + "formats test.exr")))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(20000630, exr.getInt(0), "Wrong OpenEXR magic number");
+        int headerEnd = exr.capacity() - 40 * (8 + 36) - 40 * 8;
+        int row = (int) exr.getLong(headerEnd + 8 * 5);
+        assertEquals(5, exr.getInt(row), "Wrong OpenEXR row offset");
+        assertEquals(36, exr.getInt(row + 4), "Wrong OpenEXR row size");
+        assertEquals(2, exr.getFloat(row + 8 + 4), 1e-6, "Wrong OpenEXR blue");
+        assertEquals(100 / 255f, exr.getFloat(row + 8 + 12 + 4), 1e-6, "Wrong OpenEXR green");
+        assertEquals(50 / 255f, exr.getFloat(row + 8 + 24 + 8), 1e-6, "Wrong OpenEXR red");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: PNG strips written out of the order of the rows
+        try (ImageStream stream = imageWriter.openStream("formats test", ImageFormat.PNG)) {
+            stream.write(30, 10);
+            stream.write(0, 1);
+            assertThrows(IllegalArgumentException.class, () -> stream.write(35, 2), "Wrote a row twice");
+            stream.finish();
+        }
+        png = ImageIO.read(new File(folder + "formats test.png"));
+        for (int i = 0; i < 40; ++i)
+            for (int j = 0; j < 3; ++j)
+                assertEquals(imageWriter.getPixel(j, i), png.getRGB(j, i), "Wrong PNG pixel of unordered strips");
+    }
 }
@@ -0,0 +1,128 @@
+package renderer;
+
+import static java.awt.Color.BLUE;
+import static java.awt.Color.RED;
+import static java.awt.Color.WHITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.SpotLight;
+import primitives.*;
+import scene.Scene;
+
+/**
+ * Tests for reflection and transparency functionality
+ */
+class ReflectionRefractionTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    ReflectionRefractionTests() { /* to satisfy JavaDoc generator */ }
+
+    /** Scene for the tests */
+    private final Scene          scene         = new Scene("Test scene");
+    /** Camera builder for the tests with triangles */
+    private final Camera.Builder cameraBuilder = Camera.getBuilder()                                   //
+            .setRayTracer(scene, RayTracerType.SIMPLE);
+
+    /** Produce a picture of a sphere inside a transparent sphere, lit from the side */
+    @Test
+    void transparentSphere() {
+        scene.geometries.add(
+                new Sphere(50d, new Point(0, 0, -50)).setEmission(new Color(BLUE))
+                        .setMaterial(new Material().setkD(0.4).setkS(0.3).setnShininess(100).setkT(0.6)),
+                new Sphere(25d, new Point(0, 0, -50)).setEmission(new Color(RED))
+                        .setMaterial(new Material().setkD(0.5).setkS(0.5).setnShininess(100)));
+        scene.lights.add(new SpotLight(new Color(1000, 600, 0), new Point(-100, -100, 500), new Vector(-1, -1, -2))
+                .setkL(0.0004).setkQ(0.0000006));
+
+        cameraBuilder.setLocation(new Point(0, 0, 1000)).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(1000).setVpSize(150, 150)
+                .setResolution(500, 500)
+                .build()
+                .renderImage()
+                .writeToImage("refractionTransparentSphere");
+    }
+
+    /** Produce a picture of spheres reflected in two mirrors */
+    @Test
+    void spheresOnMirrors() {
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        scene.geometries.add(
+                new Sphere(400d, new Point(-950, -900, -1000)).setEmission(new Color(0, 50, 100))
+                        .setMaterial(new Material().setkD(0.25).setkS(0.25).setnShininess(20)
+                                .setkT(new Double3(0.5, 0, 0))),
+                new Sphere(200d, new Point(-950, -900, -1000)).setEmission(new Color(100, 50, 20))
+                        .setMaterial(new Material().setkD(0.25).setkS(0.25).setnShininess(20)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(670, 670, 3000))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setkR(1)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(-1500, -1500, -2000))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setkR(new Double3(0.5, 0, 0.4))));
+        scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150), new Vector(-1, -1, -4))
+                .setkL(0.00001).setkQ(0.000005));
+
+        cameraBuilder.setLocation(new Point(0, 0, 10000)).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(10000).setVpSize(2500, 2500)
+                .setResolution(500, 500)
+                .build()
+                .renderImage()
+                .writeToImage("reflectionTwoSpheresMirrored");
+    }
+
+    /**
+     * Test the recursion limits of the reflected rays by the metrics of the rendering - a camera between two
+     * parallel mirrors sees endless reflections, which are stopped by the recursion depth or by the attenuation
+     * cutoff
+     */
+    @Test
+    void testSecondaryRays() {
+        List<RenderMetrics> finished = new LinkedList<>();
+        Camera.Builder builder = cameraBuilder.setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(100, 100).setResolution(10, 10)
+                .setMetricsListener(finished::add);
+        scene.setBackground(new Color(WHITE));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Perfect mirrors - the recursion depth stops every reflection chain after 9 reflected rays
+        Material mirror = new Material().setkD(0.2).setkR(1);
+        scene.geometries.add(new Plane(new Point(50, 0, 0), new Vector(-1, 0, 0)).setMaterial(mirror),
+                new Plane(new Point(-50, 0, 0), new Vector(1, 0, 0)).setMaterial(mirror));
+        builder.build().renderImage();
+        RenderMetrics metrics = finished.getLast();
+        assertEquals(100, metrics.getPrimaryHits(), "All the primary rays should hit a mirror");
+        assertEquals(900, metrics.getSecondaryRays(), "Wrong amount of reflected rays");
+        assertEquals(100, metrics.getSkippedSecondaryRays(), "Wrong amount of rays stopped by the depth");
+
+        // TC02: Dim mirrors - the attenuation 0.4^8 is below the cutoff, so chains stop after 7 reflected rays
+        mirror.setkR(0.4);
+        builder.build().renderImage();
+        metrics = finished.getLast();
+        assertEquals(700, metrics.getSecondaryRays(), "Wrong amount of reflected rays");
+        assertEquals(100, metrics.getSkippedSecondaryRays(), "Wrong amount of rays stopped by the cutoff");
+
+        // TC03: Mirrors and transparency - both rays are traced, the transparent ones leave to the background
+        mirror.setkR(0.4).setkT(0.4);
+        builder.build().renderImage();
+        metrics = finished.getLast();
+        assertEquals(100 * (7 + 7), metrics.getSecondaryRays(), "Wrong amount of secondary rays");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: No reflection and no transparency - no secondary rays
+        mirror.setkR(0).setkT(0);
+        builder.build().renderImage();
+        metrics = finished.getLast();
+        assertEquals(0, metrics.getSecondaryRays(), "Secondary rays without global effects");
+        assertEquals(0, metrics.getSkippedSecondaryRays(), "Skipped rays without global effects");
+    }
+}
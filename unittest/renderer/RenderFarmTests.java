@@ -0,0 +1,189 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing RenderFarm and RenderWorker
+ */
+class RenderFarmTests {
+    /** the folder of the test files */
+    @TempDir
+    Path folder;
+
+    /** The scene of the tests */
+    private static final String SCENE = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <scene name="farm" background-color="75 127 190">
+                <camera location="0 0 1000" direction="0 0 -1" up="0 1 0" vp-size="200 200" vp-distance="1000"
+                        resolution="50 40"/>
+                <ambient-light color="255 191 191" k="0.1"/>
+                <lights>
+                    <point-light color="500 300 0" position="0 100 100" kl="0.001" kq="0.0001"/>
+                </lights>
+                <geometries bvh="true">
+                    <sphere center="0 0 -100" radius="50" emission="0 0 100"/>
+                    <mesh vertices="-90 -90 0  -40 -90 0  -90 -40 0" indices="0 1 2"/>
+                </geometries>
+            </scene>
+            """;
+
+    /**
+     * load the scene of the tests
+     * @return the scene file
+     */
+    private SceneFile load() throws IOException {
+        return SceneFile.load(Files.writeString(folder.resolve("farm.xml"), SCENE, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * assert that an image rendered by a farm equals the image rendered on this machine
+     * @param expected the image rendered on this machine
+     * @param actual   the image rendered by the farm
+     */
+    private static void assertImage(ImageWriter expected, ImageWriter actual) {
+        for (int i = 0; i < 40; ++i)
+            for (int j = 0; j < 50; ++j)
+                assertEquals(expected.getPixel(j, i), actual.getPixel(j, i), "Wrong pixel rendered by the farm");
+    }
+
+    /**
+     * The bad behaviors of a fake worker
+     */
+    private enum Fault {
+        /** the worker dies after the first tile */
+        DIE,
+        /** the worker never answers its tiles */
+        HANG,
+        /** the worker answers the first tile with a malformed length of its colors */
+        GARBAGE
+    }
+
+    /**
+     * start a fake worker, which accepts a single farm, reads its scene and then behaves badly
+     * @param  fault the bad behavior of the worker
+     * @return       the address of the worker
+     */
+    private static InetSocketAddress fakeWorker(Fault fault) throws IOException {
+        ServerSocket server = new ServerSocket(0);
+        Thread thread = new Thread(() -> {
+            try (server; Socket socket = server.accept()) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                in.readInt();
+                in.readInt();
+                in.readFully(new byte[in.readInt()]);
+                out.writeInt(RenderFarm.MAGIC);
+                out.writeInt(2);
+                out.flush();
+                while (true)
+                    if (in.readByte() == RenderFarm.TILE) {
+                        int image = in.readInt(), tile = in.readInt();
+                        in.readFully(new byte[4 * Integer.BYTES]);
+                        if (fault == Fault.DIE) return;
+                        if (fault == Fault.GARBAGE) {
+                            out.writeInt(image);
+                            out.writeInt(tile);
+                            out.writeInt(Integer.MAX_VALUE);
+                            out.flush();
+                        }
+                    } else
+                        in.readFully(new byte[Integer.BYTES + 13 * Double.BYTES + 3 * Integer.BYTES + 1]);
+            } catch (IOException ignored) {
+                // the farm is closed
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return new InetSocketAddress("localhost", server.getLocalPort());
+    }
+
+    /**
+     * Test method for {@link renderer.RenderFarm#render(Camera, List, java.util.function.BiConsumer)}.
+     */
+    @Test
+    void testRender() throws IOException {
+        SceneFile file = load();
+        ImageWriter expected = file.getCamera().setMultithreading(0).build().renderImage().getImageWriter();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: workers in processes of their own
+        List<Process> processes = new ArrayList<>();
+        try {
+            List<InetSocketAddress> workers = new ArrayList<>();
+            for (int i = 0; i < 2; ++i) {
+                Process process = new ProcessBuilder(
+                        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                        "-cp", System.getProperty("java.class.path"), RenderWorker.class.getName(), "0", "2")
+                        .redirectErrorStream(true).start();
+                processes.add(process);
+                String line = new BufferedReader(new InputStreamReader(process.getInputStream())).readLine();
+                assertNotNull(line, "Worker process did not start");
+                workers.add(new InetSocketAddress("localhost",
+                        Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1))));
+            }
+            try (RenderFarm farm = new RenderFarm(file, workers.toArray(new InetSocketAddress[0]))) {
+                Camera.Builder builder = file.getCamera().setTileSize(8).setRenderFarm(farm);
+                assertImage(expected, builder.build().renderImage().getImageWriter());
+                assertEquals(2, farm.getWorkerCount(), "Wrong amount of workers");
+                // TC02: next image by the same connections
+                assertImage(expected, builder.build().renderImage().getImageWriter());
+            }
+        } finally {
+            for (Process process : processes)
+                process.destroy();
+        }
+
+        // TC03: tiles of a failed worker handed out again
+        try (RenderWorker worker = new RenderWorker(0, 1).start();
+             RenderFarm farm = new RenderFarm(file, fakeWorker(Fault.DIE),
+                     new InetSocketAddress("localhost", worker.getPort()))) {
+            ImageWriter image = file.getCamera().setTileSize(8).setRenderFarm(farm).build().renderImage()
+                    .getImageWriter();
+            assertImage(expected, image);
+            assertEquals(1, farm.getWorkerCount(), "Failed worker is not dropped");
+        }
+
+        // TC04: tiles of a worker sending a malformed tile handed out again, without waiting for the timeout
+        try (RenderWorker worker = new RenderWorker(0, 1).start();
+             RenderFarm farm = new RenderFarm(file, fakeWorker(Fault.GARBAGE),
+                     new InetSocketAddress("localhost", worker.getPort()))) {
+            ImageWriter image = file.getCamera().setTileSize(8).setRenderFarm(farm).build().renderImage()
+                    .getImageWriter();
+            assertImage(expected, image);
+            assertEquals(1, farm.getWorkerCount(), "Worker sending a malformed tile is not dropped");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: tiles of a hung worker handed out again after the timeout
+        try (RenderWorker worker = new RenderWorker(0, 1).start();
+             RenderFarm farm = new RenderFarm(file, fakeWorker(Fault.HANG),
+                     new InetSocketAddress("localhost", worker.getPort())).setTileTimeout(200)) {
+            ImageWriter image = file.getCamera().setTileSize(8).setRenderFarm(farm).build().renderImage()
+                    .getImageWriter();
+            assertImage(expected, image);
+        }
+        // TC12: all the workers failed
+        try (RenderFarm farm = new RenderFarm(file, fakeWorker(Fault.DIE))) {
+            Camera camera = file.getCamera().setTileSize(8).setRenderFarm(farm).build();
+            assertThrows(IllegalStateException.class, camera::renderImage, "Rendered by failed workers");
+        }
+    }
+}
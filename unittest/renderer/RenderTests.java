@@ -9,6 +9,8 @@ import lighting.AmbientLight;
 import primitives.*;
 import scene.Scene;
 
+import java.nio.file.Path;
+
 /**
  * Test rendering a basic image
  * @author Dan
@@ -132,16 +134,8 @@ public class RenderTests {
     /** Test for XML based scene - for bonus */
     @Test
     public void basicRenderXml() {
-        Scene scene = new Scene("Using XML");
-        // enter XML file name and parse from XML file into scene object instead of the
-        // new Scene above,
-        // Use the code you added in appropriate packages
-        // ...
-        // NB: unit tests is not the correct place to put XML parsing code
-
-        camera //
-                .setRayTracer(scene, RayTracerType.SIMPLE) //
-                .setResolution(1000, 1000) //
+        SceneFile file = SceneFile.load(Path.of("src/renderTestTwoColors.xml"));
+        file.getCamera() //
                 .build() //
                 .renderImage() //
                 .printGrid(100, new Color(YELLOW)) //
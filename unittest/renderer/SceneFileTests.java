@@ -0,0 +1,259 @@
+package renderer;
+
+import geometries.*;
+import lighting.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.*;
+import scene.Scene;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SceneFile
+ */
+class SceneFileTests {
+    /** the folder of the test files */
+    @TempDir
+    Path folder;
+
+    /** Delta value for accuracy when comparing the numbers of type 'double' in assertEquals */
+    private static final double DELTA = 0.000001;
+
+    /** A scene file with every element */
+    private static final String FULL_SCENE = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <scene name="full" background-color="75 127 190" light-cutoff="0.5">
+                <camera location="0 0 1000" direction="0 0 -1" up="0 1 0" vp-size="200 200" vp-distance="1000"
+                        resolution="40 30"/>
+                <ambient-light color="255 191 191" k="0.1"/>
+                <materials>
+                    <material name="shiny" kd="0.5" ks="0.2 0.3 0.4" shininess="60" kr="0.2"/>
+                    <material name="glass" kt="0.7"/>
+                </materials>
+                <lights>
+                    <directional-light color="100 100 100" direction="0 0 -1" cast-shadows="false"/>
+                    <point-light color="500 300 0" position="0 100 100" kl="0.001" kq="0.0001"/>
+                    <spot-light color="800 400 400" position="-100 -100 500" direction="1 1 -2" narrow-beam="10"/>
+                    <area-light color="700 700 700" center="0 0 300" width="40 0 0" height="0 40 0" grid="5"/>
+                </lights>
+                <geometries bvh="true">
+                    <sphere center="0 0 -100" radius="50" material="shiny" emission="0 0 100"/>
+                    <plane point="0 0 -1000" normal="0 0 1"/>
+                    <triangle p0="100 0 0" p1="110 0 0" p2="100 10 0" material="glass"/>
+                    <polygon vertices="200 0 0  210 0 0  210 10 0  200 10 0"/>
+                    <group>
+                        <tube radius="5" origin="-300 0 0" direction="0 1 0"/>
+                        <cylinder radius="5" origin="300 0 0" direction="0 1 0" height="20"/>
+                    </group>
+                    <mesh vertices="400 0 0  410 0 0  400 10 0" indices="0 1 2"/>
+                    <mesh file="square.obj"/>
+                </geometries>
+            </scene>
+            """;
+
+    /**
+     * write a text file
+     * @param  name    the file name
+     * @param  content the file content
+     * @return         the file path
+     */
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(folder.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * find the geometry hit by a ray along -z through a point
+     * @param  scene the scene
+     * @param  x     the x coordinate of the ray
+     * @param  y     the y coordinate of the ray
+     * @return       the closest geometry along the ray
+     */
+    private static Geometry hit(Scene scene, double x, double y) {
+        Intersectable.Intersection intersection =
+                scene.geometries.findClosestIntersection(new Ray(new Point(x, y, 1000), new Vector(0, 0, -1)));
+        return intersection == null ? null : intersection.geometry;
+    }
+
+    /**
+     * Test method for {@link renderer.SceneFile#load(Path)}.
+     */
+    @Test
+    void testLoad() throws IOException {
+        write("square.obj", "v 500 0 0\nv 510 0 0\nv 510 10 0\nv 500 10 0\nf 1 2 3 4\n");
+        Path path = write("full.xml", FULL_SCENE);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every element of the scene file is loaded
+        SceneFile file = SceneFile.load(path);
+        Scene scene = file.getScene();
+        assertFalse(file.isCached(), "First load is not parsed");
+        assertEquals("full", scene.name, "Wrong scene name");
+        assertEquals(0, scene.background.difference(new Color(75, 127, 190)), DELTA, "Wrong background");
+        assertEquals(0.5, scene.lightCutoff, DELTA, "Wrong light cutoff");
+        assertEquals(0, scene.ambientLight.getIntensity().difference(new Color(25.5, 19.1, 19.1)), DELTA,
+                "Wrong ambient light");
+        assertInstanceOf(BVH.class, scene.geometries, "Geometries are not a BVH");
+        assertEquals(8, file.getGeometryCount(), "Wrong amount of geometries");
+
+        assertEquals(4, scene.lights.size(), "Wrong amount of lights");
+        assertInstanceOf(DirectionalLight.class, scene.lights.get(0), "Wrong directional light");
+        assertFalse(((DirectionalLight) scene.lights.get(0)).isCastingShadows(), "Directional light casts shadows");
+        assertInstanceOf(PointLight.class, scene.lights.get(1), "Wrong point light");
+        assertEquals(0, scene.lights.get(1).getIntensity(new Point(0, 100, 0))
+                .difference(new Color(500, 300, 0).scale(1 / (1 + 0.1 + 1))), DELTA, "Wrong point light attenuation");
+        assertInstanceOf(SpotLight.class, scene.lights.get(2), "Wrong spot light");
+        assertEquals(5, ((AreaLight) scene.lights.get(3)).getGridSize(), "Wrong area light grid");
+
+        Geometry sphere = hit(scene, 0, 0);
+        assertInstanceOf(Sphere.class, sphere, "Sphere is not loaded");
+        assertEquals(0, sphere.getEmission().difference(new Color(0, 0, 100)), DELTA, "Wrong sphere emission");
+        assertEquals(new Double3(0.5), sphere.getMaterial().kD, "Wrong sphere diffuse factor");
+        assertEquals(new Double3(0.2, 0.3, 0.4), sphere.getMaterial().kS, "Wrong sphere specular factor");
+        assertEquals(60, sphere.getMaterial().nShininess, "Wrong sphere shininess");
+        assertEquals(new Double3(0.2), sphere.getMaterial().kR, "Wrong sphere reflection");
+        Geometry triangle = hit(scene, 101, 1);
+        assertInstanceOf(Triangle.class, triangle, "Triangle is not loaded");
+        assertEquals(new Double3(0.7), triangle.getMaterial().kT, "Wrong triangle transparency");
+        assertEquals(0, triangle.getEmission().difference(Color.BLACK), DELTA, "Emission is inherited");
+        assertInstanceOf(Polygon.class, hit(scene, 205, 5), "Polygon is not loaded");
+        assertInstanceOf(Tube.class, hit(scene, -300, 10), "Tube is not loaded");
+        assertInstanceOf(Cylinder.class, hit(scene, 300, 10), "Cylinder is not loaded");
+        assertInstanceOf(TriangleMesh.class, hit(scene, 401, 1), "Inline mesh is not loaded");
+        assertInstanceOf(TriangleMesh.class, hit(scene, 505, 5), "Mesh file is not loaded");
+        assertInstanceOf(Plane.class, hit(scene, 1000, -1000), "Plane is not loaded");
+
+        assertNotNull(file.getCamera(), "Camera is not loaded");
+        Camera camera = file.getCamera().build();
+        Ray center = camera.constructRay(40, 30, 20, 15);
+        assertEquals(new Point(0, 0, 1000), center.getHead(), "Wrong camera location");
+
+        // TC02: Unchanged scene file is loaded from the cache
+        SceneFile cached = SceneFile.load(path);
+        assertTrue(cached.isCached(), "Second load is not cached");
+        assertEquals(8, cached.getGeometryCount(), "Wrong amount of cached geometries");
+        assertEquals(4, cached.getScene().lights.size(), "Wrong amount of cached lights");
+        assertInstanceOf(Cylinder.class, hit(cached.getScene(), 300, 10), "Cached cylinder is not loaded");
+        assertTrue(cached.toString().startsWith("full: 8 geometries, 4 lights"), "Wrong load report");
+
+        // TC03: Changed scene file is parsed again
+        write("full.xml", FULL_SCENE.replace("name=\"full\"", "name=\"changed\""));
+        Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 2000));
+        SceneFile changed = SceneFile.load(path);
+        assertFalse(changed.isCached(), "Changed scene is loaded from the cache");
+        assertEquals("changed", changed.getScene().name, "Changed scene is not parsed");
+        // TC04: Changed mesh file of an unchanged scene file is loaded again
+        Path mesh = write("square.obj", "v 600 0 0\nv 610 0 0\nv 610 10 0\nv 600 10 0\nf 1 2 3 4\n");
+        Files.setLastModifiedTime(mesh, FileTime.fromMillis(Files.getLastModifiedTime(mesh).toMillis() + 2000));
+        SceneFile remeshed = SceneFile.load(path);
+        assertFalse(remeshed.isCached(), "Changed mesh is loaded from the cache");
+        assertInstanceOf(TriangleMesh.class, hit(remeshed.getScene(), 605, 5), "Changed mesh is not loaded");
+        assertInstanceOf(Plane.class, hit(remeshed.getScene(), 505, 5), "Old mesh is loaded");
+        SceneFile recached = SceneFile.load(path);
+        assertTrue(recached.isCached(), "Changed mesh is not cached again");
+        assertInstanceOf(TriangleMesh.class, hit(recached.getScene(), 605, 5), "Changed mesh is not cached");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Scene file of the root element only, without a cache
+        SceneFile empty = SceneFile.load(write("empty.xml", "<scene/>"), null);
+        assertEquals(0, empty.getGeometryCount(), "Empty scene has geometries");
+        assertNull(empty.getCamera(), "Empty scene has a camera");
+        assertEquals(0, empty.getScene().background.difference(Color.BLACK), DELTA, "Wrong default background");
+        assertFalse(Files.exists(folder.resolve("empty.xml" + SceneFile.CACHE_SUFFIX)), "Cache is written");
+    }
+
+    /**
+     * Test method for {@link renderer.SceneFile#open(Path)}.
+     */
+    @Test
+    void testOpen() throws IOException {
+        Path mesh = write("square.obj", "v 500 0 0\nv 510 0 0\nv 510 10 0\nv 500 10 0\nf 1 2 3 4\n");
+        Path path = write("full.xml", FULL_SCENE);
+        SceneFile.load(path);
+        Path snapshot = folder.resolve("full.xml" + SceneFile.CACHE_SUFFIX);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Snapshot is opened without the scene file and the mesh file
+        Files.delete(mesh);
+        Files.delete(path);
+        SceneFile file = SceneFile.open(snapshot);
+        assertTrue(file.isCached(), "Snapshot is not cached");
+        assertEquals(8, file.getGeometryCount(), "Wrong amount of geometries");
+        assertEquals(4, file.getScene().lights.size(), "Wrong amount of lights");
+        assertNotNull(file.getCamera(), "Camera is not restored");
+        assertInstanceOf(TriangleMesh.class, hit(file.getScene(), 505, 5), "Mesh is not restored");
+        assertInstanceOf(Sphere.class, hit(file.getScene(), 0, 0), "Sphere is not restored");
+        // TC02: File that is not a snapshot
+        Path text = write("text.xml", FULL_SCENE);
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.open(text), "Opened a scene file");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Truncated snapshot
+        byte[] content = Files.readAllBytes(snapshot);
+        Path truncated = Files.write(folder.resolve("truncated.cache"), Arrays.copyOf(content, content.length - 8));
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.open(truncated), "Opened a truncated snapshot");
+        // TC12: Missing snapshot
+        assertThrows(IllegalStateException.class, () -> SceneFile.open(folder.resolve("none.cache")),
+                "Opened a missing snapshot");
+    }
+
+    /**
+     * Test method for {@link renderer.SceneFile#load(Path)} of malformed files.
+     */
+    @Test
+    void testLoadMalformed() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Unknown element
+        Path unknown = write("unknown.xml", "<scene><geometries><cube/></geometries></scene>");
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.load(unknown), "Loaded an unknown element");
+        // TC02: Missing attribute
+        Path missing = write("missing.xml", "<scene><geometries><sphere center=\"0 0 0\"/></geometries></scene>");
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.load(missing), "Loaded a missing radius");
+        // TC03: Undefined material
+        Path material = write("material.xml",
+                "<scene><geometries><sphere center=\"0 0 0\" radius=\"1\" material=\"x\"/></geometries></scene>");
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.load(material), "Loaded an undefined material");
+        // TC04: Malformed number
+        Path number = write("number.xml", "<scene background-color=\"1 2 x\"/>");
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.load(number), "Loaded a malformed number");
+        // TC05: Malformed XML
+        Path xml = write("xml.xml", "<scene><geometries></scene>");
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.load(xml), "Loaded a malformed XML");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Wrong amount of numbers
+        Path count = write("count.xml", "<scene background-color=\"1 2 3 4\"/>");
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.load(count), "Loaded four color components");
+        // TC12: Missing scene file
+        assertThrows(IllegalStateException.class, () -> SceneFile.load(folder.resolve("none.xml")),
+                "Loaded a missing file");
+    }
+
+    /**
+     * Test method for {@link renderer.SceneFile#load(Path)} of a large scene.
+     */
+    @Test
+    void testLoadLarge() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Scene of many spheres is loaded and then loaded from the cache
+        final int count = 10000;
+        StringBuilder content = new StringBuilder("<scene><geometries bvh=\"true\">\n");
+        for (int i = 0; i < count; ++i)
+            content.append("<sphere center=\"").append(i % 100 * 3).append(' ').append(i / 100 * 3)
+                    .append(" -100\" radius=\"1\"/>\n");
+        Path path = write("large.xml", content.append("</geometries></scene>\n").toString());
+        SceneFile parsed = SceneFile.load(path);
+        SceneFile cached = SceneFile.load(path);
+        assertEquals(count, parsed.getGeometryCount(), "Wrong amount of parsed geometries");
+        assertEquals(count, cached.getGeometryCount(), "Wrong amount of cached geometries");
+        assertTrue(cached.isCached(), "Large scene is not cached");
+        assertInstanceOf(Sphere.class, hit(cached.getScene(), 297, 297), "Last sphere is not loaded");
+    }
+}
@@ -0,0 +1,175 @@
+package renderer;
+
+import static java.awt.Color.BLUE;
+import static java.awt.Color.WHITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.*;
+import lighting.AmbientLight;
+import lighting.AreaLight;
+import lighting.DirectionalLight;
+import lighting.SpotLight;
+import primitives.*;
+import scene.Scene;
+
+/**
+ * Testing shadows of the geometries
+ */
+class ShadowTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    ShadowTests() { /* to satisfy JavaDoc generator */ }
+
+    /** Scene for the tests */
+    private final Scene          scene         = new Scene("Test scene")
+            .setAmbientLight(new AmbientLight(new Color(WHITE), new Double3(0.15)));
+    /** Camera builder for the tests */
+    private final Camera.Builder camera        = Camera.getBuilder()                                          //
+            .setRayTracer(scene, RayTracerType.SIMPLE)                                                         //
+            .setLocation(new Point(0, 0, 1000))                                                                //
+            .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))                                           //
+            .setVpSize(200, 200).setVpDistance(1000);
+
+    /** The sphere casting the shadow */
+    private final Intersectable  sphere        = new Sphere(60d, new Point(0, 0, -200))                       //
+            .setEmission(new Color(BLUE))                                                                      //
+            .setMaterial(new Material().setkD(0.5).setkS(0.5).setnShininess(30));
+    /** Material of the triangles */
+    private final Material       trMaterial    = new Material().setkD(0.5).setkS(0.5).setnShininess(30);
+
+    /**
+     * Helper function for the tests in this module
+     * @param triangle the triangle casting a shadow on the sphere
+     * @param spotLocation the location of the spot light
+     * @param fileName the name of the image file
+     */
+    private void sphereTriangleHelper(String fileName, Triangle triangle, Point spotLocation) {
+        scene.geometries.add(sphere, triangle.setEmission(new Color(BLUE)).setMaterial(trMaterial));
+        scene.lights.add( //
+                new SpotLight(new Color(400, 240, 0), spotLocation, new Vector(1, 1, -3)) //
+                        .setkL(1E-5).setkQ(1.5E-7));
+        camera.setResolution(400, 400) //
+                .build() //
+                .renderImage() //
+                .writeToImage(fileName);
+    }
+
+    /** Produce a picture of a sphere and a triangle casting a shadow on it */
+    @Test
+    void sphereTriangleInitial() {
+        sphereTriangleHelper("shadowSphereTriangleInitial", //
+                new Triangle(new Point(-70, -40, 0), new Point(-40, -70, 0), new Point(-68, -68, -4)), //
+                new Point(-100, -100, 200));
+    }
+
+    /** Produce a picture of two triangles lighted by a spot light with a sphere between them and the light */
+    @Test
+    void trianglesSphere() {
+        scene.geometries.add( //
+                new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135), new Point(75, 75, -150)) //
+                        .setMaterial(new Material().setkS(0.8).setnShininess(60)), //
+                new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150)) //
+                        .setMaterial(new Material().setkS(0.8).setnShininess(60)), //
+                new Sphere(30d, new Point(0, 0, -11)) //
+                        .setEmission(new Color(BLUE)) //
+                        .setMaterial(new Material().setkD(0.5).setkS(0.5).setnShininess(30)) //
+        );
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), new Double3(0.15)));
+        scene.lights.add( //
+                new SpotLight(new Color(700, 400, 400), new Point(40, 40, 115), new Vector(-1, -1, -4)) //
+                        .setkL(4E-4).setkQ(2E-5));
+
+        camera.setResolution(600, 600) //
+                .build() //
+                .renderImage() //
+                .writeToImage("shadowTrianglesSphere");
+    }
+
+    /**
+     * Test method for {@link lighting.DirectionalLight#setCastShadows(boolean)} - a light which does not cast
+     * shadows lights the whole floor, and with shadows the floor is only darker
+     */
+    @Test
+    void testCastShadows() {
+        Geometry floor = new Plane(new Point(0, 0, -100), new Vector(0, 0, 1))
+                .setEmission(new Color(20, 20, 20)).setMaterial(new Material().setkD(0.8));
+        scene.geometries.add(floor, new Sphere(20d, new Point(0, 0, -50)));
+        DirectionalLight light = new DirectionalLight(new Color(200, 200, 200), new Vector(1, 0, -1));
+        scene.lights.add(light);
+        camera.setResolution(100, 100);
+
+        ImageWriter shadowed = camera.build().renderImage().getImageWriter();
+        light.setCastShadows(false);
+        ImageWriter unshadowed = camera.build().renderImage().getImageWriter();
+
+        boolean darker = false;
+        for (int i = 0; i < 100; ++i)
+            for (int j = 0; j < 100; ++j) {
+                int withShadow = shadowed.getPixel(j, i) & 0xFF, withoutShadow = unshadowed.getPixel(j, i) & 0xFF;
+                assertTrue(withShadow <= withoutShadow, "A shadow made a pixel brighter");
+                darker |= withShadow < withoutShadow;
+            }
+        assertTrue(darker, "The sphere casts no shadow on the floor");
+    }
+
+    /** Produce a picture of a sphere casting a soft shadow on a floor lighted by an area light */
+    @Test
+    void softShadowAreaLight() {
+        scene.geometries.add( //
+                new Plane(new Point(0, 0, -100), new Vector(0, 0, 1)) //
+                        .setEmission(new Color(20, 20, 20)).setMaterial(new Material().setkD(0.8)), //
+                new Sphere(30d, new Point(0, 0, -40)) //
+                        .setEmission(new Color(BLUE)) //
+                        .setMaterial(new Material().setkD(0.5).setkS(0.5).setnShininess(30)));
+        scene.lights.add( //
+                new AreaLight(new Color(500, 400, 300), new Point(-60, -60, 100), new Vector(60, 0, 0),
+                        new Vector(0, 60, 0)) //
+                        .setGridSize(17).setkL(1E-3).setkQ(1E-5));
+
+        camera.setResolution(400, 400) //
+                .build() //
+                .renderImage() //
+                .writeToImage("shadowSoftAreaLight");
+    }
+
+    /**
+     * Test method for the adaptive shadow sampling of {@link lighting.AreaLight} - a fully lit point costs the
+     * corners of the grid only, and a penumbra is sampled more but below the whole grid
+     */
+    @Test
+    void testAreaLightSampling() {
+        List<RenderMetrics> finished = new LinkedList<>();
+        scene.geometries.add(new Plane(new Point(0, 0, -100), new Vector(0, 0, 1))
+                .setEmission(new Color(20, 20, 20)).setMaterial(new Material().setkD(0.8)));
+        scene.lights.add(new AreaLight(new Color(200, 200, 200), new Point(0, 0, 100), new Vector(60, 0, 0),
+                new Vector(0, 60, 0)).setGridSize(9));
+        camera.setResolution(40, 40).setMetricsListener(finished::add);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Nothing blocks the light - 4 shadow rays for every point
+        camera.build().renderImage();
+        RenderMetrics metrics = finished.getLast();
+        assertEquals(4 * metrics.getPrimaryHits(), metrics.getShadowRays(), "Lit points sample more than corners");
+
+        // TC02: A sphere casts a soft shadow - the penumbra is refined, but the grid is not sampled everywhere
+        scene.geometries.add(new Sphere(20d, new Point(0, 0, -50)));
+        ImageWriter image = camera.build().renderImage().getImageWriter();
+        metrics = finished.getLast();
+        assertTrue(metrics.getShadowRays() > 4 * metrics.getPrimaryHits(), "The penumbra is not refined");
+        assertTrue(metrics.getShadowRays() < 81 * metrics.getPrimaryHits() / 4, "The sampling is not adaptive");
+        // the floor pixels get the full light, no light (the sphere excluded) and partial light
+        int lit = image.getPixel(0, 0) & 0xFF;
+        boolean penumbra = false;
+        for (int i = 0; i < 40; ++i)
+            for (int j = 0; j < 40; ++j) {
+                int blue = image.getPixel(j, i) & 0xFF;
+                penumbra |= blue > 20 && blue < lit - 5;
+            }
+        assertTrue(penumbra, "The shadow has no penumbra");
+    }
+}
@@ -0,0 +1,104 @@
+package scene;
+
+import lighting.DirectionalLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing LightIndex
+ */
+class LightIndexTests {
+    /**
+     * get the lights of the index reaching a point
+     * @param  index the index
+     * @param  point the point
+     * @return       the reaching lights in the index order
+     */
+    private static List<LightSource> reaching(LightIndex index, Point point) {
+        return Arrays.stream(index.lightsAt(point)).filter(entry -> entry.reaches(point))
+                .map(entry -> entry.light).toList();
+    }
+
+    /**
+     * Test method for {@link scene.LightIndex#lightsAt(Point)}.
+     */
+    @Test
+    void testLightsAt() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Random lights - exactly the lights whose radius contains the point, in the list order
+        Random random = new Random(9172);
+        List<LightSource> lights = new ArrayList<>();
+        for (int k = 0; k < 200; ++k)
+            lights.add(new PointLight(new Color(random.nextDouble(50, 500), 100, 100),
+                    new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), random.nextDouble(-100, 100)))
+                    .setkQ(random.nextDouble(0.001, 0.1)));
+        DirectionalLight sun = new DirectionalLight(new Color(100, 100, 100), new Vector(0, -1, 0));
+        lights.add(57, sun);
+        LightIndex index = new LightIndex(lights, 1);
+        for (int k = 0; k < 500; ++k) {
+            Point point = new Point(random.nextDouble(-150, 150), random.nextDouble(-150, 150),
+                    random.nextDouble(-150, 150));
+            List<LightSource> expected = lights.stream()
+                    .filter(light -> light.getDistance(point) <= light.getInfluenceRadius(1)).toList();
+            assertEquals(expected, reaching(index, point), "Wrong lights at a point");
+        }
+        // TC02: Point far from all the lights - only the unbounded ones
+        assertEquals(List.of(sun), reaching(index, new Point(1e6, 0, 0)), "Wrong lights far away");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: No cutoff - all the lights everywhere
+        index = new LightIndex(lights, 0);
+        assertEquals(lights, reaching(index, new Point(1e6, 0, 0)), "Lights are culled without cutoff");
+        // TC12: Negligible light is dropped
+        PointLight dim = new PointLight(new Color(1, 1, 1), Point.ZERO).setkQ(1);
+        assertEquals(List.of(), reaching(new LightIndex(List.of(dim), 2), Point.ZERO), "Negligible light is kept");
+        // TC13: Point on the radius
+        PointLight light = new PointLight(new Color(100, 100, 100), Point.ZERO).setkQ(0.01);
+        assertEquals(List.of(light), reaching(new LightIndex(List.of(light), 1),
+                        new Point(0, light.getInfluenceRadius(1), 0)),
+                "Light is culled on its radius");
+    }
+
+    /**
+     * Test method for {@link scene.Scene#getLightIndex()}.
+     */
+    @Test
+    void testSceneLightIndex() {
+        Scene scene = new Scene("Test").setLightCutoff(1);
+        PointLight light = new PointLight(new Color(100, 100, 100), Point.ZERO).setkQ(0.01);
+        scene.lights.add(light);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The index is kept while the lights do not change
+        LightIndex index = scene.getLightIndex();
+        assertSame(index, scene.getLightIndex(), "Index is rebuilt for the same lights");
+        // TC02: Adding a light rebuilds the index
+        scene.lights.add(new PointLight(new Color(100, 100, 100), new Point(500, 0, 0)).setkQ(0.01));
+        assertEquals(1, reaching(scene.getLightIndex(), new Point(500, 0, 0)).size(), "Added light is not indexed");
+        // TC03: Changing the cutoff rebuilds the index
+        scene.setLightCutoff(0);
+        assertEquals(2, reaching(scene.getLightIndex(), new Point(500, 0, 0)).size(), "Cutoff change is ignored");
+        // TC04: Replacing a light in place rebuilds the index
+        scene.setLightCutoff(1);
+        scene.lights.set(1, new PointLight(new Color(100, 100, 100), new Point(-500, 0, 0)).setkQ(0.01));
+        assertEquals(0, reaching(scene.getLightIndex(), new Point(500, 0, 0)).size(), "Replaced light is indexed");
+        assertEquals(1, reaching(scene.getLightIndex(), new Point(-500, 0, 0)).size(), "New light is not indexed");
+        // TC05: Changing the attenuation of a light rebuilds the index
+        light.setkQ(0.0001);
+        assertEquals(1, reaching(scene.getLightIndex(), new Point(900, 0, 0)).size(), "Attenuation change is ignored");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Negative cutoff
+        assertThrows(IllegalArgumentException.class, () -> scene.setLightCutoff(-1), "Negative cutoff");
+    }
+}
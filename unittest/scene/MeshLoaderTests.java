@@ -0,0 +1,187 @@
+package scene;
+
+import geometries.BoundingBox;
+import geometries.TriangleMesh;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing MeshLoader
+ */
+class MeshLoaderTests {
+    /** the folder of the test files */
+    @TempDir
+    Path folder;
+
+    /** A ray through the first triangle of the unit square */
+    private final Ray firstRay = new Ray(new Point(0.7, 0.2, 1), new Vector(0, 0, -1));
+    /** A ray through the second triangle of the unit square */
+    private final Ray secondRay = new Ray(new Point(0.2, 0.7, 1), new Vector(0, 0, -1));
+
+    /**
+     * write a text file
+     * @param  name    the file name
+     * @param  content the file content
+     * @return         the file path
+     */
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(folder.resolve(name), content, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * write a binary PLY file of a unit square on the plane z=0 made of one quad face
+     * @param  name  the file name
+     * @param  order the byte order of the data
+     * @return       the file path
+     */
+    private Path writePly(String name, ByteOrder order) throws IOException {
+        String format = order == ByteOrder.LITTLE_ENDIAN ? "binary_little_endian" : "binary_big_endian";
+        String header = "ply\nformat " + format + " 1.0\ncomment test square\nelement vertex 4\n"
+                + "property float x\nproperty float y\nproperty float z\nproperty uchar red\nelement face 1\nproperty list uchar int vertex_indices\nend_header\n";
+        ByteBuffer data = ByteBuffer.allocate(4 * 13 + 1 + 4 * 4).order(order);
+        float[][] vertices = { { 0, 0, 0 }, { 1, 0, 0 }, { 1, 1, 0 }, { 0, 1, 0 } };
+        for (float[] vertex : vertices) {
+            data.putFloat(vertex[0]).putFloat(vertex[1]).putFloat(vertex[2]);
+            data.put((byte) 200);
+        }
+        data.put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+        byte[] headerBytes = header.getBytes(StandardCharsets.US_ASCII);
+        byte[] content = new byte[headerBytes.length + data.position()];
+        System.arraycopy(headerBytes, 0, content, 0, headerBytes.length);
+        System.arraycopy(data.array(), 0, content, headerBytes.length, data.position());
+        return Files.write(folder.resolve(name), content);
+    }
+
+    /**
+     * Test method for {@link scene.MeshLoader#load(Path)} of OBJ files.
+     */
+    @Test
+    void testLoadObj() throws IOException {
+        MeshLoader loader = new MeshLoader();
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Quad face with texture and normal indices, comments and other statements
+        TriangleMesh mesh = loader.load(write("square.obj", """
+                # unit square
+                mtllib square.mtl
+                o square
+                v 0 0 0
+                v 1.0 0 0\r
+                v  1e0 1.0 -0.0
+                v 0 1 0 1
+                vt 0 0
+                vn 0 0 1
+                usemtl white
+                f 1/1/1 2/1/1 3/1/1 4/1/1 # quad
+                """));
+        assertEquals(4, mesh.getVertexCount(), "Wrong amount of vertices");
+        assertEquals(2, mesh.getTriangleCount(), "Quad is not split into two triangles");
+        assertEquals(new Point(0.7, 0.2, 0), mesh.findClosestIntersection(firstRay).point,
+                "Wrong intersection of the first triangle");
+        assertEquals(new Point(0.2, 0.7, 0), mesh.findClosestIntersection(secondRay).point,
+                "Wrong intersection of the second triangle");
+        // TC02: Numbers that are not exact doubles
+        BoundingBox box = loader.load(write("precise.obj", """
+                v 0.1 0.2 -0.30000000000000004
+                v 1.25e1 0.2 -0.30000000000000004
+                v 0.1 2.5E+1 -0.30000000000000004
+                f 1 2 3
+                """)).getBoundingBox();
+        assertEquals(-0.30000000000000004, box.minZ, 0, "Wrong parsed number");
+        assertEquals(12.5, box.maxX, 0, "Wrong parsed number");
+        assertEquals(25, box.maxY, 0, "Wrong parsed number");
+        // TC03: Malformed face
+        assertThrows(IllegalArgumentException.class,
+                () -> loader.load(write("face.obj", "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 x 3\n")),
+                "Loaded a malformed face");
+        // TC04: Vertex index out of the vertices
+        assertThrows(IllegalArgumentException.class,
+                () -> loader.load(write("index.obj", "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 4\n")),
+                "Loaded a face with a wrong index");
+        // TC05: Missing file
+        assertThrows(IllegalStateException.class, () -> loader.load(folder.resolve("missing.obj")),
+                "Loaded a missing file");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Negative (relative) indices
+        mesh = loader.load(write("relative.obj", "v 0 0 0\nv 1 0 0\nv 1 1 0\nf -3 -2 -1\n"));
+        assertEquals(1, mesh.getTriangleCount(), "Wrong amount of triangles");
+        assertNotNull(mesh.findClosestIntersection(firstRay), "Wrong relative indices");
+        // TC12: Degenerate triangle is skipped
+        mesh = loader.load(write("degenerate.obj", "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 2 0 0\nf 1 2 3\nf 1 2 4\n"));
+        assertEquals(1, mesh.getTriangleCount(), "Degenerate triangle is loaded");
+        assertEquals(1, loader.getDegenerateCount(), "Degenerate triangle is not counted");
+        // TC13: Face of two vertices
+        assertThrows(IllegalArgumentException.class,
+                () -> loader.load(write("edge.obj", "v 0 0 0\nv 1 0 0\nf 1 2\n")), "Loaded a face of two vertices");
+        // TC14: Unsupported extension
+        assertThrows(IllegalArgumentException.class, () -> loader.load(write("square.stl", "solid")),
+                "Loaded an unsupported format");
+    }
+
+    /**
+     * Test method for {@link scene.MeshLoader#load(Path)} of PLY files.
+     */
+    @Test
+    void testLoadPly() throws IOException {
+        MeshLoader loader = new MeshLoader();
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Little endian with an extra vertex property
+        TriangleMesh mesh = loader.load(writePly("little.ply", ByteOrder.LITTLE_ENDIAN));
+        assertEquals(4, mesh.getVertexCount(), "Wrong amount of vertices");
+        assertEquals(2, mesh.getTriangleCount(), "Quad is not split into two triangles");
+        assertEquals(new Point(0.7, 0.2, 0), mesh.findClosestIntersection(firstRay).point,
+                "Wrong intersection of the first triangle");
+        // TC02: Big endian
+        mesh = loader.load(writePly("big.ply", ByteOrder.BIG_ENDIAN));
+        assertEquals(new Point(0.2, 0.7, 0), mesh.findClosestIntersection(secondRay).point,
+                "Wrong intersection of the second triangle");
+        // TC03: ASCII format is not supported
+        assertThrows(IllegalArgumentException.class, () -> loader.load(write("ascii.ply", """
+                ply
+                format ascii 1.0
+                element vertex 0
+                end_header
+                """)), "Loaded an ASCII PLY");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: File ends before its data
+        Path whole = writePly("whole.ply", ByteOrder.LITTLE_ENDIAN);
+        byte[] content = Files.readAllBytes(whole);
+        Path truncated = Files.write(folder.resolve("truncated.ply"),
+                Arrays.copyOf(content, content.length - 2));
+        assertThrows(IllegalArgumentException.class, () -> loader.load(truncated), "Loaded a truncated PLY");
+    }
+
+    /**
+     * Test method for {@link scene.MeshLoader#load(Path, Scene)}.
+     */
+    @Test
+    void testLoadIntoScene() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The mesh is added to the scene and the statistics are reported
+        MeshLoader loader = new MeshLoader();
+        Path path = writePly("scene.ply", ByteOrder.LITTLE_ENDIAN);
+        Scene scene = new Scene("Mesh scene");
+        TriangleMesh mesh = loader.load(path, scene);
+        assertSame(mesh, scene.geometries.findClosestIntersection(firstRay).geometry, "Mesh is not in the scene");
+        assertEquals(Files.size(path), loader.getBytes(), "Wrong amount of loaded bytes");
+        assertEquals(2, loader.getTriangleCount(), "Wrong amount of loaded triangles");
+        assertEquals(4, loader.getVertexCount(), "Wrong amount of loaded vertices");
+        assertTrue(loader.getLoadMillis() > 0, "Load time is not measured");
+        assertTrue(loader.getTrianglesPerSecond() > 0, "Load throughput is not measured");
+        assertTrue(loader.toString().startsWith("scene.ply: 2 triangles"), "Wrong load report");
+    }
+}